@@ -2,8 +2,11 @@ package fr.tannoxx.ubuplugin;
 
 import fr.tannoxx.ubuplugin.common.config.ConfigManager;
 import fr.tannoxx.ubuplugin.common.database.DatabaseManager;
+import fr.tannoxx.ubuplugin.common.geo.GeoDataService;
 import fr.tannoxx.ubuplugin.common.i18n.TranslationManager;
 import fr.tannoxx.ubuplugin.common.module.ModuleManager;
+import fr.tannoxx.ubuplugin.common.stats.StatsService;
+import fr.tannoxx.ubuplugin.common.towny.ClaimIndex;
 import fr.tannoxx.ubuplugin.commands.MainCommand;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.slf4j.Logger;
@@ -32,6 +35,11 @@ public final class UbuPlugin extends JavaPlugin {
     private TranslationManager translationManager;
     private ModuleManager moduleManager;
 
+    // Services partagés entre modules
+    private GeoDataService geoDataService;
+    private ClaimIndex claimIndex;
+    private StatsService statsService;
+
     // États
     private boolean fullyEnabled = false;
 
@@ -116,6 +124,20 @@ public final class UbuPlugin extends JavaPlugin {
                 moduleManager.disableAllModules();
             }
 
+            // Libérer les données partagées
+            if (geoDataService != null) {
+                geoDataService.shutdown();
+            }
+
+            if (claimIndex != null) {
+                claimIndex.unregister();
+            }
+
+            // Derniers deltas de statistiques avant la fermeture de la base
+            if (statsService != null) {
+                statsService.shutdown();
+            }
+
             // Fermer la base de données
             if (databaseManager != null) {
                 LOGGER.info("Fermeture de la base de données...");
@@ -214,6 +236,18 @@ public final class UbuPlugin extends JavaPlugin {
         try {
             LOGGER.info("Initialisation des modules...");
 
+            // Services partagés (chargés à la demande par les modules)
+            geoDataService = new GeoDataService(this, configManager);
+
+            statsService = new StatsService(this);
+            statsService.start(configManager.getInt("stats.flush-interval", 30));
+
+            if (getServer().getPluginManager().getPlugin("Towny") != null) {
+                claimIndex = new ClaimIndex(this);
+                claimIndex.register(configManager.getInt("towny.claim-index.rebuild-interval", 30));
+                LOGGER.info("✓ Index des claims Towny: {} chunks", claimIndex.size());
+            }
+
             moduleManager = new ModuleManager(this, configManager, databaseManager, translationManager);
             moduleManager.loadAllModules();
             moduleManager.enableAllModules();
@@ -306,4 +340,28 @@ public final class UbuPlugin extends JavaPlugin {
         return translationManager;
     }
 
+    /**
+     * Retourne le service partagé des frontières des pays
+     * @return GeoDataService
+     */
+    public GeoDataService getGeoDataService() {
+        return geoDataService;
+    }
+
+    /**
+     * Retourne l'index des chunks revendiqués par Towny
+     * @return ClaimIndex, ou null si Towny n'est pas installé
+     */
+    public ClaimIndex getClaimIndex() {
+        return claimIndex;
+    }
+
+    /**
+     * Retourne le service d'agrégation des statistiques
+     * @return StatsService
+     */
+    public StatsService getStatsService() {
+        return statsService;
+    }
+
 }
\ No newline at end of file
@@ -172,11 +172,96 @@ public class DatabaseManager {
                 );
                 """);
 
+            // Table de la réserve d'emplacements /tpr
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS tpr_locations (
+                    world TEXT NOT NULL,
+                    x INTEGER NOT NULL,
+                    y INTEGER NOT NULL,
+                    z INTEGER NOT NULL,
+                    created_at INTEGER NOT NULL,
+                    PRIMARY KEY (world, x, z)
+                );
+                """);
+
+            // Table des temps de jeu (classement /uptime)
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS playtime (
+                    uuid TEXT PRIMARY KEY,
+                    name TEXT NOT NULL,
+                    playtime_ms INTEGER NOT NULL,
+                    updated_at INTEGER NOT NULL
+                );
+                """);
+
+            // Table des textures de têtes (GUIs)
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS skull_profiles (
+                    uuid TEXT PRIMARY KEY,
+                    texture_value TEXT NOT NULL,
+                    texture_signature TEXT,
+                    fetched_at INTEGER NOT NULL
+                );
+                """);
+
+            // Tables de cumul des statistiques (par jour et totaux)
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS stats_daily (
+                    uuid TEXT NOT NULL,
+                    stat TEXT NOT NULL,
+                    day INTEGER NOT NULL,
+                    value INTEGER NOT NULL,
+                    PRIMARY KEY (uuid, stat, day)
+                );
+                """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS stats_totals (
+                    uuid TEXT NOT NULL,
+                    stat TEXT NOT NULL,
+                    value INTEGER NOT NULL,
+                    PRIMARY KEY (uuid, stat)
+                );
+                """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS sessions (
+                    uuid TEXT NOT NULL,
+                    started_at INTEGER NOT NULL,
+                    ended_at INTEGER NOT NULL,
+                    closed BOOLEAN DEFAULT FALSE,
+                    PRIMARY KEY (uuid, started_at)
+                );
+                """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS playtime_daily (
+                    uuid TEXT NOT NULL,
+                    day INTEGER NOT NULL,
+                    playtime_ms INTEGER NOT NULL,
+                    PRIMARY KEY (uuid, day)
+                );
+                """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS playtime_weekly (
+                    uuid TEXT NOT NULL,
+                    week INTEGER NOT NULL,
+                    playtime_ms INTEGER NOT NULL,
+                    PRIMARY KEY (uuid, week)
+                );
+                """);
+
             // Créer les index pour optimisation
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_players_username ON players(username);");
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_players_rank ON players(rank);");
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_enchant_cooldowns_expires ON enchant_cooldowns(expires_at);");
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_country_cache_timestamp ON country_cache(timestamp);");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_stats_daily_stat_day ON stats_daily(stat, day);");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_stats_totals_stat_value ON stats_totals(stat, value);");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_sessions_closed ON sessions(closed);");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_playtime_daily_day ON playtime_daily(day, playtime_ms);");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_playtime_weekly_week ON playtime_weekly(week, playtime_ms);");
 
             LOGGER.info("Tables de base de données créées/vérifiées");
 
@@ -0,0 +1,212 @@
+package fr.tannoxx.ubuplugin.common.geo;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache binaire des frontières, écrit une fois après le téléchargement
+ * <p>
+ * Au démarrage le fichier est simplement mappé en mémoire: les BorderData
+ * sont des vues sur le mapping, sans aucun parsing ni copie des points.
+ * <p>
+ * Format (big-endian):
+ * MAGIC, VERSION, projection (x, z), nombre de pays, de bagues, de polygones, de points,
+ * noms (longueur + UTF-8), premier polygone de chaque pays (n + 1),
+ * premier point de chaque bague (n + 1), première bague de chaque polygone (n + 1),
+ * puis les points projetés (x, z)
+ */
+final class BorderCacheFile {
+
+    private static final int MAGIC = 0x55424244; // "UBBD"
+    // 2: noms complets (NAME_EN) au lieu des noms abrégés
+    private static final int VERSION = 2;
+
+    private BorderCacheFile() {
+    }
+
+    /**
+     * Mappe un cache existant
+     * @return Frontières (vues sur le fichier), ou null si absent, obsolète ou invalide
+     */
+    @Nullable
+    static List<BorderData> load(@NotNull File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+
+            if (buffer.remaining() < 40 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+
+            // Projection différente: les points ne sont plus valides
+            if (buffer.getDouble() != BorderData.LONGITUDE_TO_X || buffer.getDouble() != BorderData.LATITUDE_TO_Z) {
+                return null;
+            }
+
+            int countryCount = buffer.getInt();
+            int ringCount = buffer.getInt();
+            int polygonCount = buffer.getInt();
+            int pointCount = buffer.getInt();
+
+            String[] names = new String[countryCount];
+            for (int i = 0; i < countryCount; i++) {
+                byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(bytes);
+                names[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int[] countryPolygons = readInts(buffer, countryCount + 1);
+            int[] ringPoints = readInts(buffer, ringCount + 1);
+            int[] polygonRings = readInts(buffer, polygonCount + 1);
+
+            if (buffer.remaining() != (long) pointCount * 8) {
+                return null;
+            }
+
+            // Le mapping reste valide après fermeture du channel
+            IntBuffer points = buffer.slice().order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+
+            List<BorderData> borders = new ArrayList<>(countryCount);
+            for (int c = 0; c < countryCount; c++) {
+                borders.add(view(names[c], points, countryPolygons[c], countryPolygons[c + 1],
+                        ringPoints, polygonRings));
+            }
+            return borders;
+        }
+    }
+
+    /**
+     * Construit la vue d'un pays: offsets rebasés, points partagés avec le mapping
+     */
+    @NotNull
+    private static BorderData view(@NotNull String name, @NotNull IntBuffer points,
+                                   int firstPolygon, int endPolygon,
+                                   int[] ringPoints, int[] polygonRings) {
+        int firstRing = polygonRings[firstPolygon];
+        int endRing = polygonRings[endPolygon];
+        int firstPoint = ringPoints[firstRing];
+        int endPoint = ringPoints[endRing];
+
+        int[] ringOffsets = new int[endRing - firstRing + 1];
+        for (int r = 0; r < ringOffsets.length; r++) {
+            ringOffsets[r] = ringPoints[firstRing + r] - firstPoint;
+        }
+
+        int[] polygonOffsets = new int[endPolygon - firstPolygon + 1];
+        for (int p = 0; p < polygonOffsets.length; p++) {
+            polygonOffsets[p] = polygonRings[firstPolygon + p] - firstRing;
+        }
+
+        IntBuffer slice = points.slice(firstPoint * 2, (endPoint - firstPoint) * 2);
+        return new BorderData(name, slice, ringOffsets, polygonOffsets);
+    }
+
+    /**
+     * Écrit le cache (fichier temporaire puis renommage atomique)
+     */
+    static void write(@NotNull File file, @NotNull List<BorderData> borders) throws IOException {
+        int ringCount = 0;
+        int polygonCount = 0;
+        int pointCount = 0;
+        int namesSize = 0;
+
+        for (BorderData border : borders) {
+            ringCount += border.ringCount();
+            polygonCount += border.polygonCount();
+            pointCount += border.pointCount();
+            namesSize += 2 + border.countryName().getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        int headerSize = 4 + 4 + 8 + 8 + 4 * 4 + namesSize
+                + 4 * (borders.size() + 1) + 4 * (ringCount + 1) + 4 * (polygonCount + 1);
+        ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.BIG_ENDIAN);
+
+        header.putInt(MAGIC).putInt(VERSION)
+                .putDouble(BorderData.LONGITUDE_TO_X).putDouble(BorderData.LATITUDE_TO_Z)
+                .putInt(borders.size()).putInt(ringCount).putInt(polygonCount).putInt(pointCount);
+
+        for (BorderData border : borders) {
+            byte[] bytes = border.countryName().getBytes(StandardCharsets.UTF_8);
+            header.putShort((short) bytes.length).put(bytes);
+        }
+
+        // Offsets globaux
+        int polygonBase = 0;
+        for (BorderData border : borders) {
+            header.putInt(polygonBase);
+            polygonBase += border.polygonCount();
+        }
+        header.putInt(polygonBase);
+
+        int pointBase = 0;
+        for (BorderData border : borders) {
+            for (int r = 0; r < border.ringCount(); r++) {
+                header.putInt(pointBase + border.ringStart(r));
+            }
+            pointBase += border.pointCount();
+        }
+        header.putInt(pointBase);
+
+        int ringBase = 0;
+        for (BorderData border : borders) {
+            for (int p = 0; p < border.polygonCount(); p++) {
+                header.putInt(ringBase + border.polygonOffsets()[p]);
+            }
+            ringBase += border.ringCount();
+        }
+        header.putInt(ringBase);
+        header.flip();
+
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+
+            // Points, pays par pays
+            for (BorderData border : borders) {
+                IntBuffer points = border.points().duplicate();
+                points.rewind();
+
+                ByteBuffer chunk = ByteBuffer.allocate(points.remaining() * 4).order(ByteOrder.BIG_ENDIAN);
+                chunk.asIntBuffer().put(points);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+            }
+
+            channel.force(true);
+        }
+
+        Files.move(temp.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int[] readInts(@NotNull ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * 4);
+        return values;
+    }
+}
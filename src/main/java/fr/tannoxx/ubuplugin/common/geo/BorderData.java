@@ -0,0 +1,89 @@
+package fr.tannoxx.ubuplugin.common.geo;
+
+import org.jetbrains.annotations.NotNull;
+import org.jspecify.annotations.NonNull;
+
+import java.nio.IntBuffer;
+
+/**
+ * Représente les frontières d'un pays
+ * <p>
+ * Les points sont déjà projetés en coordonnées Minecraft (x, z entiers) et
+ * concaténés dans un seul buffer, découpé par des tableaux d'offsets.
+ * Le buffer est en général une vue sur le cache binaire mappé en mémoire.
+ * Dans chaque polygone, la première bague est l'extérieur, les suivantes des trous.
+ *
+ * @param countryName Nom du pays
+ * @param points Points concaténés (x, z, x, z...)
+ * @param ringOffsets Bague r = points [ringOffsets[r], ringOffsets[r + 1])
+ * @param polygonOffsets Polygone p = bagues [polygonOffsets[p], polygonOffsets[p + 1])
+ */
+public record BorderData(
+        @NotNull String countryName,
+        @NotNull IntBuffer points,
+        int @NotNull [] ringOffsets,
+        int @NotNull [] polygonOffsets
+) {
+
+    // Projection GPS → Minecraft utilisée pour le cache des frontières
+    public static final double LATITUDE_TO_Z = -136.53333;
+    public static final double LONGITUDE_TO_X = 136.53333;
+
+    public int pointCount() {
+        return points.limit() / 2;
+    }
+
+    public int ringCount() {
+        return ringOffsets.length - 1;
+    }
+
+    public int polygonCount() {
+        return polygonOffsets.length - 1;
+    }
+
+    public int ringStart(int ring) {
+        return ringOffsets[ring];
+    }
+
+    public int ringEnd(int ring) {
+        return ringOffsets[ring + 1];
+    }
+
+    public int ringSize(int ring) {
+        return ringOffsets[ring + 1] - ringOffsets[ring];
+    }
+
+    public int x(int point) {
+        return points.get(point * 2);
+    }
+
+    public int z(int point) {
+        return points.get(point * 2 + 1);
+    }
+
+    public double latitude(int point) {
+        return z(point) / LATITUDE_TO_Z;
+    }
+
+    public double longitude(int point) {
+        return x(point) / LONGITUDE_TO_X;
+    }
+
+    /**
+     * Vue en lecture seule (les vues du cache mappé le sont déjà)
+     */
+    @NotNull
+    public BorderData readOnly() {
+        return points.isReadOnly() ? this : new BorderData(countryName, points.asReadOnlyBuffer(), ringOffsets, polygonOffsets);
+    }
+
+    /**
+     * Représente un point de frontière converti en coordonnées Minecraft
+     */
+    public record MinecraftPoint(int x, int z) {
+        @Override
+        public @NonNull String toString() {
+            return String.format("(%d, %d)", x, z);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package fr.tannoxx.ubuplugin.common.geo;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Téléchargement du GeoJSON Natural Earth
+ * <p>
+ * - revalidation conditionnelle (ETag / If-Modified-Since): 304 = rien à faire
+ * - compression gzip acceptée
+ * - écriture dans un fichier .part, reprise via Range après une interruption
+ * - fichier final remplacé par renommage atomique
+ * - fichier local pré-déposé pour les serveurs hors-ligne (aucun accès réseau)
+ * <p>
+ * Les validateurs sont conservés à côté du fichier (.meta).
+ */
+final class BordersDownloader {
+
+    enum Result { UPDATED, NOT_MODIFIED, FAILED }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BordersDownloader.class);
+
+    private static final String USER_AGENT = "UbuPlugin/2.0 (Minecraft Server)";
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    /**
+     * Met à jour la destination depuis la source configurée
+     * @param conditional Revalider un fichier existant au lieu de tout re-télécharger
+     */
+    @NotNull
+    Result fetch(@NotNull File destination, @NotNull String url, @Nullable File localFile, boolean conditional) {
+        if (localFile != null) {
+            return importLocal(destination, localFile, conditional);
+        }
+        return download(destination, url, conditional);
+    }
+
+    /**
+     * Copie un fichier local pré-déposé (serveurs sans accès Internet)
+     */
+    @NotNull
+    private Result importLocal(@NotNull File destination, @NotNull File localFile, boolean conditional) {
+        if (!localFile.isFile()) {
+            LOGGER.error("Fichier local des frontières introuvable: {}", localFile.getPath());
+            return Result.FAILED;
+        }
+
+        Properties meta = loadMeta(destination);
+        String stamp = localFile.length() + ":" + localFile.lastModified();
+
+        if (conditional && destination.exists() && stamp.equals(meta.getProperty("local"))) {
+            return Result.NOT_MODIFIED;
+        }
+
+        File temp = new File(destination.getParentFile(), destination.getName() + ".tmp");
+        try {
+            if (localFile.getName().endsWith(".gz")) {
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(localFile.toPath()))) {
+                    Files.copy(in, temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else {
+                Files.copy(localFile.toPath(), temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.move(temp.toPath(), destination.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.error("Erreur import du fichier local des frontières", e);
+            temp.delete();
+            return Result.FAILED;
+        }
+
+        meta.clear();
+        meta.setProperty("local", stamp);
+        saveMeta(destination, meta);
+
+        LOGGER.info("✓ Données importées depuis {} ({} KB)", localFile.getName(), destination.length() / 1024);
+        return Result.UPDATED;
+    }
+
+    /**
+     * Téléchargement HTTP conditionnel et reprenable
+     */
+    @NotNull
+    private Result download(@NotNull File destination, @NotNull String url, boolean conditional) {
+        Properties meta = loadMeta(destination);
+        File part = new File(destination.getParentFile(), destination.getName() + ".part");
+
+        // Reprise possible seulement si on sait à quelle version appartient le .part
+        String partValidator = meta.getProperty("part.etag", meta.getProperty("part.last-modified"));
+        long resumeFrom = part.exists() && partValidator != null ? part.length() : 0;
+        if (resumeFrom == 0) {
+            part.delete();
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(TIMEOUT)
+                .header("User-Agent", USER_AGENT)
+                .header("Accept-Encoding", "gzip")
+                .GET();
+
+        if (conditional && destination.exists()) {
+            String etag = meta.getProperty("etag");
+            String lastModified = meta.getProperty("last-modified");
+            if (etag != null) request.header("If-None-Match", etag);
+            if (lastModified != null) request.header("If-Modified-Since", lastModified);
+        }
+
+        if (resumeFrom > 0) {
+            request.header("Range", "bytes=" + resumeFrom + "-");
+            request.header("If-Range", partValidator);
+        }
+
+        // Client fermé après usage (téléchargement rare): libère son thread de sélection
+        try (HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build()) {
+            HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+            int status = response.statusCode();
+
+            if (status == 304) {
+                response.body().close();
+                LOGGER.info("✓ Données Natural Earth inchangées (304)");
+                return Result.NOT_MODIFIED;
+            }
+
+            boolean append = status == 206 && response.headers().firstValue("Content-Range")
+                    .map(range -> range.startsWith("bytes " + resumeFrom + "-"))
+                    .orElse(false);
+
+            if (status != 200 && !append) {
+                response.body().close();
+                if (status == 206 || status == 416) {
+                    // Plage refusée ou incohérente: repartir de zéro au prochain essai
+                    part.delete();
+                    clearPart(meta);
+                    saveMeta(destination, meta);
+                }
+                LOGGER.error("Erreur HTTP: {}", status);
+                return Result.FAILED;
+            }
+
+            if (append) {
+                LOGGER.info("Reprise du téléchargement à {} KB", resumeFrom / 1024);
+            } else {
+                // Nouvelle version: mémoriser ses validateurs avant d'écrire le .part
+                clearPart(meta);
+                response.headers().firstValue("ETag").ifPresent(v -> meta.setProperty("part.etag", v));
+                response.headers().firstValue("Last-Modified").ifPresent(v -> meta.setProperty("part.last-modified", v));
+                response.headers().firstValue("Content-Encoding").ifPresent(v -> meta.setProperty("part.encoding", v));
+                saveMeta(destination, meta);
+            }
+
+            // Interruption: le .part est conservé pour la reprise
+            try (InputStream in = response.body();
+                 OutputStream out = new FileOutputStream(part, append)) {
+                in.transferTo(out);
+            }
+
+            finish(part, destination, "gzip".equalsIgnoreCase(meta.getProperty("part.encoding")));
+
+            setOrRemove(meta, "etag", meta.getProperty("part.etag"));
+            setOrRemove(meta, "last-modified", meta.getProperty("part.last-modified"));
+            meta.remove("local");
+            clearPart(meta);
+            saveMeta(destination, meta);
+
+            LOGGER.info("✓ Données téléchargées ({} KB)", destination.length() / 1024);
+            return Result.UPDATED;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.FAILED;
+        } catch (Exception e) {
+            LOGGER.error("Erreur téléchargement GeoJSON (reprise au prochain essai)", e);
+            return Result.FAILED;
+        }
+    }
+
+    /**
+     * Décompresse si besoin, puis remplace la destination par renommage atomique
+     */
+    private void finish(@NotNull File part, @NotNull File destination, boolean gzip) throws IOException {
+        File temp = new File(destination.getParentFile(), destination.getName() + ".tmp");
+
+        if (gzip) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(part.toPath()))) {
+                Files.copy(in, temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.delete(part.toPath());
+        } else {
+            Files.move(part.toPath(), temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        Files.move(temp.toPath(), destination.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void clearPart(@NotNull Properties meta) {
+        meta.remove("part.etag");
+        meta.remove("part.last-modified");
+        meta.remove("part.encoding");
+    }
+
+    private static void setOrRemove(@NotNull Properties meta, @NotNull String key, @Nullable String value) {
+        if (value != null) {
+            meta.setProperty(key, value);
+        } else {
+            meta.remove(key);
+        }
+    }
+
+    @NotNull
+    private Properties loadMeta(@NotNull File destination) {
+        Properties meta = new Properties();
+        File file = new File(destination.getParentFile(), destination.getName() + ".meta");
+        if (file.exists()) {
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                meta.load(reader);
+            } catch (IOException e) {
+                LOGGER.debug("Métadonnées de téléchargement illisibles: {}", e.getMessage());
+            }
+        }
+        return meta;
+    }
+
+    private void saveMeta(@NotNull File destination, @NotNull Properties meta) {
+        File file = new File(destination.getParentFile(), destination.getName() + ".meta");
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            meta.store(writer, null);
+        } catch (IOException e) {
+            LOGGER.debug("Impossible d'écrire les métadonnées de téléchargement: {}", e.getMessage());
+        }
+    }
+}
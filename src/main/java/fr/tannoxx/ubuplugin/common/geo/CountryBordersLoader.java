@@ -0,0 +1,209 @@
+package fr.tannoxx.ubuplugin.common.geo;
+
+import fr.tannoxx.ubuplugin.UbuPlugin;
+import fr.tannoxx.ubuplugin.common.config.ConfigManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Charge les données des frontières des pays depuis Natural Earth Data
+ * Thread-safe avec téléchargement automatique
+ * <p>
+ * Utilisé uniquement par {@link GeoDataService}, qui partage les données entre modules
+ * <p>
+ * Le GeoJSON n'est parsé qu'une fois après téléchargement: les démarrages suivants
+ * mappent directement le cache binaire (points déjà projetés).
+ * <p>
+ * /webmap update revalide le fichier (ETag / If-Modified-Since) au lieu de tout
+ * re-télécharger: si rien n'a changé, rien n'est reparsé ni reconstruit.
+ */
+class CountryBordersLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CountryBordersLoader.class);
+
+    // Un seul chargement / téléchargement du fichier à la fois
+    private static final Object FILE_LOCK = new Object();
+
+    private final UbuPlugin plugin;
+    private final ConfigManager configManager;
+    private final BordersDownloader downloader;
+
+    // URL des données Natural Earth (10m = haute résolution)
+    private static final String GEOJSON_URL =
+            "https://raw.githubusercontent.com/nvkelso/natural-earth-vector/master/geojson/ne_10m_admin_0_countries.geojson";
+
+    private static final String GEOJSON_FILE = "countries_borders.json";
+    private static final String BINARY_FILE = "countries_borders.bin";
+
+    CountryBordersLoader(@NotNull UbuPlugin plugin, @NotNull ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.downloader = new BordersDownloader();
+    }
+
+    /**
+     * Charge les frontières de tous les pays
+     */
+    @NotNull
+    List<BorderData> loadBorders() {
+        LOGGER.info("Chargement des frontières des pays...");
+
+        File binaryFile = getCacheFile();
+        File geoJsonFile = new File(plugin.getDataFolder(), GEOJSON_FILE);
+
+        synchronized (FILE_LOCK) {
+            // Cache binaire déjà construit: simple mapping du fichier
+            List<BorderData> cached = loadBinary(binaryFile);
+            if (cached != null) {
+                return cached;
+            }
+
+            // Télécharger si pas en cache
+            if (!geoJsonFile.exists()) {
+                LOGGER.info("Téléchargement des données depuis Natural Earth...");
+                if (fetch(geoJsonFile, false) != BordersDownloader.Result.UPDATED) {
+                    LOGGER.error("Échec du téléchargement des données");
+                    return List.of();
+                }
+            }
+
+            return buildBinary(geoJsonFile, binaryFile);
+        }
+    }
+
+    /**
+     * Revalide les données auprès de la source (/webmap update)
+     * @return Nouvelles frontières, ou null si elles n'ont pas changé (ou en cas d'échec)
+     */
+    @Nullable
+    List<BorderData> refreshBorders() {
+        File binaryFile = getCacheFile();
+        File geoJsonFile = new File(plugin.getDataFolder(), GEOJSON_FILE);
+
+        synchronized (FILE_LOCK) {
+            BordersDownloader.Result result = fetch(geoJsonFile, true);
+
+            if (result == BordersDownloader.Result.FAILED) {
+                LOGGER.error("Échec de la mise à jour des données, conservation des données actuelles");
+                return null;
+            }
+
+            if (result == BordersDownloader.Result.NOT_MODIFIED && binaryFile.exists()) {
+                return null;
+            }
+
+            return buildBinary(geoJsonFile, binaryFile);
+        }
+    }
+
+    /**
+     * Source configurée: fichier local pré-déposé, sinon URL
+     */
+    @NotNull
+    private BordersDownloader.Result fetch(@NotNull File geoJsonFile, boolean conditional) {
+        String url = configManager.getString("webmap.data.url", GEOJSON_URL);
+        String localPath = configManager.getString("webmap.data.local-file", "");
+
+        File localFile = null;
+        if (localPath != null && !localPath.isBlank()) {
+            localFile = new File(localPath);
+            if (!localFile.isAbsolute()) {
+                localFile = new File(plugin.getDataFolder(), localPath);
+            }
+        }
+
+        return downloader.fetch(geoJsonFile, url == null || url.isBlank() ? GEOJSON_URL : url,
+                localFile, conditional);
+    }
+
+    /**
+     * Parse le GeoJSON une seule fois, puis écrit et mappe le cache binaire
+     * (appelé sous FILE_LOCK)
+     */
+    @NotNull
+    private List<BorderData> buildBinary(@NotNull File geoJsonFile, @NotNull File binaryFile) {
+        List<BorderData> borders = parseGeoJSON(geoJsonFile);
+        if (borders.isEmpty()) {
+            return borders;
+        }
+
+        try {
+            BorderCacheFile.write(binaryFile, borders);
+            LOGGER.info("✓ Cache binaire écrit ({} KB)", binaryFile.length() / 1024);
+
+            List<BorderData> mapped = BorderCacheFile.load(binaryFile);
+            if (mapped != null) {
+                return mapped;
+            }
+        } catch (IOException e) {
+            LOGGER.error("Impossible d'écrire le cache binaire des frontières", e);
+        }
+
+        return borders;
+    }
+
+    /**
+     * Mappe le cache binaire s'il est présent et valide
+     */
+    @Nullable
+    private List<BorderData> loadBinary(@NotNull File binaryFile) {
+        long start = System.currentTimeMillis();
+
+        try {
+            List<BorderData> borders = BorderCacheFile.load(binaryFile);
+            if (borders != null) {
+                LOGGER.info("✓ {} pays chargés depuis le cache binaire ({}ms)",
+                        borders.size(), System.currentTimeMillis() - start);
+            } else if (binaryFile.exists()) {
+                LOGGER.warn("Cache binaire des frontières obsolète, reconstruction depuis le GeoJSON");
+            }
+            return borders;
+        } catch (IOException e) {
+            LOGGER.warn("Cache binaire des frontières illisible: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Parse le fichier GeoJSON en streaming (sans arbre JSON en mémoire)
+     */
+    @NotNull
+    private List<BorderData> parseGeoJSON(@NotNull File file) {
+        long start = System.currentTimeMillis();
+
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            List<BorderData> borders = new GeoJsonBordersParser().parse(reader);
+
+            long points = 0;
+            for (BorderData border : borders) {
+                points += border.pointCount();
+            }
+
+            LOGGER.info("✓ {} pays parsés avec succès ({} points, {}ms)",
+                    borders.size(), points, System.currentTimeMillis() - start);
+            return borders;
+
+        } catch (Exception e) {
+            LOGGER.error("Erreur parsing GeoJSON", e);
+            return List.of();
+        }
+    }
+
+    /**
+     * Cache binaire des frontières (peut ne pas exister encore)
+     * Sa date change uniquement quand les données sont re-téléchargées
+     */
+    @NotNull
+    File getCacheFile() {
+        return new File(plugin.getDataFolder(), BINARY_FILE);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package fr.tannoxx.ubuplugin.common.geo;
+
+import fr.tannoxx.ubuplugin.UbuPlugin;
+import fr.tannoxx.ubuplugin.common.config.ConfigManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Service partagé des frontières des pays (WebMap, EarthTools...)
+ * Thread-safe
+ * <p>
+ * - chargement paresseux: les données ne sont chargées qu'au premier {@link #acquire}
+ * - une seule copie par processus, partagée par tous les modules
+ * - libérées quand le dernier consommateur appelle {@link #release}
+ * - {@link #refresh} revalide la source et publie un nouveau {@link GeoSnapshot}
+ *   aux abonnés si les données ont changé
+ *
+ * @author Tannoxx
+ * @version 2.0.0
+ */
+public class GeoDataService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GeoDataService.class);
+
+    private final CountryBordersLoader loader;
+    private final Executor executor;
+
+    // Consommateurs actifs et données chargées (verrou: this)
+    private final Set<String> consumers = new HashSet<>();
+    private CompletableFuture<GeoSnapshot> snapshot;
+    private int version;
+
+    // Abonnés aux nouvelles données
+    private final List<Consumer<GeoSnapshot>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructeur
+     * @param plugin Instance du plugin
+     * @param configManager Gestionnaire de configuration
+     */
+    public GeoDataService(@NotNull UbuPlugin plugin, @NotNull ConfigManager configManager) {
+        this.loader = new CountryBordersLoader(plugin, configManager);
+        this.executor = task -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
+    }
+
+    /**
+     * Source et exécuteur fournis (tests hors serveur)
+     */
+    GeoDataService(@NotNull CountryBordersLoader loader, @NotNull Executor executor) {
+        this.loader = loader;
+        this.executor = executor;
+    }
+
+    /**
+     * Déclare un consommateur et retourne les frontières (chargées au premier appel)
+     * Un même consommateur n'est compté qu'une fois: un rechargement peut rappeler acquire
+     * @param consumer Nom du consommateur (en général le nom du module)
+     */
+    @NotNull
+    public synchronized CompletableFuture<GeoSnapshot> acquire(@NotNull String consumer) {
+        consumers.add(consumer);
+
+        // Pas encore chargé, ou chargement précédent en échec: (re)charger
+        if (snapshot == null || snapshot.isCompletedExceptionally()
+                || (snapshot.isDone() && snapshot.join().isEmpty())) {
+            snapshot = CompletableFuture.supplyAsync(() -> new GeoSnapshot(loader.loadBorders(), nextVersion()),
+                    executor);
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Retire un consommateur; les données sont libérées quand plus personne ne les utilise
+     */
+    public synchronized void release(@NotNull String consumer) {
+        if (consumers.remove(consumer) && consumers.isEmpty() && snapshot != null) {
+            snapshot = null;
+            LOGGER.info("Frontières des pays libérées (plus aucun module ne les utilise)");
+        }
+    }
+
+    /**
+     * Revalide les données auprès de la source (ETag / If-Modified-Since)
+     * @return Nouveau snapshot, ou null si les données n'ont pas changé (ou en cas d'échec)
+     */
+    @NotNull
+    public CompletableFuture<@Nullable GeoSnapshot> refresh() {
+        return CompletableFuture.supplyAsync(() -> {
+            List<BorderData> borders = loader.refreshBorders();
+            if (borders == null || borders.isEmpty()) {
+                return null;
+            }
+
+            GeoSnapshot fresh = new GeoSnapshot(borders, nextVersion());
+            synchronized (this) {
+                if (!consumers.isEmpty()) {
+                    snapshot = CompletableFuture.completedFuture(fresh);
+                }
+            }
+
+            LOGGER.info("✓ Nouvelles frontières publiées (version {})", fresh.version());
+            for (Consumer<GeoSnapshot> listener : listeners) {
+                try {
+                    listener.accept(fresh);
+                } catch (Exception e) {
+                    LOGGER.error("Erreur dans un abonné aux frontières", e);
+                }
+            }
+            return fresh;
+        }, executor);
+    }
+
+    /**
+     * Abonne un consommateur aux nouvelles données (appelé hors du thread principal)
+     */
+    public void addListener(@NotNull Consumer<GeoSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(@NotNull Consumer<GeoSnapshot> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Cache binaire des frontières (peut ne pas exister encore)
+     * Sa date change uniquement quand les données changent: sert d'empreinte aux index dérivés
+     */
+    @NotNull
+    public File getCacheFile() {
+        return loader.getCacheFile();
+    }
+
+    public synchronized boolean isLoaded() {
+        return snapshot != null && snapshot.isDone() && !snapshot.isCompletedExceptionally();
+    }
+
+    /**
+     * Libère tout (arrêt du plugin)
+     */
+    public synchronized void shutdown() {
+        consumers.clear();
+        listeners.clear();
+        snapshot = null;
+    }
+
+    private synchronized int nextVersion() {
+        return ++version;
+    }
+}
@@ -0,0 +1,244 @@
+package fr.tannoxx.ubuplugin.common.geo;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parser GeoJSON en streaming pour les frontières Natural Earth
+ * <p>
+ * Lit le fichier avec un JsonReader sans jamais construire l'arbre JSON:
+ * seuls le nom du pays et la géométrie (Polygon / MultiPolygon) sont extraits,
+ * et les points sont projetés en coordonnées Minecraft directement dans des
+ * tableaux primitifs réutilisés.
+ */
+final class GeoJsonBordersParser {
+
+    // Tampons réutilisés d'un pays à l'autre
+    private int[] points = new int[1 << 16];
+    private int[] ringOffsets = new int[256];
+    private int[] polygonOffsets = new int[64];
+
+    private int pointCount;
+    private int ringCount;
+    private int polygonCount;
+
+    /**
+     * Parse un FeatureCollection complet
+     */
+    @NotNull
+    List<BorderData> parse(@NotNull Reader input) throws IOException {
+        List<BorderData> borders = new ArrayList<>();
+
+        try (JsonReader reader = new JsonReader(input)) {
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals("features")) {
+                    reader.skipValue();
+                    continue;
+                }
+
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    BorderData border = readFeature(reader);
+                    if (border != null) {
+                        borders.add(border);
+                    }
+                }
+                reader.endArray();
+            }
+
+            reader.endObject();
+        }
+
+        return borders;
+    }
+
+    /**
+     * Lit un Feature (l'ordre properties / geometry est libre)
+     * @return Frontières du pays, ou null si pas de nom ou pas de polygone
+     */
+    private BorderData readFeature(@NotNull JsonReader reader) throws IOException {
+        String name = null;
+        boolean polygonal = false;
+        resetBuffers();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "properties" -> name = readName(reader);
+                case "geometry" -> polygonal = readGeometry(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (name == null || !polygonal || ringCount == 0) {
+            return null;
+        }
+
+        return new BorderData(name,
+                IntBuffer.wrap(Arrays.copyOf(points, pointCount * 2)),
+                Arrays.copyOf(ringOffsets, ringCount + 1),
+                Arrays.copyOf(polygonOffsets, polygonCount + 1));
+    }
+
+    /**
+     * Nom affiché: NAME_EN (nom complet, comme les API de géocodage), sinon NAME_LONG,
+     * NAME en dernier recours (abrégé: "Dem. Rep. Congo", "W. Sahara"...)
+     */
+    private String readName(@NotNull JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        String english = null;
+        String longName = null;
+        String shortName = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            if (reader.peek() != JsonToken.STRING) {
+                reader.skipValue();
+                continue;
+            }
+
+            switch (key) {
+                case "NAME_EN" -> english = blankToNull(reader.nextString());
+                case "NAME_LONG" -> longName = blankToNull(reader.nextString());
+                case "NAME" -> shortName = blankToNull(reader.nextString());
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return english != null ? english : longName != null ? longName : shortName;
+    }
+
+    private static String blankToNull(@NotNull String value) {
+        return value.isBlank() ? null : value;
+    }
+
+    /**
+     * Lit la géométrie; le type peut arriver avant ou après les coordonnées
+     * @return true si la géométrie est un Polygon ou un MultiPolygon
+     */
+    private boolean readGeometry(@NotNull JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return false;
+        }
+
+        String type = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "type" -> type = reader.nextString();
+                case "coordinates" -> {
+                    // Un Polygon est un seul polygone: le fermer ici
+                    if (readNested(reader) == 2) {
+                        endPolygon();
+                    }
+                }
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        boolean polygonal = "Polygon".equals(type) || "MultiPolygon".equals(type);
+        if (!polygonal) {
+            resetBuffers();
+        }
+        return polygonal;
+    }
+
+    /**
+     * Lit un tableau de coordonnées imbriqué, quel que soit son niveau
+     * @return 0 = point, 1 = bague, 2 = polygone, 3 = multipolygone (-1 si vide)
+     */
+    private int readNested(@NotNull JsonReader reader) throws IOException {
+        reader.beginArray();
+
+        if (reader.peek() == JsonToken.NUMBER) {
+            double lon = reader.nextDouble();
+            double lat = reader.nextDouble();
+            // Ignorer une éventuelle altitude
+            while (reader.hasNext()) {
+                reader.skipValue();
+            }
+            reader.endArray();
+            addPoint(lat, lon);
+            return 0;
+        }
+
+        int level = -1;
+        while (reader.hasNext()) {
+            int child = readNested(reader);
+            if (child == 1) {
+                endRing();
+            } else if (child == 2) {
+                endPolygon();
+            }
+            level = Math.max(level, child);
+        }
+        reader.endArray();
+
+        return level < 0 ? -1 : level + 1;
+    }
+
+    private void addPoint(double lat, double lon) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            return;
+        }
+
+        int index = pointCount * 2;
+        if (index + 2 > points.length) {
+            points = Arrays.copyOf(points, points.length * 2);
+        }
+        points[index] = (int) Math.round(lon * BorderData.LONGITUDE_TO_X);
+        points[index + 1] = (int) Math.round(lat * BorderData.LATITUDE_TO_Z);
+        pointCount++;
+    }
+
+    private void endRing() {
+        // Bague dégénérée: oublier ses points
+        if (pointCount - ringOffsets[ringCount] < 3) {
+            pointCount = ringOffsets[ringCount];
+            return;
+        }
+
+        if (ringCount + 2 > ringOffsets.length) {
+            ringOffsets = Arrays.copyOf(ringOffsets, ringOffsets.length * 2);
+        }
+        ringOffsets[++ringCount] = pointCount;
+    }
+
+    private void endPolygon() {
+        if (ringCount == polygonOffsets[polygonCount]) {
+            return;
+        }
+
+        if (polygonCount + 2 > polygonOffsets.length) {
+            polygonOffsets = Arrays.copyOf(polygonOffsets, polygonOffsets.length * 2);
+        }
+        polygonOffsets[++polygonCount] = ringCount;
+    }
+
+    private void resetBuffers() {
+        pointCount = 0;
+        ringCount = 0;
+        polygonCount = 0;
+        ringOffsets[0] = 0;
+        polygonOffsets[0] = 0;
+    }
+}
@@ -0,0 +1,24 @@
+package fr.tannoxx.ubuplugin.common.geo;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Jeu de frontières publié par {@link GeoDataService}
+ * Immuable: un rechargement publie un nouveau snapshot, l'ancien reste valide
+ * pour les consommateurs qui le tiennent encore.
+ *
+ * @param borders Frontières des pays (liste non modifiable, points en lecture seule)
+ * @param version Numéro du jeu de données (incrémenté à chaque nouvelle donnée)
+ */
+public record GeoSnapshot(@NotNull List<BorderData> borders, int version) {
+
+    public GeoSnapshot {
+        borders = borders.stream().map(BorderData::readOnly).toList();
+    }
+
+    public boolean isEmpty() {
+        return borders.isEmpty();
+    }
+}
@@ -0,0 +1,39 @@
+package fr.tannoxx.ubuplugin.common.stats;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Statistiques agrégées du serveur
+ * La clé est stockée en base (ne jamais la renommer) et sert aux traductions
+ * (earthtools.uptime.stat-types.&lt;clé&gt;)
+ */
+public enum StatType {
+
+    VEINMINER_BLOCKS("veinminer"),
+    TIMBER_BLOCKS("timber"),
+    EXPLOSIVE_BLOCKS("explosive"),
+    TPR_TELEPORTS("tpr"),
+    COUNTRY_LOOKUPS("country");
+
+    private final String key;
+
+    StatType(@NotNull String key) {
+        this.key = key;
+    }
+
+    @NotNull
+    public String getKey() {
+        return key;
+    }
+
+    @Nullable
+    public static StatType fromKey(@NotNull String key) {
+        for (StatType type : values()) {
+            if (type.key.equalsIgnoreCase(key)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,232 @@
+package fr.tannoxx.ubuplugin.common.stats;
+
+import fr.tannoxx.ubuplugin.UbuPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Agrégation des statistiques du serveur (enchantements, /tpr, /country...)
+ * Thread-safe
+ * <p>
+ * - les chemins chauds n'incrémentent qu'un compteur en mémoire (par joueur et par
+ *   statistique, {@link ConcurrentHashMap#merge} atomique): aucune écriture en base par événement
+ * - une tâche asynchrone écrit périodiquement les deltas, par lots, dans les tables
+ *   de cumul stats_daily (par jour) et stats_totals
+ * - chaque compteur est retiré de la table avant d'être écrit: un ajout concurrent est
+ *   soit compris dans la valeur retirée, soit dans une nouvelle entrée (écriture suivante).
+ *   Rien n'est perdu et la table ne garde que les deltas en attente
+ * - un delta est attribué au jour de son écriture (décalage d'au plus flush-interval)
+ *
+ * @author Tannoxx
+ * @version 2.0.0
+ */
+public class StatsService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatsService.class);
+
+    private final UbuPlugin plugin;
+
+    // Deltas non encore écrits
+    private final Map<CounterKey, Long> counters = new ConcurrentHashMap<>();
+
+    // Une seule écriture à la fois (tâche périodique / arrêt)
+    private final Object flushLock = new Object();
+
+    private int flushTaskId = -1;
+
+    public StatsService(@NotNull UbuPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Démarre l'écriture périodique
+     * @param flushSeconds Intervalle entre deux écritures
+     */
+    public void start(int flushSeconds) {
+        long ticks = Math.max(5, flushSeconds) * 20L;
+        flushTaskId = plugin.getServer().getScheduler()
+                .runTaskTimerAsynchronously(plugin, this::flush, ticks, ticks)
+                .getTaskId();
+    }
+
+    public void increment(@NotNull UUID uuid, @NotNull StatType type) {
+        record(uuid, type, 1);
+    }
+
+    /**
+     * Ajoute une valeur à la statistique d'un joueur (n'importe quel thread)
+     */
+    public void record(@NotNull UUID uuid, @NotNull StatType type, long amount) {
+        if (amount <= 0) return;
+        counters.merge(new CounterKey(uuid, type), amount, Long::sum);
+    }
+
+    /**
+     * Écrit les deltas accumulés (bloquant)
+     * En cas d'erreur, les deltas sont remis dans les compteurs
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<Delta> deltas = new ArrayList<>();
+            for (CounterKey key : counters.keySet()) {
+                // Retrait atomique vis-à-vis de merge(): aucun ajout ne peut suivre la lecture
+                Long value = counters.remove(key);
+                if (value != null && value > 0) {
+                    deltas.add(new Delta(key, value));
+                }
+            }
+
+            if (deltas.isEmpty()) return;
+
+            try {
+                write(deltas, LocalDate.now().toEpochDay());
+                LOGGER.debug("Statistiques: {} deltas écrits", deltas.size());
+            } catch (SQLException e) {
+                LOGGER.error("Erreur lors de l'écriture des statistiques", e);
+                for (Delta delta : deltas) {
+                    record(delta.key().uuid(), delta.key().type(), delta.value());
+                }
+            }
+        }
+    }
+
+    /**
+     * Nombre de compteurs en attente d'écriture
+     */
+    int pendingCount() {
+        return counters.size();
+    }
+
+    private void write(@NotNull List<Delta> deltas, long day) throws SQLException {
+        try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement daily = conn.prepareStatement("""
+                    INSERT INTO stats_daily (uuid, stat, day, value) VALUES (?, ?, ?, ?)
+                    ON CONFLICT(uuid, stat, day) DO UPDATE SET value = value + excluded.value
+                    """);
+                 PreparedStatement totals = conn.prepareStatement("""
+                    INSERT INTO stats_totals (uuid, stat, value) VALUES (?, ?, ?)
+                    ON CONFLICT(uuid, stat) DO UPDATE SET value = value + excluded.value
+                    """)) {
+
+                for (Delta delta : deltas) {
+                    String uuid = delta.key().uuid().toString();
+                    String stat = delta.key().type().getKey();
+
+                    daily.setString(1, uuid);
+                    daily.setString(2, stat);
+                    daily.setLong(3, day);
+                    daily.setLong(4, delta.value());
+                    daily.addBatch();
+
+                    totals.setString(1, uuid);
+                    totals.setString(2, stat);
+                    totals.setLong(3, delta.value());
+                    totals.addBatch();
+                }
+
+                daily.executeBatch();
+                totals.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Classement d'une statistique sur une période (requête asynchrone)
+     * Les deltas pas encore écrits ne sont pas comptés
+     */
+    @NotNull
+    public CompletableFuture<List<StatEntry>> top(@NotNull StatType type, @NotNull Period period, int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = period == Period.ALL
+                    ? "SELECT uuid, value FROM stats_totals WHERE stat = ? ORDER BY value DESC LIMIT ?"
+                    : "SELECT uuid, SUM(value) AS value FROM stats_daily WHERE stat = ? AND day >= ? "
+                    + "GROUP BY uuid ORDER BY value DESC LIMIT ?";
+
+            List<StatEntry> entries = new ArrayList<>();
+
+            try (Connection conn = plugin.getDatabaseManager().getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+                int index = 1;
+                stmt.setString(index++, type.getKey());
+                if (period != Period.ALL) {
+                    stmt.setLong(index++, period.firstDay(LocalDate.now()));
+                }
+                stmt.setInt(index, limit);
+
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    entries.add(new StatEntry(UUID.fromString(rs.getString("uuid")), rs.getLong("value")));
+                }
+            } catch (SQLException e) {
+                LOGGER.error("Erreur lecture du classement {}", type.getKey(), e);
+            }
+
+            return entries;
+        }, task -> plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task));
+    }
+
+    /**
+     * Arrêt: dernière écriture synchrone (avant la fermeture de la base)
+     */
+    public void shutdown() {
+        if (flushTaskId != -1) {
+            plugin.getServer().getScheduler().cancelTask(flushTaskId);
+            flushTaskId = -1;
+        }
+
+        flush();
+    }
+
+    /**
+     * Période d'un classement
+     * La semaine est la semaine calendaire (depuis lundi), comme pour le temps de jeu
+     */
+    public enum Period {
+        TODAY,
+        WEEK,
+        ALL;
+
+        /**
+         * @return Premier jour epoch compté (ALL: tout l'historique)
+         */
+        public long firstDay(@NotNull LocalDate today) {
+            return switch (this) {
+                case TODAY -> today.toEpochDay();
+                case WEEK -> today.with(DayOfWeek.MONDAY).toEpochDay();
+                case ALL -> Long.MIN_VALUE;
+            };
+        }
+    }
+
+    public record StatEntry(@NotNull UUID uuid, long value) {
+    }
+
+    private record CounterKey(@NotNull UUID uuid, @NotNull StatType type) {
+    }
+
+    private record Delta(@NotNull CounterKey key, long value) {
+    }
+}
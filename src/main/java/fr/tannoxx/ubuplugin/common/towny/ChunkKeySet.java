@@ -0,0 +1,120 @@
+package fr.tannoxx.ubuplugin.common.towny;
+
+import java.util.Arrays;
+
+/**
+ * Ensemble de coordonnées de chunk packées en long
+ * <p>
+ * Adressage ouvert à sondage linéaire, suppression par décalage arrière
+ * (pas de pierres tombales): aucun objet par entrée. Pas thread-safe.
+ */
+public final class ChunkKeySet {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int size;
+
+    public ChunkKeySet(int expectedSize) {
+        keys = allocate(tableSize(expectedSize));
+    }
+
+    public static long pack(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public boolean contains(long key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+
+        while (true) {
+            long current = keys[index];
+            if (current == key) return true;
+            if (current == EMPTY) return false;
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * @return true si la clé a été ajoutée
+     */
+    public boolean add(long key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+
+        while (true) {
+            long current = keys[index];
+            if (current == key) return false;
+            if (current == EMPTY) {
+                keys[index] = key;
+                if (++size > keys.length * LOAD_FACTOR) {
+                    rehash(keys.length * 2);
+                }
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * @return true si la clé était présente
+     */
+    public boolean remove(long key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+
+        while (keys[index] != key) {
+            if (keys[index] == EMPTY) return false;
+            index = (index + 1) & mask;
+        }
+
+        // Décalage arrière: les clés suivantes de la même grappe reculent si leur position idéale le permet
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int ideal = mix(keys[next]) & mask;
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        keys[hole] = EMPTY;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = keys;
+        keys = allocate(capacity);
+        size = 0;
+
+        for (long key : old) {
+            if (key != EMPTY) {
+                add(key);
+            }
+        }
+    }
+
+    private static long[] allocate(int capacity) {
+        long[] table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    private static int tableSize(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(16, expectedSize) / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,219 @@
+package fr.tannoxx.ubuplugin.common.towny;
+
+import com.palmergames.bukkit.towny.TownyAPI;
+import com.palmergames.bukkit.towny.TownySettings;
+import com.palmergames.bukkit.towny.event.DeleteTownEvent;
+import com.palmergames.bukkit.towny.event.TownClaimEvent;
+import com.palmergames.bukkit.towny.event.TownyLoadedDatabaseEvent;
+import com.palmergames.bukkit.towny.event.town.TownUnclaimEvent;
+import com.palmergames.bukkit.towny.object.TownBlock;
+import com.palmergames.bukkit.towny.object.TownyWorld;
+import com.palmergames.bukkit.towny.object.WorldCoord;
+import fr.tannoxx.ubuplugin.UbuPlugin;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.plugin.RegisteredListener;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index des chunks revendiqués par Towny, par monde
+ * <p>
+ * - ensemble primitif de coordonnées packées ({@link ChunkKeySet}): requête O(1) sans
+ *   passer par l'API Towny (ni ses exceptions) sur les chemins chauds
+ * - reconstruit au démarrage et au chargement de la base Towny, tenu à jour par les
+ *   événements de claim / unclaim / suppression de ville
+ * - reconstruction complète périodique en filet de sécurité (claims admin, ruines...)
+ * <p>
+ * Thread-safe (lectures possibles hors du thread principal)
+ *
+ * @author Tannoxx
+ * @version 2.0.0
+ */
+public class ClaimIndex implements Listener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClaimIndex.class);
+
+    private final UbuPlugin plugin;
+
+    // Chunks revendiqués par nom de monde (verrou: this)
+    private final Map<String, ChunkKeySet> claims = new HashMap<>();
+
+    private int rebuildTaskId = -1;
+
+    public ClaimIndex(@NotNull UbuPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Construit l'index et s'abonne aux événements Towny
+     * @param rebuildMinutes Intervalle de reconstruction complète (0 = jamais)
+     */
+    public void register(int rebuildMinutes) {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        rebuild();
+
+        if (rebuildMinutes > 0) {
+            long ticks = rebuildMinutes * 60L * 20L;
+            rebuildTaskId = plugin.getServer().getScheduler()
+                    .runTaskTimer(plugin, this::rebuild, ticks, ticks)
+                    .getTaskId();
+        }
+    }
+
+    public void unregister() {
+        HandlerList.unregisterAll(this);
+
+        if (rebuildTaskId != -1) {
+            plugin.getServer().getScheduler().cancelTask(rebuildTaskId);
+            rebuildTaskId = -1;
+        }
+
+        synchronized (this) {
+            claims.clear();
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                         REQUÊTES
+    // ═══════════════════════════════════════════════════════════
+
+    public boolean isClaimed(@NotNull World world, int chunkX, int chunkZ) {
+        return isClaimed(world.getName(), chunkX, chunkZ);
+    }
+
+    public synchronized boolean isClaimed(@NotNull String worldName, int chunkX, int chunkZ) {
+        ChunkKeySet set = claims.get(worldName);
+        return set != null && set.contains(ChunkKeySet.pack(chunkX, chunkZ));
+    }
+
+    /**
+     * Requête groupée: un des blocs est-il dans un chunk revendiqué ?
+     * Un seul verrou pour tout le lot, une seule recherche par chunk distinct consécutif
+     */
+    public synchronized boolean anyClaimed(@NotNull Collection<Block> blocks) {
+        String worldName = null;
+        ChunkKeySet set = null;
+        long lastKey = Long.MIN_VALUE;
+
+        for (Block block : blocks) {
+            String blockWorld = block.getWorld().getName();
+            if (!blockWorld.equals(worldName)) {
+                worldName = blockWorld;
+                set = claims.get(blockWorld);
+                lastKey = Long.MIN_VALUE;
+            }
+            if (set == null) continue;
+
+            long key = ChunkKeySet.pack(block.getX() >> 4, block.getZ() >> 4);
+            if (key == lastKey) continue;
+            lastKey = key;
+
+            if (set.contains(key)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Les blocs peuvent-ils être cassés sans BlockBreakEvent de test ?
+     * Seulement si l'événement de test ne pourrait être ni annulé ni observé par un autre plugin:
+     * - Towny est le seul plugin (hors UbuPlugin) à écouter BlockBreakEvent
+     *   (aucun autre plugin de protection ni de journalisation)
+     * - le monde autorise la destruction en zone sauvage, sans zones de nation
+     * - aucun des blocs n'est revendiqué
+     * Sinon l'événement de test reste l'autorité: l'index n'est qu'un pré-filtre.
+     */
+    public boolean isOpenWilderness(@NotNull World world, @NotNull Collection<Block> blocks) {
+        for (RegisteredListener listener : BlockBreakEvent.getHandlerList().getRegisteredListeners()) {
+            if (listener.getPlugin() != plugin && !listener.getPlugin().getName().equals("Towny")) {
+                return false;
+            }
+        }
+
+        TownyWorld townyWorld = TownyAPI.getInstance().getTownyWorld(world);
+        if (townyWorld == null || !townyWorld.getUnclaimedZoneDestroy() || TownySettings.getNationZonesEnabled()) {
+            return false;
+        }
+
+        return !anyClaimed(blocks);
+    }
+
+    public synchronized int size() {
+        return claims.values().stream().mapToInt(ChunkKeySet::size).sum();
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                        SYNCHRONISATION
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Reconstruit tout l'index depuis Towny (thread principal)
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<String, ChunkKeySet> fresh = new HashMap<>();
+
+        try {
+            for (TownBlock townBlock : TownyAPI.getInstance().getTownBlocks()) {
+                if (!townBlock.hasTown()) continue;
+
+                fresh.computeIfAbsent(townBlock.getWorld().getName(), k -> new ChunkKeySet(1024))
+                        .add(ChunkKeySet.pack(townBlock.getX(), townBlock.getZ()));
+            }
+        } catch (Exception e) {
+            LOGGER.error("Erreur lors de la construction de l'index des claims Towny", e);
+            return;
+        }
+
+        synchronized (this) {
+            claims.clear();
+            claims.putAll(fresh);
+        }
+
+        LOGGER.debug("Index des claims Towny: {} chunks ({}ms)", size(), System.currentTimeMillis() - start);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onClaim(@NotNull TownClaimEvent event) {
+        TownBlock townBlock = event.getTownBlock();
+        synchronized (this) {
+            claims.computeIfAbsent(townBlock.getWorld().getName(), k -> new ChunkKeySet(1024))
+                    .add(ChunkKeySet.pack(townBlock.getX(), townBlock.getZ()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onUnclaim(@NotNull TownUnclaimEvent event) {
+        WorldCoord coord = event.getWorldCoord();
+        synchronized (this) {
+            ChunkKeySet set = claims.get(coord.getWorldName());
+            if (set != null) {
+                set.remove(ChunkKeySet.pack(coord.getX(), coord.getZ()));
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownDeleted(@NotNull DeleteTownEvent event) {
+        // Les TownBlocks de la ville sont déjà libérés: reconstruire au tick suivant
+        plugin.getServer().getScheduler().runTask(plugin, this::rebuild);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownyLoaded(@NotNull TownyLoadedDatabaseEvent event) {
+        rebuild();
+    }
+}
@@ -0,0 +1,62 @@
+package fr.tannoxx.ubuplugin.common.world;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * Fichiers région d'un monde (r.X.Z.mca: 32×32 chunks, 512×512 blocs)
+ * Les coordonnées de région sont packées en long (X dans les 32 bits de poids fort)
+ */
+public final class RegionFiles {
+
+    /** Décalage bloc → région */
+    public static final int BLOCK_SHIFT = 9;
+
+    /** Décalage chunk → région */
+    public static final int CHUNK_SHIFT = 5;
+
+    private RegionFiles() {
+    }
+
+    public static long pack(int regionX, int regionZ) {
+        return ((long) regionX << 32) | (regionZ & 0xFFFFFFFFL);
+    }
+
+    public static int regionX(long region) {
+        return (int) (region >> 32);
+    }
+
+    public static int regionZ(long region) {
+        return (int) region;
+    }
+
+    /**
+     * Régions présentes dans un dossier region (lecture du seul nom des fichiers)
+     * @return Coordonnées packées, vide si le dossier n'existe pas
+     */
+    public static long @NotNull [] scan(@NotNull File folder) {
+        String[] names = folder.list();
+        if (names == null) return new long[0];
+
+        long[] result = new long[names.length];
+        int count = 0;
+
+        for (String name : names) {
+            if (!name.startsWith("r.") || !name.endsWith(".mca")) continue;
+
+            String[] parts = name.split("\\.");
+            if (parts.length != 4) continue;
+
+            try {
+                long region = pack(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+                result[count++] = region;
+            } catch (NumberFormatException ignored) {
+                // Fichier étranger au format région
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -2,15 +2,36 @@ package fr.tannoxx.ubuplugin.modules.earthtools;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import fr.tannoxx.ubuplugin.UbuPlugin;
 import fr.tannoxx.ubuplugin.common.module.Module;
 import fr.tannoxx.ubuplugin.common.module.ModuleManager;
 import fr.tannoxx.ubuplugin.modules.earthtools.commands.*;
+import fr.tannoxx.ubuplugin.modules.earthtools.data.CountryCacheRepository;
+import fr.tannoxx.ubuplugin.modules.earthtools.data.GeocodingClient;
+import fr.tannoxx.ubuplugin.modules.earthtools.geo.CountryChunkIndex;
+import fr.tannoxx.ubuplugin.modules.earthtools.geo.CountryLookup;
+import fr.tannoxx.ubuplugin.modules.earthtools.geo.CountryRaster;
+import fr.tannoxx.ubuplugin.modules.earthtools.geo.CountryResolver;
+import fr.tannoxx.ubuplugin.modules.earthtools.listeners.CountryBorderListener;
 import fr.tannoxx.ubuplugin.modules.earthtools.listeners.UptimeGUIListener;
+import fr.tannoxx.ubuplugin.modules.earthtools.tpr.SafeLocationFinder;
+import fr.tannoxx.ubuplugin.modules.earthtools.tpr.TprLocationPool;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.LeaderboardPages;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.PlaytimeTracker;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.SessionTracker;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.SkullProfileCache;
+import fr.tannoxx.ubuplugin.common.geo.BorderData;
+import fr.tannoxx.ubuplugin.common.geo.GeoDataService;
+import fr.tannoxx.ubuplugin.common.geo.GeoSnapshot;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Module EarthTools avec APIs de géolocalisation et country replacements
@@ -21,24 +42,72 @@ import java.util.concurrent.TimeUnit;
 public class EarthToolsModule extends Module {
 
     private Cache<String, CountryCacheEntry> countryCache;
+    private CountryCacheRepository countryCacheRepository;
+    private GeocodingClient geocodingClient;
     private CountryCommand countryCommand;
 
+    // Géocodage hors-ligne (null tant que les polygones ne sont pas chargés)
+    private volatile CountryResolver countryResolver;
+    private volatile CountryRaster countryRaster;
+
+    // Index par chunk pour les notifications d'entrée dans un pays
+    private volatile CountryChunkIndex countryChunkIndex;
+    private CountryBorderListener countryBorderListener;
+
+    // Nouvelles frontières publiées (/webmap update): index reconstruit
+    private Consumer<GeoSnapshot> bordersListener;
+
+    // Mode + précision de l'index chargé (pour détecter un changement au reload)
+    private volatile String loadedIndexKey;
+
+    private static final String RASTER_FILE = "country_raster.bin";
+
+    // Recherche /tpr et réserve d'emplacements pré-calculés
+    private SafeLocationFinder tprLocationFinder;
+    private TprLocationPool tprLocationPool;
+
+    // Temps de jeu et classement /uptime
+    private PlaytimeTracker playtimeTracker;
+    private LeaderboardPages leaderboardPages;
+    private SkullProfileCache skullProfileCache;
+    private SessionTracker sessionTracker;
+
+    // IDs des tasks du cache persistant
+    private int cacheFlushTaskId = -1;
+    private int cachePurgeTaskId = -1;
+
     public EarthToolsModule(@NotNull UbuPlugin plugin, @NotNull ModuleManager moduleManager) {
         super(plugin, moduleManager);
     }
 
     @Override
     public void onEnable() {
-        // Initialiser le cache
-        int successTTL = getConfigManager().getInt("earthtools.country.cache.success-duration", 300);
-        countryCache = Caffeine.newBuilder()
-                .expireAfterWrite(successTTL, TimeUnit.SECONDS)
-                .maximumSize(1000)
-                .build();
+        // Initialiser le cache L1 (mémoire) et L2 (SQLite)
+        countryCache = buildCountryCache();
+        countryCacheRepository = new CountryCacheRepository(this);
+        geocodingClient = new GeocodingClient(this);
+        startCacheTasks();
+
+        // Index des frontières pour /country hors-ligne
+        if (isOfflineLookupEnabled()) {
+            loadCountryIndex();
+        }
+
+        bordersListener = snapshot -> {
+            if (isOfflineLookupEnabled()) {
+                info("Frontières mises à jour (version {}), reconstruction de l'index des pays", snapshot.version());
+                loadCountryIndex();
+            }
+        };
+        plugin.getGeoDataService().addListener(bordersListener);
 
         // ✅ AJOUTÉ: Enregistrer le listener de protection GUI
         plugin.getServer().getPluginManager().registerEvents(new UptimeGUIListener(), plugin);
 
+        // Notifications d'entrée dans un pays (inactives tant que l'index n'est pas prêt)
+        countryBorderListener = new CountryBorderListener(this);
+        plugin.getServer().getPluginManager().registerEvents(countryBorderListener, plugin);
+
         // Enregistrer les commandes avec TabCompleters
         GPSCommand gpsCommand = new GPSCommand(this);
         Objects.requireNonNull(plugin.getCommand("gps")).setExecutor(gpsCommand);
@@ -48,8 +117,19 @@ public class EarthToolsModule extends Module {
         countryCommand = new CountryCommand(this);
         Objects.requireNonNull(plugin.getCommand("country")).setExecutor(countryCommand);
 
+        tprLocationFinder = new SafeLocationFinder(this);
+        tprLocationPool = new TprLocationPool(this, tprLocationFinder);
+        tprLocationPool.start();
         Objects.requireNonNull(plugin.getCommand("tpr")).setExecutor(new TPRCommand(this));
 
+        playtimeTracker = new PlaytimeTracker(this);
+        playtimeTracker.start();
+        skullProfileCache = new SkullProfileCache(this);
+        skullProfileCache.start();
+        leaderboardPages = new LeaderboardPages(this);
+        sessionTracker = new SessionTracker(this);
+        sessionTracker.start();
+
         UptimeCommand uptimeCommand = new UptimeCommand(this);
         Objects.requireNonNull(plugin.getCommand("uptime")).setExecutor(uptimeCommand);
         Objects.requireNonNull(plugin.getCommand("uptime")).setTabCompleter(uptimeCommand);
@@ -66,9 +146,54 @@ public class EarthToolsModule extends Module {
 
     @Override
     public void onDisable() {
+        stopCacheTasks();
+
+        if (tprLocationPool != null) {
+            tprLocationPool.stop();
+        }
+
+        if (playtimeTracker != null) {
+            playtimeTracker.stop();
+        }
+
+        if (leaderboardPages != null) {
+            leaderboardPages.invalidate();
+        }
+
+        if (skullProfileCache != null) {
+            skullProfileCache.stop();
+        }
+
+        if (sessionTracker != null) {
+            sessionTracker.stop();
+        }
+
+        if (bordersListener != null) {
+            plugin.getGeoDataService().removeListener(bordersListener);
+            bordersListener = null;
+        }
+
+        // Écrire les dernières entrées avant l'arrêt
+        if (countryCacheRepository != null) {
+            countryCacheRepository.flush();
+        }
+
         if (countryCache != null) {
             countryCache.invalidateAll();
         }
+
+        if (geocodingClient != null) {
+            geocodingClient.shutdown();
+        }
+
+        if (countryBorderListener != null) {
+            countryBorderListener.clear();
+        }
+
+        countryResolver = null;
+        countryRaster = null;
+        countryChunkIndex = null;
+        loadedIndexKey = null;
         info("Module EarthTools désactivé");
     }
 
@@ -76,16 +201,64 @@ public class EarthToolsModule extends Module {
     public void reload() {
         info("Rechargement du module EarthTools...");
 
-        // Vider le cache pour forcer le rechargement
-        if (countryCache != null) {
-            countryCache.invalidateAll();
-        }
+        // Recréer le cache L1 avec les nouvelles durées (le L2 en base est conservé)
+        countryCache = buildCountryCache();
+
+        stopCacheTasks();
+        startCacheTasks();
 
         // Recharger les country replacements
         if (countryCommand != null) {
             countryCommand.reload();
         }
 
+        if (countryBorderListener != null) {
+            countryBorderListener.reload();
+        }
+
+        if (geocodingClient != null) {
+            geocodingClient.reload();
+        }
+
+        if (tprLocationFinder != null) {
+            tprLocationFinder.reload();
+        }
+
+        if (tprLocationPool != null) {
+            tprLocationPool.reload();
+        }
+
+        if (playtimeTracker != null) {
+            playtimeTracker.reload();
+        }
+
+        if (skullProfileCache != null) {
+            skullProfileCache.reload();
+        }
+
+        if (leaderboardPages != null) {
+            leaderboardPages.reload();
+        }
+
+        if (sessionTracker != null) {
+            sessionTracker.reload();
+        }
+
+        // Les polygones ne changent pas au reload: ne recharger que si le mode a changé
+        if (!isOfflineLookupEnabled()) {
+            countryResolver = null;
+            countryRaster = null;
+            countryChunkIndex = null;
+            loadedIndexKey = null;
+        } else if (!getIndexKey().equals(loadedIndexKey)) {
+            loadCountryIndex();
+        } else if (!isNotificationsEnabled()) {
+            countryChunkIndex = null;
+        } else if (countryChunkIndex == null && getCountryLookup() != null) {
+            CountryLookup lookup = getCountryLookup();
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> buildChunkIndex(lookup));
+        }
+
         info("✓ Module EarthTools rechargé");
     }
 
@@ -95,11 +268,280 @@ public class EarthToolsModule extends Module {
         return "EarthTools";
     }
 
+    /**
+     * Cache L1 avec durée de vie distincte pour les succès et les erreurs
+     */
+    @NotNull
+    private Cache<String, CountryCacheEntry> buildCountryCache() {
+        long successTTL = TimeUnit.SECONDS.toNanos(
+                getConfigManager().getInt("earthtools.country.cache.success-duration", 300));
+        long errorTTL = TimeUnit.SECONDS.toNanos(
+                getConfigManager().getInt("earthtools.country.cache.error-duration", 60));
+
+        return Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, CountryCacheEntry>() {
+                    @Override
+                    public long expireAfterCreate(@NotNull String key, @NotNull CountryCacheEntry entry, long currentTime) {
+                        return entry.isError() ? errorTTL : successTTL;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(@NotNull String key, @NotNull CountryCacheEntry entry,
+                                                  long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(@NotNull String key, @NotNull CountryCacheEntry entry,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .maximumSize(1000)
+                .build();
+    }
+
+    /**
+     * Démarre l'écriture différée et la purge du cache persistant
+     */
+    private void startCacheTasks() {
+        long flushInterval = 20L * 10;
+        long purgeInterval = 20L * Math.max(60, getConfigManager().getInt("earthtools.country.cleanup-interval", 600));
+
+        cacheFlushTaskId = plugin.getServer().getScheduler().runTaskTimerAsynchronously(
+                plugin, countryCacheRepository::flush, flushInterval, flushInterval).getTaskId();
+        cachePurgeTaskId = plugin.getServer().getScheduler().runTaskTimerAsynchronously(
+                plugin, countryCacheRepository::purgeExpired, 20L * 30, purgeInterval).getTaskId();
+    }
+
+    private void stopCacheTasks() {
+        if (cacheFlushTaskId != -1) {
+            plugin.getServer().getScheduler().cancelTask(cacheFlushTaskId);
+            cacheFlushTaskId = -1;
+        }
+
+        if (cachePurgeTaskId != -1) {
+            plugin.getServer().getScheduler().cancelTask(cachePurgeTaskId);
+            cachePurgeTaskId = -1;
+        }
+    }
+
+    /**
+     * Charge l'index des pays en asynchrone
+     * - offline: polygones Natural Earth + index spatial
+     * - raster: grille mappée en mémoire, reconstruite seulement si la source a changé
+     */
+    private void loadCountryIndex() {
+        String indexKey = getIndexKey();
+        boolean rasterMode = isRasterLookupEnabled();
+        double precision = getRasterPrecision();
+
+        if (rasterMode && precision > getConfigManager().getDouble("earthtools.country.raster.precision", 0.05)) {
+            warn("Précision raster trop fine, utilisation de {}°", precision);
+        }
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                long start = System.currentTimeMillis();
+                GeoDataService geoData = plugin.getGeoDataService();
+                File rasterFile = new File(plugin.getDataFolder(), RASTER_FILE);
+
+                // Raster déjà calculé pour ces données: simple mapping du fichier
+                if (rasterMode && geoData.getCacheFile().exists()) {
+                    CountryRaster raster = CountryRaster.load(rasterFile, precision, getSourceStamp(geoData.getCacheFile()));
+                    if (raster != null) {
+                        publishIndex(indexKey, null, raster);
+                        info("✓ Raster des pays chargé: {} ({}ms)", raster, System.currentTimeMillis() - start);
+                        return;
+                    }
+                }
+
+                // L'index copie la géométrie: les frontières partagées sont libérées aussitôt
+                CountryResolver resolver;
+                try {
+                    List<BorderData> borders = geoData.acquire(getName()).join().borders();
+                    if (borders.isEmpty()) {
+                        warn("Aucune frontière disponible, /country utilisera les APIs");
+                        return;
+                    }
+                    resolver = CountryResolver.build(borders);
+                } finally {
+                    geoData.release(getName());
+                }
+
+                if (rasterMode) {
+                    info("Rasterisation des pays ({}°)...", precision);
+                    CountryRaster raster = CountryRaster.build(resolver, rasterFile, precision,
+                            getSourceStamp(geoData.getCacheFile()));
+                    publishIndex(indexKey, null, raster);
+                    info("✓ Raster des pays prêt: {} ({}ms)", raster, System.currentTimeMillis() - start);
+                } else {
+                    publishIndex(indexKey, resolver, null);
+                    info("✓ Détection de pays hors-ligne prête: {} ({}ms)",
+                            resolver, System.currentTimeMillis() - start);
+                }
+            } catch (Exception e) {
+                error("Erreur lors de la construction de l'index des pays", e);
+            }
+        });
+    }
+
+    /**
+     * Publie l'index si la configuration n'a pas changé pendant le chargement
+     */
+    private void publishIndex(@NotNull String indexKey, @Nullable CountryResolver resolver, @Nullable CountryRaster raster) {
+        if (!indexKey.equals(getIndexKey())) {
+            return;
+        }
+
+        countryResolver = resolver;
+        countryRaster = raster;
+        countryChunkIndex = null;
+        loadedIndexKey = indexKey;
+
+        CountryLookup lookup = getCountryLookup();
+        if (lookup != null && isNotificationsEnabled()) {
+            plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> buildChunkIndex(lookup));
+        }
+    }
+
+    /**
+     * Construit l'index par chunk (thread asynchrone) puis le publie sur le thread principal
+     * Les IDs de pays changent avec l'index: l'état des joueurs est réinitialisé
+     */
+    private void buildChunkIndex(@NotNull CountryLookup lookup) {
+        long start = System.currentTimeMillis();
+        CountryChunkIndex index = CountryChunkIndex.build(lookup);
+
+        if (!plugin.isEnabled()) return;
+
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            // Index obsolète (rechargé ou désactivé entre-temps)
+            if (lookup != getCountryLookup() || !isNotificationsEnabled()) {
+                return;
+            }
+
+            countryChunkIndex = index;
+            countryBorderListener.clear();
+            info("✓ Index des frontières par chunk prêt: {} ({}ms)", index, System.currentTimeMillis() - start);
+        });
+    }
+
+    /**
+     * Empreinte du fichier source: un raster n'est réutilisé que pour les mêmes données
+     */
+    private static long getSourceStamp(@NotNull File source) {
+        return source.lastModified() * 31 + source.length();
+    }
+
+    @NotNull
+    private String getIndexKey() {
+        return isRasterLookupEnabled()
+                ? "raster:" + getRasterPrecision()
+                : getConfigManager().getString("earthtools.country.provider", "offline").toLowerCase();
+    }
+
+    private double getRasterPrecision() {
+        double precision = getConfigManager().getDouble("earthtools.country.raster.precision", 0.05);
+        return Math.max(CountryRaster.MIN_PRECISION, precision);
+    }
+
+    private boolean isOfflineLookupEnabled() {
+        String provider = getConfigManager().getString("earthtools.country.provider", "offline");
+        return provider.equalsIgnoreCase("offline") || provider.equalsIgnoreCase("raster");
+    }
+
+    private boolean isNotificationsEnabled() {
+        return getConfigManager().getBoolean("earthtools.country.notifications.enabled", true);
+    }
+
+    private boolean isRasterLookupEnabled() {
+        return getConfigManager().getString("earthtools.country.provider", "offline")
+                .equalsIgnoreCase("raster");
+    }
+
+    /**
+     * Les APIs sont-elles utilisées quand l'index hors-ligne est indisponible ?
+     */
+    public boolean isApiFallbackEnabled() {
+        return !isOfflineLookupEnabled()
+                || getConfigManager().getBoolean("earthtools.country.api-fallback", true);
+    }
+
+    /**
+     * Index hors-ligne disponible (raster en priorité), ou null pendant le chargement
+     */
+    @Nullable
+    public CountryLookup getCountryLookup() {
+        CountryRaster raster = countryRaster;
+        return raster != null ? raster : countryResolver;
+    }
+
+    @Nullable
+    public CountryResolver getCountryResolver() {
+        return countryResolver;
+    }
+
+    @Nullable
+    public CountryRaster getCountryRaster() {
+        return countryRaster;
+    }
+
+    @Nullable
+    public CountryChunkIndex getCountryChunkIndex() {
+        return countryChunkIndex;
+    }
+
+    @NotNull
+    public CountryCommand getCountryCommand() {
+        return countryCommand;
+    }
+
     @NotNull
     public Cache<String, CountryCacheEntry> getCountryCache() {
         return countryCache;
     }
 
+    @NotNull
+    public CountryCacheRepository getCountryCacheRepository() {
+        return countryCacheRepository;
+    }
+
+    @NotNull
+    public SafeLocationFinder getTprLocationFinder() {
+        return tprLocationFinder;
+    }
+
+    @NotNull
+    public TprLocationPool getTprLocationPool() {
+        return tprLocationPool;
+    }
+
+    @NotNull
+    public PlaytimeTracker getPlaytimeTracker() {
+        return playtimeTracker;
+    }
+
+    @NotNull
+    public LeaderboardPages getLeaderboardPages() {
+        return leaderboardPages;
+    }
+
+    @NotNull
+    public SkullProfileCache getSkullProfileCache() {
+        return skullProfileCache;
+    }
+
+    @NotNull
+    public SessionTracker getSessionTracker() {
+        return sessionTracker;
+    }
+
+    @NotNull
+    public GeocodingClient getGeocodingClient() {
+        return geocodingClient;
+    }
+
     public record CountryCacheEntry(
             String countryName,
             boolean isError,
@@ -2,9 +2,10 @@ package fr.tannoxx.ubuplugin.modules.earthtools.commands;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import fr.tannoxx.ubuplugin.common.stats.StatType;
 import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.data.GeocodingClient;
+import fr.tannoxx.ubuplugin.modules.earthtools.geo.CountryLookup;
 import org.bukkit.Location;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -17,13 +18,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jspecify.annotations.NonNull;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -35,12 +31,15 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Commande /country avec implémentation complète des APIs
  * <p>
  * ✅ FIX v2.0.3: Rate limiting appliqué uniquement sur les appels API réels
+ * <p>
+ * Détection hors-ligne par défaut (polygones Natural Earth), les APIs
+ * ne servent plus que de repli configurable
  */
-public record CountryCommand(EarthToolsModule module) implements CommandExecutor {
+public class CountryCommand implements CommandExecutor {
 
-    private static final double LATITUDE_TO_Z = -136.653;
-    private static final double LONGITUDE_TO_X = 136.653;
-    private static final int TIMEOUT = 5000;
+    // Échelle de la carte Earth (blocs par degré), partagée avec l'index raster
+    public static final double LATITUDE_TO_Z = -136.653;
+    public static final double LONGITUDE_TO_X = 136.653;
 
     // ✅ FIX: Rate limiter sépare les tentatives des succès
     private static final Cache<UUID, AtomicInteger> API_RATE_LIMITER = Caffeine.newBuilder()
@@ -49,6 +48,16 @@ public record CountryCommand(EarthToolsModule module) implements CommandExecutor
 
     private static final int MAX_API_CALLS_PER_MINUTE = 5;
 
+    private final EarthToolsModule module;
+
+    // Remplacements chargés une fois par reload (plus de lecture disque par recherche)
+    private volatile Map<String, String> countryReplacements;
+
+    public CountryCommand(@NotNull EarthToolsModule module) {
+        this.module = module;
+        this.countryReplacements = loadCountryReplacements();
+    }
+
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command,
                              @NotNull String label, String @NonNull [] args) {
@@ -69,6 +78,22 @@ public record CountryCommand(EarthToolsModule module) implements CommandExecutor
             return true;
         }
 
+        module.plugin.getStatsService().increment(player.getUniqueId(), StatType.COUNTRY_LOOKUPS);
+
+        // Détection hors-ligne (raster ou polygones): ni réseau ni rate limit
+        CountryLookup lookup = module.getCountryLookup();
+        if (lookup != null) {
+            String countryName = lookup.resolve(latitude, longitude);
+            sendResult(sender, countryName != null ? applyCountryReplacement(countryName) : null,
+                    latitude, longitude, false);
+            return true;
+        }
+
+        if (!module.isApiFallbackEnabled()) {
+            module.getTranslationManager().send(sender, "earthtools.country.offline-loading");
+            return true;
+        }
+
         String cacheKey = getCacheKey(latitude, longitude);
         EarthToolsModule.CountryCacheEntry cached = module.getCountryCache().getIfPresent(cacheKey);
 
@@ -77,40 +102,73 @@ public record CountryCommand(EarthToolsModule module) implements CommandExecutor
             return true;
         }
 
-        // ✅ FIX: Vérifier rate limit SEULEMENT si pas de cache
+        // Miss L1: consulter le cache persistant avant toute requête réseau
+        module.getCountryCacheRepository().findAsync(cacheKey).thenAccept(stored -> {
+            if (!module.plugin.isEnabled()) return;
+
+            module.plugin.getServer().getScheduler().runTask(module.plugin, () -> {
+                if (stored != null) {
+                    module.getCountryCache().put(cacheKey, stored);
+                    sendResult(sender, stored.countryName(), latitude, longitude, true);
+                } else {
+                    lookupRemote(player, cacheKey, latitude, longitude);
+                }
+            });
+        });
+
+        return true;
+    }
+
+    /**
+     * Interroge les APIs de géolocalisation (miss L1 et L2)
+     */
+    private void lookupRemote(@NotNull Player player, @NotNull String cacheKey, double latitude, double longitude) {
         UUID uuid = player.getUniqueId();
-        if (!canCallAPI(uuid)) {
-            module.getTranslationManager().send(sender, "earthtools.country.rate-limit");
-            module.getTranslationManager().send(sender, "earthtools.country.rate-limit-info");
-            module.getTranslationManager().send(sender, "earthtools.country.rate-limit-wait");
-            return true;
-        }
 
-        module.getTranslationManager().send(sender, "earthtools.country.searching");
+        // Rejoindre une requête déjà en cours ne coûte aucun appel API:
+        // le quota n'est vérifié que si une nouvelle requête doit être lancée
+        GeocodingClient.Lookup lookup = module.getGeocodingClient()
+                .lookup(cacheKey, latitude, longitude, () -> canCallAPI(uuid));
 
-        module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, () -> {
-            String countryName = fetchCountryName(latitude, longitude);
+        if (lookup == null) {
+            module.getTranslationManager().send(player, "earthtools.country.rate-limit");
+            module.getTranslationManager().send(player, "earthtools.country.rate-limit-info");
+            module.getTranslationManager().send(player, "earthtools.country.rate-limit-wait");
+            return;
+        }
+
+        module.getTranslationManager().send(player, "earthtools.country.searching");
 
+        lookup.future().thenAccept(result -> {
+            String countryName = result;
             if (countryName != null && !countryName.isEmpty()) {
                 countryName = applyCountryReplacement(countryName);
             }
 
-            boolean isError = countryName == null || countryName.isEmpty();
-            module.getCountryCache().put(cacheKey,
-                    new EarthToolsModule.CountryCacheEntry(countryName, isError));
+            // Seul l'initiateur de la requête écrit le cache et consomme son quota
+            if (lookup.initiator()) {
+                boolean isError = countryName == null || countryName.isEmpty();
+                EarthToolsModule.CountryCacheEntry entry = new EarthToolsModule.CountryCacheEntry(countryName, isError);
+                module.getCountryCache().put(cacheKey, entry);
+                module.getCountryCacheRepository().save(cacheKey, entry);
+
+                if (!isError) {
+                    incrementAPICounter(uuid);
+                }
+            }
+
+            if (!module.plugin.isEnabled()) return;
 
             String finalCountryName = countryName;
             module.plugin.getServer().getScheduler().runTask(module.plugin, () ->
-                    sendResult(sender, finalCountryName, latitude, longitude, false)
+                    sendResult(player, finalCountryName, latitude, longitude, false)
             );
         });
-
-        return true;
     }
 
     /**
      * ✅ FIX: Rate limiting SANS incrémenter immédiatement
-     * L'incrémentation se fait dans fetchCountryName() après appel API réussi
+     * L'incrémentation se fait dans lookupRemote() après appel API réussi
      */
     private boolean canCallAPI(@NotNull UUID uuid) {
         AtomicInteger counter = API_RATE_LIMITER.get(uuid, k -> new AtomicInteger(0));
@@ -143,98 +201,6 @@ public record CountryCommand(EarthToolsModule module) implements CommandExecutor
         }
     }
 
-    @Nullable
-    private String fetchCountryName(double latitude, double longitude) {
-        try {
-            String result = fetchFromNominatim(latitude, longitude);
-            if (result != null) {
-                // ✅ FIX: Incrémenter SEULEMENT si succès
-                // Note: Pas d'UUID ici, on l'incrémente dans onCommand après avoir reçu le résultat
-                return result;
-            }
-
-            result = fetchFromBigDataCloud(latitude, longitude);
-            return result;
-        } catch (Exception e) {
-            module.error("Erreur API géolocalisation", e);
-            return null;
-        }
-    }
-
-    @Nullable
-    private String fetchFromNominatim(double lat, double lon) {
-        try {
-            HttpURLConnection conn = getHttpURLConnection("https://nominatim.openstreetmap.org/reverse?lat=%.6f&lon=%.6f&format=json", lat, lon);
-
-            if (conn.getResponseCode() == 200) {
-                try (BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-
-                    StringBuilder response = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-
-                    JsonObject json = JsonParser.parseString(response.toString()).getAsJsonObject();
-
-                    if (json.has("address")) {
-                        JsonObject address = json.getAsJsonObject("address");
-                        if (address.has("country")) {
-                            return address.get("country").getAsString();
-                        }
-                    }
-                }
-            }
-
-            conn.disconnect();
-        } catch (Exception e) {
-            module.debug("Nominatim échoué: {}", e.getMessage());
-        }
-        return null;
-    }
-
-    @Nullable
-    private String fetchFromBigDataCloud(double lat, double lon) {
-        try {
-            HttpURLConnection conn = getHttpURLConnection("https://api.bigdatacloud.net/data/reverse-geocode-client?latitude=%.6f&longitude=%.6f&localityLanguage=en", lat, lon);
-
-            if (conn.getResponseCode() == 200) {
-                try (BufferedReader reader = new BufferedReader(
-                        new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-
-                    StringBuilder response = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-
-                    JsonObject json = JsonParser.parseString(response.toString()).getAsJsonObject();
-
-                    if (json.has("countryName")) {
-                        return json.get("countryName").getAsString();
-                    }
-                }
-            }
-
-            conn.disconnect();
-        } catch (Exception e) {
-            module.debug("BigDataCloud échoué: {}", e.getMessage());
-        }
-        return null;
-    }
-
-    private static @NotNull HttpURLConnection getHttpURLConnection(String url, double lat, double lon) throws IOException {
-        String urlStr = String.format(Locale.US, url, lat, lon);
-
-        HttpURLConnection conn = (HttpURLConnection) new URL(urlStr).openConnection();
-        conn.setRequestMethod("GET");
-        conn.setConnectTimeout(TIMEOUT);
-        conn.setReadTimeout(TIMEOUT);
-        conn.setRequestProperty("User-Agent", "UbuPlugin/2.0 (Minecraft Server)");
-        return conn;
-    }
-
     private String getCacheKey(double latitude, double longitude) {
         double precision = module.getConfigManager().getDouble("earthtools.country.cache.precision", 0.01);
         double roundedLat = Math.round(latitude / precision) * precision;
@@ -242,9 +208,9 @@ public record CountryCommand(EarthToolsModule module) implements CommandExecutor
         return String.format(Locale.US, "%.2f,%.2f", roundedLat, roundedLon);
     }
 
-    private String applyCountryReplacement(String countryName) {
-        Map<String, String> replacements = loadCountryReplacements();
-        return replacements.getOrDefault(countryName, countryName);
+    @NotNull
+    public String applyCountryReplacement(@NotNull String countryName) {
+        return countryReplacements.getOrDefault(countryName, countryName);
     }
 
     private Map<String, String> loadCountryReplacements() {
@@ -286,6 +252,7 @@ public record CountryCommand(EarthToolsModule module) implements CommandExecutor
             if (file.createNewFile()) {
                 FileConfiguration config = YamlConfiguration.loadConfiguration(file);
 
+                // Noms complets: identiques pour l'API et la résolution hors-ligne (NAME_EN)
                 config.set("replacements.Israel", "Palestine");
                 config.set("replacements.People's Republic of China", "Taiwan");
                 config.set("replacements.Western Sahara", "Western Sahara");
@@ -298,6 +265,10 @@ public record CountryCommand(EarthToolsModule module) implements CommandExecutor
         }
     }
 
+    /**
+     * Recharge country_replacements.yml
+     */
     public void reload() {
+        countryReplacements = loadCountryReplacements();
     }
 }
\ No newline at end of file
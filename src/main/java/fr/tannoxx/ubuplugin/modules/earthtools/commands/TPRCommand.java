@@ -1,9 +1,10 @@
 package fr.tannoxx.ubuplugin.modules.earthtools.commands;
 
-import com.palmergames.bukkit.towny.TownyAPI;
-import com.palmergames.bukkit.towny.object.TownBlock;
-import com.palmergames.bukkit.towny.object.TownyWorld;
+import fr.tannoxx.ubuplugin.common.i18n.TranslationManager;
+import fr.tannoxx.ubuplugin.common.stats.StatType;
 import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.tpr.SafeLocationFinder;
+import fr.tannoxx.ubuplugin.modules.earthtools.tpr.TprLocationPool;
 import org.bukkit.*;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -14,26 +15,32 @@ import org.jetbrains.annotations.Nullable;
 import org.jspecify.annotations.NonNull;
 
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Commande /tpr avec support Towny complet et vérifications de sécurité avancées
  * <p>
  * CORRECTIONS v2.0.2:
  * - Fix max-attempts = 0 (boucle infinie)
+ * <p>
+ * La recherche est asynchrone (voir {@link SafeLocationFinder}): seule la
+ * téléportation finale passe par le thread principal.
+ * Un emplacement de la réserve ({@link TprLocationPool}) est utilisé en priorité.
  */
 public class TPRCommand implements CommandExecutor {
 
     private final EarthToolsModule module;
     private final Map<UUID, Long> cooldowns = new HashMap<>();
-    private final boolean townyEnabled;
+    private final Set<UUID> searching = new HashSet<>();
+    private final SafeLocationFinder finder;
+    private final TprLocationPool pool;
 
     public TPRCommand(EarthToolsModule module) {
         this.module = module;
 
-        townyEnabled = module.plugin.getServer().getPluginManager().getPlugin("Towny") != null;
+        this.finder = module.getTprLocationFinder();
+        this.pool = module.getTprLocationPool();
 
-        if (townyEnabled) {
+        if (finder.isTownyEnabled()) {
             module.info("Towny détecté - Protection TPR activée");
         }
 
@@ -44,6 +51,11 @@ public class TPRCommand implements CommandExecutor {
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command,
                              @NotNull String label, String @NonNull [] args) {
+        if (args.length > 0 && args[0].equalsIgnoreCase("stats") && sender.hasPermission("ubuplugin.admin")) {
+            showStats(sender);
+            return true;
+        }
+
         if (!(sender instanceof Player player)) {
             module.getTranslationManager().send(sender, "errors.player-only");
             return true;
@@ -72,243 +84,122 @@ public class TPRCommand implements CommandExecutor {
             }
         }
 
-        int maxX = module.getConfigManager().getInt("earthtools.tpr.max-x", 24597);
-        int maxZ = module.getConfigManager().getInt("earthtools.tpr.max-z", 12298);
-
-        module.getTranslationManager().send(sender, "earthtools.tpr.searching");
-
-        Location safeLocation = findSafeLocation(world, maxX, maxZ);
-
-        if (safeLocation == null) {
-            module.getTranslationManager().send(sender, "earthtools.tpr.failed");
-            return true;
-        }
-
-        player.teleport(safeLocation);
-        module.getTranslationManager().send(sender, "earthtools.tpr.success");
-
-        module.getTranslationManager().send(sender, "earthtools.tpr.coords",
-                String.format(Locale.US, "%.0f", safeLocation.getX()),
-                String.format(Locale.US, "%.0f", safeLocation.getY()),
-                String.format(Locale.US, "%.0f", safeLocation.getZ()));
-
-        synchronized (cooldowns) {
-            cooldowns.put(uuid, System.currentTimeMillis() + cooldown * 1000L);
+        // Une seule recherche par joueur, et un nombre limité de recherches simultanées
+        int maxConcurrent = Math.max(1, module.getConfigManager().getInt("earthtools.tpr.max-concurrent-searches", 4));
+        synchronized (searching) {
+            if (searching.contains(uuid)) {
+                module.getTranslationManager().send(sender, "earthtools.tpr.already-searching");
+                return true;
+            }
+            if (searching.size() >= maxConcurrent) {
+                module.getTranslationManager().send(sender, "earthtools.tpr.busy");
+                return true;
+            }
+            searching.add(uuid);
         }
 
-        return true;
-    }
-
-    @Nullable
-    private Location findSafeLocation(@NotNull World world, int maxX, int maxZ) {
-        boolean isNether = world.getEnvironment() == World.Environment.NETHER;
-
+        int maxX = module.getConfigManager().getInt("earthtools.tpr.max-x", 24597);
+        int maxZ = module.getConfigManager().getInt("earthtools.tpr.max-z", 12298);
         // ✅ FIX: Garantir minimum 1 tentative (évite boucle infinie)
         int maxAttempts = Math.max(1, module.getConfigManager().getInt("earthtools.tpr.max-attempts", 50));
-        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean checkTowny = module.getConfigManager().getBoolean("earthtools.tpr.check-towny", true);
 
-        for (int i = 0; i < maxAttempts; i++) {
-            int x = random.nextInt(-maxX, maxX + 1);
-            int z = random.nextInt(-maxZ, maxZ + 1);
+        module.getTranslationManager().send(sender, "earthtools.tpr.searching");
 
-            if (townyEnabled && module.getConfigManager().getBoolean("earthtools.tpr.check-towny", true)) {
-                if (!canTeleportToLocation(world, x, z)) {
-                    continue;
-                }
+        // ✅ Réserve d'abord (instantané), sinon recherche asynchrone classique
+        pool.poll(world).whenComplete((pooled, poolError) -> {
+            if (!module.plugin.isEnabled()) {
+                return;
             }
 
-            Location safeLoc = isNether ?
-                    findSafeNetherLocation(world, x, z) :
-                    findSafeOverworldLocation(world, x, z);
-
-            if (safeLoc != null) {
-                return safeLoc;
-            }
-        }
-
-        return null;
-    }
-
-    private boolean canTeleportToLocation(@NotNull World world, int x, int z) {
-        if (!townyEnabled) return true;
-
-        try {
-            TownyWorld townyWorld = TownyAPI.getInstance().getTownyWorld(world);
-            if (townyWorld == null) return true;
+            module.plugin.getServer().getScheduler().runTask(module.plugin, () -> {
+                if (pooled != null) {
+                    teleport(player, pooled, cooldown);
+                    return;
+                }
 
-            TownBlock townBlock = townyWorld.getTownBlock(x >> 4, z >> 4);
+                // ✅ Recherche entièrement asynchrone: le thread principal ne charge jamais de chunk en bloquant
+                finder.find(world, maxX, maxZ, maxAttempts, checkTowny).whenComplete((safeLocation, error) -> {
+                    if (error != null) {
+                        module.error("Erreur lors de la recherche TPR", error);
+                    }
 
-            if (townBlock == null) return true;
+                    if (!module.plugin.isEnabled()) {
+                        return;
+                    }
 
-            return !townBlock.hasTown();
+                    module.plugin.getServer().getScheduler().runTask(module.plugin,
+                            () -> teleport(player, safeLocation, cooldown));
+                });
+            });
+        });
 
-        } catch (Exception e) {
-            module.debug("Erreur vérification Towny: {}", e.getMessage());
-            return true;
-        }
+        return true;
     }
 
-    @Nullable
-    private Location findSafeOverworldLocation(@NotNull World world, int x, int z) {
-        if (!world.isChunkLoaded(x >> 4, z >> 4)) {
-            world.loadChunk(x >> 4, z >> 4);
-        }
-
-        int highestY = world.getHighestBlockYAt(x, z);
-
-        if (highestY < world.getMinHeight() + 1 || highestY >= world.getMaxHeight() - 2) {
-            return null;
-        }
-
-        int groundY = highestY;
-        while (groundY > world.getMinHeight() && world.getBlockAt(x, groundY, z).getType().isAir()) {
-            groundY--;
-        }
-
-        int spawnY = groundY + 1;
-
-        Material ground = world.getBlockAt(x, groundY, z).getType();
-        Material blockAtFeet = world.getBlockAt(x, spawnY, z).getType();
-        Material blockAtHead = world.getBlockAt(x, spawnY + 1, z).getType();
-
-        if (isUnsafeGroundBlock(ground)) {
-            return null;
-        }
-
-        if (!blockAtFeet.isAir() || !blockAtHead.isAir()) {
-            return null;
-        }
-
-        if (hasLiquidNearby(world, x, spawnY, z)) {
-            return null;
-        }
-
-        if (isDangerousArea(world, x, spawnY, z)) {
-            return null;
-        }
-
-        return new Location(world, x + 0.5, spawnY, z + 0.5);
+    /**
+     * /tpr stats: métriques de la réserve (admin)
+     */
+    private void showStats(@NotNull CommandSender sender) {
+        TprLocationPool.Stats stats = pool.getStats();
+        SafeLocationFinder.Stats search = finder.getStats();
+        TranslationManager tm = module.getTranslationManager();
+
+        tm.send(sender, "earthtools.tpr.stats.separator");
+        tm.send(sender, "earthtools.tpr.stats.header");
+        tm.send(sender, "earthtools.tpr.stats.separator");
+        tm.send(sender, "earthtools.tpr.stats.enabled",
+                tm.get(sender, stats.enabled() ? "earthtools.tpr.stats.yes" : "earthtools.tpr.stats.no"));
+        tm.send(sender, "earthtools.tpr.stats.available", stats.available(), stats.capacity());
+        tm.send(sender, "earthtools.tpr.stats.hit-rate",
+                String.format(Locale.US, "%.1f", stats.hitRate() * 100), stats.hits(), stats.misses());
+        tm.send(sender, "earthtools.tpr.stats.stale", stats.stale());
+        tm.send(sender, "earthtools.tpr.stats.refills", stats.refills(), stats.failedRefills(),
+                String.format(Locale.US, "%.0f", stats.averageRefillMs()));
+        tm.send(sender, "earthtools.tpr.stats.searches", search.successes(), search.searches(),
+                String.format(Locale.US, "%.1f", search.chunkLoadsPerSuccess()));
+        tm.send(sender, "earthtools.tpr.stats.draws", search.draws(), search.chunkLoads());
+        tm.send(sender, "earthtools.tpr.stats.separator");
     }
 
-    @Nullable
-    private Location findSafeNetherLocation(@NotNull World world, int x, int z) {
-        if (!world.isChunkLoaded(x >> 4, z >> 4)) {
-            world.loadChunk(x >> 4, z >> 4);
-        }
-
-        for (int y = 32; y < 120; y++) {
-            Material ground = world.getBlockAt(x, y - 1, z).getType();
-            Material blockAtFeet = world.getBlockAt(x, y, z).getType();
-            Material blockAtHead = world.getBlockAt(x, y + 1, z).getType();
-            Material blockAbove = world.getBlockAt(x, y + 2, z).getType();
-
-            if (!ground.isSolid() || isUnsafeNetherBlock(ground)) {
-                continue;
-            }
-
-            if (!blockAtFeet.isAir() || !blockAtHead.isAir()) {
-                continue;
-            }
-
-            if (blockAtFeet == Material.LAVA || blockAtHead == Material.LAVA || blockAbove == Material.LAVA) {
-                continue;
-            }
+    /**
+     * Téléportation finale (thread principal)
+     */
+    private void teleport(@NotNull Player player, @Nullable Location safeLocation, int cooldown) {
+        UUID uuid = player.getUniqueId();
 
-            if (hasLavaNearby(world, x, y, z)) {
-                continue;
+        if (safeLocation == null || !player.isOnline()) {
+            synchronized (searching) {
+                searching.remove(uuid);
             }
-
-            if (isDangerousNetherArea(world, x, y, z)) {
-                continue;
+            if (player.isOnline()) {
+                module.getTranslationManager().send(player, "earthtools.tpr.failed");
             }
-
-            return new Location(world, x + 0.5, y, z + 0.5);
+            return;
         }
 
-        return null;
-    }
-
-    private boolean isUnsafeGroundBlock(Material material) {
-        return material == Material.WATER ||
-                material == Material.LAVA ||
-                material == Material.AIR ||
-                material == Material.BEDROCK ||
-                material.name().contains("KELP") ||
-                material.name().contains("LEAVES") ||
-                material.name().contains("ICE") ||
-                material.name().contains("SNOW") ||
-                material == Material.CACTUS ||
-                material == Material.MAGMA_BLOCK ||
-                material == Material.SWEET_BERRY_BUSH ||
-                material == Material.FIRE ||
-                material == Material.SOUL_FIRE ||
-                material == Material.POWDER_SNOW ||
-                material == Material.SLIME_BLOCK ||
-                material == Material.HONEY_BLOCK;
-    }
-
-    private boolean isUnsafeNetherBlock(Material material) {
-        return material == Material.LAVA ||
-                material == Material.BEDROCK ||
-                material == Material.MAGMA_BLOCK ||
-                material == Material.FIRE ||
-                material == Material.SOUL_FIRE ||
-                material == Material.SOUL_SAND ||
-                material == Material.NETHER_WART_BLOCK;
-    }
-
-    private boolean hasLavaNearby(World world, int x, int y, int z) {
-        for (int dx = -2; dx <= 2; dx++) {
-            for (int dy = -1; dy <= 2; dy++) {
-                for (int dz = -2; dz <= 2; dz++) {
-                    Material block = world.getBlockAt(x + dx, y + dy, z + dz).getType();
-                    if (block == Material.LAVA) {
-                        return true;
-                    }
-                }
+        player.teleportAsync(safeLocation).whenComplete((success, error) -> {
+            synchronized (searching) {
+                searching.remove(uuid);
             }
-        }
-        return false;
-    }
 
-    private boolean hasLiquidNearby(World world, int x, int y, int z) {
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dz = -1; dz <= 1; dz++) {
-                Material block = world.getBlockAt(x + dx, y, z + dz).getType();
-                if (block == Material.LAVA || block == Material.WATER) {
-                    return true;
-                }
+            if (error != null || !Boolean.TRUE.equals(success)) {
+                module.getTranslationManager().send(player, "earthtools.tpr.failed");
+                return;
             }
-        }
-        return false;
-    }
 
-    private boolean isDangerousArea(World world, int x, int y, int z) {
-        for (int dx = -5; dx <= 5; dx++) {
-            for (int dy = -3; dy <= 3; dy++) {
-                for (int dz = -5; dz <= 5; dz++) {
-                    Material block = world.getBlockAt(x + dx, y + dy, z + dz).getType();
-                    if (block == Material.SPAWNER || block == Material.END_PORTAL_FRAME) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
+            module.getTranslationManager().send(player, "earthtools.tpr.success");
+            module.getTranslationManager().send(player, "earthtools.tpr.coords",
+                    String.format(Locale.US, "%.0f", safeLocation.getX()),
+                    String.format(Locale.US, "%.0f", safeLocation.getY()),
+                    String.format(Locale.US, "%.0f", safeLocation.getZ()));
 
-    private boolean isDangerousNetherArea(World world, int x, int y, int z) {
-        for (int dx = -5; dx <= 5; dx++) {
-            for (int dy = -3; dy <= 3; dy++) {
-                for (int dz = -5; dz <= 5; dz++) {
-                    Material block = world.getBlockAt(x + dx, y + dy, z + dz).getType();
-                    if (block == Material.SPAWNER) {
-                        return true;
-                    }
-                }
+            synchronized (cooldowns) {
+                cooldowns.put(uuid, System.currentTimeMillis() + cooldown * 1000L);
             }
-        }
-        return false;
+
+            module.plugin.getStatsService().increment(uuid, StatType.TPR_TELEPORTS);
+        });
     }
 
     private void cleanupCooldowns() {
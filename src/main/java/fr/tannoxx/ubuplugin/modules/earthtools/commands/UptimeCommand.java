@@ -1,13 +1,18 @@
 package fr.tannoxx.ubuplugin.modules.earthtools.commands;
 
+import fr.tannoxx.ubuplugin.common.stats.StatType;
+import fr.tannoxx.ubuplugin.common.stats.StatsService;
 import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.data.SessionRepository;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.LeaderboardHolder;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.LeaderboardPages;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.PlaytimeLeaderboard;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.PlaytimeLeaderboard.PlaytimeEntry;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.SessionTracker;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.format.NamedTextColor;
-import net.kyori.adventure.text.format.TextDecoration;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.OfflinePlayer;
-import org.bukkit.Statistic;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -17,14 +22,12 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.ItemStack;
-import org.bukkit.inventory.meta.SkullMeta;
-import org.bukkit.scheduler.BukkitRunnable;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jspecify.annotations.NonNull;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Commande /uptime avec GUI interactif pour le leaderboard
@@ -33,19 +36,20 @@ import java.util.concurrent.ConcurrentHashMap;
  * - GUI avec pagination complète (flèches)
  * - Console affiche top 100 avec rangs
  * - Support de tous les joueurs avec temps > 0
+ * - Classement tenu à jour en mémoire ({@link PlaytimeLeaderboard}): une page ne lit
+ *   plus aucun fichier de statistiques
+ * - GUI reconnu par son {@link LeaderboardHolder}, plus par son titre
+ * - /uptime stats: classements des statistiques agrégées ({@link StatsService})
+ * - /uptime today|week: temps de jeu du jour / de la semaine ({@link SessionTracker})
  */
 public record UptimeCommand(EarthToolsModule module) implements CommandExecutor, TabCompleter, Listener {
 
-    private static final int PLAYERS_PER_PAGE = 45;
-    private static final int MAX_CONSOLE_DISPLAY = 100;
-    private static final Map<UUID, Integer> playerPages = new ConcurrentHashMap<>();
-
     @Override
     public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command,
                              @NotNull String label, String[] args) {
         if (args.length == 0) {
             sender.sendMessage(module.getTranslationManager().getComponent(sender,
-                    "<red>Usage: /uptime <player|leaderboard></red>"));
+                    "<red>Usage: /uptime <player|leaderboard|today|week|stats></red>"));
             return true;
         }
 
@@ -60,6 +64,21 @@ public record UptimeCommand(EarthToolsModule module) implements CommandExecutor,
             return true;
         }
 
+        if (args[0].equalsIgnoreCase("stats")) {
+            showStatsLeaderboard(sender, args);
+            return true;
+        }
+
+        if (args[0].equalsIgnoreCase("today")) {
+            showPeriodLeaderboard(sender, SessionTracker.Window.TODAY);
+            return true;
+        }
+
+        if (args[0].equalsIgnoreCase("week")) {
+            showPeriodLeaderboard(sender, SessionTracker.Window.WEEK);
+            return true;
+        }
+
         String targetName = args[0];
         OfflinePlayer target = Bukkit.getOfflinePlayer(targetName);
 
@@ -68,8 +87,7 @@ public record UptimeCommand(EarthToolsModule module) implements CommandExecutor,
             return true;
         }
 
-        long ticks = target.getStatistic(Statistic.PLAY_ONE_MINUTE);
-        long millis = ticks * 50L;
+        long millis = module.getPlaytimeTracker().getPlaytime(target);
         String timePlayed = formatTime(millis);
 
         module.getTranslationManager().send(sender, "earthtools.uptime.total",
@@ -79,115 +97,121 @@ public record UptimeCommand(EarthToolsModule module) implements CommandExecutor,
     }
 
     /**
-     * ✅ NOUVEAU: Affiche le leaderboard avec pagination
+     * Classement d'une statistique agrégée: /uptime stats <type> [today|week|all]
+     * Lu dans les tables de cumul (asynchrone), les deltas pas encore écrits ne sont pas comptés
      */
-    private void showLeaderboardGUI(@NotNull Player player, int page) {
-        module.getTranslationManager().send(player, "earthtools.uptime.loading");
-
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                OfflinePlayer[] allPlayers = Bukkit.getOfflinePlayers();
-
-                List<PlayerStats> allStats = Arrays.stream(allPlayers)
-                        .parallel()
-                        .filter(p -> p.hasPlayedBefore() && p.getName() != null)
-                        .map(p -> {
-                            long ticks = p.getStatistic(Statistic.PLAY_ONE_MINUTE);
-                            long millis = ticks * 50L;
-                            return new PlayerStats(p.getName(), p, millis);
-                        })
-                        .filter(stats -> stats.playtime > 0)
-                        .sorted(Comparator.comparingLong(PlayerStats::playtime).reversed())
-                        .toList();
-
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        openLeaderboardInventory(player, allStats, page);
-                    }
-                }.runTask(module.plugin);
-            }
-        }.runTaskAsynchronously(module.plugin);
+    private void showStatsLeaderboard(@NotNull CommandSender sender, @NotNull String[] args) {
+        StatType type = args.length >= 2 ? StatType.fromKey(args[1]) : null;
+        StatsService.Period period = args.length >= 3 ? parsePeriod(args[2]) : StatsService.Period.ALL;
+
+        if (type == null || period == null) {
+            module.getTranslationManager().send(sender, "earthtools.uptime.stats-usage",
+                    Arrays.stream(StatType.values()).map(StatType::getKey).collect(Collectors.joining("|")));
+            return;
+        }
+
+        int limit = Math.max(1, module.getConfigManager().getInt("earthtools.uptime.stats-size", 10));
+
+        module.plugin.getStatsService().top(type, period, limit).thenAccept(entries -> {
+            if (!module.plugin.isEnabled()) return;
+
+            module.plugin.getServer().getScheduler().runTask(module.plugin, () -> {
+                module.getTranslationManager().send(sender, "earthtools.uptime.stats-header",
+                        module.getTranslationManager().get(sender, "earthtools.uptime.stat-types." + type.getKey()),
+                        module.getTranslationManager().get(sender, "earthtools.uptime.periods." + period.name().toLowerCase()));
+
+                if (entries.isEmpty()) {
+                    module.getTranslationManager().send(sender, "earthtools.uptime.stats-empty");
+                    return;
+                }
+
+                int rank = 1;
+                for (StatsService.StatEntry entry : entries) {
+                    String rankColor = switch (rank) {
+                        case 1 -> "<gold>";
+                        case 2 -> "<gray>";
+                        case 3 -> "<red>";
+                        default -> "<yellow>";
+                    };
+
+                    module.getTranslationManager().send(sender, "earthtools.uptime.rank-entry",
+                            rankColor, String.valueOf(rank), getPlayerName(entry.uuid()), String.valueOf(entry.value()));
+                    rank++;
+                }
+            });
+        });
     }
 
     /**
-     * Crée et ouvre l'inventaire du leaderboard avec pagination
+     * Temps de jeu du jour ou de la semaine calendaire (depuis lundi)
+     * Lu dans les cumuls des sessions (asynchrone), à jour au dernier point de contrôle
      */
-    private void openLeaderboardInventory(@NotNull Player player, @NotNull List<PlayerStats> allStats, int page) {
-        int totalPages = (int) Math.ceil((double) allStats.size() / PLAYERS_PER_PAGE);
-        page = Math.max(0, Math.min(page, totalPages - 1)); // Clamp page
-
-        // Sauvegarder la page actuelle du joueur
-        playerPages.put(player.getUniqueId(), page);
-
-        // Créer un inventaire de 54 slots (6 rangées)
-        Inventory inv = Bukkit.createInventory(null, 54,
-                Component.text("🏆 Top Joueurs - Page " + (page + 1) + "/" + totalPages,
-                        NamedTextColor.GOLD, TextDecoration.BOLD));
-
-        // Calculer les indices pour cette page
-        int startIndex = page * PLAYERS_PER_PAGE;
-        int endIndex = Math.min(startIndex + PLAYERS_PER_PAGE, allStats.size());
-
-        int slot = 0;
-        for (int i = startIndex; i < endIndex; i++) {
-            PlayerStats stat = allStats.get(i);
-            int rank = i + 1; // Rang global
-
-            ItemStack skull = createPlayerSkull(stat, rank);
-            inv.setItem(slot, skull);
-            slot++;
-        }
+    private void showPeriodLeaderboard(@NotNull CommandSender sender, @NotNull SessionTracker.Window window) {
+        int limit = Math.max(1, module.getConfigManager().getInt("earthtools.uptime.stats-size", 10));
+
+        module.getSessionTracker().top(window, limit).thenAccept(stats -> {
+            if (!module.plugin.isEnabled()) return;
+
+            module.plugin.getServer().getScheduler().runTask(module.plugin, () -> {
+                module.getTranslationManager().send(sender, "earthtools.uptime.period-header",
+                        module.getTranslationManager().get(sender, "earthtools.uptime.windows." + window.name().toLowerCase()),
+                        String.valueOf(stats.activePlayers()));
+
+                if (stats.entries().isEmpty()) {
+                    module.getTranslationManager().send(sender, "earthtools.uptime.stats-empty");
+                    return;
+                }
+
+                int rank = 1;
+                for (SessionRepository.PeriodEntry entry : stats.entries()) {
+                    String rankColor = switch (rank) {
+                        case 1 -> "<gold>";
+                        case 2 -> "<gray>";
+                        case 3 -> "<red>";
+                        default -> "<yellow>";
+                    };
+
+                    module.getTranslationManager().send(sender, "earthtools.uptime.rank-entry",
+                            rankColor, String.valueOf(rank), getPlayerName(entry.uuid()), formatTime(entry.playtimeMs()));
+                    rank++;
+                }
+            });
+        });
+    }
 
-        // Décoration: bordure
-        ItemStack border = new ItemStack(Material.GRAY_STAINED_GLASS_PANE);
-        var borderMeta = border.getItemMeta();
-        borderMeta.displayName(Component.text(" "));
-        border.setItemMeta(borderMeta);
+    @Nullable
+    private static StatsService.Period parsePeriod(@NotNull String arg) {
+        return switch (arg.toLowerCase()) {
+            case "today", "day" -> StatsService.Period.TODAY;
+            case "week" -> StatsService.Period.WEEK;
+            case "all" -> StatsService.Period.ALL;
+            default -> null;
+        };
+    }
 
-        // Remplir la dernière rangée avec la bordure
-        for (int i = 45; i < 54; i++) {
-            inv.setItem(i, border);
+    /**
+     * Nom connu du classement de temps de jeu, sinon celui du serveur
+     */
+    @NotNull
+    private String getPlayerName(@NotNull UUID uuid) {
+        PlaytimeEntry entry = module.getPlaytimeTracker().getLeaderboard().get(uuid);
+        if (entry != null) {
+            return entry.name();
         }
 
-        // ✅ Bouton page précédente (slot 48)
-        if (page > 0) {
-            ItemStack prevPage = new ItemStack(Material.ARROW);
-            var prevMeta = prevPage.getItemMeta();
-            prevMeta.displayName(Component.text("← Page précédente", NamedTextColor.YELLOW, TextDecoration.BOLD));
-            prevMeta.lore(List.of(
-                    Component.text(""),
-                    Component.text("Page " + page + "/" + totalPages, NamedTextColor.GRAY)
-            ));
-            prevPage.setItemMeta(prevMeta);
-            inv.setItem(48, prevPage);
-        }
+        String name = Bukkit.getOfflinePlayer(uuid).getName();
+        return name != null ? name : uuid.toString().substring(0, 8);
+    }
 
-        // Item d'info au centre (slot 49)
-        ItemStack infoItem = new ItemStack(Material.BOOK);
-        var infoMeta = infoItem.getItemMeta();
-        infoMeta.displayName(Component.text("📊 Statistiques", NamedTextColor.AQUA, TextDecoration.BOLD));
-        infoMeta.lore(Arrays.asList(
-                Component.text(""),
-                Component.text("Total joueurs: " + allStats.size(), NamedTextColor.GRAY),
-                Component.text("Page: " + (page + 1) + "/" + totalPages, NamedTextColor.GRAY),
-                Component.text("Mis à jour en temps réel", NamedTextColor.DARK_GRAY)
-        ));
-        infoItem.setItemMeta(infoMeta);
-        inv.setItem(49, infoItem);
-
-        // ✅ Bouton page suivante (slot 50)
-        if (page < totalPages - 1) {
-            ItemStack nextPage = new ItemStack(Material.ARROW);
-            var nextMeta = nextPage.getItemMeta();
-            nextMeta.displayName(Component.text("Page suivante →", NamedTextColor.YELLOW, TextDecoration.BOLD));
-            nextMeta.lore(List.of(
-                    Component.text(""),
-                    Component.text("Page " + (page + 2) + "/" + totalPages, NamedTextColor.GRAY)
-            ));
-            nextPage.setItemMeta(nextMeta);
-            inv.setItem(50, nextPage);
+    /**
+     * ✅ NOUVEAU: Affiche le leaderboard avec pagination
+     * Les pages sont partagées entre tous les joueurs ({@link LeaderboardPages})
+     */
+    private void showLeaderboardGUI(@NotNull Player player, int page) {
+        Inventory inv = module.getLeaderboardPages().getPage(page);
+        if (inv == null) {
+            module.getTranslationManager().send(player, "earthtools.uptime.loading");
+            return;
         }
 
         player.openInventory(inv);
@@ -198,139 +222,61 @@ public record UptimeCommand(EarthToolsModule module) implements CommandExecutor,
      */
     @EventHandler
     public void onInventoryClick(@NotNull InventoryClickEvent event) {
+        if (!(event.getView().getTopInventory().getHolder() instanceof LeaderboardHolder holder)) return;
         if (!(event.getWhoClicked() instanceof Player player)) return;
 
-        // Vérifier le titre de manière sûre avec serialization
-        Component title = event.getView().title();
-        String titleStr = net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer.plainText().serialize(title);
-
-        if (!titleStr.startsWith("🏆 Top Joueurs")) return;
-
         event.setCancelled(true);
 
-        ItemStack clicked = event.getCurrentItem();
-        if (clicked == null || clicked.getType() == Material.AIR) return;
-
-        Integer currentPage = playerPages.get(player.getUniqueId());
-        if (currentPage == null) currentPage = 0;
-
-        // Détection des boutons
-        if (clicked.getType() == Material.ARROW) {
-            Component displayName = clicked.getItemMeta().displayName();
-            assert displayName != null;
-            String name = net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer.plainText().serialize(displayName);
-
-            if (name.contains("précédente")) {
-                // Page précédente
-                showLeaderboardGUI(player, currentPage - 1);
-            } else if (name.contains("suivante")) {
-                // Page suivante
-                showLeaderboardGUI(player, currentPage + 1);
-            }
+        // Boutons uniquement dans l'inventaire du haut
+        if (event.getRawSlot() == LeaderboardPages.PREVIOUS_SLOT && holder.getPage() > 0) {
+            showLeaderboardGUI(player, holder.getPage() - 1);
+        } else if (event.getRawSlot() == LeaderboardPages.NEXT_SLOT
+                && event.getCurrentItem() != null && event.getCurrentItem().getType() == Material.ARROW) {
+            showLeaderboardGUI(player, holder.getPage() + 1);
         }
     }
 
     /**
-     * Crée une tête de joueur avec ses stats
+     * ✅ AMÉLIORÉ: Affiche le top 100 avec rangs en console
      */
-    private ItemStack createPlayerSkull(@NotNull PlayerStats stat, int rank) {
-        ItemStack skull = new ItemStack(Material.PLAYER_HEAD);
-        SkullMeta meta = (SkullMeta) skull.getItemMeta();
-
-        meta.setOwningPlayer(stat.player);
-
-        // Couleur du nom selon le rang
-        Component displayName = switch (rank) {
-            case 1 -> Component.text("🥇 #" + rank + " " + stat.playerName, NamedTextColor.GOLD, TextDecoration.BOLD);
-            case 2 -> Component.text("🥈 #" + rank + " " + stat.playerName, NamedTextColor.GRAY, TextDecoration.BOLD);
-            case 3 -> Component.text("🥉 #" + rank + " " + stat.playerName, NamedTextColor.RED, TextDecoration.BOLD);
-            default -> Component.text("#" + rank + " " + stat.playerName, NamedTextColor.YELLOW);
-        };
-
-        meta.displayName(displayName);
-
-        // Lore avec les stats
-        String timeFormatted = formatTime(stat.playtime);
-        long hours = stat.playtime / (1000 * 60 * 60);
-        long days = hours / 24;
-
-        List<Component> lore = new ArrayList<>();
-        lore.add(Component.text(""));
-        lore.add(Component.text("⏱ Temps de jeu:", NamedTextColor.GRAY));
-        lore.add(Component.text("  " + timeFormatted, NamedTextColor.AQUA));
-        lore.add(Component.text(""));
-
-        if (days > 0) {
-            lore.add(Component.text("📅 " + days + " jour" + (days > 1 ? "s" : ""), NamedTextColor.GREEN));
+    private void showLeaderboardText(@NotNull CommandSender sender) {
+        if (!module.getPlaytimeTracker().isReady()) {
+            module.getTranslationManager().send(sender, "earthtools.uptime.loading");
+            return;
         }
-        lore.add(Component.text("🕐 " + hours + " heure" + (hours > 1 ? "s" : ""), NamedTextColor.GREEN));
 
-        meta.lore(lore);
-        skull.setItemMeta(meta);
+        PlaytimeLeaderboard leaderboard = module.getPlaytimeTracker().getLeaderboard();
+        int limit = Math.max(1, module.getConfigManager().getInt("earthtools.uptime.leaderboard-size", 100));
+        List<PlaytimeEntry> topEntries = leaderboard.page(0, limit); // ✅ Top 100 par défaut
+        int totalPlayers = leaderboard.size();
+
+        sender.sendMessage(module.getTranslationManager().getComponent(sender,
+                "<gray><strikethrough>                                                          </strikethrough></gray>"));
+        module.getTranslationManager().send(sender, "earthtools.uptime.header");
+        module.getTranslationManager().send(sender, "earthtools.uptime.players",
+                String.valueOf(totalPlayers));
+        sender.sendMessage(Component.empty());
+
+        int rank = 1;
+        for (PlaytimeEntry stats : topEntries) {
+            String formattedTime = formatTime(stats.playtime());
+
+            String rankColor = switch (rank) {
+                case 1 -> "<gold>";
+                case 2 -> "<gray>";
+                case 3 -> "<red>";
+                default -> "<yellow>";
+            };
 
-        return skull;
-    }
+            sender.sendMessage(module.getTranslationManager().getComponent(sender,
+                    rankColor + "#" + rank + " <white>" + stats.name() +
+                            "</white> <gray>-</gray> <aqua>" + formattedTime + "</aqua>"));
+            rank++;
+        }
 
-    /**
-     * ✅ AMÉLIORÉ: Affiche le top 100 avec rangs en console
-     */
-    private void showLeaderboardText(@NotNull CommandSender sender) {
-        module.getTranslationManager().send(sender, "earthtools.uptime.loading");
-
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                OfflinePlayer[] allPlayers = Bukkit.getOfflinePlayers();
-
-                List<PlayerStats> playerStats = Arrays.stream(allPlayers)
-                        .parallel()
-                        .filter(player -> player.hasPlayedBefore() && player.getName() != null)
-                        .map(player -> {
-                            long ticks = player.getStatistic(Statistic.PLAY_ONE_MINUTE);
-                            long millis = ticks * 50L;
-                            return new PlayerStats(player.getName(), player, millis);
-                        })
-                        .filter(stats -> stats.playtime > 0)
-                        .sorted(Comparator.comparingLong(PlayerStats::playtime).reversed())
-                        .limit(MAX_CONSOLE_DISPLAY) // ✅ Top 100 max
-                        .toList();
-
-                int totalPlayers = playerStats.size();
-
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        sender.sendMessage(module.getTranslationManager().getComponent(sender,
-                                "<gray><strikethrough>                                                          </strikethrough></gray>"));
-                        module.getTranslationManager().send(sender, "earthtools.uptime.header");
-                        module.getTranslationManager().send(sender, "earthtools.uptime.players",
-                                String.valueOf(totalPlayers));
-                        sender.sendMessage(Component.empty());
-
-                        int rank = 1;
-                        for (PlayerStats stats : playerStats) {
-                            String formattedTime = formatTime(stats.playtime);
-
-                            String rankColor = switch (rank) {
-                                case 1 -> "<gold>";
-                                case 2 -> "<gray>";
-                                case 3 -> "<red>";
-                                default -> "<yellow>";
-                            };
-
-                            sender.sendMessage(module.getTranslationManager().getComponent(sender,
-                                    rankColor + "#" + rank + " <white>" + stats.playerName +
-                                            "</white> <gray>-</gray> <aqua>" + formattedTime + "</aqua>"));
-                            rank++;
-                        }
-
-                        sender.sendMessage(Component.empty());
-                        sender.sendMessage(module.getTranslationManager().getComponent(sender,
-                                "<gray><strikethrough>                                                          </strikethrough></gray>"));
-                    }
-                }.runTask(module.plugin);
-            }
-        }.runTaskAsynchronously(module.plugin);
+        sender.sendMessage(Component.empty());
+        sender.sendMessage(module.getTranslationManager().getComponent(sender,
+                "<gray><strikethrough>                                                          </strikethrough></gray>"));
     }
 
     private String formatTime(long millis) {
@@ -348,12 +294,16 @@ public record UptimeCommand(EarthToolsModule module) implements CommandExecutor,
         if (args.length == 1) {
             completions.add("leaderboard");
             completions.add("top");
+            completions.add("stats");
+            completions.add("today");
+            completions.add("week");
             Bukkit.getOnlinePlayers().forEach(p -> completions.add(p.getName()));
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("stats")) {
+            Arrays.stream(StatType.values()).forEach(type -> completions.add(type.getKey()));
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("stats")) {
+            completions.addAll(List.of("today", "week", "all"));
         }
 
         return completions;
     }
-
-    private record PlayerStats(String playerName, OfflinePlayer player, long playtime) {
-    }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.data;
+
+/**
+ * Disjoncteur simple pour un fournisseur distant
+ * <p>
+ * Après N échecs consécutifs, le fournisseur est ignoré pendant un délai,
+ * puis une seule requête d'essai est autorisée (semi-ouvert).
+ * Thread-safe (méthodes synchronisées, appels peu fréquents).
+ */
+public class CircuitBreaker {
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openDurationMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    public CircuitBreaker(int failureThreshold, long openDurationMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationMillis = openDurationMillis;
+    }
+
+    /**
+     * @return true si une requête peut être envoyée maintenant
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openDurationMillis) {
+                    return false;
+                }
+                // Délai écoulé: laisser passer une requête d'essai
+                state = State.HALF_OPEN;
+                return true;
+            default:
+                // Requête d'essai déjà en cours
+                return false;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.currentTimeMillis() - openedAt < openDurationMillis;
+    }
+}
@@ -0,0 +1,185 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.data;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache persistant (L2) des recherches de pays, adossé à la table country_cache
+ * Lecture à la demande et écriture différée par lots (write-behind)
+ * <p>
+ * Le cache Caffeine du module reste le niveau L1 : cette classe n'est
+ * consultée qu'en cas de miss L1 et survit aux redémarrages et aux /ubu reload.
+ */
+public class CountryCacheRepository {
+
+    private final EarthToolsModule module;
+
+    // Écritures en attente (la dernière valeur d'une clé écrase les précédentes)
+    private final Map<String, EarthToolsModule.CountryCacheEntry> pendingWrites = new ConcurrentHashMap<>();
+
+    public CountryCacheRepository(@NotNull EarthToolsModule module) {
+        this.module = module;
+    }
+
+    /**
+     * Recherche une entrée en base sans bloquer l'appelant
+     * @param cacheKey Clé arrondie (lat,lon)
+     * @return Entrée encore valide, ou null si absente/expirée
+     */
+    @NotNull
+    public CompletableFuture<EarthToolsModule.CountryCacheEntry> findAsync(@NotNull String cacheKey) {
+        // Une écriture encore en file est plus récente que la base
+        EarthToolsModule.CountryCacheEntry pending = pendingWrites.get(cacheKey);
+        if (pending != null) {
+            return CompletableFuture.completedFuture(pending);
+        }
+
+        // JDBC bloquant: exécuteur asynchrone de Bukkit, pas le ForkJoinPool commun
+        return CompletableFuture.supplyAsync(() -> find(cacheKey),
+                task -> module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, task));
+    }
+
+    @Nullable
+    private EarthToolsModule.CountryCacheEntry find(@NotNull String cacheKey) {
+        try (Connection conn = module.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT country_name, is_error, timestamp FROM country_cache WHERE cache_key = ?")) {
+
+            stmt.setString(1, cacheKey);
+            ResultSet rs = stmt.executeQuery();
+
+            if (!rs.next()) {
+                return null;
+            }
+
+            EarthToolsModule.CountryCacheEntry entry = new EarthToolsModule.CountryCacheEntry(
+                    rs.getString("country_name"),
+                    rs.getBoolean("is_error"),
+                    rs.getLong("timestamp")
+            );
+
+            if (isExpired(entry, System.currentTimeMillis())) {
+                return null;
+            }
+
+            return entry;
+        } catch (SQLException e) {
+            module.error("Erreur lecture cache pays", e);
+            return null;
+        }
+    }
+
+    /**
+     * Planifie l'écriture d'une entrée (write-behind)
+     * @param cacheKey Clé arrondie (lat,lon)
+     * @param entry Résultat de la recherche
+     */
+    public void save(@NotNull String cacheKey, @NotNull EarthToolsModule.CountryCacheEntry entry) {
+        pendingWrites.put(cacheKey, entry);
+    }
+
+    /**
+     * Écrit toutes les entrées en attente en une seule transaction
+     * Appelé périodiquement en asynchrone et à la désactivation du module
+     */
+    public void flush() {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+
+        // Snapshot: les clés retirées ici sont celles réellement écrites
+        List<Map.Entry<String, EarthToolsModule.CountryCacheEntry>> batch = new ArrayList<>();
+        for (String key : pendingWrites.keySet()) {
+            EarthToolsModule.CountryCacheEntry entry = pendingWrites.remove(key);
+            if (entry != null) {
+                batch.add(Map.entry(key, entry));
+            }
+        }
+
+        try (Connection conn = module.getDatabaseManager().getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT OR REPLACE INTO country_cache (cache_key, country_name, is_error, timestamp) VALUES (?, ?, ?, ?)")) {
+
+                for (Map.Entry<String, EarthToolsModule.CountryCacheEntry> item : batch) {
+                    stmt.setString(1, item.getKey());
+                    stmt.setString(2, item.getValue().countryName());
+                    stmt.setBoolean(3, item.getValue().isError());
+                    stmt.setLong(4, item.getValue().timestamp());
+                    stmt.addBatch();
+                }
+
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            module.debug("Cache pays: {} entrées écrites en base", batch.size());
+        } catch (SQLException e) {
+            module.error("Erreur écriture cache pays", e);
+
+            // Remettre en file ce qui n'a pas été remplacé entre-temps
+            for (Map.Entry<String, EarthToolsModule.CountryCacheEntry> item : batch) {
+                pendingWrites.putIfAbsent(item.getKey(), item.getValue());
+            }
+        }
+    }
+
+    /**
+     * Supprime les lignes expirées (succès et erreurs ont des durées distinctes)
+     * Les deux requêtes filtrent sur timestamp et utilisent idx_country_cache_timestamp
+     */
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        long successCutoff = now - getPersistentTTLMillis();
+        long errorCutoff = now - getErrorTTLMillis();
+
+        try (Connection conn = module.getDatabaseManager().getConnection();
+             PreparedStatement errors = conn.prepareStatement(
+                     "DELETE FROM country_cache WHERE timestamp < ? AND is_error = 1");
+             PreparedStatement all = conn.prepareStatement(
+                     "DELETE FROM country_cache WHERE timestamp < ?")) {
+
+            errors.setLong(1, errorCutoff);
+            int removedErrors = errors.executeUpdate();
+
+            all.setLong(1, successCutoff);
+            int removedSuccess = all.executeUpdate();
+
+            if (removedErrors + removedSuccess > 0) {
+                module.debug("Cache pays purgé: {} succès, {} erreurs", removedSuccess, removedErrors);
+            }
+        } catch (SQLException e) {
+            module.error("Erreur purge cache pays", e);
+        }
+    }
+
+    private boolean isExpired(@NotNull EarthToolsModule.CountryCacheEntry entry, long now) {
+        long ttl = entry.isError() ? getErrorTTLMillis() : getPersistentTTLMillis();
+        return now - entry.timestamp() > ttl;
+    }
+
+    private long getPersistentTTLMillis() {
+        return module.getConfigManager().getInt("earthtools.country.cache.persistent-duration", 2592000) * 1000L;
+    }
+
+    private long getErrorTTLMillis() {
+        return module.getConfigManager().getInt("earthtools.country.cache.error-duration", 60) * 1000L;
+    }
+}
@@ -0,0 +1,271 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.data;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Client de géocodage inverse distant (repli de /country)
+ * <p>
+ * - un seul HttpClient partagé (connexions réutilisées, HTTP/2 si disponible)
+ * - les recherches simultanées d'une même clé partagent la même requête; seul
+ *   l'initiateur (admis par son quota) lance l'appel, et le sait ({@link Lookup#initiator()})
+ * - réponses lues en streaming (seul le champ utile est extrait)
+ * - un disjoncteur par fournisseur pour ne plus attendre une API en panne
+ */
+public class GeocodingClient {
+
+    private static final String USER_AGENT = "UbuPlugin/2.0 (Minecraft Server)";
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    /**
+     * Fournisseurs supportés: URL + chemin JSON du nom du pays
+     */
+    public enum Provider {
+        NOMINATIM("https://nominatim.openstreetmap.org/reverse?lat=%.6f&lon=%.6f&format=json",
+                "address", "country"),
+        BIGDATACLOUD("https://api.bigdatacloud.net/data/reverse-geocode-client?latitude=%.6f&longitude=%.6f&localityLanguage=en",
+                "countryName");
+
+        private final String urlTemplate;
+        private final String[] path;
+
+        Provider(String urlTemplate, String... path) {
+            this.urlTemplate = urlTemplate;
+            this.path = path;
+        }
+
+        @Nullable
+        static Provider fromName(@NotNull String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private final EarthToolsModule module;
+    private final HttpClient httpClient;
+
+    // URL par fournisseur (surchargeables pour les tests)
+    private final Map<Provider, String> urlTemplates;
+
+    // Requêtes en cours par clé de cache (coalescence)
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private volatile List<Provider> providers = List.of();
+    private volatile Map<Provider, CircuitBreaker> breakers = Map.of();
+
+    public GeocodingClient(@NotNull EarthToolsModule module) {
+        this(module, Map.of());
+    }
+
+    GeocodingClient(@NotNull EarthToolsModule module, @NotNull Map<Provider, String> urlOverrides) {
+        this.module = module;
+        this.urlTemplates = new EnumMap<>(Provider.class);
+        for (Provider provider : Provider.values()) {
+            urlTemplates.put(provider, urlOverrides.getOrDefault(provider, provider.urlTemplate));
+        }
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        reload();
+    }
+
+    /**
+     * Recharge l'ordre des fournisseurs et les paramètres des disjoncteurs
+     */
+    public void reload() {
+        List<Provider> configured = new ArrayList<>();
+        for (String name : module.getConfigManager().getStringList("earthtools.country.apis")) {
+            Provider provider = Provider.fromName(name);
+            if (provider == null) {
+                module.warn("API de géolocalisation inconnue: {}", name);
+            } else if (!configured.contains(provider)) {
+                configured.add(provider);
+            }
+        }
+
+        if (configured.isEmpty()) {
+            configured = List.of(Provider.NOMINATIM, Provider.BIGDATACLOUD);
+        }
+
+        int threshold = module.getConfigManager().getInt("earthtools.country.circuit-breaker.failure-threshold", 3);
+        long openMillis = module.getConfigManager().getInt("earthtools.country.circuit-breaker.open-duration", 60) * 1000L;
+
+        Map<Provider, CircuitBreaker> newBreakers = new EnumMap<>(Provider.class);
+        for (Provider provider : Provider.values()) {
+            newBreakers.put(provider, new CircuitBreaker(threshold, openMillis));
+        }
+
+        providers = List.copyOf(configured);
+        breakers = newBreakers;
+    }
+
+    /**
+     * Recherche le pays via les fournisseurs, dans l'ordre configuré
+     * Les appels concurrents pour une même clé partagent le même future: le choix entre
+     * rejoindre une requête en cours et en lancer une nouvelle est atomique.
+     * @param admission Consultée uniquement si une nouvelle requête doit être lancée (quota de l'appelant)
+     * @return Requête rejointe ou lancée, ou null si une nouvelle requête n'a pas été admise
+     */
+    @Nullable
+    public Lookup lookup(@NotNull String cacheKey, double latitude, double longitude,
+                         @NotNull BooleanSupplier admission) {
+        boolean[] initiator = new boolean[1];
+
+        CompletableFuture<String> future = inFlight.computeIfAbsent(cacheKey, key -> {
+            if (!admission.getAsBoolean()) {
+                return null;
+            }
+            initiator[0] = true;
+            return new CompletableFuture<>();
+        });
+
+        if (future == null) {
+            return null;
+        }
+
+        if (!initiator[0]) {
+            return new Lookup(future, false);
+        }
+
+        // Lancée hors de computeIfAbsent: la requête peut se terminer immédiatement
+        query(providers, 0, latitude, longitude).whenComplete((name, error) -> {
+            if (error != null) {
+                module.error("Erreur API géolocalisation", error);
+            }
+
+            // Compléter avant de retirer: l'initiateur écrit le cache avant qu'une
+            // nouvelle recherche de la même clé puisse relancer un appel
+            future.complete(error != null ? null : name);
+            inFlight.remove(cacheKey, future);
+        });
+
+        return new Lookup(future, true);
+    }
+
+    /**
+     * Interroge le fournisseur d'index donné, puis les suivants en cas d'échec
+     */
+    @NotNull
+    private CompletableFuture<String> query(@NotNull List<Provider> order, int index, double lat, double lon) {
+        if (index >= order.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Provider provider = order.get(index);
+        CircuitBreaker breaker = breakers.get(provider);
+
+        if (!breaker.tryAcquire()) {
+            module.debug("{} ignoré (disjoncteur ouvert)", provider);
+            return query(order, index + 1, lat, lon);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(String.format(Locale.US, urlTemplates.get(provider), lat, lon)))
+                .timeout(TIMEOUT)
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    try (InputStream body = response.body()) {
+                        if (response.statusCode() != 200) {
+                            throw new IOException("HTTP " + response.statusCode());
+                        }
+                        return readString(body, provider.path);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                })
+                .handle((name, error) -> {
+                    if (error != null) {
+                        breaker.recordFailure();
+                        module.debug("{} échoué: {}", provider, error.getMessage());
+                        return null;
+                    }
+
+                    breaker.recordSuccess();
+                    return name;
+                })
+                .thenCompose(name -> name != null
+                        ? CompletableFuture.completedFuture(name)
+                        : query(order, index + 1, lat, lon));
+    }
+
+    /**
+     * Lit une chaîne à un chemin donné sans construire l'arbre JSON
+     * Les valeurs non concernées sont sautées au fil de la lecture.
+     */
+    @Nullable
+    static String readString(@NotNull InputStream input, @NotNull String... path) throws IOException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            return readString(reader, path, 0);
+        }
+    }
+
+    @Nullable
+    private static String readString(@NotNull JsonReader reader, @NotNull String[] path, int depth) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!reader.nextName().equals(path[depth])) {
+                reader.skipValue();
+                continue;
+            }
+
+            // Champ trouvé: le reste du document n'est pas lu
+            if (depth == path.length - 1) {
+                return reader.peek() == JsonToken.STRING ? reader.nextString() : null;
+            }
+            return readString(reader, path, depth + 1);
+        }
+
+        return null;
+    }
+
+    /**
+     * Libère les connexions et annule les requêtes en cours
+     */
+    public void shutdown() {
+        inFlight.values().forEach(future -> future.complete(null));
+        inFlight.clear();
+        httpClient.shutdownNow();
+    }
+
+    /**
+     * Recherche rejointe ou lancée
+     * @param initiator true si cet appel a lancé la requête (quota consommé, cache à écrire)
+     */
+    public record Lookup(@NotNull CompletableFuture<String> future, boolean initiator) {
+    }
+}
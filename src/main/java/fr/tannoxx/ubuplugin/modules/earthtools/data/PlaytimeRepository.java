@@ -0,0 +1,90 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.data;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.PlaytimeLeaderboard.PlaytimeEntry;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Persistance des temps de jeu (table playtime)
+ * Les méthodes sont bloquantes: à appeler hors du thread principal
+ */
+public class PlaytimeRepository {
+
+    private final EarthToolsModule module;
+
+    public PlaytimeRepository(@NotNull EarthToolsModule module) {
+        this.module = module;
+    }
+
+    @NotNull
+    public List<PlaytimeEntry> loadAll() {
+        List<PlaytimeEntry> entries = new ArrayList<>();
+
+        try (Connection conn = module.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT uuid, name, playtime_ms FROM playtime")) {
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                try {
+                    entries.add(new PlaytimeEntry(
+                            UUID.fromString(rs.getString("uuid")),
+                            rs.getString("name"),
+                            rs.getLong("playtime_ms")
+                    ));
+                } catch (IllegalArgumentException e) {
+                    module.debug("UUID invalide dans la table playtime: {}", rs.getString("uuid"));
+                }
+            }
+        } catch (SQLException e) {
+            module.error("Erreur lecture des temps de jeu", e);
+        }
+
+        return entries;
+    }
+
+    /**
+     * Écrit un lot de temps de jeu en une transaction
+     * @return false si l'écriture a échoué (lot annulé)
+     */
+    public boolean saveAll(@NotNull Collection<PlaytimeEntry> entries) {
+        if (entries.isEmpty()) return true;
+
+        try (Connection conn = module.getDatabaseManager().getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT OR REPLACE INTO playtime (uuid, name, playtime_ms, updated_at) VALUES (?, ?, ?, ?)")) {
+
+                long now = System.currentTimeMillis();
+                for (PlaytimeEntry entry : entries) {
+                    stmt.setString(1, entry.uuid().toString());
+                    stmt.setString(2, entry.name());
+                    stmt.setLong(3, entry.playtime());
+                    stmt.setLong(4, now);
+                    stmt.addBatch();
+                }
+
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            module.error("Erreur écriture des temps de jeu", e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.data;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Persistance des sessions et des temps de jeu par jour / semaine
+ * (tables sessions, playtime_daily, playtime_weekly)
+ * Les méthodes sont bloquantes: à appeler hors du thread principal
+ */
+public class SessionRepository {
+
+    private final EarthToolsModule module;
+
+    public SessionRepository(@NotNull EarthToolsModule module) {
+        this.module = module;
+    }
+
+    /**
+     * Clôt les sessions restées ouvertes (arrêt brutal): elles se terminent à leur dernier point de contrôle
+     * @return Nombre de sessions clôturées, -1 en cas d'erreur
+     */
+    public int closeDangling() {
+        try (Connection conn = module.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("UPDATE sessions SET closed = 1 WHERE closed = 0")) {
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            module.error("Erreur clôture des sessions interrompues", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Écrit un point de contrôle en une transaction
+     * @return true si écrit
+     */
+    public boolean write(@NotNull Batch batch) {
+        try (Connection conn = module.getDatabaseManager().getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement sessions = conn.prepareStatement("""
+                    INSERT INTO sessions (uuid, started_at, ended_at, closed) VALUES (?, ?, ?, ?)
+                    ON CONFLICT(uuid, started_at) DO UPDATE SET ended_at = excluded.ended_at, closed = excluded.closed
+                    """);
+                 PreparedStatement daily = conn.prepareStatement("""
+                    INSERT INTO playtime_daily (uuid, day, playtime_ms) VALUES (?, ?, ?)
+                    ON CONFLICT(uuid, day) DO UPDATE SET playtime_ms = playtime_ms + excluded.playtime_ms
+                    """);
+                 PreparedStatement weekly = conn.prepareStatement("""
+                    INSERT INTO playtime_weekly (uuid, week, playtime_ms) VALUES (?, ?, ?)
+                    ON CONFLICT(uuid, week) DO UPDATE SET playtime_ms = playtime_ms + excluded.playtime_ms
+                    """)) {
+
+                for (SessionRow row : batch.sessions()) {
+                    sessions.setString(1, row.uuid().toString());
+                    sessions.setLong(2, row.startedAt());
+                    sessions.setLong(3, row.endedAt());
+                    sessions.setBoolean(4, row.closed());
+                    sessions.addBatch();
+                }
+
+                addPeriods(daily, batch.daily());
+                addPeriods(weekly, batch.weekly());
+
+                sessions.executeBatch();
+                daily.executeBatch();
+                weekly.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            module.error("Erreur écriture du point de contrôle des sessions", e);
+            return false;
+        }
+    }
+
+    private static void addPeriods(@NotNull PreparedStatement stmt, @NotNull Map<PeriodKey, Long> deltas) throws SQLException {
+        for (Map.Entry<PeriodKey, Long> entry : deltas.entrySet()) {
+            stmt.setString(1, entry.getKey().uuid().toString());
+            stmt.setLong(2, entry.getKey().period());
+            stmt.setLong(3, entry.getValue());
+            stmt.addBatch();
+        }
+    }
+
+    @NotNull
+    public PeriodStats topDaily(long day, int limit) {
+        return top("playtime_daily", "day", day, limit);
+    }
+
+    @NotNull
+    public PeriodStats topWeekly(long week, int limit) {
+        return top("playtime_weekly", "week", week, limit);
+    }
+
+    /**
+     * Classement d'une période (index sur période + temps de jeu)
+     */
+    @NotNull
+    private PeriodStats top(@NotNull String table, @NotNull String column, long period, int limit) {
+        List<PeriodEntry> entries = new ArrayList<>();
+        int activePlayers = 0;
+
+        try (Connection conn = module.getDatabaseManager().getConnection();
+             PreparedStatement count = conn.prepareStatement(
+                     "SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?");
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT uuid, playtime_ms FROM " + table + " WHERE " + column + " = ? ORDER BY playtime_ms DESC LIMIT ?")) {
+
+            count.setLong(1, period);
+            ResultSet countRs = count.executeQuery();
+            if (countRs.next()) {
+                activePlayers = countRs.getInt(1);
+            }
+
+            stmt.setLong(1, period);
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                entries.add(new PeriodEntry(UUID.fromString(rs.getString("uuid")), rs.getLong("playtime_ms")));
+            }
+        } catch (SQLException e) {
+            module.error("Erreur lecture du classement " + table, e);
+        }
+
+        return new PeriodStats(activePlayers, entries);
+    }
+
+    /**
+     * Contenu d'un point de contrôle
+     */
+    public record Batch(@NotNull List<SessionRow> sessions, @NotNull Map<PeriodKey, Long> daily,
+                        @NotNull Map<PeriodKey, Long> weekly) {
+
+        public Batch() {
+            this(new ArrayList<>(), new HashMap<>(), new HashMap<>());
+        }
+    }
+
+    public record SessionRow(@NotNull UUID uuid, long startedAt, long endedAt, boolean closed) {
+    }
+
+    /**
+     * @param period Jour epoch (par jour) ou jour epoch du lundi (par semaine)
+     */
+    public record PeriodKey(@NotNull UUID uuid, long period) {
+    }
+
+    public record PeriodEntry(@NotNull UUID uuid, long playtimeMs) {
+    }
+
+    /**
+     * @param activePlayers Joueurs ayant joué sur la période
+     */
+    public record PeriodStats(int activePlayers, @NotNull List<PeriodEntry> entries) {
+    }
+}
@@ -0,0 +1,69 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.data;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.SkullProfileCache.CachedTexture;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Persistance des textures de têtes (table skull_profiles)
+ * Les méthodes sont bloquantes: à appeler hors du thread principal
+ */
+public class SkullProfileRepository {
+
+    private final EarthToolsModule module;
+
+    public SkullProfileRepository(@NotNull EarthToolsModule module) {
+        this.module = module;
+    }
+
+    @NotNull
+    public List<CachedTexture> loadAll() {
+        List<CachedTexture> textures = new ArrayList<>();
+
+        try (Connection conn = module.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT uuid, texture_value, texture_signature, fetched_at FROM skull_profiles")) {
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                try {
+                    textures.add(new CachedTexture(
+                            UUID.fromString(rs.getString("uuid")),
+                            rs.getString("texture_value"),
+                            rs.getString("texture_signature"),
+                            rs.getLong("fetched_at")
+                    ));
+                } catch (IllegalArgumentException e) {
+                    module.debug("UUID invalide dans la table skull_profiles: {}", rs.getString("uuid"));
+                }
+            }
+        } catch (SQLException e) {
+            module.error("Erreur lecture des textures de têtes", e);
+        }
+
+        return textures;
+    }
+
+    public void save(@NotNull CachedTexture texture) {
+        try (Connection conn = module.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT OR REPLACE INTO skull_profiles (uuid, texture_value, texture_signature, fetched_at) VALUES (?, ?, ?, ?)")) {
+
+            stmt.setString(1, texture.uuid().toString());
+            stmt.setString(2, texture.value());
+            stmt.setString(3, texture.signature());
+            stmt.setLong(4, texture.fetchedAt());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            module.error("Erreur écriture texture de tête", e);
+        }
+    }
+}
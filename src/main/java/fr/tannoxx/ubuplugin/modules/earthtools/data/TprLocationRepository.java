@@ -0,0 +1,83 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.data;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.tpr.LocationReserve.PooledLocation;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persistance de la réserve d'emplacements /tpr (table tpr_locations)
+ * Les méthodes sont bloquantes: à appeler hors du thread principal
+ */
+public class TprLocationRepository {
+
+    private final EarthToolsModule module;
+
+    public TprLocationRepository(@NotNull EarthToolsModule module) {
+        this.module = module;
+    }
+
+    /**
+     * Charge tous les emplacements en réserve (plus anciens d'abord)
+     */
+    @NotNull
+    public List<PooledLocation> loadAll() {
+        List<PooledLocation> locations = new ArrayList<>();
+
+        try (Connection conn = module.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT world, x, y, z, created_at FROM tpr_locations ORDER BY created_at")) {
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                locations.add(new PooledLocation(
+                        rs.getString("world"),
+                        rs.getInt("x"),
+                        rs.getInt("y"),
+                        rs.getInt("z"),
+                        rs.getLong("created_at")
+                ));
+            }
+        } catch (SQLException e) {
+            module.error("Erreur lecture réserve TPR", e);
+        }
+
+        return locations;
+    }
+
+    public void insert(@NotNull PooledLocation location) {
+        try (Connection conn = module.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT OR REPLACE INTO tpr_locations (world, x, y, z, created_at) VALUES (?, ?, ?, ?, ?)")) {
+
+            stmt.setString(1, location.world());
+            stmt.setInt(2, location.x());
+            stmt.setInt(3, location.y());
+            stmt.setInt(4, location.z());
+            stmt.setLong(5, location.createdAt());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            module.error("Erreur écriture réserve TPR", e);
+        }
+    }
+
+    public void delete(@NotNull PooledLocation location) {
+        try (Connection conn = module.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "DELETE FROM tpr_locations WHERE world = ? AND x = ? AND z = ?")) {
+
+            stmt.setString(1, location.world());
+            stmt.setInt(2, location.x());
+            stmt.setInt(3, location.z());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            module.error("Erreur suppression réserve TPR", e);
+        }
+    }
+}
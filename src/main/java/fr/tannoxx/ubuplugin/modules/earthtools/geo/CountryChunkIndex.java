@@ -0,0 +1,142 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.geo;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.commands.CountryCommand;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.stream.IntStream;
+
+/**
+ * Index des pays à la granularité du chunk sur la carte Earth
+ * <p>
+ * Chaque chunk stocke l'ID du pays qui le couvre entièrement, ou un marqueur
+ * "frontière" quand plusieurs pays (ou terre et océan) s'y partagent.
+ * Seuls les chunks frontière nécessitent une recherche précise au bloc près,
+ * ce qui rend le suivi des joueurs dans PlayerMoveEvent quasi gratuit.
+ */
+public final class CountryChunkIndex {
+
+    /** Chunk partagé entre plusieurs pays: résoudre au bloc près */
+    public static final int BORDER = -2;
+
+    // Encodage d'une case: 0 = aucun pays, id + 1, ou BORDER_VALUE
+    private static final short BORDER_VALUE = -1;
+
+    // Points échantillonnés dans un chunk (coins, milieux et centre)
+    private static final double[] SAMPLE_OFFSETS = {0.5, 8.0, 15.5};
+
+    private final CountryLookup lookup;
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int width;
+    private final int height;
+    private final short[] cells;
+
+    private CountryChunkIndex(CountryLookup lookup, int minChunkX, int minChunkZ,
+                              int width, int height, short[] cells) {
+        this.lookup = lookup;
+        this.minChunkX = minChunkX;
+        this.minChunkZ = minChunkZ;
+        this.width = width;
+        this.height = height;
+        this.cells = cells;
+    }
+
+    /**
+     * Retourne le pays d'un chunk
+     * @return ID du pays, -1 (océan / hors carte) ou {@link #BORDER}
+     */
+    public int getChunkCountry(int chunkX, int chunkZ) {
+        int col = chunkX - minChunkX;
+        int row = chunkZ - minChunkZ;
+
+        if (col < 0 || col >= width || row < 0 || row >= height) {
+            return -1;
+        }
+
+        short value = cells[row * width + col];
+        return value == BORDER_VALUE ? BORDER : value - 1;
+    }
+
+    /**
+     * Retourne le pays à une position en blocs
+     * Lecture directe dans l'index, sauf pour les chunks frontière
+     */
+    public int resolveBlock(int x, int z) {
+        int country = getChunkCountry(x >> 4, z >> 4);
+        if (country != BORDER) {
+            return country;
+        }
+
+        return lookup.resolveId((z + 0.5) / CountryCommand.LATITUDE_TO_Z,
+                (x + 0.5) / CountryCommand.LONGITUDE_TO_X);
+    }
+
+    @NotNull
+    public CountryLookup getLookup() {
+        return lookup;
+    }
+
+    @Override
+    public String toString() {
+        int border = 0;
+        int land = 0;
+        for (short value : cells) {
+            if (value == BORDER_VALUE) border++;
+            else if (value != 0) land++;
+        }
+        return String.format("CountryChunkIndex[%dx%d chunks, %d terrestres, %d frontières, %d Ko]",
+                width, height, land, border, (long) cells.length * 2 / 1024);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                       CONSTRUCTION
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Construit l'index en échantillonnant 9 points par chunk
+     * Parallélisé par ligne de chunks: à appeler hors du thread principal
+     */
+    @NotNull
+    public static CountryChunkIndex build(@NotNull CountryLookup lookup) {
+        double maxX = 180 * CountryCommand.LONGITUDE_TO_X;
+        double maxZ = 90 * Math.abs(CountryCommand.LATITUDE_TO_Z);
+
+        int minChunkX = (int) Math.floor(-maxX / 16);
+        int minChunkZ = (int) Math.floor(-maxZ / 16);
+        int width = (int) Math.floor(maxX / 16) - minChunkX + 1;
+        int height = (int) Math.floor(maxZ / 16) - minChunkZ + 1;
+
+        short[] cells = new short[width * height];
+
+        IntStream.range(0, height).parallel().forEach(row -> {
+            double baseZ = (minChunkZ + row) * 16.0;
+
+            for (int col = 0; col < width; col++) {
+                double baseX = (minChunkX + col) * 16.0;
+                cells[row * width + col] = sampleChunk(lookup, baseX, baseZ);
+            }
+        });
+
+        return new CountryChunkIndex(lookup, minChunkX, minChunkZ, width, height, cells);
+    }
+
+    private static short sampleChunk(CountryLookup lookup, double baseX, double baseZ) {
+        int first = Integer.MIN_VALUE;
+
+        for (double dz : SAMPLE_OFFSETS) {
+            double latitude = (baseZ + dz) / CountryCommand.LATITUDE_TO_Z;
+
+            for (double dx : SAMPLE_OFFSETS) {
+                int id = lookup.resolveId(latitude, (baseX + dx) / CountryCommand.LONGITUDE_TO_X);
+
+                if (first == Integer.MIN_VALUE) {
+                    first = id;
+                } else if (id != first) {
+                    return BORDER_VALUE;
+                }
+            }
+        }
+
+        return (short) (first + 1);
+    }
+}
@@ -0,0 +1,29 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.geo;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Recherche hors-ligne du pays à une position GPS
+ * Implémentée par l'index de polygones et par le raster précalculé
+ */
+public interface CountryLookup {
+
+    /**
+     * @return Identifiant du pays (stable pour une instance), ou -1 (océan / hors carte)
+     */
+    int resolveId(double latitude, double longitude);
+
+    /**
+     * @return Nom Natural Earth du pays, ou null si l'ID est invalide
+     */
+    @Nullable
+    String getCountryName(int id);
+
+    /**
+     * @return Nom du pays contenant le point, ou null
+     */
+    @Nullable
+    default String resolve(double latitude, double longitude) {
+        return getCountryName(resolveId(latitude, longitude));
+    }
+}
@@ -0,0 +1,282 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.geo;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.commands.CountryCommand;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Raster précalculé des pays: une grille lat/lon d'IDs de pays (short)
+ * stockée dans un fichier mappé en mémoire
+ * <p>
+ * Une recherche = un calcul d'index + une lecture, ce qui permet de l'appeler
+ * depuis PlayerMoveEvent. La précision est celle d'une cellule (centre de cellule).
+ * <p>
+ * Format (big-endian):
+ * MAGIC, VERSION, précision, largeur, hauteur, empreinte source,
+ * nombre de pays, noms (longueur + UTF-8), puis la grille (ligne 0 = nord, 0 = aucun pays)
+ */
+public final class CountryRaster implements CountryLookup {
+
+    private static final int MAGIC = 0x55424352; // "UBCR"
+    // 2: noms complets (NAME_EN) au lieu des noms abrégés
+    private static final int VERSION = 2;
+
+    // En dessous, le fichier dépasse plusieurs centaines de Mo
+    public static final double MIN_PRECISION = 0.02;
+
+    private final double precision;
+    private final int width;
+    private final int height;
+    private final long sourceStamp;
+    private final String[] countryNames;
+    private final ShortBuffer grid;
+
+    private CountryRaster(double precision, int width, int height, long sourceStamp,
+                          String[] countryNames, ShortBuffer grid) {
+        this.precision = precision;
+        this.width = width;
+        this.height = height;
+        this.sourceStamp = sourceStamp;
+        this.countryNames = countryNames;
+        this.grid = grid;
+    }
+
+    /**
+     * Retourne l'ID du pays à une position GPS
+     * @return Index dans les noms de pays, ou -1 (océan / hors carte)
+     */
+    @Override
+    public int resolveId(double latitude, double longitude) {
+        int row = (int) ((90 - latitude) / precision);
+        int col = (int) ((longitude + 180) / precision);
+
+        if (row < 0 || row >= height || col < 0 || col >= width) {
+            return -1;
+        }
+
+        return grid.get(row * width + col) - 1;
+    }
+
+    /**
+     * Retourne l'ID du pays à une position Minecraft (échelle de la carte Earth)
+     */
+    public int resolveBlockId(double x, double z) {
+        return resolveId(z / CountryCommand.LATITUDE_TO_Z, x / CountryCommand.LONGITUDE_TO_X);
+    }
+
+    @Nullable
+    @Override
+    public String getCountryName(int id) {
+        return id < 0 || id >= countryNames.length ? null : countryNames[id];
+    }
+
+    public double getPrecision() {
+        return precision;
+    }
+
+    public long getSourceStamp() {
+        return sourceStamp;
+    }
+
+    public int getCountryCount() {
+        return countryNames.length;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CountryRaster[%dx%d, %.3f°, %d pays, %d Ko]",
+                width, height, precision, countryNames.length, (long) width * height * 2 / 1024);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                     CHARGEMENT / ÉCRITURE
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Mappe un raster existant s'il correspond à la source et à la précision demandées
+     * @return Raster, ou null si absent, obsolète ou invalide
+     */
+    @Nullable
+    public static CountryRaster load(@NotNull File file, double precision, long sourceStamp) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.remaining() < 32 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+
+            double filePrecision = buffer.getDouble();
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            long fileStamp = buffer.getLong();
+
+            if (filePrecision != precision || fileStamp != sourceStamp) {
+                return null;
+            }
+
+            String[] names = new String[buffer.getInt()];
+            for (int i = 0; i < names.length; i++) {
+                byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(bytes);
+                names[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            long expected = (long) width * height * 2;
+            if (buffer.remaining() != expected) {
+                return null;
+            }
+
+            // Le mapping reste valide après fermeture du channel
+            ShortBuffer grid = buffer.slice().order(ByteOrder.BIG_ENDIAN).asShortBuffer();
+            return new CountryRaster(precision, width, height, sourceStamp, names, grid);
+        }
+    }
+
+    /**
+     * Rasterise les polygones de l'index puis écrit et mappe le fichier
+     * Remplissage scanline: une ligne par latitude de centre de cellule
+     */
+    @NotNull
+    public static CountryRaster build(@NotNull CountryResolver resolver, @NotNull File file,
+                                      double precision, long sourceStamp) throws IOException {
+        int width = (int) Math.ceil(360 / precision);
+        int height = (int) Math.ceil(180 / precision);
+        String[] names = resolver.getCountryNames();
+
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temp.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+            // En-tête
+            ByteBuffer header = ByteBuffer.allocate(headerSize(names));
+            header.putInt(MAGIC).putInt(VERSION).putDouble(precision)
+                    .putInt(width).putInt(height).putLong(sourceStamp)
+                    .putInt(names.length);
+            for (String name : names) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                header.putShort((short) bytes.length).put(bytes);
+            }
+            header.flip();
+            channel.write(header);
+
+            // Grille, écrite ligne par ligne
+            short[] row = new short[width];
+            ByteBuffer rowBuffer = ByteBuffer.allocate(width * 2);
+            RowFiller filler = new RowFiller(row, precision);
+
+            for (int r = 0; r < height; r++) {
+                Arrays.fill(row, (short) 0);
+                filler.fill(resolver, 90 - (r + 0.5) * precision);
+
+                rowBuffer.clear();
+                rowBuffer.asShortBuffer().put(row);
+                rowBuffer.limit(width * 2);
+                while (rowBuffer.hasRemaining()) {
+                    channel.write(rowBuffer);
+                }
+            }
+
+            channel.force(true);
+        }
+
+        Files.move(temp.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        CountryRaster raster = load(file, precision, sourceStamp);
+        if (raster == null) {
+            throw new IOException("Raster écrit mais illisible: " + file.getName());
+        }
+        return raster;
+    }
+
+    private static int headerSize(String[] names) {
+        int size = 4 + 4 + 8 + 4 + 4 + 8 + 4;
+        for (String name : names) {
+            size += 2 + name.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    /**
+     * Remplit une ligne du raster à partir des intersections triées par pays
+     */
+    private static final class RowFiller implements CountryResolver.CrossingConsumer {
+
+        private final short[] row;
+        private final double precision;
+
+        private double[] crossings = new double[64];
+        private int count;
+        private int currentCountry = -1;
+
+        RowFiller(short[] row, double precision) {
+            this.row = row;
+            this.precision = precision;
+        }
+
+        void fill(CountryResolver resolver, double latitude) {
+            count = 0;
+            currentCountry = -1;
+            resolver.forEachCrossing(latitude, this);
+            flush();
+        }
+
+        @Override
+        public void accept(int country, double longitude) {
+            if (country != currentCountry) {
+                flush();
+                currentCountry = country;
+            }
+
+            if (count == crossings.length) {
+                crossings = Arrays.copyOf(crossings, count * 2);
+            }
+            crossings[count++] = longitude;
+        }
+
+        /**
+         * Règle pair-impair: les cellules dont le centre est entre deux intersections
+         */
+        private void flush() {
+            if (currentCountry >= 0 && count >= 2) {
+                Arrays.sort(crossings, 0, count);
+                short value = (short) (currentCountry + 1);
+
+                for (int i = 0; i + 1 < count; i += 2) {
+                    int start = (int) Math.ceil((crossings[i] + 180) / precision - 0.5);
+                    int end = (int) Math.ceil((crossings[i + 1] + 180) / precision - 0.5);
+
+                    start = Math.max(0, start);
+                    end = Math.min(row.length, end);
+
+                    for (int col = start; col < end; col++) {
+                        // Premier pays gagnant en cas de chevauchement (comme le resolver)
+                        if (row[col] == 0) {
+                            row[col] = value;
+                        }
+                    }
+                }
+            }
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.geo;
+
+import fr.tannoxx.ubuplugin.common.geo.BorderData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Géocodage inverse hors-ligne: retrouve le pays contenant un point GPS
+ * à partir des polygones Natural Earth (aucun appel réseau, aucune limite)
+ * <p>
+ * Deux index uniformes:
+ * - une grille de 1° sur les bounding boxes des pays (pays candidats)
+ * - des bandes de latitude contenant les arêtes de chaque pays, groupées par pays
+ * <p>
+ * Le test est un ray-casting (règle pair-impair) vers l'est: seules les arêtes
+ * de la bande du point peuvent couper le rayon. Les trous (enclaves, lacs)
+ * sont gérés naturellement puisque toutes les bagues d'un pays comptent ensemble.
+ * Immuable une fois construit, donc utilisable depuis n'importe quel thread.
+ */
+public final class CountryResolver implements CountryLookup {
+
+    private static final int GRID_COLUMNS = 360;
+    private static final int GRID_ROWS = 180;
+
+    // Hauteur d'une bande d'arêtes (degrés)
+    private static final double BAND_HEIGHT = 0.1;
+    private static final int BAND_COUNT = (int) Math.ceil(180 / BAND_HEIGHT);
+
+    private final String[] countryNames;
+
+    // Grille 1° -> pays candidats (CSR)
+    private final int[] cellStart;
+    private final int[] cellCountries;
+
+    // Bande -> groupes (un groupe = un pays) -> arêtes (CSR de CSR)
+    private final int[] bandStart;
+    private final int[] groupCountry;
+    private final int[] groupStart;
+
+    // Arêtes empaquetées: lon0, lat0, lon1, lat1
+    private final double[] edges;
+
+    private CountryResolver(String[] countryNames, int[] cellStart, int[] cellCountries,
+                            int[] bandStart, int[] groupCountry, int[] groupStart, double[] edges) {
+        this.countryNames = countryNames;
+        this.cellStart = cellStart;
+        this.cellCountries = cellCountries;
+        this.bandStart = bandStart;
+        this.groupCountry = groupCountry;
+        this.groupStart = groupStart;
+        this.edges = edges;
+    }
+
+    /**
+     * Retourne le nom du pays contenant le point
+     * @param latitude Latitude (-90 à 90)
+     * @param longitude Longitude (-180 à 180)
+     * @return Nom Natural Earth du pays, ou null (océan / hors données)
+     */
+    @Nullable
+    @Override
+    public String resolve(double latitude, double longitude) {
+        return getCountryName(resolveId(latitude, longitude));
+    }
+
+    @Nullable
+    @Override
+    public String getCountryName(int id) {
+        return id < 0 || id >= countryNames.length ? null : countryNames[id];
+    }
+
+    /**
+     * Retourne l'identifiant interne du pays contenant le point
+     * @return Index dans {@link #getCountryNames()}, ou -1
+     */
+    @Override
+    public int resolveId(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            return -1;
+        }
+
+        int cell = cellIndex(latitude, longitude);
+        int band = bandIndex(latitude);
+
+        for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+            int country = cellCountries[i];
+            int group = findGroup(band, country);
+
+            if (group >= 0 && isInside(group, latitude, longitude)) {
+                return country;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Ray-casting pair-impair sur les arêtes du pays dans la bande du point
+     */
+    private boolean isInside(int group, double lat, double lon) {
+        boolean inside = false;
+
+        for (int e = groupStart[group]; e < groupStart[group + 1]; e++) {
+            int o = e * 4;
+            double x0 = edges[o];
+            double y0 = edges[o + 1];
+            double x1 = edges[o + 2];
+            double y1 = edges[o + 3];
+
+            if ((y0 > lat) != (y1 > lat)
+                    && lon < (x1 - x0) * (lat - y0) / (y1 - y0) + x0) {
+                inside = !inside;
+            }
+        }
+
+        return inside;
+    }
+
+    /**
+     * Recherche dichotomique du groupe d'arêtes d'un pays dans une bande
+     */
+    private int findGroup(int band, int country) {
+        int low = bandStart[band];
+        int high = bandStart[band + 1] - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = groupCountry[mid];
+
+            if (value < country) {
+                low = mid + 1;
+            } else if (value > country) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Parcourt les intersections de la ligne de latitude donnée avec les arêtes
+     * Les intersections arrivent groupées par pays (ordre croissant des IDs)
+     * Utilisé pour rasteriser les polygones ligne par ligne (scanline)
+     */
+    void forEachCrossing(double latitude, @NotNull CrossingConsumer consumer) {
+        int band = bandIndex(latitude);
+
+        for (int group = bandStart[band]; group < bandStart[band + 1]; group++) {
+            int country = groupCountry[group];
+
+            for (int e = groupStart[group]; e < groupStart[group + 1]; e++) {
+                int o = e * 4;
+                double x0 = edges[o];
+                double y0 = edges[o + 1];
+                double x1 = edges[o + 2];
+                double y1 = edges[o + 3];
+
+                if ((y0 > latitude) != (y1 > latitude)) {
+                    consumer.accept(country, (x1 - x0) * (latitude - y0) / (y1 - y0) + x0);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface CrossingConsumer {
+        void accept(int country, double longitude);
+    }
+
+    @NotNull
+    public String[] getCountryNames() {
+        return countryNames.clone();
+    }
+
+    public int getCountryCount() {
+        return countryNames.length;
+    }
+
+    public int getEdgeCount() {
+        return edges.length / 4;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                       CONSTRUCTION
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Construit l'index depuis les frontières chargées par GeoDataService
+     * Opération coûteuse (quelques centaines de ms): à appeler hors du thread principal
+     */
+    @NotNull
+    public static CountryResolver build(@NotNull List<BorderData> borders) {
+        int countryCount = borders.size();
+        String[] names = new String[countryCount];
+
+        // Arêtes par bande, dans l'ordre des pays (donc déjà triées par pays)
+        List<List<double[]>> bandEdges = new ArrayList<>(BAND_COUNT);
+        List<List<Integer>> bandEdgeCountries = new ArrayList<>(BAND_COUNT);
+        for (int b = 0; b < BAND_COUNT; b++) {
+            bandEdges.add(new ArrayList<>());
+            bandEdgeCountries.add(new ArrayList<>());
+        }
+
+        List<List<Integer>> cells = new ArrayList<>(GRID_COLUMNS * GRID_ROWS);
+        for (int c = 0; c < GRID_COLUMNS * GRID_ROWS; c++) {
+            cells.add(null);
+        }
+
+        for (int country = 0; country < countryCount; country++) {
+            BorderData border = borders.get(country);
+            names[country] = border.countryName();
+
+            double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+            double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+
+            for (int ring = 0; ring < border.ringCount(); ring++) {
+                int start = border.ringStart(ring);
+                int end = border.ringEnd(ring);
+                if (end - start < 3) continue;
+
+                for (int i = start; i < end; i++) {
+                    int next = i + 1 < end ? i + 1 : start;
+                    double aLat = border.latitude(i), aLon = border.longitude(i);
+                    double bLat = border.latitude(next), bLon = border.longitude(next);
+
+                    minLat = Math.min(minLat, aLat);
+                    maxLat = Math.max(maxLat, aLat);
+                    minLon = Math.min(minLon, aLon);
+                    maxLon = Math.max(maxLon, aLon);
+
+                    // Les arêtes horizontales ne coupent jamais le rayon
+                    if (aLat == bLat) continue;
+
+                    int firstBand = bandIndex(Math.min(aLat, bLat));
+                    int lastBand = bandIndex(Math.max(aLat, bLat));
+                    double[] edge = {aLon, aLat, bLon, bLat};
+
+                    for (int band = firstBand; band <= lastBand; band++) {
+                        bandEdges.get(band).add(edge);
+                        bandEdgeCountries.get(band).add(country);
+                    }
+                }
+            }
+
+            if (minLat > maxLat) continue;
+
+            // Enregistrer le pays dans toutes les cellules couvertes par sa bbox
+            int firstRow = rowIndex(minLat), lastRow = rowIndex(maxLat);
+            int firstCol = columnIndex(minLon), lastCol = columnIndex(maxLon);
+
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int col = firstCol; col <= lastCol; col++) {
+                    int cell = row * GRID_COLUMNS + col;
+                    List<Integer> list = cells.get(cell);
+                    if (list == null) {
+                        list = new ArrayList<>(2);
+                        cells.set(cell, list);
+                    }
+                    list.add(country);
+                }
+            }
+        }
+
+        // Compacter la grille
+        int[] cellStart = new int[GRID_COLUMNS * GRID_ROWS + 1];
+        int total = 0;
+        for (int c = 0; c < cells.size(); c++) {
+            cellStart[c] = total;
+            List<Integer> list = cells.get(c);
+            if (list != null) total += list.size();
+        }
+        cellStart[cells.size()] = total;
+
+        int[] cellCountries = new int[total];
+        for (int c = 0; c < cells.size(); c++) {
+            List<Integer> list = cells.get(c);
+            if (list == null) continue;
+            for (int i = 0; i < list.size(); i++) {
+                cellCountries[cellStart[c] + i] = list.get(i);
+            }
+        }
+
+        // Compacter les bandes
+        int edgeTotal = 0;
+        int groupTotal = 0;
+        for (int b = 0; b < BAND_COUNT; b++) {
+            List<Integer> countries = bandEdgeCountries.get(b);
+            edgeTotal += countries.size();
+            for (int i = 0; i < countries.size(); i++) {
+                if (i == 0 || !countries.get(i).equals(countries.get(i - 1))) groupTotal++;
+            }
+        }
+
+        double[] edges = new double[edgeTotal * 4];
+        int[] bandStart = new int[BAND_COUNT + 1];
+        int[] groupCountry = new int[groupTotal];
+        int[] groupStart = new int[groupTotal + 1];
+
+        int edgeIndex = 0;
+        int groupIndex = 0;
+        for (int b = 0; b < BAND_COUNT; b++) {
+            bandStart[b] = groupIndex;
+            List<double[]> list = bandEdges.get(b);
+            List<Integer> countries = bandEdgeCountries.get(b);
+
+            for (int i = 0; i < list.size(); i++) {
+                int country = countries.get(i);
+                if (i == 0 || country != countries.get(i - 1)) {
+                    groupCountry[groupIndex] = country;
+                    groupStart[groupIndex] = edgeIndex;
+                    groupIndex++;
+                }
+
+                System.arraycopy(list.get(i), 0, edges, edgeIndex * 4, 4);
+                edgeIndex++;
+            }
+
+            // Libérer au fur et à mesure
+            list.clear();
+            countries.clear();
+        }
+        bandStart[BAND_COUNT] = groupIndex;
+        groupStart[groupTotal] = edgeIndex;
+
+        return new CountryResolver(names, cellStart, cellCountries,
+                bandStart, groupCountry, groupStart, edges);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                         INDEXATION
+    // ═══════════════════════════════════════════════════════════
+
+    private static int bandIndex(double latitude) {
+        int band = (int) Math.floor((latitude + 90) / BAND_HEIGHT);
+        return Math.max(0, Math.min(BAND_COUNT - 1, band));
+    }
+
+    private static int rowIndex(double latitude) {
+        int row = (int) Math.floor(latitude + 90);
+        return Math.max(0, Math.min(GRID_ROWS - 1, row));
+    }
+
+    private static int columnIndex(double longitude) {
+        int col = (int) Math.floor(longitude + 180);
+        return Math.max(0, Math.min(GRID_COLUMNS - 1, col));
+    }
+
+    private static int cellIndex(double latitude, double longitude) {
+        return rowIndex(latitude) * GRID_COLUMNS + columnIndex(longitude);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CountryResolver[%d pays, %d arêtes, %d bandes]",
+                countryNames.length, getEdgeCount(), BAND_COUNT);
+    }
+
+}
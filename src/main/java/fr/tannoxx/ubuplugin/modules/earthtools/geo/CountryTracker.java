@@ -0,0 +1,164 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.geo;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Pays courant de chaque joueur et décision des notifications d'entrée
+ * <p>
+ * - rien n'est évalué tant que le joueur reste dans le même chunk, sauf dans les
+ *   chunks frontière où la recherche est faite au bloc
+ * - un pays n'est considéré comme annoncé qu'une fois la notification envoyée:
+ *   un passage A → B → C pendant le délai laisse C en attente, à annoncer à la fin
+ *   du délai ({@link #schedulePending} / {@link #flushPending})
+ * <p>
+ * Indépendant du serveur (testable); thread principal uniquement
+ */
+public final class CountryTracker {
+
+    /** Aucune notification à envoyer */
+    public static final int NONE = -1;
+
+    private final Map<UUID, State> states = new HashMap<>();
+    private long cooldownMillis;
+
+    public void setCooldownMillis(long cooldownMillis) {
+        this.cooldownMillis = Math.max(0, cooldownMillis);
+    }
+
+    /**
+     * Déplacement d'un joueur déjà suivi (PlayerMoveEvent)
+     * @return Pays à annoncer maintenant, ou {@link #NONE}
+     */
+    public int move(@NotNull UUID uuid, @NotNull String world, int blockX, int blockZ,
+                    @NotNull CountryChunkIndex index, long now) {
+        State state = states.get(uuid);
+
+        // Même chunk hors frontière: le pays ne peut pas avoir changé
+        if (state != null && !state.border
+                && state.chunkX == blockX >> 4 && state.chunkZ == blockZ >> 4
+                && state.world.equals(world)) {
+            return NONE;
+        }
+
+        return update(uuid, world, blockX, blockZ, index, true, now);
+    }
+
+    /**
+     * Évalue la position du joueur
+     * @param notify false pour une position initiale (connexion): aucune notification
+     * @return Pays à annoncer maintenant, ou {@link #NONE}
+     */
+    public int update(@NotNull UUID uuid, @NotNull String world, int blockX, int blockZ,
+                      @NotNull CountryChunkIndex index, boolean notify, long now) {
+        int chunkX = blockX >> 4;
+        int chunkZ = blockZ >> 4;
+
+        int chunkCountry = index.getChunkCountry(chunkX, chunkZ);
+        boolean border = chunkCountry == CountryChunkIndex.BORDER;
+        int country = border ? index.resolveBlock(blockX, blockZ) : chunkCountry;
+
+        State state = states.get(uuid);
+        if (state == null) {
+            state = new State();
+            state.country = country;
+            state.notified = country;
+            states.put(uuid, state);
+            notify = false;
+        }
+
+        state.world = world;
+        state.chunkX = chunkX;
+        state.chunkZ = chunkZ;
+        state.border = border;
+
+        if (country == state.country) {
+            return NONE;
+        }
+
+        state.country = country;
+
+        // Océan: pas de notification, mais le retour dans le même pays en déclenchera une
+        if (country < 0) {
+            state.notified = NONE;
+            return NONE;
+        }
+
+        if (!notify) {
+            state.notified = country;
+            return NONE;
+        }
+
+        return decide(state, now);
+    }
+
+    /**
+     * Planification de la notification en attente (pays pas encore annoncé à cause du délai)
+     * @return Délai en millisecondes avant {@link #flushPending}, ou -1 si rien à planifier
+     *         (aucune attente, ou déjà planifiée)
+     */
+    public long schedulePending(@NotNull UUID uuid, long now) {
+        State state = states.get(uuid);
+        if (state == null || state.scheduled || !isPending(state)) {
+            return -1;
+        }
+
+        state.scheduled = true;
+        return Math.max(0, state.lastNotification + cooldownMillis - now);
+    }
+
+    /**
+     * Fin du délai: annonce le pays courant s'il ne l'a pas encore été
+     * @return Pays à annoncer maintenant, ou {@link #NONE}
+     */
+    public int flushPending(@NotNull UUID uuid, long now) {
+        State state = states.get(uuid);
+        if (state == null) {
+            return NONE;
+        }
+
+        state.scheduled = false;
+        return isPending(state) ? decide(state, now) : NONE;
+    }
+
+    private int decide(@NotNull State state, long now) {
+        if (now - state.lastNotification < cooldownMillis) {
+            return NONE;
+        }
+
+        state.lastNotification = now;
+        state.notified = state.country;
+        return state.country;
+    }
+
+    private static boolean isPending(@NotNull State state) {
+        return state.country >= 0 && state.country != state.notified;
+    }
+
+    public void remove(@NotNull UUID uuid) {
+        states.remove(uuid);
+    }
+
+    public void clear() {
+        states.clear();
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    private static final class State {
+        private String world;
+        private int chunkX;
+        private int chunkZ;
+        private boolean border;
+        private int country;
+        // Dernier pays annoncé (NONE après un passage en océan)
+        private int notified;
+        private long lastNotification;
+        private boolean scheduled;
+    }
+}
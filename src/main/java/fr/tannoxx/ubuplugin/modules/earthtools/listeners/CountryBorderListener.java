@@ -0,0 +1,157 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.listeners;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.geo.CountryChunkIndex;
+import fr.tannoxx.ubuplugin.modules.earthtools.geo.CountryTracker;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.title.Title;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Notifie les joueurs lorsqu'ils entrent dans un nouveau pays
+ * <p>
+ * Le coût par mouvement est borné: rien n'est fait tant que le joueur reste
+ * dans le même chunk, sauf dans les chunks frontière où la recherche est faite au bloc.
+ * Le suivi et le délai entre notifications sont tenus par {@link CountryTracker}:
+ * un pays atteint pendant le délai est annoncé à la fin de celui-ci.
+ * Toutes les données sont manipulées sur le thread principal.
+ */
+public class CountryBorderListener implements Listener {
+
+    private final EarthToolsModule module;
+
+    // Pays courant et dernier pays annoncé de chaque joueur
+    private final CountryTracker tracker = new CountryTracker();
+
+    // Configuration mise en cache (relue au reload)
+    private Set<String> worlds = Set.of();
+    private String display = "actionbar";
+
+    public CountryBorderListener(@NotNull EarthToolsModule module) {
+        this.module = module;
+        reload();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(@NotNull PlayerJoinEvent event) {
+        // Position initiale sans notification
+        Player player = event.getPlayer();
+        update(player, player.getLocation(), false);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(@NotNull PlayerQuitEvent event) {
+        tracker.remove(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(@NotNull PlayerMoveEvent event) {
+        handleMove(event.getPlayer(), event.getFrom(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(@NotNull PlayerTeleportEvent event) {
+        handleMove(event.getPlayer(), event.getFrom(), event.getTo());
+    }
+
+    private void handleMove(@NotNull Player player, @NotNull Location from, @NotNull Location to) {
+        // Rotation de la tête ou mouvement vertical uniquement
+        if (to.getBlockX() == from.getBlockX() && to.getBlockZ() == from.getBlockZ()
+                && from.getWorld() == to.getWorld()) {
+            return;
+        }
+
+        update(player, to, true);
+    }
+
+    /**
+     * Met à jour le pays courant du joueur et notifie si besoin
+     */
+    private void update(@NotNull Player player, @NotNull Location location, boolean notify) {
+        CountryChunkIndex index = module.getCountryChunkIndex();
+        String worldName = location.getWorld().getName();
+
+        if (index == null || !worlds.contains(worldName)) {
+            tracker.remove(player.getUniqueId());
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        int country = notify
+                ? tracker.move(player.getUniqueId(), worldName, location.getBlockX(), location.getBlockZ(), index, now)
+                : tracker.update(player.getUniqueId(), worldName, location.getBlockX(), location.getBlockZ(), index, false, now);
+
+        announce(player, index, country);
+    }
+
+    /**
+     * Envoie la notification, ou planifie celle d'un pays atteint pendant le délai
+     */
+    private void announce(@NotNull Player player, @NotNull CountryChunkIndex index, int country) {
+        if (country != CountryTracker.NONE) {
+            String countryName = index.getLookup().getCountryName(country);
+            if (countryName != null) {
+                sendNotification(player, module.getCountryCommand().applyCountryReplacement(countryName));
+            }
+            return;
+        }
+
+        long delay = tracker.schedulePending(player.getUniqueId(), System.currentTimeMillis());
+        if (delay < 0) return;
+
+        module.plugin.getServer().getScheduler().runTaskLater(module.plugin, () -> {
+            // Index reconstruit ou joueur parti entre-temps: le suivi a déjà été oublié
+            if (!player.isOnline() || module.getCountryChunkIndex() != index) return;
+
+            announce(player, index, tracker.flushPending(player.getUniqueId(), System.currentTimeMillis()));
+        }, Math.max(1, (delay + 49) / 50));
+    }
+
+    private void sendNotification(@NotNull Player player, @NotNull String countryName) {
+        switch (display) {
+            case "title" -> {
+                Component title = module.getTranslationManager()
+                        .getComponent(player, "earthtools.country.entered-title", countryName);
+                Component subtitle = module.getTranslationManager()
+                        .getComponent(player, "earthtools.country.entered-subtitle", countryName);
+                player.showTitle(Title.title(title, subtitle, Title.Times.times(
+                        Duration.ofMillis(250), Duration.ofSeconds(2), Duration.ofMillis(500))));
+            }
+            case "chat" -> module.getTranslationManager().send(player, "earthtools.country.entered", countryName);
+            default -> player.sendActionBar(module.getTranslationManager()
+                    .getComponent(player, "earthtools.country.entered", countryName));
+        }
+    }
+
+    /**
+     * Recharge la configuration des notifications
+     */
+    public void reload() {
+        worlds = new HashSet<>(module.getConfigManager()
+                .getStringList("earthtools.country.notifications.worlds"));
+        display = module.getConfigManager().getString("earthtools.country.notifications.display", "actionbar")
+                .toLowerCase();
+        tracker.setCooldownMillis(module.getConfigManager().getInt("earthtools.country.notifications.cooldown", 3) * 1000L);
+        tracker.clear();
+    }
+
+    /**
+     * Oublie l'état de tous les joueurs (index reconstruit ou module désactivé)
+     */
+    public void clear() {
+        tracker.clear();
+    }
+}
@@ -1,9 +1,10 @@
 package fr.tannoxx.ubuplugin.modules.earthtools.listeners;
 
-import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.LeaderboardHolder;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -11,19 +12,23 @@ import org.jetbrains.annotations.NotNull;
  * Empêche les joueurs de prendre les items du GUI
  * <p>
  * ✅ FIX v2.0.3: Comparaison correcte du titre avec PlainTextSerializer
+ * Les pages étant partagées entre joueurs, le GUI est reconnu par son
+ * {@link LeaderboardHolder} (plus de sérialisation du titre à chaque clic)
  */
 public class UptimeGUIListener implements Listener {
 
     @EventHandler
     public void onInventoryClick(@NotNull InventoryClickEvent event) {
-        // Convertir le titre Component en texte brut pour comparaison
-        String title = PlainTextComponentSerializer.plainText()
-                .serialize(event.getView().title());
-
-        // Vérifier si c'est notre GUI (le titre contient "Top Joueurs")
-        if (title.contains("Top Joueurs") || title.contains("Temps de Jeu")) {
+        if (event.getView().getTopInventory().getHolder() instanceof LeaderboardHolder) {
             // Bloquer TOUTES les interactions
             event.setCancelled(true);
         }
     }
+
+    @EventHandler
+    public void onInventoryDrag(@NotNull InventoryDragEvent event) {
+        if (event.getView().getTopInventory().getHolder() instanceof LeaderboardHolder) {
+            event.setCancelled(true);
+        }
+    }
 }
\ No newline at end of file
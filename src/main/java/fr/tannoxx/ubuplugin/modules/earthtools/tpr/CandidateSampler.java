@@ -0,0 +1,202 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.tpr;
+
+import fr.tannoxx.ubuplugin.common.towny.ClaimIndex;
+import fr.tannoxx.ubuplugin.common.world.RegionFiles;
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.commands.CountryCommand;
+import fr.tannoxx.ubuplugin.modules.earthtools.geo.CountryChunkIndex;
+import fr.tannoxx.ubuplugin.modules.earthtools.geo.CountryLookup;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.generator.BiomeProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Tirage des chunks candidats pour /tpr, avant tout chargement
+ * <p>
+ * - rejet des chunks revendiqués par Towny ({@link ClaimIndex}, O(1))
+ * - rejet des océans par le masque terre/mer: index des pays (polygones Natural Earth
+ *   déjà chargés pour /country), sinon requête de biome sans chargement de chunk
+ * - biais optionnel vers les régions déjà générées (fichiers r.X.Z.mca): pas de génération
+ * <p>
+ * Un tirage coûte quelques µs, contre un chargement (voire une génération) de chunk
+ * pour une tentative ratée.
+ */
+public class CandidateSampler {
+
+    // Liste des régions générées rafraîchie au plus toutes les 5 minutes
+    private static final long REGION_REFRESH_MS = 5 * 60 * 1000L;
+
+    private final EarthToolsModule module;
+
+    // Régions générées par monde (coordonnées de région packées)
+    private final Map<UUID, GeneratedRegions> regions = new ConcurrentHashMap<>();
+
+    // Configuration
+    private boolean landOnly;
+    private double generatedBias;
+    private int maxDraws;
+
+    public CandidateSampler(@NotNull EarthToolsModule module) {
+        this.module = module;
+        loadConfig();
+    }
+
+    /**
+     * Tire un chunk candidat (thread principal)
+     * Les tirages rejetés (claim, océan) ne coûtent aucun chargement; après maxDraws rejets
+     * le dernier tirage est tout de même retourné.
+     * @param claims Index des claims à éviter, null = pas de vérification Towny
+     */
+    @NotNull
+    public Candidate next(@NotNull World world, int maxX, int maxZ, @Nullable ClaimIndex claims) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long[] generated = generatedBias > 0 && random.nextDouble() < generatedBias
+                ? generatedRegions(world)
+                : null;
+
+        return draw(random, generated, maxX, maxZ, maxDraws, (chunkX, chunkZ) ->
+                (claims == null || !claims.isClaimed(world, chunkX, chunkZ))
+                        && (!landOnly || isLand(world, chunkX, chunkZ)));
+    }
+
+    /**
+     * Boucle de tirage, indépendante du serveur
+     * Un chunk tiré dans une région générée mais hors des limites est remplacé par un
+     * tirage uniforme: chaque candidat, y compris le dernier retourné, reste dans les limites.
+     * @param generated Régions générées où tirer, null ou vide = tirage uniforme
+     */
+    @NotNull
+    static Candidate draw(@NotNull RandomGenerator random, long @Nullable [] generated,
+                          int maxX, int maxZ, int maxDraws, @NotNull ChunkFilter filter) {
+        int chunkX = 0;
+        int chunkZ = 0;
+
+        for (int draw = 0; draw < maxDraws; draw++) {
+            boolean picked = false;
+
+            if (generated != null && generated.length > 0) {
+                long region = generated[random.nextInt(generated.length)];
+                chunkX = (RegionFiles.regionX(region) << RegionFiles.CHUNK_SHIFT) + random.nextInt(32);
+                chunkZ = (RegionFiles.regionZ(region) << RegionFiles.CHUNK_SHIFT) + random.nextInt(32);
+                picked = inBounds(chunkX, maxX) && inBounds(chunkZ, maxZ);
+            }
+
+            if (!picked) {
+                chunkX = random.nextInt(-maxX, maxX + 1) >> 4;
+                chunkZ = random.nextInt(-maxZ, maxZ + 1) >> 4;
+            }
+
+            if (filter.accept(chunkX, chunkZ)) {
+                return new Candidate(chunkX, chunkZ, draw + 1);
+            }
+        }
+
+        return new Candidate(chunkX, chunkZ, maxDraws);
+    }
+
+    /**
+     * Même plage de chunks que le tirage uniforme sur [-max, max]
+     */
+    static boolean inBounds(int chunk, int max) {
+        return chunk >= (-max >> 4) && chunk <= (max >> 4);
+    }
+
+    /**
+     * Le centre du chunk est-il sur la terre ferme ?
+     * Le Nether n'a pas d'océan: toujours vrai
+     */
+    private boolean isLand(@NotNull World world, int chunkX, int chunkZ) {
+        if (world.getEnvironment() != World.Environment.NORMAL) {
+            return true;
+        }
+
+        int blockX = (chunkX << 4) + 8;
+        int blockZ = (chunkZ << 4) + 8;
+
+        // Masque terre/mer issu des polygones des pays (carte Earth)
+        CountryChunkIndex index = module.getCountryChunkIndex();
+        if (index != null) {
+            int country = index.getChunkCountry(chunkX, chunkZ);
+            return country >= 0 || (country == CountryChunkIndex.BORDER && index.resolveBlock(blockX, blockZ) >= 0);
+        }
+
+        CountryLookup lookup = module.getCountryLookup();
+        if (lookup != null) {
+            return lookup.resolveId(blockZ / CountryCommand.LATITUDE_TO_Z, blockX / CountryCommand.LONGITUDE_TO_X) >= 0;
+        }
+
+        // Sans index: biome calculé par le générateur, sans charger le chunk
+        try {
+            BiomeProvider provider = world.getBiomeProvider();
+            if (provider == null) {
+                provider = world.vanillaBiomeProvider();
+            }
+            Biome biome = provider.getBiome(world, blockX, world.getSeaLevel(), blockZ);
+            return !biome.getKey().getKey().contains("ocean");
+        } catch (Exception e) {
+            module.debug("TPR: biome indisponible en {},{}: {}", blockX, blockZ, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Régions générées du monde (liste rafraîchie en asynchrone quand elle est périmée)
+     */
+    private long @NotNull [] generatedRegions(@NotNull World world) {
+        GeneratedRegions cached = regions.get(world.getUID());
+        long now = System.currentTimeMillis();
+
+        if (cached == null || now - cached.scannedAt() > REGION_REFRESH_MS) {
+            // Marquer comme rafraîchi tout de suite: un seul scan à la fois
+            regions.put(world.getUID(), new GeneratedRegions(cached != null ? cached.regions() : new long[0], now));
+
+            File folder = world.getEnvironment() == World.Environment.NETHER
+                    ? new File(world.getWorldFolder(), "DIM-1/region")
+                    : new File(world.getWorldFolder(), "region");
+
+            module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin,
+                    () -> regions.put(world.getUID(), new GeneratedRegions(RegionFiles.scan(folder), now)));
+        }
+
+        return cached != null ? cached.regions() : new long[0];
+    }
+
+    public void reload() {
+        loadConfig();
+    }
+
+    private void loadConfig() {
+        landOnly = module.getConfigManager().getBoolean("earthtools.tpr.sampling.land-only", true);
+        generatedBias = Math.min(1.0, Math.max(0.0,
+                module.getConfigManager().getDouble("earthtools.tpr.sampling.generated-bias", 0.5)));
+        maxDraws = Math.max(1, module.getConfigManager().getInt("earthtools.tpr.sampling.max-draws", 64));
+    }
+
+    /**
+     * Chunk candidat
+     * @param draws Nombre de tirages nécessaires (rejets compris)
+     */
+    public record Candidate(int chunkX, int chunkZ, int draws) {
+    }
+
+    /**
+     * Filtre d'un tirage (claims, océans)
+     */
+    @FunctionalInterface
+    interface ChunkFilter {
+        boolean accept(int chunkX, int chunkZ);
+    }
+
+    private record GeneratedRegions(long @NotNull [] regions, long scannedAt) {
+    }
+}
@@ -0,0 +1,136 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.tpr;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Contenu de la réserve /tpr ({@link TprLocationPool}), sans API Bukkit
+ * <p>
+ * - une file par monde, plus anciens emplacements d'abord
+ * - un emplacement pris n'est jamais remis: il est revérifié puis servi,
+ *   ou écarté s'il est périmé (l'essai passe alors au suivant)
+ * <p>
+ * Thread-safe
+ */
+public final class LocationReserve {
+
+    // Emplacements disponibles par monde (verrou: pools)
+    private final Map<String, Deque<PooledLocation>> pools = new HashMap<>();
+
+    // Métriques
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+
+    /**
+     * Ajoute les emplacements relus depuis la base (plus anciens d'abord)
+     */
+    public void restore(@NotNull List<PooledLocation> stored) {
+        synchronized (pools) {
+            for (PooledLocation location : stored) {
+                pools.computeIfAbsent(location.world(), k -> new ArrayDeque<>()).addLast(location);
+            }
+        }
+    }
+
+    public void add(@NotNull PooledLocation location) {
+        synchronized (pools) {
+            pools.computeIfAbsent(location.world(), k -> new ArrayDeque<>()).addLast(location);
+        }
+    }
+
+    public int size(@NotNull String world) {
+        synchronized (pools) {
+            Deque<PooledLocation> pool = pools.get(world);
+            return pool != null ? pool.size() : 0;
+        }
+    }
+
+    public int available() {
+        synchronized (pools) {
+            return pools.values().stream().mapToInt(Deque::size).sum();
+        }
+    }
+
+    /**
+     * Prend le premier emplacement encore valide du monde
+     * @param validator Revérification asynchrone, résultat null si l'emplacement est périmé
+     * @param onTaken Appelé pour chaque emplacement retiré, valide ou non (suppression en base)
+     * @param retry Exécute l'essai suivant après un emplacement périmé (refus: abandon)
+     * @return Résultat du premier emplacement valide, ou null si la réserve est vide
+     */
+    @NotNull
+    public <T> CompletableFuture<@Nullable T> poll(@NotNull String world,
+                                                   @NotNull Function<PooledLocation, CompletableFuture<T>> validator,
+                                                   @NotNull Consumer<PooledLocation> onTaken,
+                                                   @NotNull Executor retry) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        pollNext(world, validator, onTaken, retry, result);
+        return result;
+    }
+
+    private <T> void pollNext(@NotNull String world, @NotNull Function<PooledLocation, CompletableFuture<T>> validator,
+                              @NotNull Consumer<PooledLocation> onTaken, @NotNull Executor retry,
+                              @NotNull CompletableFuture<T> result) {
+        PooledLocation entry;
+        synchronized (pools) {
+            Deque<PooledLocation> pool = pools.get(world);
+            entry = pool != null ? pool.pollFirst() : null;
+        }
+
+        if (entry == null) {
+            misses.incrementAndGet();
+            result.complete(null);
+            return;
+        }
+
+        // Un emplacement n'est jamais servi deux fois, qu'il soit encore valide ou non
+        onTaken.accept(entry);
+
+        validator.apply(entry).whenComplete((value, error) -> {
+            if (value != null) {
+                hits.incrementAndGet();
+                result.complete(value);
+                return;
+            }
+
+            // Emplacement périmé: essayer le suivant
+            stale.incrementAndGet();
+            try {
+                retry.execute(() -> pollNext(world, validator, onTaken, retry, result));
+            } catch (RejectedExecutionException e) {
+                result.complete(null);
+            }
+        });
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long stale() {
+        return stale.get();
+    }
+
+    /**
+     * Emplacement en réserve (coordonnées de bloc)
+     */
+    public record PooledLocation(@NotNull String world, int x, int y, int z, long createdAt) {
+    }
+}
@@ -0,0 +1,211 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.tpr;
+
+import fr.tannoxx.ubuplugin.common.towny.ClaimIndex;
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Recherche asynchrone d'un emplacement sûr pour /tpr
+ * <p>
+ * Aucune opération bloquante sur le thread principal:
+ * - les chunks sont chargés / générés via {@link World#getChunkAtAsync}
+ * - seule la copie du {@link ChunkSnapshot} se fait sur le thread principal
+ * - l'évaluation des blocs se fait hors du thread principal, sur le snapshot
+ *   (voir {@link SafetyScanner})
+ * <p>
+ * Les chunks candidats viennent de {@link CandidateSampler} (océans écartés avant chargement).
+ * Les tentatives successives sont enchaînées par {@link TprAttempts}.
+ */
+public class SafeLocationFinder {
+
+    private final EarthToolsModule module;
+    private final ClaimIndex claimIndex;
+    private final CandidateSampler sampler;
+
+    // Métriques: chunks chargés par recherche réussie, tirages rejetés
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong chunkLoads = new AtomicLong();
+    private final AtomicLong draws = new AtomicLong();
+
+    public SafeLocationFinder(@NotNull EarthToolsModule module) {
+        this.module = module;
+        this.claimIndex = module.plugin.getClaimIndex();
+        this.sampler = new CandidateSampler(module);
+    }
+
+    public boolean isTownyEnabled() {
+        return claimIndex != null;
+    }
+
+    /**
+     * Lance une recherche (à appeler depuis le thread principal)
+     * @return Emplacement sûr, ou null si aucune tentative n'a abouti (complété sur un thread quelconque)
+     */
+    @NotNull
+    public CompletableFuture<@Nullable Location> find(@NotNull World world, int maxX, int maxZ,
+                                                      int maxAttempts, boolean checkTowny) {
+        CompletableFuture<Location> result = new CompletableFuture<>();
+        searches.incrementAndGet();
+        boolean towny = checkTowny && claimIndex != null;
+
+        TprAttempts.run(Math.max(1, maxAttempts),
+                // Plugin ou monde déchargé entre-temps
+                () -> module.plugin.isEnabled() && module.plugin.getServer().getWorld(world.getUID()) != null,
+                () -> draw(world, maxX, maxZ, towny),
+                (chunkX, chunkZ, localX, localZ, callback) -> evaluateChunk(world, chunkX, chunkZ, localX, localZ, callback),
+                this::runOnMainThread,
+                ThreadLocalRandom.current(),
+                result);
+        return result.whenComplete((location, error) -> {
+            if (location != null) successes.incrementAndGet();
+        });
+    }
+
+    /**
+     * Métriques des recherches depuis le démarrage
+     */
+    @NotNull
+    public Stats getStats() {
+        return new Stats(searches.get(), successes.get(), chunkLoads.get(), draws.get());
+    }
+
+    public void reload() {
+        sampler.reload();
+    }
+
+    /**
+     * Revérifie un emplacement déjà trouvé (réserve de /tpr): le terrain a pu changer depuis
+     * A appeler depuis le thread principal
+     * @return Emplacement (hauteur recalculée), ou null s'il n'est plus sûr
+     */
+    @NotNull
+    public CompletableFuture<@Nullable Location> validate(@NotNull World world, int x, int z, boolean checkTowny) {
+        if (checkTowny && claimIndex != null && claimIndex.isClaimed(world, x >> 4, z >> 4)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<Location> result = new CompletableFuture<>();
+        evaluateChunk(world, x >> 4, z >> 4, x & 15, z & 15, result::complete);
+        return result;
+    }
+
+    /**
+     * Tirage d'un candidat (océans et claims écartés), thread principal
+     * @return null si le dernier tirage, accepté faute de mieux, est revendiqué:
+     *         un chunk revendiqué n'est jamais chargé pour rien
+     */
+    @Nullable
+    private CandidateSampler.Candidate draw(@NotNull World world, int maxX, int maxZ, boolean checkTowny) {
+        CandidateSampler.Candidate candidate = sampler.next(world, maxX, maxZ, checkTowny ? claimIndex : null);
+        draws.addAndGet(candidate.draws());
+
+        if (checkTowny && claimIndex.isClaimed(world, candidate.chunkX(), candidate.chunkZ())) {
+            return null;
+        }
+        return candidate;
+    }
+
+    /**
+     * Tentative suivante depuis le thread principal (API Towny et chargement de chunks)
+     */
+    private void runOnMainThread(@NotNull Runnable task) {
+        if (!module.plugin.isEnabled()) {
+            throw new RejectedExecutionException("plugin désactivé");
+        }
+        module.plugin.getServer().getScheduler().runTask(module.plugin, task);
+    }
+
+    /**
+     * Charge le chunk en asynchrone, copie son snapshot sur le thread principal
+     * puis évalue la colonne hors du thread principal
+     * @param callback Reçoit l'emplacement sûr ou null (appelé hors du thread principal)
+     */
+    private void evaluateChunk(@NotNull World world, int chunkX, int chunkZ, int localX, int localZ,
+                               @NotNull Consumer<@Nullable Location> callback) {
+        chunkLoads.incrementAndGet();
+        world.getChunkAtAsync(chunkX, chunkZ, true).whenComplete((chunk, error) -> {
+            if (error != null || chunk == null) {
+                module.debug("TPR: chargement du chunk {},{} impossible: {}", chunkX, chunkZ,
+                        error != null ? error.getMessage() : "null");
+                module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin,
+                        () -> callback.accept(null));
+                return;
+            }
+
+            // Thread principal: copie du chunk (heightmap incluse) et des positions de spawners
+            ChunkSnapshot snapshot = chunk.getChunkSnapshot(true, false, false);
+            int[] tiles = dangerousTiles(chunk);
+
+            module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, () -> {
+                Location location = null;
+                try {
+                    location = evaluate(world, snapshot, tiles, localX, localZ);
+                } catch (Exception e) {
+                    module.debug("TPR: erreur d'évaluation du chunk {},{}: {}", chunkX, chunkZ, e.getMessage());
+                }
+                callback.accept(location);
+            });
+        });
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                 ÉVALUATION (HORS THREAD PRINCIPAL)
+    // ═══════════════════════════════════════════════════════════
+
+    @Nullable
+    private Location evaluate(@NotNull World world, @NotNull ChunkSnapshot snapshot, int @NotNull [] dangerousTiles,
+                              int localX, int localZ) {
+        SafetyScanner scanner = new SafetyScanner(world.getMinHeight(), world.getMaxHeight());
+        SafetyScanner.BlockSource blocks = SafetyScanner.BlockSource.of(snapshot);
+        int blockX = (snapshot.getX() << 4) + localX;
+        int blockZ = (snapshot.getZ() << 4) + localZ;
+
+        Integer y = world.getEnvironment() == World.Environment.NETHER
+                ? scanner.findNetherY(blocks, localX, localZ, dangerousTiles)
+                : scanner.findOverworldY(blocks, localX, localZ, dangerousTiles);
+
+        return y != null ? new Location(world, blockX + 0.5, y, blockZ + 0.5) : null;
+    }
+
+    /**
+     * Positions locales des spawners / portails du chunk (thread principal)
+     * Lecture de la liste des tile entities, sans copie de leur état
+     */
+    private static int @NotNull [] dangerousTiles(@NotNull Chunk chunk) {
+        int[] positions = new int[0];
+        for (BlockState state : chunk.getTileEntities(false)) {
+            if (SafetyScanner.isDangerousTile(state.getType())) {
+                positions = Arrays.copyOf(positions, positions.length + 3);
+                positions[positions.length - 3] = state.getX() & 15;
+                positions[positions.length - 2] = state.getY();
+                positions[positions.length - 1] = state.getZ() & 15;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * @param chunkLoads Chunks chargés (recherches et revérifications de la réserve)
+     * @param draws Tirages de candidats, rejets (océans) compris
+     */
+    public record Stats(long searches, long successes, long chunkLoads, long draws) {
+
+        public double chunkLoadsPerSuccess() {
+            return successes > 0 ? (double) chunkLoads / successes : 0;
+        }
+    }
+}
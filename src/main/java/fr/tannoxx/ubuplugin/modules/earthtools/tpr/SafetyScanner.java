@@ -0,0 +1,268 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.tpr;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Predicate;
+
+/**
+ * Vérifications de sécurité /tpr sur une colonne d'un chunk
+ * <p>
+ * - table Material → drapeaux de danger calculée une fois (indexée par ordinal):
+ *   plus aucune recherche de chaîne ni comparaison en cascade par bloc
+ * - les spawners sont repérés via la liste des tile entities du chunk
+ *   ({@link #isDangerousTile}); seuls les cadres de portail de l'End, sans
+ *   tile entity, sont cherchés bloc par bloc, en dernier (colonnes déjà valides)
+ * - ne dépend que de {@link BlockSource}: testable sans serveur
+ *   ({@link Material#isSolid} passe par le registre du serveur: critère injectable)
+ * <p>
+ * Thread-safe (aucun état mutable)
+ */
+public final class SafetyScanner {
+
+    // Drapeaux par matériau
+    private static final byte AIR = 1;
+    private static final byte SOLID = 1 << 1;
+    private static final byte LIQUID = 1 << 2;
+    private static final byte LAVA = 1 << 3;
+    private static final byte UNSAFE_GROUND = 1 << 4;
+    private static final byte UNSAFE_NETHER_GROUND = 1 << 5;
+    private static final byte DANGER_BLOCK = 1 << 6;
+
+    // Rayon de la zone sans spawner ni portail autour du point d'arrivée
+    private static final int DANGER_RADIUS = 5;
+    private static final int DANGER_HEIGHT = 3;
+
+    private final int minY;
+    private final int maxY;
+    private final byte[] flags;
+
+    /**
+     * @param minY Hauteur minimale du monde (incluse)
+     * @param maxY Hauteur maximale du monde (exclue)
+     */
+    public SafetyScanner(int minY, int maxY) {
+        this.minY = minY;
+        this.maxY = maxY;
+        this.flags = DefaultFlags.FLAGS;
+    }
+
+    /**
+     * Table construite avec un autre critère de solidité (tests hors serveur)
+     */
+    SafetyScanner(int minY, int maxY, @NotNull Predicate<Material> solid) {
+        this.minY = minY;
+        this.maxY = maxY;
+        this.flags = buildFlags(solid);
+    }
+
+    /**
+     * Accès aux blocs d'un chunk (coordonnées locales 0-15)
+     */
+    public interface BlockSource {
+        @NotNull
+        Material getBlockType(int x, int y, int z);
+
+        int getHighestBlockYAt(int x, int z);
+
+        @NotNull
+        static BlockSource of(@NotNull ChunkSnapshot snapshot) {
+            return new BlockSource() {
+                @Override
+                public @NotNull Material getBlockType(int x, int y, int z) {
+                    return snapshot.getBlockType(x, y, z);
+                }
+
+                @Override
+                public int getHighestBlockYAt(int x, int z) {
+                    return snapshot.getHighestBlockYAt(x, z);
+                }
+            };
+        }
+    }
+
+    /**
+     * Tile entities à éviter autour du point d'arrivée
+     * Les cadres de portail n'en ont pas: voir {@link #DANGER_BLOCK}
+     */
+    public static boolean isDangerousTile(@NotNull Material material) {
+        return material == Material.SPAWNER
+                || material == Material.TRIAL_SPAWNER
+                || material == Material.END_PORTAL;
+    }
+
+    /**
+     * Hauteur d'arrivée sûre en surface (Overworld)
+     * @param dangerousTiles Positions locales {x, y, z, x, y, z...} des tile entities dangereuses
+     * @return Y des pieds, ou null si la colonne n'est pas sûre
+     */
+    @Nullable
+    public Integer findOverworldY(@NotNull BlockSource blocks, int x, int z, int @NotNull [] dangerousTiles) {
+        int highestY = blocks.getHighestBlockYAt(x, z);
+
+        if (highestY < minY + 1 || highestY >= maxY - 2) {
+            return null;
+        }
+
+        int groundY = highestY;
+        while (groundY > minY && has(blocks.getBlockType(x, groundY, z), AIR)) {
+            groundY--;
+        }
+
+        int spawnY = groundY + 1;
+
+        if (has(blocks.getBlockType(x, groundY, z), UNSAFE_GROUND)) {
+            return null;
+        }
+
+        if (!has(blocks.getBlockType(x, spawnY, z), AIR) || !has(blocks.getBlockType(x, spawnY + 1, z), AIR)) {
+            return null;
+        }
+
+        if (anyNearby(blocks, x, z, 1, spawnY, spawnY, LIQUID)) {
+            return null;
+        }
+
+        if (hasDangerousTileNearby(dangerousTiles, x, spawnY, z)) {
+            return null;
+        }
+
+        // Cadres de portail de l'End (le spawner de la salle peut avoir été cassé)
+        if (anyNearby(blocks, x, z, DANGER_RADIUS, spawnY - DANGER_HEIGHT, spawnY + DANGER_HEIGHT, DANGER_BLOCK)) {
+            return null;
+        }
+
+        return spawnY;
+    }
+
+    /**
+     * Première hauteur sûre du Nether (entre 32 et 120)
+     * @return Y des pieds, ou null si la colonne n'est pas sûre
+     */
+    @Nullable
+    public Integer findNetherY(@NotNull BlockSource blocks, int x, int z, int @NotNull [] dangerousTiles) {
+        int top = Math.min(120, maxY - 2);
+
+        for (int y = Math.max(32, minY + 1); y < top; y++) {
+            int ground = flagsOf(blocks.getBlockType(x, y - 1, z));
+            if ((ground & SOLID) == 0 || (ground & UNSAFE_NETHER_GROUND) != 0) {
+                continue;
+            }
+
+            if (!has(blocks.getBlockType(x, y, z), AIR) || !has(blocks.getBlockType(x, y + 1, z), AIR)) {
+                continue;
+            }
+
+            if (has(blocks.getBlockType(x, y + 2, z), LAVA)) {
+                continue;
+            }
+
+            if (anyNearby(blocks, x, z, 2, y - 1, y + 2, LAVA)) {
+                continue;
+            }
+
+            if (hasDangerousTileNearby(dangerousTiles, x, y, z)) {
+                continue;
+            }
+
+            return y;
+        }
+
+        return null;
+    }
+
+    /**
+     * Cherche un bloc portant le drapeau dans le pavé autour de la colonne (hauteurs incluses)
+     */
+    private boolean anyNearby(@NotNull BlockSource blocks, int x, int z, int radius, int fromY, int toY, byte flag) {
+        int from = Math.max(minY, fromY);
+        int to = Math.min(maxY - 1, toY);
+
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int by = from; by <= to; by++) {
+                for (int dz = -radius; dz <= radius; dz++) {
+                    if (has(blocks.getBlockType(x + dx, by, z + dz), flag)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasDangerousTileNearby(int @NotNull [] tiles, int x, int y, int z) {
+        for (int i = 0; i + 2 < tiles.length; i += 3) {
+            if (Math.abs(tiles[i] - x) <= DANGER_RADIUS
+                    && Math.abs(tiles[i + 1] - y) <= DANGER_HEIGHT
+                    && Math.abs(tiles[i + 2] - z) <= DANGER_RADIUS) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean has(@NotNull Material material, byte flag) {
+        return (flags[material.ordinal()] & flag) != 0;
+    }
+
+    private int flagsOf(@NotNull Material material) {
+        return flags[material.ordinal()];
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                     TABLE DES DRAPEAUX
+    // ═══════════════════════════════════════════════════════════
+
+    // Table du serveur, calculée au premier scanner créé
+    private static final class DefaultFlags {
+        private static final byte[] FLAGS = buildFlags(Material::isSolid);
+    }
+
+    private static byte[] buildFlags(@NotNull Predicate<Material> solid) {
+        Material[] materials = Material.values();
+        byte[] flags = new byte[materials.length];
+
+        for (Material material : materials) {
+            if (material.isLegacy()) continue;
+
+            String name = material.name();
+            int value = 0;
+
+            boolean air = isAir(material);
+
+            if (air) value |= AIR;
+            if (solid.test(material)) value |= SOLID;
+            if (material == Material.WATER || material == Material.LAVA) value |= LIQUID;
+            if (material == Material.LAVA) value |= LAVA;
+            if (material == Material.END_PORTAL_FRAME) value |= DANGER_BLOCK;
+
+            if (material == Material.WATER || material == Material.LAVA || air
+                    || material == Material.BEDROCK
+                    || name.contains("KELP") || name.contains("LEAVES")
+                    || name.contains("ICE") || name.contains("SNOW")
+                    || material == Material.CACTUS || material == Material.MAGMA_BLOCK
+                    || material == Material.SWEET_BERRY_BUSH
+                    || material == Material.FIRE || material == Material.SOUL_FIRE
+                    || material == Material.SLIME_BLOCK || material == Material.HONEY_BLOCK) {
+                value |= UNSAFE_GROUND;
+            }
+
+            if (material == Material.LAVA || material == Material.BEDROCK || material == Material.MAGMA_BLOCK
+                    || material == Material.FIRE || material == Material.SOUL_FIRE
+                    || material == Material.SOUL_SAND || material == Material.NETHER_WART_BLOCK) {
+                value |= UNSAFE_NETHER_GROUND;
+            }
+
+            flags[material.ordinal()] = (byte) value;
+        }
+
+        return flags;
+    }
+
+    // Équivalent de Material#isAir sans passer par le registre du serveur
+    private static boolean isAir(@NotNull Material material) {
+        return material == Material.AIR || material == Material.CAVE_AIR || material == Material.VOID_AIR;
+    }
+}
@@ -0,0 +1,88 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.tpr;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Boucle de tentatives de /tpr ({@link SafeLocationFinder}), sans API Bukkit
+ * <p>
+ * - chaque tentative tire un chunk candidat; un candidat écarté (claim)
+ *   consomme une tentative sans charger de chunk
+ * - la colonne est prise au centre du chunk (marge de {@link #MARGIN} blocs):
+ *   les vérifications de voisinage restent dans le même snapshot
+ * - l'évaluation est asynchrone; la tentative suivante repart via l'exécuteur
+ *   fourni (thread principal), tant que la recherche est encore active
+ */
+public final class TprAttempts {
+
+    // Rayon des vérifications de voisinage (liquides, spawners)
+    public static final int MARGIN = 5;
+
+    /**
+     * Évaluation asynchrone d'une colonne: callback(null) si elle n'est pas sûre
+     */
+    @FunctionalInterface
+    public interface Evaluator<T> {
+        void evaluate(int chunkX, int chunkZ, int localX, int localZ, @NotNull Consumer<@Nullable T> callback);
+    }
+
+    private TprAttempts() {
+    }
+
+    /**
+     * Coordonnée locale (0-15) tirée au centre du chunk
+     */
+    public static int localOffset(@NotNull Random random) {
+        return MARGIN + random.nextInt(16 - 2 * MARGIN);
+    }
+
+    /**
+     * Lance les tentatives jusqu'au premier succès
+     * @param remaining Tentatives restantes
+     * @param active Recherche encore utile (plugin actif, monde chargé)
+     * @param draw Tirage d'un candidat, null s'il est écarté sans chargement
+     * @param retry Exécute la tentative suivante (refus: abandon)
+     * @param random Tirage des colonnes (utilisé depuis le thread des tentatives)
+     * @param result Complété avec le premier résultat, ou null
+     */
+    public static <T> void run(int remaining, @NotNull BooleanSupplier active,
+                               @NotNull Supplier<CandidateSampler.Candidate> draw,
+                               @NotNull Evaluator<T> evaluator, @NotNull Executor retry, @NotNull Random random,
+                               @NotNull CompletableFuture<T> result) {
+        // Tentatives épuisées, ou plugin / monde déchargé entre-temps
+        if (remaining <= 0 || !active.getAsBoolean()) {
+            result.complete(null);
+            return;
+        }
+
+        CandidateSampler.Candidate candidate = draw.get();
+        if (candidate == null) {
+            run(remaining - 1, active, draw, evaluator, retry, random, result);
+            return;
+        }
+
+        int localX = localOffset(random);
+        int localZ = localOffset(random);
+
+        evaluator.evaluate(candidate.chunkX(), candidate.chunkZ(), localX, localZ, value -> {
+            if (value != null) {
+                result.complete(value);
+                return;
+            }
+
+            try {
+                retry.execute(() -> run(remaining - 1, active, draw, evaluator, retry, random, result));
+            } catch (RejectedExecutionException e) {
+                result.complete(null);
+            }
+        });
+    }
+}
@@ -0,0 +1,218 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.tpr;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.data.TprLocationRepository;
+import fr.tannoxx.ubuplugin.modules.earthtools.tpr.LocationReserve.PooledLocation;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Réserve d'emplacements /tpr pré-calculés, par monde
+ * <p>
+ * - une tâche de fond basse priorité remplit la réserve, avec un budget de
+ *   chunks chargés par cycle et uniquement si le serveur tient ses TPS
+ * - /tpr prend un emplacement instantanément et le revérifie à ce moment-là
+ *   (le terrain ou les claims ont pu changer)
+ * - la réserve est persistée en base (table tpr_locations) et survit aux redémarrages
+ * <p>
+ * Le contenu de la réserve et la revérification sont dans {@link LocationReserve}
+ */
+public class TprLocationPool {
+
+    private final EarthToolsModule module;
+    private final SafeLocationFinder finder;
+    private final TprLocationRepository repository;
+
+    private final LocationReserve reserve = new LocationReserve();
+
+    // Mondes dont un remplissage est en cours (thread principal)
+    private final Set<String> refilling = new HashSet<>();
+
+    // Métriques
+    private final AtomicLong refills = new AtomicLong();
+    private final AtomicLong failedRefills = new AtomicLong();
+    private final AtomicLong refillNanos = new AtomicLong();
+
+    private int refillTaskId = -1;
+
+    // Configuration
+    private boolean enabled;
+    private int poolSize;
+    private int chunkBudget;
+    private int refillInterval;
+    private double minTps;
+    private List<String> worlds;
+    private int maxX;
+    private int maxZ;
+    private boolean checkTowny;
+
+    public TprLocationPool(@NotNull EarthToolsModule module, @NotNull SafeLocationFinder finder) {
+        this.module = module;
+        this.finder = finder;
+        this.repository = new TprLocationRepository(module);
+        loadConfig();
+    }
+
+    /**
+     * Recharge la réserve depuis la base puis démarre le remplissage
+     */
+    public void start() {
+        module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, () -> {
+            List<PooledLocation> stored = repository.loadAll();
+            reserve.restore(stored);
+            if (!stored.isEmpty()) {
+                module.info("✓ Réserve TPR: {} emplacements restaurés", stored.size());
+            }
+        });
+
+        scheduleRefill();
+    }
+
+    /**
+     * Prend un emplacement de la réserve et le revérifie (thread principal)
+     * @return Emplacement sûr, ou null si la réserve est vide (la recherche classique prend le relais)
+     */
+    @NotNull
+    public CompletableFuture<@Nullable Location> poll(@NotNull World world) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return reserve.poll(world.getName(),
+                entry -> finder.validate(world, entry.x(), entry.z(), checkTowny),
+                entry -> module.plugin.getServer().getScheduler()
+                        .runTaskAsynchronously(module.plugin, () -> repository.delete(entry)),
+                this::runOnMainThread);
+    }
+
+    /**
+     * Essai suivant au tick suivant (refusé une fois le plugin désactivé)
+     */
+    private void runOnMainThread(@NotNull Runnable task) {
+        if (!module.plugin.isEnabled()) {
+            throw new RejectedExecutionException("plugin désactivé");
+        }
+        module.plugin.getServer().getScheduler().runTask(module.plugin, task);
+    }
+
+    /**
+     * Cycle de remplissage (thread principal): au plus une recherche par monde à la fois,
+     * limitée à chunkBudget chunks chargés
+     */
+    private void refill() {
+        if (module.plugin.getServer().getTPS()[0] < minTps) {
+            return;
+        }
+
+        for (String worldName : worlds) {
+            World world = module.plugin.getServer().getWorld(worldName);
+            if (world == null || (world.getEnvironment() != World.Environment.NORMAL
+                    && world.getEnvironment() != World.Environment.NETHER)) {
+                continue;
+            }
+
+            if (reserve.size(worldName) >= poolSize || !refilling.add(worldName)) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            finder.find(world, maxX, maxZ, chunkBudget, checkTowny).whenComplete((location, error) -> {
+                if (location == null) {
+                    failedRefills.incrementAndGet();
+                    finishRefill(worldName);
+                    return;
+                }
+
+                refills.incrementAndGet();
+                refillNanos.addAndGet(System.nanoTime() - start);
+
+                PooledLocation entry = new PooledLocation(worldName, location.getBlockX(), location.getBlockY(),
+                        location.getBlockZ(), System.currentTimeMillis());
+                reserve.add(entry);
+
+                module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, () -> repository.insert(entry));
+                finishRefill(worldName);
+            });
+        }
+    }
+
+    private void finishRefill(@NotNull String worldName) {
+        if (!module.plugin.isEnabled()) return;
+        module.plugin.getServer().getScheduler().runTask(module.plugin, () -> refilling.remove(worldName));
+    }
+
+    /**
+     * Métriques de la réserve
+     */
+    @NotNull
+    public Stats getStats() {
+        long refillCount = refills.get();
+        double averageRefillMs = refillCount > 0 ? refillNanos.get() / 1_000_000.0 / refillCount : 0;
+
+        return new Stats(enabled, reserve.available(), poolSize * worlds.size(),
+                reserve.hits(), reserve.misses(), reserve.stale(),
+                refillCount, failedRefills.get(), averageRefillMs);
+    }
+
+    /**
+     * Recharge la configuration (le contenu de la réserve est conservé)
+     */
+    public void reload() {
+        stop();
+        loadConfig();
+        scheduleRefill();
+    }
+
+    public void stop() {
+        if (refillTaskId != -1) {
+            module.plugin.getServer().getScheduler().cancelTask(refillTaskId);
+            refillTaskId = -1;
+        }
+    }
+
+    private void scheduleRefill() {
+        if (!enabled) return;
+
+        long ticks = refillInterval * 20L;
+        refillTaskId = module.plugin.getServer().getScheduler()
+                .runTaskTimer(module.plugin, this::refill, ticks, ticks)
+                .getTaskId();
+    }
+
+    private void loadConfig() {
+        enabled = module.getConfigManager().getBoolean("earthtools.tpr.pool.enabled", true);
+        poolSize = Math.max(1, module.getConfigManager().getInt("earthtools.tpr.pool.size", 20));
+        chunkBudget = Math.max(1, module.getConfigManager().getInt("earthtools.tpr.pool.chunk-budget", 4));
+        refillInterval = Math.max(1, module.getConfigManager().getInt("earthtools.tpr.pool.refill-interval", 10));
+        minTps = module.getConfigManager().getDouble("earthtools.tpr.pool.min-tps", 18.0);
+        worlds = module.getConfigManager().getStringList("earthtools.tpr.allowed-worlds");
+        maxX = module.getConfigManager().getInt("earthtools.tpr.max-x", 24597);
+        maxZ = module.getConfigManager().getInt("earthtools.tpr.max-z", 12298);
+        checkTowny = module.getConfigManager().getBoolean("earthtools.tpr.check-towny", true);
+    }
+
+    /**
+     * Métriques: taux de succès de la réserve et latence de remplissage
+     * @param hits Emplacements servis depuis la réserve
+     * @param misses Réserve vide au moment du /tpr
+     * @param stale Emplacements périmés écartés à la revérification
+     * @param averageRefillMs Durée moyenne d'une recherche de remplissage réussie
+     */
+    public record Stats(boolean enabled, int available, int capacity, long hits, long misses, long stale,
+                        long refills, long failedRefills, double averageRefillMs) {
+
+        public double hitRate() {
+            long total = hits + misses;
+            return total > 0 ? (double) hits / total : 0;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.uptime;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Propriétaire des inventaires du classement /uptime
+ * Les listeners reconnaissent le GUI par {@code instanceof}, sans sérialiser le titre
+ */
+public final class LeaderboardHolder implements InventoryHolder {
+
+    private final int page;
+    private final Inventory inventory;
+
+    LeaderboardHolder(int page, @NotNull Component title) {
+        this.page = page;
+        this.inventory = Bukkit.createInventory(this, 54, title);
+    }
+
+    /**
+     * @return Page affichée (à partir de 0)
+     */
+    public int getPage() {
+        return page;
+    }
+
+    @Override
+    public @NotNull Inventory getInventory() {
+        return inventory;
+    }
+}
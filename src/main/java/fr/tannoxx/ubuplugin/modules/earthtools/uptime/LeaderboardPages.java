@@ -0,0 +1,227 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.uptime;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.PlaytimeLeaderboard.PlaytimeEntry;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.bukkit.Material;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.SkullMeta;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pages du classement /uptime partagées entre tous les joueurs
+ * <p>
+ * - instantané du classement figé pendant snapshot-refresh secondes: rangs et
+ *   nombre de pages cohérents d'une page à l'autre
+ * - chaque page est construite une seule fois par instantané (têtes, boutons), à la
+ *   première demande, puis le même inventaire est ouvert pour tous les joueurs
+ * - têtes texturées depuis {@link SkullProfileCache}: une texture résolue après la
+ *   construction d'une page apparaît à l'instantané suivant
+ * - les inventaires sont en lecture seule ({@link LeaderboardHolder}, clics et
+ *   glisser-déposer annulés)
+ * <p>
+ * Thread principal uniquement
+ */
+public class LeaderboardPages {
+
+    public static final int PLAYERS_PER_PAGE = 45;
+    public static final int PREVIOUS_SLOT = 48;
+    public static final int NEXT_SLOT = 50;
+
+    private final EarthToolsModule module;
+
+    // Instantané courant
+    private List<PlaytimeEntry> ranking = List.of();
+    private long snapshotAt;
+    private final Map<Integer, Inventory> pages = new HashMap<>();
+
+    // Configuration
+    private long refreshMillis;
+
+    public LeaderboardPages(@NotNull EarthToolsModule module) {
+        this.module = module;
+        loadConfig();
+    }
+
+    /**
+     * Inventaire de la page (bornée aux pages existantes)
+     * @return null tant que le classement n'est pas chargé
+     */
+    @Nullable
+    public Inventory getPage(int page) {
+        if (!module.getPlaytimeTracker().isReady()) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (snapshotAt == 0 || now - snapshotAt > refreshMillis) {
+            PlaytimeLeaderboard leaderboard = module.getPlaytimeTracker().getLeaderboard();
+            ranking = leaderboard.page(0, leaderboard.size());
+            snapshotAt = now;
+            pages.clear();
+        }
+
+        int clamped = Math.max(0, Math.min(page, getTotalPages() - 1));
+        return pages.computeIfAbsent(clamped, this::buildPage);
+    }
+
+    private int getTotalPages() {
+        return Math.max(1, (int) Math.ceil((double) ranking.size() / PLAYERS_PER_PAGE));
+    }
+
+    /**
+     * Force la reconstruction à la prochaine demande
+     */
+    public void invalidate() {
+        ranking = List.of();
+        snapshotAt = 0;
+        pages.clear();
+    }
+
+    public void reload() {
+        loadConfig();
+        invalidate();
+    }
+
+    private void loadConfig() {
+        refreshMillis = Math.max(1, module.getConfigManager().getInt("earthtools.uptime.snapshot-refresh", 60)) * 1000L;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                     CONSTRUCTION D'UNE PAGE
+    // ═══════════════════════════════════════════════════════════
+
+    @NotNull
+    private Inventory buildPage(int page) {
+        int totalPages = getTotalPages();
+
+        LeaderboardHolder holder = new LeaderboardHolder(page,
+                Component.text("🏆 Top Joueurs - Page " + (page + 1) + "/" + totalPages,
+                        NamedTextColor.GOLD, TextDecoration.BOLD));
+        Inventory inv = holder.getInventory();
+
+        int startIndex = page * PLAYERS_PER_PAGE;
+        int endIndex = Math.min(startIndex + PLAYERS_PER_PAGE, ranking.size());
+
+        for (int i = startIndex; i < endIndex; i++) {
+            inv.setItem(i - startIndex, createPlayerSkull(ranking.get(i), i + 1));
+        }
+
+        // Décoration: bordure
+        ItemStack border = new ItemStack(Material.GRAY_STAINED_GLASS_PANE);
+        var borderMeta = border.getItemMeta();
+        borderMeta.displayName(Component.text(" "));
+        border.setItemMeta(borderMeta);
+
+        // Remplir la dernière rangée avec la bordure
+        for (int i = 45; i < 54; i++) {
+            inv.setItem(i, border);
+        }
+
+        // ✅ Bouton page précédente
+        if (page > 0) {
+            ItemStack prevPage = new ItemStack(Material.ARROW);
+            var prevMeta = prevPage.getItemMeta();
+            prevMeta.displayName(Component.text("← Page précédente", NamedTextColor.YELLOW, TextDecoration.BOLD));
+            prevMeta.lore(List.of(
+                    Component.text(""),
+                    Component.text("Page " + page + "/" + totalPages, NamedTextColor.GRAY)
+            ));
+            prevPage.setItemMeta(prevMeta);
+            inv.setItem(PREVIOUS_SLOT, prevPage);
+        }
+
+        // Item d'info au centre (slot 49)
+        ItemStack infoItem = new ItemStack(Material.BOOK);
+        var infoMeta = infoItem.getItemMeta();
+        infoMeta.displayName(Component.text("📊 Statistiques", NamedTextColor.AQUA, TextDecoration.BOLD));
+        infoMeta.lore(Arrays.asList(
+                Component.text(""),
+                Component.text("Total joueurs: " + ranking.size(), NamedTextColor.GRAY),
+                Component.text("Page: " + (page + 1) + "/" + totalPages, NamedTextColor.GRAY),
+                Component.text("Actualisé toutes les " + refreshMillis / 1000 + "s", NamedTextColor.DARK_GRAY)
+        ));
+        infoItem.setItemMeta(infoMeta);
+        inv.setItem(49, infoItem);
+
+        // ✅ Bouton page suivante
+        if (page < totalPages - 1) {
+            ItemStack nextPage = new ItemStack(Material.ARROW);
+            var nextMeta = nextPage.getItemMeta();
+            nextMeta.displayName(Component.text("Page suivante →", NamedTextColor.YELLOW, TextDecoration.BOLD));
+            nextMeta.lore(List.of(
+                    Component.text(""),
+                    Component.text("Page " + (page + 2) + "/" + totalPages, NamedTextColor.GRAY)
+            ));
+            nextPage.setItemMeta(nextMeta);
+            inv.setItem(NEXT_SLOT, nextPage);
+        }
+
+        return inv;
+    }
+
+    /**
+     * Crée une tête de joueur avec ses stats
+     */
+    @NotNull
+    private ItemStack createPlayerSkull(@NotNull PlaytimeEntry stat, int rank) {
+        ItemStack skull = new ItemStack(Material.PLAYER_HEAD);
+        SkullMeta meta = (SkullMeta) skull.getItemMeta();
+
+        // Texture déjà en cache uniquement: aucune résolution de profil à l'ouverture
+        PlayerProfile profile = module.getSkullProfileCache().getProfile(stat.uuid(), stat.name());
+        if (profile != null) {
+            meta.setPlayerProfile(profile);
+        }
+
+        // Couleur du nom selon le rang
+        Component displayName = switch (rank) {
+            case 1 -> Component.text("🥇 #" + rank + " " + stat.name(), NamedTextColor.GOLD, TextDecoration.BOLD);
+            case 2 -> Component.text("🥈 #" + rank + " " + stat.name(), NamedTextColor.GRAY, TextDecoration.BOLD);
+            case 3 -> Component.text("🥉 #" + rank + " " + stat.name(), NamedTextColor.RED, TextDecoration.BOLD);
+            default -> Component.text("#" + rank + " " + stat.name(), NamedTextColor.YELLOW);
+        };
+
+        meta.displayName(displayName);
+
+        // Lore avec les stats
+        String timeFormatted = formatTime(stat.playtime());
+        long hours = stat.playtime() / (1000 * 60 * 60);
+        long days = hours / 24;
+
+        List<Component> lore = new ArrayList<>();
+        lore.add(Component.text(""));
+        lore.add(Component.text("⏱ Temps de jeu:", NamedTextColor.GRAY));
+        lore.add(Component.text("  " + timeFormatted, NamedTextColor.AQUA));
+        lore.add(Component.text(""));
+
+        if (days > 0) {
+            lore.add(Component.text("📅 " + days + " jour" + (days > 1 ? "s" : ""), NamedTextColor.GREEN));
+        }
+        lore.add(Component.text("🕐 " + hours + " heure" + (hours > 1 ? "s" : ""), NamedTextColor.GREEN));
+
+        meta.lore(lore);
+        skull.setItemMeta(meta);
+
+        return skull;
+    }
+
+    @NotNull
+    private static String formatTime(long millis) {
+        long hours = millis / (1000 * 60 * 60);
+        long minutes = (millis / (1000 * 60)) % 60;
+        long seconds = (millis / 1000) % 60;
+        return String.format("%02dh %02dm %02ds", hours, minutes, seconds);
+    }
+}
@@ -0,0 +1,238 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.uptime;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Classement des temps de jeu trié en permanence
+ * <p>
+ * Arbre d'ordre statistique (treap augmenté de la taille des sous-arbres), trié par
+ * temps de jeu décroissant puis UUID:
+ * - mise à jour d'un joueur en O(log n)
+ * - rang d'un joueur en O(log n)
+ * - page quelconque en O(log n + taille de la page)
+ * <p>
+ * Thread-safe
+ */
+public final class PlaytimeLeaderboard {
+
+    private final Map<UUID, PlaytimeEntry> entries = new HashMap<>();
+    private Node root;
+
+    /**
+     * Ajoute ou met à jour un joueur (les temps nuls ne sont pas classés)
+     */
+    public synchronized void update(@NotNull PlaytimeEntry entry) {
+        PlaytimeEntry previous = entries.get(entry.uuid());
+        if (previous != null) {
+            if (previous.equals(entry)) return;
+            root = erase(root, previous);
+            entries.remove(entry.uuid());
+        }
+
+        if (entry.playtime() > 0) {
+            entries.put(entry.uuid(), entry);
+            root = insert(root, new Node(entry));
+        }
+    }
+
+    @Nullable
+    public synchronized PlaytimeEntry get(@NotNull UUID uuid) {
+        return entries.get(uuid);
+    }
+
+    /**
+     * @return Rang du joueur (1 = premier), ou -1 s'il n'est pas classé
+     */
+    public synchronized int rank(@NotNull UUID uuid) {
+        PlaytimeEntry entry = entries.get(uuid);
+        if (entry == null) return -1;
+
+        int before = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(entry, node.entry);
+            if (cmp == 0) {
+                return before + size(node.left) + 1;
+            }
+            if (cmp < 0) {
+                node = node.left;
+            } else {
+                before += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Entrées classées de offset (inclus) à offset + limit (exclu)
+     */
+    @NotNull
+    public synchronized List<PlaytimeEntry> page(int offset, int limit) {
+        List<PlaytimeEntry> result = new ArrayList<>(Math.max(0, Math.min(limit, size(root) - offset)));
+        if (offset < 0 || limit <= 0 || offset >= size(root)) {
+            return result;
+        }
+
+        // Descente vers le offset-ième nœud: la pile garde les ancêtres qui le suivent
+        Deque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        int skip = offset;
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (skip < leftSize) {
+                stack.push(node);
+                node = node.left;
+            } else if (skip == leftSize) {
+                stack.push(node);
+                break;
+            } else {
+                skip -= leftSize + 1;
+                node = node.right;
+            }
+        }
+
+        // Parcours infixe à partir de là
+        while (result.size() < limit && !stack.isEmpty()) {
+            Node current = stack.pop();
+            result.add(current.entry);
+
+            for (Node next = current.right; next != null; next = next.left) {
+                stack.push(next);
+            }
+        }
+
+        return result;
+    }
+
+    public synchronized int size() {
+        return size(root);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        root = null;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                           TREAP
+    // ═══════════════════════════════════════════════════════════
+
+    private static final class Node {
+        final PlaytimeEntry entry;
+        final int priority = ThreadLocalRandom.current().nextInt();
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(@NotNull PlaytimeEntry entry) {
+            this.entry = entry;
+        }
+    }
+
+    private static int compare(@NotNull PlaytimeEntry a, @NotNull PlaytimeEntry b) {
+        int cmp = Long.compare(b.playtime(), a.playtime());
+        return cmp != 0 ? cmp : a.uuid().compareTo(b.uuid());
+    }
+
+    private static int size(@Nullable Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static void pull(@NotNull Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static Node insert(@Nullable Node node, @NotNull Node inserted) {
+        if (node == null) return inserted;
+
+        if (inserted.priority > node.priority) {
+            Node[] parts = split(node, inserted.entry);
+            inserted.left = parts[0];
+            inserted.right = parts[1];
+            pull(inserted);
+            return inserted;
+        }
+
+        if (compare(inserted.entry, node.entry) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        pull(node);
+        return node;
+    }
+
+    private static Node erase(@Nullable Node node, @NotNull PlaytimeEntry entry) {
+        if (node == null) return null;
+
+        int cmp = compare(entry, node.entry);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+
+        if (cmp < 0) {
+            node.left = erase(node.left, entry);
+        } else {
+            node.right = erase(node.right, entry);
+        }
+        pull(node);
+        return node;
+    }
+
+    /**
+     * Sépare en {nœuds < key, nœuds >= key}
+     */
+    private static Node[] split(@Nullable Node node, @NotNull PlaytimeEntry key) {
+        if (node == null) return new Node[2];
+
+        if (compare(node.entry, key) < 0) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            pull(node);
+            parts[0] = node;
+            return parts;
+        }
+
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        pull(node);
+        parts[1] = node;
+        return parts;
+    }
+
+    /**
+     * Fusionne deux arbres (toutes les clés de left précèdent celles de right)
+     */
+    private static Node merge(@Nullable Node left, @Nullable Node right) {
+        if (left == null) return right;
+        if (right == null) return left;
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            pull(left);
+            return left;
+        }
+
+        right.left = merge(left, right.left);
+        pull(right);
+        return right;
+    }
+
+    /**
+     * Temps de jeu d'un joueur
+     * @param playtime Temps de jeu en millisecondes
+     */
+    public record PlaytimeEntry(@NotNull UUID uuid, @NotNull String name, long playtime) {
+    }
+}
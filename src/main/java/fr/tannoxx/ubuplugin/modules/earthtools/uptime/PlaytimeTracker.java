@@ -0,0 +1,276 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.uptime;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.data.PlaytimeRepository;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.PlaytimeLeaderboard.PlaytimeEntry;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Statistic;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Temps de jeu de tous les joueurs, sans relire leurs fichiers de statistiques
+ * <p>
+ * - table playtime initialisée une seule fois depuis world/stats/*.json (asynchrone)
+ * - mise à jour incrémentale depuis les joueurs connectés (statistique en mémoire):
+ *   échantillonnage périodique, connexion et déconnexion
+ * - écriture différée en base des seules entrées modifiées
+ * - classement {@link PlaytimeLeaderboard} toujours trié en mémoire
+ */
+public class PlaytimeTracker implements Listener {
+
+    private final EarthToolsModule module;
+    private final PlaytimeRepository repository;
+    private final PlaytimeLeaderboard leaderboard = new PlaytimeLeaderboard();
+
+    // Entrées modifiées depuis la dernière écriture
+    private final Map<UUID, PlaytimeEntry> dirty = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+    private int sampleTaskId = -1;
+
+    public PlaytimeTracker(@NotNull EarthToolsModule module) {
+        this.module = module;
+        this.repository = new PlaytimeRepository(module);
+    }
+
+    /**
+     * Charge la table (ou l'initialise depuis les statistiques) puis démarre l'échantillonnage
+     */
+    public void start() {
+        module.plugin.getServer().getPluginManager().registerEvents(this, module.plugin);
+
+        module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, () -> {
+            long start = System.currentTimeMillis();
+            List<PlaytimeEntry> stored = repository.loadAll();
+
+            if (stored.isEmpty()) {
+                // Première utilisation: les noms sont lus sur le thread principal
+                module.plugin.getServer().getScheduler().runTask(module.plugin, this::seedFromStats);
+                return;
+            }
+
+            stored.forEach(leaderboard::update);
+            module.info("✓ Temps de jeu chargés: {} joueurs ({}ms)", stored.size(), System.currentTimeMillis() - start);
+            publish();
+        });
+
+        scheduleSampling();
+    }
+
+    /**
+     * Initialisation unique depuis les fichiers de statistiques du monde principal
+     */
+    private void seedFromStats() {
+        if (!module.plugin.isEnabled()) return;
+
+        List<World> worlds = module.plugin.getServer().getWorlds();
+        if (worlds.isEmpty()) return;
+
+        File statsFolder = new File(worlds.get(0).getWorldFolder(), "stats");
+
+        Map<UUID, String> names = new HashMap<>();
+        for (OfflinePlayer player : module.plugin.getServer().getOfflinePlayers()) {
+            if (player.getName() != null) {
+                names.put(player.getUniqueId(), player.getName());
+            }
+        }
+
+        module.info("Initialisation des temps de jeu depuis {} fichiers de statistiques...", names.size());
+
+        module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, () -> {
+            long start = System.currentTimeMillis();
+            List<PlaytimeEntry> seeded = new ArrayList<>();
+
+            for (Map.Entry<UUID, String> entry : names.entrySet()) {
+                long ticks = readPlayTicks(new File(statsFolder, entry.getKey() + ".json"));
+                if (ticks > 0) {
+                    seeded.add(new PlaytimeEntry(entry.getKey(), entry.getValue(), ticks * 50L));
+                }
+            }
+
+            repository.saveAll(seeded);
+            seeded.forEach(leaderboard::update);
+            module.info("✓ Temps de jeu initialisés: {} joueurs ({}ms)", seeded.size(), System.currentTimeMillis() - start);
+            publish();
+        });
+    }
+
+    /**
+     * Statistique minecraft:play_time d'un fichier de statistiques (en ticks)
+     */
+    private long readPlayTicks(@NotNull File file) {
+        if (!file.isFile()) return 0;
+
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
+            JsonObject stats = root.getAsJsonObject("stats");
+            if (stats == null) return 0;
+
+            JsonObject custom = stats.getAsJsonObject("minecraft:custom");
+            if (custom == null) return 0;
+
+            JsonElement playTime = custom.get("minecraft:play_time");
+            return playTime != null ? playTime.getAsLong() : 0;
+        } catch (Exception e) {
+            module.debug("Statistiques illisibles {}: {}", file.getName(), e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Classement prêt: prise en compte immédiate des joueurs connectés
+     */
+    private void publish() {
+        ready = true;
+        if (!module.plugin.isEnabled()) return;
+        module.plugin.getServer().getScheduler().runTask(module.plugin, this::sample);
+    }
+
+    /**
+     * Relève le temps de jeu des joueurs connectés puis écrit les modifications (thread principal)
+     */
+    private void sample() {
+        for (Player player : module.plugin.getServer().getOnlinePlayers()) {
+            track(player);
+        }
+
+        if (!dirty.isEmpty()) {
+            module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, this::flush);
+        }
+    }
+
+    private void track(@NotNull Player player) {
+        // Avant le chargement, une écriture rendrait la table non vide et empêcherait l'initialisation
+        if (!ready) return;
+
+        PlaytimeEntry entry = new PlaytimeEntry(player.getUniqueId(), player.getName(),
+                player.getStatistic(Statistic.PLAY_ONE_MINUTE) * 50L);
+
+        if (!entry.equals(leaderboard.get(entry.uuid()))) {
+            leaderboard.update(entry);
+            dirty.put(entry.uuid(), entry);
+        }
+    }
+
+    /**
+     * Écrit les entrées modifiées (bloquant)
+     * En cas d'erreur, le lot est remis dans les entrées à écrire
+     */
+    private void flush() {
+        if (dirty.isEmpty()) return;
+
+        List<PlaytimeEntry> batch = new ArrayList<>(dirty.size());
+        for (UUID uuid : new ArrayList<>(dirty.keySet())) {
+            PlaytimeEntry entry = dirty.remove(uuid);
+            if (entry != null) {
+                batch.add(entry);
+            }
+        }
+
+        if (!repository.saveAll(batch)) {
+            // Remettre ce qui n'a pas été remplacé entre-temps (valeur plus récente)
+            for (PlaytimeEntry entry : batch) {
+                dirty.putIfAbsent(entry.uuid(), entry);
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(@NotNull PlayerJoinEvent event) {
+        track(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(@NotNull PlayerQuitEvent event) {
+        track(event.getPlayer());
+    }
+
+    /**
+     * Temps de jeu d'un joueur en millisecondes
+     * Connecté: statistique en mémoire; sinon la table (fichier de statistiques en dernier recours)
+     */
+    public long getPlaytime(@NotNull OfflinePlayer player) {
+        Player online = player.getPlayer();
+        if (online != null) {
+            return online.getStatistic(Statistic.PLAY_ONE_MINUTE) * 50L;
+        }
+
+        PlaytimeEntry entry = leaderboard.get(player.getUniqueId());
+        if (entry != null || ready) {
+            return entry != null ? entry.playtime() : 0;
+        }
+
+        return player.getStatistic(Statistic.PLAY_ONE_MINUTE) * 50L;
+    }
+
+    /**
+     * Le classement est-il chargé ?
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @NotNull
+    public PlaytimeLeaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    public void reload() {
+        stopSampling();
+        scheduleSampling();
+    }
+
+    /**
+     * Arrêt: dernier relevé des joueurs connectés et écriture synchrone
+     */
+    public void stop() {
+        HandlerList.unregisterAll(this);
+        stopSampling();
+
+        if (ready) {
+            for (Player player : module.plugin.getServer().getOnlinePlayers()) {
+                track(player);
+            }
+            flush();
+        }
+
+        ready = false;
+        leaderboard.clear();
+    }
+
+    private void scheduleSampling() {
+        long ticks = Math.max(10, module.getConfigManager().getInt("earthtools.uptime.update-interval", 60)) * 20L;
+        sampleTaskId = module.plugin.getServer().getScheduler()
+                .runTaskTimer(module.plugin, this::sample, ticks, ticks)
+                .getTaskId();
+    }
+
+    private void stopSampling() {
+        if (sampleTaskId != -1) {
+            module.plugin.getServer().getScheduler().cancelTask(sampleTaskId);
+            sampleTaskId = -1;
+        }
+    }
+}
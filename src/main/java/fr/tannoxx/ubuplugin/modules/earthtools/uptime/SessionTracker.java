@@ -0,0 +1,245 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.uptime;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.data.SessionRepository;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Suivi des sessions de jeu (connexion / déconnexion)
+ * <p>
+ * - les événements sont ajoutés à un tampon en mémoire (ajout seul, aucun accès base)
+ * - un point de contrôle périodique (asynchrone) écrit le tampon en une transaction:
+ *   sessions (table sessions) et temps de jeu cumulés par jour et par semaine
+ *   (playtime_daily, playtime_weekly), incrémentalement
+ * - les sessions ouvertes sont prolongées jusqu'au point de contrôle: après un crash,
+ *   au plus checkpoint-interval secondes sont perdues, et les cumuls restent cohérents
+ *   avec la table sessions
+ * - les classements par période deviennent de simples requêtes indexées
+ */
+public class SessionTracker implements Listener {
+
+    private final EarthToolsModule module;
+    private final SessionRepository repository;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    // Tampon d'événements, rempli par le thread principal
+    private final Queue<SessionEvent> buffer = new ConcurrentLinkedQueue<>();
+
+    // État du point de contrôle (verrou: this)
+    private final List<SessionEvent> pending = new ArrayList<>();
+    private Map<UUID, OpenSession> open = new HashMap<>();
+    private boolean recovered;
+
+    private int checkpointTaskId = -1;
+
+    public SessionTracker(@NotNull EarthToolsModule module) {
+        this.module = module;
+        this.repository = new SessionRepository(module);
+    }
+
+    /**
+     * Clôt les sessions interrompues par un crash puis ouvre celles des joueurs connectés
+     */
+    public void start() {
+        module.plugin.getServer().getPluginManager().registerEvents(this, module.plugin);
+
+        long now = System.currentTimeMillis();
+        for (Player player : module.plugin.getServer().getOnlinePlayers()) {
+            buffer.add(new SessionEvent(SessionEvent.Type.JOIN, player.getUniqueId(), now));
+        }
+
+        // Premier point de contrôle tout de suite: reprise après crash et ouverture des sessions
+        module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, this::checkpoint);
+        scheduleCheckpoints();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(@NotNull PlayerJoinEvent event) {
+        buffer.add(new SessionEvent(SessionEvent.Type.JOIN, event.getPlayer().getUniqueId(), System.currentTimeMillis()));
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(@NotNull PlayerQuitEvent event) {
+        buffer.add(new SessionEvent(SessionEvent.Type.QUIT, event.getPlayer().getUniqueId(), System.currentTimeMillis()));
+    }
+
+    /**
+     * Point de contrôle (bloquant): écrit le tampon et prolonge les sessions ouvertes
+     * En cas d'erreur, les événements sont conservés pour le point suivant
+     */
+    public synchronized void checkpoint() {
+        // Sessions restées ouvertes par un crash: closes à leur dernier point de contrôle,
+        // déjà comptées dans les cumuls jusque-là
+        if (!recovered) {
+            int dangling = repository.closeDangling();
+            if (dangling < 0) return;
+            if (dangling > 0) {
+                module.warn("{} session(s) interrompue(s) clôturée(s) au dernier point de contrôle", dangling);
+            }
+            recovered = true;
+        }
+
+        SessionEvent event;
+        while ((event = buffer.poll()) != null) {
+            pending.add(event);
+        }
+
+        long now = System.currentTimeMillis();
+        Map<UUID, OpenSession> sessions = new HashMap<>(open);
+        SessionRepository.Batch batch = new SessionRepository.Batch();
+
+        for (SessionEvent pendingEvent : pending) {
+            OpenSession current = sessions.remove(pendingEvent.uuid());
+
+            // Fin de la session en cours; une connexion sans déconnexion connue arrête la
+            // précédente là où elle a été comptée
+            if (current != null) {
+                long end = pendingEvent.type() == SessionEvent.Type.QUIT
+                        ? Math.max(current.accountedUntil(), pendingEvent.time())
+                        : current.accountedUntil();
+                account(batch, pendingEvent.uuid(), current.accountedUntil(), end);
+                batch.sessions().add(new SessionRepository.SessionRow(pendingEvent.uuid(), current.startedAt(), end, true));
+            }
+
+            if (pendingEvent.type() == SessionEvent.Type.JOIN) {
+                sessions.put(pendingEvent.uuid(), new OpenSession(pendingEvent.time(), pendingEvent.time()));
+                batch.sessions().add(new SessionRepository.SessionRow(pendingEvent.uuid(), pendingEvent.time(),
+                        pendingEvent.time(), false));
+            }
+        }
+
+        // Prolonger les sessions ouvertes jusqu'à maintenant
+        for (Map.Entry<UUID, OpenSession> entry : sessions.entrySet()) {
+            OpenSession session = entry.getValue();
+            long end = Math.max(session.accountedUntil(), now);
+
+            account(batch, entry.getKey(), session.accountedUntil(), end);
+            batch.sessions().add(new SessionRepository.SessionRow(entry.getKey(), session.startedAt(), end, false));
+            entry.setValue(new OpenSession(session.startedAt(), end));
+        }
+
+        if (batch.sessions().isEmpty()) return;
+
+        if (repository.write(batch)) {
+            pending.clear();
+            open = sessions;
+        }
+    }
+
+    /**
+     * Répartit l'intervalle [from, to[ sur les jours et semaines qu'il couvre
+     */
+    private void account(@NotNull SessionRepository.Batch batch, @NotNull UUID uuid, long from, long to) {
+        while (from < to) {
+            LocalDate date = Instant.ofEpochMilli(from).atZone(zone).toLocalDate();
+            long dayEnd = date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            long chunk = Math.min(to, dayEnd) - from;
+
+            batch.daily().merge(new SessionRepository.PeriodKey(uuid, date.toEpochDay()), chunk, Long::sum);
+            batch.weekly().merge(new SessionRepository.PeriodKey(uuid, weekOf(date)), chunk, Long::sum);
+
+            from += chunk;
+        }
+    }
+
+    /**
+     * @return Jour epoch du lundi de la semaine
+     */
+    private static long weekOf(@NotNull LocalDate date) {
+        return date.with(DayOfWeek.MONDAY).toEpochDay();
+    }
+
+    /**
+     * Classement du temps de jeu sur la période (requête asynchrone)
+     * Les sessions en cours sont comptées jusqu'au dernier point de contrôle
+     */
+    @NotNull
+    public CompletableFuture<SessionRepository.PeriodStats> top(@NotNull Window window, int limit) {
+        LocalDate today = LocalDate.now(zone);
+        return CompletableFuture.supplyAsync(
+                () -> window == Window.TODAY
+                        ? repository.topDaily(today.toEpochDay(), limit)
+                        : repository.topWeekly(weekOf(today), limit),
+                task -> module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, task));
+    }
+
+    public void reload() {
+        stopCheckpoints();
+        scheduleCheckpoints();
+    }
+
+    /**
+     * Arrêt: les joueurs encore connectés sont déconnectés à cet instant, écriture synchrone
+     */
+    public void stop() {
+        HandlerList.unregisterAll(this);
+        stopCheckpoints();
+
+        long now = System.currentTimeMillis();
+        for (Player player : module.plugin.getServer().getOnlinePlayers()) {
+            buffer.add(new SessionEvent(SessionEvent.Type.QUIT, player.getUniqueId(), now));
+        }
+
+        checkpoint();
+    }
+
+    private void scheduleCheckpoints() {
+        long ticks = Math.max(10, module.getConfigManager().getInt("earthtools.uptime.sessions.checkpoint-interval", 60)) * 20L;
+        checkpointTaskId = module.plugin.getServer().getScheduler()
+                .runTaskTimerAsynchronously(module.plugin, this::checkpoint, ticks, ticks)
+                .getTaskId();
+    }
+
+    private void stopCheckpoints() {
+        if (checkpointTaskId != -1) {
+            module.plugin.getServer().getScheduler().cancelTask(checkpointTaskId);
+            checkpointTaskId = -1;
+        }
+    }
+
+    /**
+     * Période d'un classement
+     */
+    public enum Window {
+        TODAY,
+        WEEK
+    }
+
+    /**
+     * Événement du tampon
+     */
+    public record SessionEvent(@NotNull Type type, @NotNull UUID uuid, long time) {
+
+        public enum Type {
+            JOIN,
+            QUIT
+        }
+    }
+
+    /**
+     * Session ouverte
+     * @param accountedUntil Instant jusqu'auquel la session est déjà comptée dans les cumuls
+     */
+    private record OpenSession(long startedAt, long accountedUntil) {
+    }
+}
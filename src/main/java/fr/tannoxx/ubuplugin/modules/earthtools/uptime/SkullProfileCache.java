@@ -0,0 +1,198 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.uptime;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+import com.destroystokyo.paper.profile.ProfileProperty;
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.data.SkullProfileRepository;
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.PlaytimeLeaderboard.PlaytimeEntry;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cache des textures de têtes pour les GUIs
+ * <p>
+ * - les têtes ne sont construites qu'à partir de textures déjà connues: l'ouverture
+ *   d'un GUI ne déclenche jamais de résolution de profil
+ * - textures manquantes ou expirées résolues en asynchrone ({@link PlayerProfile#complete}),
+ *   à débit limité pour ménager l'API Mojang
+ * - textures persistées en base (table skull_profiles) avec une durée de vie,
+ *   échecs réessayés après quelques minutes (voir {@link SkullTextureStore})
+ * - préchargement du haut du classement, et capture gratuite à la connexion
+ */
+public class SkullProfileCache implements Listener {
+
+    private static final String TEXTURES = "textures";
+
+    private final EarthToolsModule module;
+    private final SkullProfileRepository repository;
+
+    private final SkullTextureStore store = new SkullTextureStore(0, 0);
+
+    private int fetchTaskId = -1;
+    private int prewarmTaskId = -1;
+
+    // Configuration
+    private int fetchPerSecond;
+    private int prewarmTop;
+
+    public SkullProfileCache(@NotNull EarthToolsModule module) {
+        this.module = module;
+        this.repository = new SkullProfileRepository(module);
+        loadConfig();
+    }
+
+    public void start() {
+        module.plugin.getServer().getPluginManager().registerEvents(this, module.plugin);
+
+        module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, () -> {
+            for (CachedTexture texture : repository.loadAll()) {
+                store.load(texture);
+            }
+            module.debug("Textures de têtes chargées: {}", store.size());
+        });
+
+        scheduleTasks();
+    }
+
+    /**
+     * Profil texturé prêt à poser sur une tête (thread principal, sans résolution)
+     * Texture inconnue ou expirée: résolution planifiée, la tête suivante en profitera
+     * @return null si la texture n'est pas encore connue (tête par défaut)
+     */
+    @Nullable
+    public PlayerProfile getProfile(@NotNull UUID uuid, @NotNull String name) {
+        CachedTexture texture = store.get(uuid, name, System.currentTimeMillis());
+
+        if (texture == null || texture.value() == null) {
+            return null;
+        }
+
+        PlayerProfile profile = Bukkit.createProfile(uuid, name);
+        profile.setProperty(new ProfileProperty(TEXTURES, texture.value(), texture.signature()));
+        return profile;
+    }
+
+    /**
+     * Planifie la résolution des textures manquantes ou expirées
+     */
+    public void prewarm(@NotNull List<PlaytimeEntry> entries) {
+        long now = System.currentTimeMillis();
+        for (PlaytimeEntry entry : entries) {
+            store.get(entry.uuid(), entry.name(), now);
+        }
+    }
+
+    private void prewarmLeaderboard() {
+        PlaytimeTracker tracker = module.getPlaytimeTracker();
+        if (tracker.isReady()) {
+            prewarm(tracker.getLeaderboard().page(0, prewarmTop));
+        }
+    }
+
+    /**
+     * Résout quelques profils de la file (thread asynchrone, bloquant)
+     */
+    private void fetchBatch() {
+        for (CachedTexture texture : store.drain(fetchPerSecond, this::resolve, System.currentTimeMillis())) {
+            repository.save(texture);
+        }
+    }
+
+    @Nullable
+    private CachedTexture resolve(@NotNull UUID uuid, @NotNull String name) {
+        try {
+            PlayerProfile profile = Bukkit.createProfile(uuid, name);
+            return profile.complete(true) ? extract(uuid, profile) : null;
+        } catch (Exception e) {
+            module.debug("Résolution du profil {} impossible: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    @Nullable
+    private static CachedTexture extract(@NotNull UUID uuid, @NotNull PlayerProfile profile) {
+        for (ProfileProperty property : profile.getProperties()) {
+            if (TEXTURES.equals(property.getName())) {
+                return new CachedTexture(uuid, property.getValue(), property.getSignature(), System.currentTimeMillis());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Le profil d'un joueur connecté contient déjà sa texture: aucune requête
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(@NotNull PlayerJoinEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        CachedTexture texture = extract(uuid, event.getPlayer().getPlayerProfile());
+        if (texture == null) return;
+
+        CachedTexture previous = store.put(texture);
+        if (previous == null || !texture.value().equals(previous.value())
+                || store.isExpired(previous, System.currentTimeMillis())) {
+            module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, () -> repository.save(texture));
+        }
+    }
+
+    public void reload() {
+        stopTasks();
+        loadConfig();
+        scheduleTasks();
+    }
+
+    public void stop() {
+        HandlerList.unregisterAll(this);
+        stopTasks();
+        store.clearQueue();
+    }
+
+    private void scheduleTasks() {
+        fetchTaskId = module.plugin.getServer().getScheduler()
+                .runTaskTimerAsynchronously(module.plugin, this::fetchBatch, 40L, 20L)
+                .getTaskId();
+
+        if (prewarmTop > 0) {
+            prewarmTaskId = module.plugin.getServer().getScheduler()
+                    .runTaskTimer(module.plugin, this::prewarmLeaderboard, 20L * 30, 20L * 60 * 5)
+                    .getTaskId();
+        }
+    }
+
+    private void stopTasks() {
+        if (fetchTaskId != -1) {
+            module.plugin.getServer().getScheduler().cancelTask(fetchTaskId);
+            fetchTaskId = -1;
+        }
+
+        if (prewarmTaskId != -1) {
+            module.plugin.getServer().getScheduler().cancelTask(prewarmTaskId);
+            prewarmTaskId = -1;
+        }
+    }
+
+    private void loadConfig() {
+        store.configure(
+                Math.max(1, module.getConfigManager().getInt("earthtools.uptime.skulls.ttl", 72)) * 3600_000L,
+                Math.max(1, module.getConfigManager().getInt("earthtools.uptime.skulls.retry-after", 5)) * 60_000L);
+        fetchPerSecond = Math.max(1, module.getConfigManager().getInt("earthtools.uptime.skulls.fetch-per-second", 2));
+        prewarmTop = Math.max(0, module.getConfigManager().getInt("earthtools.uptime.skulls.prewarm-top", 135));
+    }
+
+    /**
+     * Texture connue d'un joueur
+     * @param value Texture encodée, null si la résolution a échoué
+     */
+    public record CachedTexture(@NotNull UUID uuid, @Nullable String value, @Nullable String signature,
+                                long fetchedAt) {
+    }
+}
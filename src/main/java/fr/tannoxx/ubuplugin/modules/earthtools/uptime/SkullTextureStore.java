@@ -0,0 +1,146 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.uptime;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.SkullProfileCache.CachedTexture;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Textures connues et file de résolution de {@link SkullProfileCache}, sans API Bukkit
+ * <p>
+ * - une texture résolue reste valide ttl (heures)
+ * - un échec est mémorisé moins longtemps (retry, minutes): le joueur est remis
+ *   dans la file à la prochaine demande, sans harceler l'API Mojang entre-temps
+ * - la file est dédoublonnée, vidée par lots à débit limité
+ * <p>
+ * Thread-safe
+ */
+public final class SkullTextureStore {
+
+    /**
+     * Résolution bloquante d'un profil
+     */
+    @FunctionalInterface
+    public interface Resolver {
+        /**
+         * @return Texture résolue, ou null en cas d'échec
+         */
+        @Nullable
+        CachedTexture resolve(@NotNull UUID uuid, @NotNull String name);
+    }
+
+    private final Map<UUID, CachedTexture> textures = new ConcurrentHashMap<>();
+
+    // File de résolution (dédoublonnée)
+    private final Queue<PendingProfile> queue = new ConcurrentLinkedQueue<>();
+    private final Set<UUID> queued = ConcurrentHashMap.newKeySet();
+
+    private volatile long ttlMillis;
+    private volatile long retryMillis;
+
+    public SkullTextureStore(long ttlMillis, long retryMillis) {
+        configure(ttlMillis, retryMillis);
+    }
+
+    public void configure(long ttlMillis, long retryMillis) {
+        this.ttlMillis = ttlMillis;
+        this.retryMillis = retryMillis;
+    }
+
+    /**
+     * Texture connue du joueur; absente ou expirée, elle est mise en file
+     * @return Texture (value null si la dernière résolution a échoué), ou null si inconnue
+     */
+    @Nullable
+    public CachedTexture get(@NotNull UUID uuid, @NotNull String name, long now) {
+        CachedTexture texture = textures.get(uuid);
+
+        if (texture == null || isExpired(texture, now)) {
+            enqueue(uuid, name);
+        }
+
+        return texture;
+    }
+
+    /**
+     * Texture connue lue depuis la base (une capture plus récente est conservée)
+     */
+    public void load(@NotNull CachedTexture texture) {
+        textures.putIfAbsent(texture.uuid(), texture);
+    }
+
+    /**
+     * Texture capturée sans requête (connexion du joueur)
+     * @return Texture remplacée, ou null
+     */
+    @Nullable
+    public CachedTexture put(@NotNull CachedTexture texture) {
+        return textures.put(texture.uuid(), texture);
+    }
+
+    public boolean isExpired(@NotNull CachedTexture texture, long now) {
+        long lifetime = texture.value() != null ? ttlMillis : retryMillis;
+        return now - texture.fetchedAt() > lifetime;
+    }
+
+    private void enqueue(@NotNull UUID uuid, @NotNull String name) {
+        if (queued.add(uuid)) {
+            queue.add(new PendingProfile(uuid, name));
+        }
+    }
+
+    /**
+     * Résout au plus limit profils de la file (thread asynchrone, bloquant)
+     * Les échecs sont mémorisés pour la durée retry
+     * @return Textures résolues, à persister
+     */
+    @NotNull
+    public List<CachedTexture> drain(int limit, @NotNull Resolver resolver, long now) {
+        List<CachedTexture> resolved = new ArrayList<>();
+
+        for (int i = 0; i < limit; i++) {
+            PendingProfile pending = queue.poll();
+            if (pending == null) break;
+
+            try {
+                CachedTexture texture = resolver.resolve(pending.uuid(), pending.name());
+
+                if (texture != null) {
+                    textures.put(pending.uuid(), texture);
+                    resolved.add(texture);
+                } else {
+                    // Échec mémorisé en mémoire seulement: nouvel essai après retry
+                    textures.put(pending.uuid(), new CachedTexture(pending.uuid(), null, null, now));
+                }
+            } finally {
+                queued.remove(pending.uuid());
+            }
+        }
+
+        return resolved;
+    }
+
+    public int size() {
+        return textures.size();
+    }
+
+    public int pendingCount() {
+        return queued.size();
+    }
+
+    public void clearQueue() {
+        queue.clear();
+        queued.clear();
+    }
+
+    private record PendingProfile(@NotNull UUID uuid, @NotNull String name) {
+    }
+}
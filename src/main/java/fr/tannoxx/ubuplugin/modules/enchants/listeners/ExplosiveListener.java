@@ -1,5 +1,7 @@
 package fr.tannoxx.ubuplugin.modules.enchants.listeners;
 
+import fr.tannoxx.ubuplugin.common.stats.StatType;
+import fr.tannoxx.ubuplugin.common.towny.ClaimIndex;
 import fr.tannoxx.ubuplugin.modules.enchants.EnchantsModule;
 import org.bukkit.*;
 import org.bukkit.block.Block;
@@ -108,6 +110,7 @@ public class ExplosiveListener implements Listener {
                 (magneticToggle == null || magneticToggle);
 
         Set<Material> validBlocks = isPickaxe ? PICKAXE_BLOCKS : SHOVEL_BLOCKS;
+        boolean skipChecks = canSkipProtectionChecks(block.getWorld(), blocksToBreak);
 
         processing.set(true);
         try {
@@ -116,7 +119,7 @@ public class ExplosiveListener implements Listener {
             for (Block targetBlock : blocksToBreak) {
                 if (targetBlock.equals(block)) continue;
                 if (!validBlocks.contains(targetBlock.getType())) continue;
-                if (!canBreakBlock(player, targetBlock)) continue;
+                if (!skipChecks && !canBreakBlock(player, targetBlock)) continue;
 
                 Collection<ItemStack> drops = getDrops(targetBlock, tool, hasSilkTouch);
 
@@ -154,6 +157,8 @@ public class ExplosiveListener implements Listener {
                 player.getWorld().spawnParticle(Particle.SMOKE, loc, 15, 0.5, 0.5, 0.5, 0.02);
             }
 
+            module.plugin.getStatsService().record(uuid, StatType.EXPLOSIVE_BLOCKS, blocksBroken);
+
         } finally {
             processing.set(false);
         }
@@ -248,6 +253,19 @@ public class ExplosiveListener implements Listener {
         return blocks;
     }
 
+    /**
+     * Zone sauvage Towny sans autre plugin à l'écoute: les BlockBreakEvent de test peuvent être évités
+     * (désactivé par défaut, voir {@link ClaimIndex#isOpenWilderness})
+     */
+    private boolean canSkipProtectionChecks(@NotNull World world, @NotNull Collection<Block> blocks) {
+        if (!module.getConfigManager().getBoolean("enchants.explosive.skip-wilderness-checks", false)) {
+            return false;
+        }
+
+        ClaimIndex claimIndex = module.plugin.getClaimIndex();
+        return claimIndex != null && claimIndex.isOpenWilderness(world, blocks);
+    }
+
     private boolean canBreakBlock(@NotNull Player player, @NotNull Block block) {
         BlockBreakEvent testEvent = new BlockBreakEvent(block, player);
         module.plugin.getServer().getPluginManager().callEvent(testEvent);
@@ -1,5 +1,6 @@
 package fr.tannoxx.ubuplugin.modules.enchants.listeners;
 
+import fr.tannoxx.ubuplugin.common.stats.StatType;
 import fr.tannoxx.ubuplugin.modules.enchants.EnchantsModule;
 import org.bukkit.GameMode;
 import org.bukkit.Material;
@@ -156,6 +157,7 @@ public class TimberListener implements Listener {
                 }
             }
 
+            module.plugin.getStatsService().record(uuid, StatType.TIMBER_BLOCKS, broken);
             module.debug("Timber: {} blocs cassés", broken);
         } finally {
             processing.set(false);
@@ -1,5 +1,7 @@
 package fr.tannoxx.ubuplugin.modules.enchants.listeners;
 
+import fr.tannoxx.ubuplugin.common.stats.StatType;
+import fr.tannoxx.ubuplugin.common.towny.ClaimIndex;
 import fr.tannoxx.ubuplugin.modules.enchants.EnchantsModule;
 import org.bukkit.*;
 import org.bukkit.block.Block;
@@ -113,6 +115,8 @@ public class VeinminerListener implements Listener {
                 tool.containsEnchantment(magneticEnchant) &&
                 (magneticToggle == null || magneticToggle);
 
+        boolean skipChecks = canSkipProtectionChecks(block.getWorld(), vein);
+
         processing.set(true);
         try {
             int blocksMined = 0;
@@ -121,7 +125,7 @@ public class VeinminerListener implements Listener {
             for (Block ore : vein) {
                 if (ore.equals(block)) continue;
 
-                if (!canBreakBlock(player, ore)) continue;
+                if (!skipChecks && !canBreakBlock(player, ore)) continue;
 
                 Collection<ItemStack> drops = getDrops(ore, tool, hasSilkTouch, fortuneLevel);
                 int xp = getOreExperience(ore.getType());
@@ -157,6 +161,7 @@ public class VeinminerListener implements Listener {
                 player.getWorld().spawnParticle(Particle.SMOKE, loc, 20, 0.5, 0.5, 0.5, 0.02);
             }
 
+            module.plugin.getStatsService().record(uuid, StatType.VEINMINER_BLOCKS, blocksMined);
             module.debug("Veinminer: {} blocs minés, {} XP total", blocksMined, totalXP);
 
         } finally {
@@ -230,6 +235,19 @@ public class VeinminerListener implements Listener {
         }
     }
 
+    /**
+     * Zone sauvage Towny sans autre plugin à l'écoute: les BlockBreakEvent de test peuvent être évités
+     * (désactivé par défaut, voir {@link ClaimIndex#isOpenWilderness})
+     */
+    private boolean canSkipProtectionChecks(@NotNull World world, @NotNull Collection<Block> blocks) {
+        if (!module.getConfigManager().getBoolean("enchants.veinminer.skip-wilderness-checks", false)) {
+            return false;
+        }
+
+        ClaimIndex claimIndex = module.plugin.getClaimIndex();
+        return claimIndex != null && claimIndex.isOpenWilderness(world, blocks);
+    }
+
     private boolean canBreakBlock(@NotNull Player player, @NotNull Block block) {
         BlockBreakEvent testEvent = new BlockBreakEvent(block, player);
         module.plugin.getServer().getPluginManager().callEvent(testEvent);
@@ -4,8 +4,12 @@ import fr.tannoxx.ubuplugin.UbuPlugin;
 import fr.tannoxx.ubuplugin.common.module.Module;
 import fr.tannoxx.ubuplugin.common.module.ModuleManager;
 import fr.tannoxx.ubuplugin.modules.webmap.commands.WebMapCommand;
+import fr.tannoxx.ubuplugin.modules.webmap.listeners.TownyClaimListener;
 import fr.tannoxx.ubuplugin.modules.webmap.squaremap.BorderLayerProvider;
+import fr.tannoxx.ubuplugin.modules.webmap.squaremap.HeatmapLayerProvider;
+import fr.tannoxx.ubuplugin.modules.webmap.squaremap.TownyLayerProvider;
 import org.bukkit.Bukkit;
+import org.bukkit.event.HandlerList;
 import org.jetbrains.annotations.NotNull;
 import xyz.jpenilla.squaremap.api.SquaremapProvider;
 
@@ -20,6 +24,9 @@ import java.util.Objects;
 public class WebMapModule extends Module {
 
     private BorderLayerProvider borderLayerProvider;
+    private TownyLayerProvider townyLayerProvider;
+    private TownyClaimListener townyClaimListener;
+    private HeatmapLayerProvider heatmapLayerProvider;
     private boolean squaremapAvailable = false;
 
     public WebMapModule(@NotNull UbuPlugin plugin, @NotNull ModuleManager moduleManager) {
@@ -41,6 +48,22 @@ public class WebMapModule extends Module {
             borderLayerProvider = new BorderLayerProvider(this);
             borderLayerProvider.register();
 
+            // Couche des territoires Towny (optionnelle)
+            if (Bukkit.getPluginManager().getPlugin("Towny") != null
+                    && getConfigManager().getBoolean("webmap.towny.enabled", true)) {
+                townyLayerProvider = new TownyLayerProvider(this);
+                townyClaimListener = new TownyClaimListener(townyLayerProvider);
+                Bukkit.getPluginManager().registerEvents(townyClaimListener, plugin);
+                townyLayerProvider.register();
+                info("Towny détecté - Couche des territoires activée");
+            }
+
+            // Couche de densité de joueurs
+            if (getConfigManager().getBoolean("webmap.heatmap.enabled", true)) {
+                heatmapLayerProvider = new HeatmapLayerProvider(this);
+                heatmapLayerProvider.register();
+            }
+
             // Enregistrer la commande
             Objects.requireNonNull(plugin.getCommand("webmap")).setExecutor(new WebMapCommand(this));
 
@@ -56,6 +79,18 @@ public class WebMapModule extends Module {
         if (borderLayerProvider != null) {
             borderLayerProvider.unregister();
         }
+        if (townyClaimListener != null) {
+            HandlerList.unregisterAll(townyClaimListener);
+            townyClaimListener = null;
+        }
+        if (townyLayerProvider != null) {
+            townyLayerProvider.unregister();
+            townyLayerProvider = null;
+        }
+        if (heatmapLayerProvider != null) {
+            heatmapLayerProvider.unregister();
+            heatmapLayerProvider = null;
+        }
         info("Module WebMap désactivé");
     }
 
@@ -66,6 +101,12 @@ public class WebMapModule extends Module {
         if (borderLayerProvider != null) {
             borderLayerProvider.reload();
         }
+        if (townyLayerProvider != null) {
+            townyLayerProvider.reload();
+        }
+        if (heatmapLayerProvider != null) {
+            heatmapLayerProvider.reload();
+        }
 
         info("✓ Module WebMap rechargé");
     }
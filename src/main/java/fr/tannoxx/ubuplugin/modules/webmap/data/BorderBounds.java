@@ -0,0 +1,49 @@
+package fr.tannoxx.ubuplugin.modules.webmap.data;
+
+import fr.tannoxx.ubuplugin.common.geo.BorderData;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Rectangle englobant en coordonnées Minecraft (bornes incluses)
+ * Sert à écarter rapidement les pays / polygones hors de la zone explorée
+ */
+public record BorderBounds(int minX, int minZ, int maxX, int maxZ) {
+
+    /**
+     * Rectangle englobant d'un pays entier
+     */
+    @NotNull
+    public static BorderBounds of(@NotNull BorderData border) {
+        return of(border, 0, border.pointCount());
+    }
+
+    /**
+     * Rectangle englobant d'une bague
+     */
+    @NotNull
+    public static BorderBounds ofRing(@NotNull BorderData border, int ring) {
+        return of(border, border.ringStart(ring), border.ringEnd(ring));
+    }
+
+    @NotNull
+    private static BorderBounds of(@NotNull BorderData border, int start, int end) {
+        int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+
+        for (int i = start; i < end; i++) {
+            int x = border.x(i);
+            int z = border.z(i);
+            if (x < minX) minX = x;
+            if (x > maxX) maxX = x;
+            if (z < minZ) minZ = z;
+            if (z > maxZ) maxZ = z;
+        }
+
+        return new BorderBounds(minX, minZ, maxX, maxZ);
+    }
+
+    public boolean intersects(@NotNull BorderBounds other) {
+        return minX <= other.maxX && maxX >= other.minX
+                && minZ <= other.maxZ && maxZ >= other.minZ;
+    }
+}
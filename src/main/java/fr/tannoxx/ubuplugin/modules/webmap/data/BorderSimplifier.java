@@ -0,0 +1,183 @@
+package fr.tannoxx.ubuplugin.modules.webmap.data;
+
+import fr.tannoxx.ubuplugin.common.geo.BorderData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Simplification des bagues de frontières pour l'affichage
+ * <p>
+ * 1. suppression des points consécutifs projetés sur le même bloc
+ * 2. Douglas-Peucker avec une tolérance en blocs
+ * 3. suppression des îles (et trous) dont l'aire est sous un seuil
+ * <p>
+ * Travaille sur les points entiers du cache; réutilisable, mais pas thread-safe.
+ */
+public final class BorderSimplifier {
+
+    private final double tolerance;
+    private final double minArea;
+
+    // Tampons réutilisés d'une bague à l'autre
+    private int[] xs = new int[1024];
+    private int[] zs = new int[1024];
+    private boolean[] keep = new boolean[1024];
+    private int[] stack = new int[2048];
+
+    /**
+     * @param tolerance Écart maximal toléré (blocs), 0 = pas de Douglas-Peucker
+     * @param minArea Aire minimale d'une bague (blocs²), 0 = tout conserver
+     */
+    public BorderSimplifier(double tolerance, double minArea) {
+        this.tolerance = Math.max(0, tolerance);
+        this.minArea = Math.max(0, minArea);
+    }
+
+    /**
+     * Simplifie une bague
+     * @return Points conservés (x, z, x, z...), ou null si la bague est supprimée
+     */
+    public int @Nullable [] simplify(@NotNull BorderData border, int ring) {
+        int start = border.ringStart(ring);
+        int end = border.ringEnd(ring);
+        ensureCapacity(end - start);
+
+        // 1. Dédoublonnage au bloc près
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            int x = border.x(i);
+            int z = border.z(i);
+            if (count > 0 && xs[count - 1] == x && zs[count - 1] == z) {
+                continue;
+            }
+            xs[count] = x;
+            zs[count] = z;
+            count++;
+        }
+
+        // Fermeture explicite en double après dédoublonnage
+        if (count > 1 && xs[0] == xs[count - 1] && zs[0] == zs[count - 1]) {
+            count--;
+        }
+
+        if (count < 3) {
+            return null;
+        }
+
+        // 3. Petites îles / petits trous
+        if (minArea > 0 && Math.abs(signedArea(count)) < minArea) {
+            return null;
+        }
+
+        // 2. Douglas-Peucker (bague fermée: ancres = premier point et point le plus éloigné)
+        // Le point d'indice count est une copie du premier pour fermer la bague
+        xs[count] = xs[0];
+        zs[count] = zs[0];
+        Arrays.fill(keep, 0, count + 1, tolerance <= 0);
+        if (tolerance > 0) {
+            int far = farthestFromFirst(count);
+            keep[0] = true;
+            keep[far] = true;
+            douglasPeucker(0, far);
+            douglasPeucker(far, count);
+        }
+
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) kept++;
+        }
+
+        if (kept < 3) {
+            return null;
+        }
+
+        // Sortie fermée (dernier point = premier), comme la source
+        int[] result = new int[(kept + 1) * 2];
+        int o = 0;
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                result[o++] = xs[i];
+                result[o++] = zs[i];
+            }
+        }
+        result[o++] = result[0];
+        result[o] = result[1];
+        return result;
+    }
+
+    /**
+     * Douglas-Peucker itératif (pile explicite) entre deux points conservés
+     */
+    private void douglasPeucker(int first, int last) {
+        int top = 0;
+        stack[top++] = first;
+        stack[top++] = last;
+
+        while (top > 0) {
+            int b = stack[--top];
+            int a = stack[--top];
+            if (b - a < 2) continue;
+
+            double ax = xs[a], az = zs[a];
+            double dx = xs[b] - ax, dz = zs[b] - az;
+            double length = Math.hypot(dx, dz);
+
+            double maxDistance = -1;
+            int index = -1;
+            for (int i = a + 1; i < b; i++) {
+                double distance = length == 0
+                        ? Math.hypot(xs[i] - ax, zs[i] - az)
+                        : Math.abs(dz * (xs[i] - ax) - dx * (zs[i] - az)) / length;
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    index = i;
+                }
+            }
+
+            if (maxDistance > tolerance) {
+                keep[index] = true;
+                if (top + 4 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = a;
+                stack[top++] = index;
+                stack[top++] = index;
+                stack[top++] = b;
+            }
+        }
+    }
+
+    private int farthestFromFirst(int count) {
+        long best = -1;
+        int index = 1;
+        for (int i = 1; i < count; i++) {
+            long dx = xs[i] - xs[0];
+            long dz = zs[i] - zs[0];
+            long distance = dx * dx + dz * dz;
+            if (distance > best) {
+                best = distance;
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    private double signedArea(int count) {
+        long sum = 0;
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            sum += (long) xs[j] * zs[i] - (long) xs[i] * zs[j];
+        }
+        return sum / 2.0;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size + 1 > xs.length) {
+            int capacity = Math.max(size + 1, xs.length * 2);
+            xs = new int[capacity];
+            zs = new int[capacity];
+            keep = new boolean[capacity];
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package fr.tannoxx.ubuplugin.modules.webmap.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compteurs de présence par chunk, avec décroissance
+ * <p>
+ * Table à adressage ouvert (sondage linéaire) sur des clés long primitives:
+ * aucun objet par entrée, ni boxing. Pas thread-safe.
+ */
+public final class ChunkHeatMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    /**
+     * Parcours des entrées sans allocation
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, float value);
+    }
+
+    /**
+     * Position lue pendant l'échantillonnage (coordonnées de bloc)
+     */
+    @FunctionalInterface
+    public interface PositionConsumer {
+        void accept(@NotNull String world, int blockX, int blockZ);
+    }
+
+    /**
+     * Source de positions (les joueurs en ligne, hors tests)
+     */
+    @FunctionalInterface
+    public interface PositionSource {
+        void forEach(@NotNull PositionConsumer consumer);
+    }
+
+    private long[] keys;
+    private float[] values;
+    private int size;
+
+    public ChunkHeatMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    public static long pack(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int unpackX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int unpackZ(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Ajoute une quantité au compteur d'un chunk
+     */
+    public void add(long key, float amount) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+
+        while (true) {
+            long current = keys[index];
+            if (current == key) {
+                values[index] += amount;
+                return;
+            }
+            if (current == EMPTY) {
+                keys[index] = key;
+                values[index] = amount;
+                if (++size > keys.length * LOAD_FACTOR) {
+                    rehash(keys.length * 2);
+                }
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public float get(long key) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+
+        while (true) {
+            long current = keys[index];
+            if (current == key) return values[index];
+            if (current == EMPTY) return 0f;
+            index = (index + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Multiplie tous les compteurs et oublie ceux qui passent sous le seuil
+     */
+    public void decay(float factor, float threshold) {
+        long[] oldKeys = keys;
+        float[] oldValues = values;
+
+        int survivors = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && oldValues[i] * factor >= threshold) {
+                survivors++;
+            }
+        }
+
+        allocate(tableSize(survivors));
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+
+            float value = oldValues[i] * factor;
+            if (value >= threshold) {
+                add(oldKeys[i], value);
+            }
+        }
+    }
+
+    public void forEach(@NotNull EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                       ÉCHANTILLONNAGE
+    // ═══════════════════════════════════════════════════════════
+
+    /**
+     * Copie les chunks des positions, groupés par monde
+     * Seul travail fait sur le thread principal: quelques µs pour 200 joueurs
+     * @param capacity Nombre maximal de positions (joueurs en ligne)
+     */
+    @NotNull
+    public static Sample sample(int capacity, @NotNull PositionSource source) {
+        Map<String, long[]> chunks = new HashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+
+        source.forEach((world, blockX, blockZ) -> {
+            long[] worldChunks = chunks.computeIfAbsent(world, k -> new long[capacity]);
+            int count = counts.merge(world, 1, Integer::sum);
+            worldChunks[count - 1] = pack(blockX >> 4, blockZ >> 4);
+        });
+
+        return new Sample(chunks, counts);
+    }
+
+    /**
+     * Chunks d'un échantillon par monde: chunks[world][0..counts[world])
+     */
+    public record Sample(@NotNull Map<String, long[]> chunks, @NotNull Map<String, Integer> counts) {
+
+        public boolean isEmpty() {
+            return chunks.isEmpty();
+        }
+
+        /**
+         * Agrège l'échantillon dans les compteurs de chaque monde (hors thread principal)
+         */
+        public void addTo(@NotNull Map<String, ChunkHeatMap> heatMaps) {
+            for (Map.Entry<String, long[]> entry : chunks.entrySet()) {
+                ChunkHeatMap heatMap = heatMaps.computeIfAbsent(entry.getKey(), k -> new ChunkHeatMap(256));
+                long[] worldChunks = entry.getValue();
+                int count = counts.get(entry.getKey());
+                for (int i = 0; i < count; i++) {
+                    heatMap.add(worldChunks[i], 1f);
+                }
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        float[] oldValues = values;
+
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                add(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new float[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private static int tableSize(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(16, expectedSize) / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,216 @@
+package fr.tannoxx.ubuplugin.modules.webmap.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fusionne des cases de grille (town blocks) en contours de polygones
+ * <p>
+ * 1. chaque côté de case sans voisin devient une arête orientée (intérieur à droite)
+ * 2. les arêtes sont chaînées en boucles fermées; sur un sommet ambigu (deux cases
+ *    qui ne se touchent que par un coin) on tourne à droite pour séparer les boucles
+ * 3. les sommets alignés sont supprimés
+ * 4. aire positive = contour extérieur, négative = trou, rattaché au plus petit
+ *    contour extérieur qui le contient
+ * <p>
+ * Les coordonnées restent en unités de grille (à multiplier par la taille des cases).
+ */
+public final class ClaimOutliner {
+
+    /**
+     * Polygone fusionné: extérieur + trous, points (x, z, x, z...) non fermés
+     */
+    public record Outline(int @NotNull [] outer, @NotNull List<int[]> holes) {
+    }
+
+    private ClaimOutliner() {
+    }
+
+    public static long pack(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    private static int unpackX(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int unpackZ(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Calcule les contours d'un ensemble de cases
+     * @param cells Cases occupées (voir {@link #pack(int, int)})
+     */
+    @NotNull
+    public static List<Outline> outline(@NotNull Set<Long> cells) {
+        // Sommet de départ → sommets d'arrivée (2 au plus, sur un coin partagé en diagonale)
+        Map<Long, List<Long>> edges = new HashMap<>();
+
+        for (long cell : cells) {
+            int x = unpackX(cell);
+            int z = unpackZ(cell);
+
+            if (!cells.contains(pack(x, z - 1))) addEdge(edges, x, z, x + 1, z);
+            if (!cells.contains(pack(x + 1, z))) addEdge(edges, x + 1, z, x + 1, z + 1);
+            if (!cells.contains(pack(x, z + 1))) addEdge(edges, x + 1, z + 1, x, z + 1);
+            if (!cells.contains(pack(x - 1, z))) addEdge(edges, x, z + 1, x, z);
+        }
+
+        List<int[]> outers = new ArrayList<>();
+        List<int[]> holes = new ArrayList<>();
+
+        while (!edges.isEmpty()) {
+            int[] loop = traceLoop(edges, edges.keySet().iterator().next());
+            if (loop.length < 8) continue;
+
+            if (signedArea(loop) > 0) {
+                outers.add(loop);
+            } else {
+                holes.add(loop);
+            }
+        }
+
+        List<List<int[]>> holesByOuter = new ArrayList<>(outers.size());
+        for (int i = 0; i < outers.size(); i++) {
+            holesByOuter.add(new ArrayList<>());
+        }
+
+        for (int[] hole : holes) {
+            int owner = findOwner(outers, hole);
+            if (owner >= 0) {
+                holesByOuter.get(owner).add(hole);
+            }
+        }
+
+        List<Outline> outlines = new ArrayList<>(outers.size());
+        for (int i = 0; i < outers.size(); i++) {
+            outlines.add(new Outline(outers.get(i), holesByOuter.get(i)));
+        }
+        return outlines;
+    }
+
+    private static void addEdge(@NotNull Map<Long, List<Long>> edges, int fromX, int fromZ, int toX, int toZ) {
+        edges.computeIfAbsent(pack(fromX, fromZ), k -> new ArrayList<>(1)).add(pack(toX, toZ));
+    }
+
+    /**
+     * Parcourt une boucle en consommant ses arêtes
+     * @return Sommets sans doublons alignés (x, z, x, z...)
+     */
+    private static int @NotNull [] traceLoop(@NotNull Map<Long, List<Long>> edges, long start) {
+        List<Long> vertices = new ArrayList<>();
+        long current = start;
+        int dx = 0;
+        int dz = 0;
+
+        while (true) {
+            List<Long> targets = edges.get(current);
+            if (targets == null) break;
+
+            // Coin ambigu: tourner à droite (x vers la droite, z vers le bas)
+            int index = 0;
+            if (targets.size() > 1) {
+                for (int i = 0; i < targets.size(); i++) {
+                    long target = targets.get(i);
+                    if (Integer.signum(unpackX(target) - unpackX(current)) == -dz
+                            && Integer.signum(unpackZ(target) - unpackZ(current)) == dx) {
+                        index = i;
+                        break;
+                    }
+                }
+            }
+
+            long next = targets.remove(index);
+            if (targets.isEmpty()) {
+                edges.remove(current);
+            }
+
+            vertices.add(current);
+            dx = Integer.signum(unpackX(next) - unpackX(current));
+            dz = Integer.signum(unpackZ(next) - unpackZ(current));
+            current = next;
+
+            if (current == start) break;
+        }
+
+        return removeCollinear(vertices);
+    }
+
+    private static int @NotNull [] removeCollinear(@NotNull List<Long> vertices) {
+        int n = vertices.size();
+        List<Long> kept = new ArrayList<>(n);
+
+        for (int i = 0; i < n; i++) {
+            long previous = vertices.get((i + n - 1) % n);
+            long vertex = vertices.get(i);
+            long next = vertices.get((i + 1) % n);
+
+            long cross = (long) (unpackX(vertex) - unpackX(previous)) * (unpackZ(next) - unpackZ(vertex))
+                    - (long) (unpackZ(vertex) - unpackZ(previous)) * (unpackX(next) - unpackX(vertex));
+            if (cross != 0) {
+                kept.add(vertex);
+            }
+        }
+
+        int[] points = new int[kept.size() * 2];
+        for (int i = 0; i < kept.size(); i++) {
+            points[i * 2] = unpackX(kept.get(i));
+            points[i * 2 + 1] = unpackZ(kept.get(i));
+        }
+        return points;
+    }
+
+    private static long signedArea(int @NotNull [] loop) {
+        long sum = 0;
+        int n = loop.length / 2;
+        for (int i = 0; i < n; i++) {
+            int j = (i + 1) % n;
+            sum += (long) loop[i * 2] * loop[j * 2 + 1] - (long) loop[j * 2] * loop[i * 2 + 1];
+        }
+        return sum;
+    }
+
+    /**
+     * Plus petit contour extérieur contenant le trou
+     * Point testé: centre de la case libre à gauche de la première arête du trou
+     */
+    private static int findOwner(@NotNull List<int[]> outers, int @NotNull [] hole) {
+        int dx = Integer.signum(hole[2] - hole[0]);
+        int dz = Integer.signum(hole[3] - hole[1]);
+        double px = hole[0] + dx * 0.5 + dz * 0.5;
+        double pz = hole[1] + dz * 0.5 - dx * 0.5;
+
+        int owner = -1;
+        long ownerArea = Long.MAX_VALUE;
+        for (int i = 0; i < outers.size(); i++) {
+            int[] outer = outers.get(i);
+            if (contains(outer, px, pz)) {
+                long area = signedArea(outer);
+                if (area < ownerArea) {
+                    ownerArea = area;
+                    owner = i;
+                }
+            }
+        }
+        return owner;
+    }
+
+    private static boolean contains(int @NotNull [] polygon, double px, double pz) {
+        boolean inside = false;
+        int n = polygon.length / 2;
+        for (int i = 0, j = n - 1; i < n; j = i++) {
+            double xi = polygon[i * 2], zi = polygon[i * 2 + 1];
+            double xj = polygon[j * 2], zj = polygon[j * 2 + 1];
+            if ((zi > pz) != (zj > pz) && px < (xj - xi) * (pz - zi) / (zj - zi) + xi) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,114 @@
+package fr.tannoxx.ubuplugin.modules.webmap.data;
+
+import fr.tannoxx.ubuplugin.common.towny.ChunkKeySet;
+import fr.tannoxx.ubuplugin.common.world.RegionFiles;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Zone explorée des mondes: ensemble des régions générées (fichiers r.X.Z.mca)
+ * <p>
+ * Un rectangle n'est retenu que s'il recoupe une région réellement générée (élargie
+ * de la marge), et non l'enveloppe de toutes les régions: deux joueurs aux deux bouts
+ * de la carte ne font pas apparaître tout ce qui les sépare.
+ * Immuable: lectures concurrentes sans verrou.
+ */
+public final class ExploredRegions {
+
+    private final long[] regions;
+    private final ChunkKeySet index;
+    private final int padding;
+
+    private ExploredRegions(long @NotNull [] regions, int padding) {
+        this.regions = regions;
+        this.padding = padding;
+        this.index = new ChunkKeySet(regions.length);
+        for (long region : regions) {
+            index.add(region);
+        }
+    }
+
+    /**
+     * Régions générées de plusieurs dossiers region (mondes superposés sur la même carte)
+     * @param padding Marge en blocs autour de chaque région
+     * @return null si aucune région (pas de culling)
+     */
+    @Nullable
+    public static ExploredRegions scan(@NotNull List<File> regionFolders, int padding) {
+        long[] all = new long[0];
+        for (File folder : regionFolders) {
+            long[] found = RegionFiles.scan(folder);
+            int start = all.length;
+            all = Arrays.copyOf(all, start + found.length);
+            System.arraycopy(found, 0, all, start, found.length);
+        }
+
+        return of(all, padding);
+    }
+
+    @Nullable
+    public static ExploredRegions of(long @NotNull [] regions, int padding) {
+        if (regions.length == 0) return null;
+
+        long[] sorted = Arrays.stream(regions).sorted().distinct().toArray();
+        return new ExploredRegions(sorted, Math.max(0, padding));
+    }
+
+    /**
+     * Le rectangle (élargi de la marge) recoupe-t-il une région générée ?
+     * Parcourt les régions couvertes par le rectangle, ou la liste des régions si elle est plus courte
+     */
+    public boolean intersects(@NotNull BorderBounds bounds) {
+        int minRegionX = (bounds.minX() - padding) >> RegionFiles.BLOCK_SHIFT;
+        int minRegionZ = (bounds.minZ() - padding) >> RegionFiles.BLOCK_SHIFT;
+        int maxRegionX = (bounds.maxX() + padding) >> RegionFiles.BLOCK_SHIFT;
+        int maxRegionZ = (bounds.maxZ() + padding) >> RegionFiles.BLOCK_SHIFT;
+
+        long covered = (long) (maxRegionX - minRegionX + 1) * (maxRegionZ - minRegionZ + 1);
+
+        if (covered <= regions.length) {
+            for (int regionX = minRegionX; regionX <= maxRegionX; regionX++) {
+                for (int regionZ = minRegionZ; regionZ <= maxRegionZ; regionZ++) {
+                    if (index.contains(RegionFiles.pack(regionX, regionZ))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        for (long region : regions) {
+            int regionX = RegionFiles.regionX(region);
+            int regionZ = RegionFiles.regionZ(region);
+            if (regionX >= minRegionX && regionX <= maxRegionX && regionZ >= minRegionZ && regionZ <= maxRegionZ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return regions.length;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ExploredRegions explored
+                && padding == explored.padding
+                && Arrays.equals(regions, explored.regions);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(regions) + padding;
+    }
+
+    @Override
+    public String toString() {
+        return "ExploredRegions[" + regions.length + " régions, marge " + padding + "]";
+    }
+}
@@ -0,0 +1,77 @@
+package fr.tannoxx.ubuplugin.modules.webmap.listeners;
+
+import com.palmergames.bukkit.towny.event.DeleteTownEvent;
+import com.palmergames.bukkit.towny.event.NationAddTownEvent;
+import com.palmergames.bukkit.towny.event.NationRemoveTownEvent;
+import com.palmergames.bukkit.towny.event.NewTownEvent;
+import com.palmergames.bukkit.towny.event.RenameTownEvent;
+import com.palmergames.bukkit.towny.event.TownClaimEvent;
+import com.palmergames.bukkit.towny.event.TownyLoadedDatabaseEvent;
+import com.palmergames.bukkit.towny.event.town.TownUnclaimEvent;
+import com.palmergames.bukkit.towny.object.Town;
+import fr.tannoxx.ubuplugin.modules.webmap.squaremap.TownyLayerProvider;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Répercute les changements Towny sur la couche des territoires
+ * Seule la ville concernée est recalculée
+ */
+public record TownyClaimListener(TownyLayerProvider provider) implements Listener {
+
+    public TownyClaimListener(@NotNull TownyLayerProvider provider) {
+        this.provider = provider;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownClaim(@NotNull TownClaimEvent event) {
+        Town town = event.getTownBlock().getTownOrNull();
+        if (town != null) {
+            provider.markDirty(town.getUUID());
+        } else {
+            provider.markAllDirty();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownUnclaim(@NotNull TownUnclaimEvent event) {
+        Town town = event.getTown();
+        if (town != null) {
+            provider.markDirty(town.getUUID());
+        } else {
+            provider.markAllDirty();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNewTown(@NotNull NewTownEvent event) {
+        provider.markDirty(event.getTown().getUUID());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onDeleteTown(@NotNull DeleteTownEvent event) {
+        provider.markDirty(event.getTownUUID());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRenameTown(@NotNull RenameTownEvent event) {
+        provider.markDirty(event.getTown().getUUID());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNationAddTown(@NotNull NationAddTownEvent event) {
+        provider.markDirty(event.getTown().getUUID());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onNationRemoveTown(@NotNull NationRemoveTownEvent event) {
+        provider.markDirty(event.getTown().getUUID());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTownyLoaded(@NotNull TownyLoadedDatabaseEvent event) {
+        provider.markAllDirty();
+    }
+}
@@ -1,183 +1,416 @@
 package fr.tannoxx.ubuplugin.modules.webmap.squaremap;
 
 import fr.tannoxx.ubuplugin.modules.webmap.WebMapModule;
-import fr.tannoxx.ubuplugin.modules.webmap.data.BorderData;
-import fr.tannoxx.ubuplugin.modules.webmap.data.CountryBordersLoader;
+import fr.tannoxx.ubuplugin.modules.webmap.data.BorderBounds;
+import fr.tannoxx.ubuplugin.common.geo.BorderData;
+import fr.tannoxx.ubuplugin.modules.webmap.data.BorderSimplifier;
+import fr.tannoxx.ubuplugin.modules.webmap.data.ExploredRegions;
+import fr.tannoxx.ubuplugin.common.geo.GeoDataService;
+import fr.tannoxx.ubuplugin.common.geo.GeoSnapshot;
+import org.bukkit.World;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import xyz.jpenilla.squaremap.api.*;
+import xyz.jpenilla.squaremap.api.marker.Marker;
 import xyz.jpenilla.squaremap.api.marker.MarkerOptions;
-import xyz.jpenilla.squaremap.api.marker.Polyline;
+import xyz.jpenilla.squaremap.api.marker.Polygon;
 
 import java.awt.Color;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 /**
  * Fournisseur de couche pour afficher les frontières des pays sur Squaremap
  * Thread-safe avec chargement asynchrone
  * <p>
- * ✅ FIX: Ordre d'exécution corrigé pour afficher les frontières
+ * Les marqueurs sont construits en parallèle hors du thread principal, une seule
+ * fois pour tous les mondes (la couche est partagée). Seul l'échange de la couche
+ * dans les registres Squaremap s'exécute sur le thread principal.
+ * <p>
+ * Les rechargements sont incrémentaux: la couche enregistrée est conservée et seuls
+ * les marqueurs modifiés (diff par polygone) ou restylés sont touchés.
+ * <p>
+ * Un marqueur par polygone (extérieur + trous), rempli avec la couleur du pays.
+ * Seuls les polygones qui recoupent la zone explorée des mondes (fichiers région)
+ * sont envoyés: la carte 24k×12k est souvent loin d'être entièrement générée.
  */
 public class BorderLayerProvider {
 
+    private static final Key LAYER_KEY = Key.of("countries_layer");
+    private static final Pattern INVALID_KEY_CHARS = Pattern.compile("[^a-zA-Z0-9._-]");
+
     private final WebMapModule module;
-    private final CountryBordersLoader loader;
+    private final GeoDataService geoData;
 
     private SimpleLayerProvider layerProvider;
     private List<BorderData> bordersCache;
+    private List<BorderBounds> boundsCache;
+
+    // Zone explorée utilisée pour la dernière construction (null = pas de culling)
+    private ExploredRegions appliedExtent;
+    private int extentTaskId = -1;
+
+    // Incrémenté à chaque (re)chargement: une construction obsolète n'est jamais publiée
+    private final AtomicInteger generation = new AtomicInteger();
+
+    // Marqueurs actuellement dans la couche (thread principal uniquement)
+    private final Map<Key, MarkerState> markerStates = new HashMap<>();
+
+    // Configuration visuelle (style courant et style appliqué à la couche)
+    private BorderStyle style;
+    private BorderStyle appliedStyle;
 
-    // Constantes de conversion GPS → Minecraft
-    private static final double LATITUDE_TO_Z = -136.53333;
-    private static final double LONGITUDE_TO_X = 136.53333;
+    // Simplification (niveau de détail)
+    private double simplifyTolerance;
+    private double minIslandArea;
 
-    // Configuration visuelle
-    private Color borderColor;
-    private int borderWeight;
-    private double borderOpacity;
+    // Culling sur la zone explorée
+    private boolean cullingEnabled;
+    private int cullingPadding;
+    private int cullingRefreshMinutes;
 
     public BorderLayerProvider(@NotNull WebMapModule module) {
         this.module = module;
-        this.loader = new CountryBordersLoader(module);
+        this.geoData = module.plugin.getGeoDataService();
 
         // Charger la config visuelle
         loadVisualConfig();
     }
 
     /**
-     * ✅ FIX: Enregistre la couche sur Squaremap avec ordre d'exécution correct
+     * Charge les données et construit la couche en asynchrone, puis l'enregistre
      */
     public void register() {
-        module.info("Chargement des frontières des pays...");
+        build(false, false);
+        scheduleExtentRefresh();
+    }
 
-        // ✅ ÉTAPE 1: Charger les données en asynchrone
+    /**
+     * Construit les marqueurs hors du thread principal puis les applique
+     * @param refreshData Revalider les données auprès de la source (/webmap update)
+     * @param reuseData Réutiliser les frontières déjà chargées (seule la géométrie change)
+     */
+    private void build(boolean refreshData, boolean reuseData) {
+        int buildGeneration = generation.incrementAndGet();
+        List<BorderData> currentBorders = bordersCache;
+        List<BorderBounds> currentBounds = boundsCache;
+        BorderStyle buildStyle = style;
+        double tolerance = simplifyTolerance;
+        double minArea = minIslandArea;
+        int padding = cullingPadding;
+        List<File> regionFolders = cullingEnabled ? regionFolders() : List.of();
+
+        // ✅ ÉTAPE 1: Charger les données et construire les marqueurs en asynchrone
         module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, () -> {
-            bordersCache = loader.loadBorders();
+            // Hors thread principal: le verrou fichier peut être tenu par un autre module
+            List<BorderData> borders = null;
+            if (reuseData && currentBorders != null) {
+                borders = currentBorders;
+            } else if (refreshData) {
+                GeoSnapshot fresh = geoData.refresh().join();
+                if (fresh == null && currentBorders != null) {
+                    module.info("✓ Données des frontières déjà à jour, couche inchangée");
+                    return;
+                }
+                borders = fresh != null ? fresh.borders() : null;
+            }
+
+            if (borders == null) {
+                // Partagées entre modules: chargées une seule fois par processus
+                module.info("Chargement des frontières des pays...");
+                borders = geoData.acquire(module.getName()).join().borders();
+            }
 
-            if (bordersCache == null || bordersCache.isEmpty()) {
+            if (borders.isEmpty()) {
                 module.error("Aucune donnée de frontière chargée !");
                 return;
             }
 
-            module.info("Données chargées: {} pays", bordersCache.size());
+            List<BorderData> loaded = borders;
+            long start = System.currentTimeMillis();
 
-            // ✅ ÉTAPE 2: Créer et remplir la couche sur le thread principal
+            // Rectangles englobants calculés une fois par jeu de données
+            List<BorderBounds> bounds = loaded == currentBorders && currentBounds != null
+                    ? currentBounds
+                    : loaded.parallelStream().map(BorderBounds::of).toList();
+            ExploredRegions extent = regionFolders.isEmpty() ? null : ExploredRegions.scan(regionFolders, padding);
+
+            Map<Key, CountryMarker> markers = buildMarkers(loaded, bounds, extent, buildStyle, tolerance, minArea);
+            module.info("Marqueurs construits en {}ms", System.currentTimeMillis() - start);
+
+            if (!module.plugin.isEnabled()) return;
+
+            // ✅ ÉTAPE 2: Seule l'application à la couche se fait sur le thread principal
             module.plugin.getServer().getScheduler().runTask(module.plugin, () -> {
-                createAndRegisterLayer();
+                if (buildGeneration != generation.get()) {
+                    module.debug("Construction de couche obsolète ignorée");
+                    return;
+                }
+
+                bordersCache = loaded;
+                boundsCache = bounds;
+                appliedExtent = extent;
+                applyMarkers(markers, buildStyle);
             });
         });
     }
 
     /**
-     * ✅ FIX: Crée la couche, ajoute TOUS les marqueurs, PUIS enregistre
+     * Construit tous les marqueurs (hors thread principal)
+     * Fork-join sur les pays: chaque pays est simplifié et converti indépendamment
+     * @param extent Zone explorée, null = tout afficher
      */
-    private void createAndRegisterLayer() {
-        if (bordersCache == null || bordersCache.isEmpty()) {
-            module.error("Impossible de créer la couche: pas de données");
-            return;
+    @NotNull
+    private Map<Key, CountryMarker> buildMarkers(@NotNull List<BorderData> borders, @NotNull List<BorderBounds> bounds,
+                                                 @Nullable ExploredRegions extent, @NotNull BorderStyle buildStyle,
+                                                 double tolerance, double minArea) {
+        Map<Key, CountryMarker> markers = new ConcurrentHashMap<>();
+        ThreadLocal<BorderSimplifier> simplifiers = ThreadLocal.withInitial(
+                () -> new BorderSimplifier(tolerance, minArea));
+
+        long[] totals = IntStream.range(0, borders.size()).parallel()
+                .mapToObj(index -> {
+                    BorderData border = borders.get(index);
+
+                    // Pays entièrement hors de la zone explorée
+                    if (extent != null && !extent.intersects(bounds.get(index))) {
+                        return new long[]{0, 0, 0, 1};
+                    }
+
+                    BorderSimplifier simplifier = simplifiers.get();
+                    MarkerOptions options = buildStyle.options(border.countryName());
+                    String countryId = INVALID_KEY_CHARS.matcher(border.countryName()).replaceAll("_");
+                    long points = 0;
+                    long count = 0;
+
+                    for (int polygonIndex = 0; polygonIndex < border.polygonCount(); polygonIndex++) {
+                        int outer = border.polygonOffsets()[polygonIndex];
+                        int end = border.polygonOffsets()[polygonIndex + 1];
+
+                        if (extent != null && !extent.intersects(BorderBounds.ofRing(border, outer))) {
+                            continue;
+                        }
+
+                        // Extérieur simplifié (null = île trop petite ou dégénérée)
+                        int[] ring = simplifier.simplify(border, outer);
+                        if (ring == null) continue;
+
+                        List<Point> mainPolygon = toPoints(ring);
+                        long hash = hashRing(border.countryName().hashCode(), ring);
+                        points += mainPolygon.size();
+
+                        // Trous (lacs, enclaves)
+                        List<List<Point>> holes = new ArrayList<>();
+                        for (int holeIndex = outer + 1; holeIndex < end; holeIndex++) {
+                            int[] hole = simplifier.simplify(border, holeIndex);
+                            if (hole == null) continue;
+
+                            holes.add(toPoints(hole));
+                            hash = hashRing(hash, hole);
+                            points += hole.length / 2 - 1;
+                        }
+
+                        Polygon polygon = Polygon.polygon(mainPolygon, holes);
+                        polygon.markerOptions(options);
+
+                        // Couche partagée par tous les mondes: l'ID ne dépend que du pays
+                        markers.put(Key.of(countryId + "_poly_" + polygonIndex),
+                                new CountryMarker(polygon, border.countryName(), hash));
+                        count++;
+                    }
+
+                    return new long[]{count, points, border.pointCount(), 0};
+                })
+                .reduce(new long[4], (a, b) -> new long[]{a[0] + b[0], a[1] + b[1], a[2] + b[2], a[3] + b[3]});
+
+        module.info("✓ {} polygones de pays ({} points sur {}, {} pays hors zone explorée)",
+                totals[0], totals[1], totals[2], totals[3]);
+        return markers;
+    }
+
+    /**
+     * Bague fermée (x, z...) vers points Squaremap (le polygone se ferme tout seul)
+     */
+    @NotNull
+    private static List<Point> toPoints(int @NotNull [] ring) {
+        List<Point> points = new ArrayList<>(ring.length / 2 - 1);
+        for (int i = 0; i < ring.length - 2; i += 2) {
+            points.add(Point.of(ring[i], ring[i + 1]));
         }
+        return points;
+    }
 
-        Squaremap squaremap = SquaremapProvider.get();
+    /**
+     * Applique les marqueurs construits à la couche (thread principal)
+     * Première fois: création et enregistrement. Ensuite: diff par clé et par hash,
+     * seuls les marqueurs ajoutés, modifiés ou supprimés sont touchés.
+     */
+    private void applyMarkers(@NotNull Map<Key, CountryMarker> markers, @NotNull BorderStyle buildStyle) {
+        if (layerProvider == null) {
+            layerProvider = SimpleLayerProvider.builder("Countries")
+                    .defaultHidden(false)
+                    .showControls(true)
+                    .layerPriority(5)
+                    .build();
+
+            markers.forEach((key, marker) -> {
+                layerProvider.addMarker(key, marker.marker());
+                markerStates.put(key, new MarkerState(marker.countryName(), marker.hash()));
+            });
+            appliedStyle = buildStyle;
 
-        // ✅ ÉTAPE 1: Créer le layer provider VIDE
-        layerProvider = SimpleLayerProvider.builder("Countries")
-                .defaultHidden(false)
-                .showControls(true)
-                .layerPriority(5)
-                .build();
+            Squaremap squaremap = SquaremapProvider.get();
+            for (MapWorld world : squaremap.mapWorlds()) {
+                if (!shouldProcessWorld(world)) continue;
 
-        module.info("Layer provider créé, ajout des marqueurs...");
+                if (world.layerRegistry().hasEntry(LAYER_KEY)) {
+                    world.layerRegistry().unregister(LAYER_KEY);
+                }
+                world.layerRegistry().register(LAYER_KEY, layerProvider);
+                module.debug("Layer enregistré pour le monde: {}", world.identifier().asString());
+            }
 
-        // ✅ ÉTAPE 2: Ajouter TOUS les marqueurs AVANT d'enregistrer
-        int totalMarkers = 0;
-        for (MapWorld world : squaremap.mapWorlds()) {
-            if (!shouldProcessWorld(world)) continue;
+            module.info("✓ Couche des frontières enregistrée ({} pays, {} marqueurs)",
+                    bordersCache.size(), markers.size());
+            return;
+        }
 
-            int markersAdded = addMarkersToWorld(world);
-            totalMarkers += markersAdded;
+        int removed = 0;
+        int changed = 0;
+
+        // Marqueurs disparus
+        Iterator<Map.Entry<Key, MarkerState>> iterator = markerStates.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, MarkerState> entry = iterator.next();
+            if (!markers.containsKey(entry.getKey())) {
+                layerProvider.removeMarker(entry.getKey());
+                iterator.remove();
+                removed++;
+            }
         }
 
-        module.info("Total de {} marqueurs ajoutés au layer provider", totalMarkers);
+        // Marqueurs nouveaux ou dont la géométrie a changé
+        for (Map.Entry<Key, CountryMarker> entry : markers.entrySet()) {
+            CountryMarker marker = entry.getValue();
+            MarkerState current = markerStates.get(entry.getKey());
 
-        // ✅ ÉTAPE 3: MAINTENANT on enregistre le provider (qui contient déjà les marqueurs)
-        for (MapWorld world : squaremap.mapWorlds()) {
-            if (!shouldProcessWorld(world)) continue;
+            if (current != null && current.hash() == marker.hash()) {
+                continue;
+            }
+
+            layerProvider.addMarker(entry.getKey(), marker.marker());
+            markerStates.put(entry.getKey(), new MarkerState(marker.countryName(), marker.hash()));
+            changed++;
+        }
 
-            world.layerRegistry().register(Key.of("countries_layer"), layerProvider);
-            module.info("Layer enregistré pour le monde: {}", world.identifier().asString());
+        // Les marqueurs conservés portent encore l'ancien style
+        if (!buildStyle.equals(appliedStyle)) {
+            restyle(buildStyle);
         }
 
-        module.info("✓ Couche des frontières complètement enregistrée ({} pays, {} marqueurs)",
-                bordersCache.size(), totalMarkers);
+        module.info("✓ Couche des frontières mise à jour: {} ajoutés/modifiés, {} supprimés, {} inchangés",
+                changed, removed, markerStates.size() - changed);
     }
 
     /**
-     * ✅ FIX: Retourne le nombre de marqueurs ajoutés
+     * Applique un nouveau style aux marqueurs existants sans toucher à leur géométrie
      */
-    private int addMarkersToWorld(@NotNull MapWorld world) {
-        if (bordersCache == null || bordersCache.isEmpty()) {
-            module.warn("Pas de données de frontières à ajouter");
-            return 0;
+    private void restyle(@NotNull BorderStyle newStyle) {
+        Map<Key, Marker> registered = layerProvider.registeredMarkers();
+        Map<String, MarkerOptions> optionsByCountry = new HashMap<>();
+
+        for (Map.Entry<Key, MarkerState> entry : markerStates.entrySet()) {
+            Marker marker = registered.get(entry.getKey());
+            if (marker == null) continue;
+
+            marker.markerOptions(optionsByCountry.computeIfAbsent(
+                    entry.getValue().countryName(), newStyle::options));
         }
 
-        module.debug("Ajout des frontières pour le monde '{}'...", world.identifier().asString());
+        appliedStyle = newStyle;
+        module.info("✓ Style des frontières appliqué à {} marqueurs", markerStates.size());
+    }
 
-        int totalMarkers = 0;
-        String worldId = world.identifier().asString();
+    /**
+     * Hash 64 bits cumulatif d'une bague simplifiée
+     */
+    private static long hashRing(long seed, int @NotNull [] ring) {
+        long hash = seed * 0x9E3779B97F4A7C15L + ring.length;
+        for (int value : ring) {
+            hash = hash * 31 + value;
+        }
+        return hash;
+    }
 
-        for (BorderData border : bordersCache) {
-            int ringIndex = 0;
+    /**
+     * Dossiers région des mondes affichés (thread principal)
+     */
+    @NotNull
+    private List<File> regionFolders() {
+        List<File> folders = new ArrayList<>();
+        for (MapWorld world : SquaremapProvider.get().mapWorlds()) {
+            if (!shouldProcessWorld(world)) continue;
 
-            for (List<double[]> ring : border.coordinates()) {
-                // Convertir les points GPS en coordonnées Minecraft
-                List<Point> minecraftPoints = new ArrayList<>();
+            World bukkitWorld = BukkitAdapter.bukkitWorld(world);
+            folders.add(new File(bukkitWorld.getWorldFolder(), "region"));
+        }
+        return folders;
+    }
 
-                for (double[] coords : ring) {
-                    double lat = coords[0];
-                    double lon = coords[1];
+    /**
+     * Relance périodiquement le culling: les nouvelles régions explorées font
+     * apparaître leurs pays (diff, seuls les nouveaux marqueurs sont ajoutés)
+     */
+    private void scheduleExtentRefresh() {
+        if (extentTaskId != -1) {
+            module.plugin.getServer().getScheduler().cancelTask(extentTaskId);
+            extentTaskId = -1;
+        }
 
-                    // Validation des coordonnées
-                    if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
-                        continue;
-                    }
+        if (!cullingEnabled || cullingRefreshMinutes <= 0) {
+            return;
+        }
 
-                    // Conversion GPS → Minecraft
-                    int x = (int) Math.round(lon * LONGITUDE_TO_X);
-                    int z = (int) Math.round(lat * LATITUDE_TO_Z);
+        long period = cullingRefreshMinutes * 60L * 20L;
+        extentTaskId = module.plugin.getServer().getScheduler()
+                .runTaskTimer(module.plugin, this::refreshExtent, period, period)
+                .getTaskId();
+    }
 
-                    minecraftPoints.add(Point.of(x, z));
-                }
+    /**
+     * Recalcule la zone explorée hors du thread principal, et ne reconstruit que si elle a changé
+     */
+    private void refreshExtent() {
+        if (layerProvider == null || bordersCache == null || !cullingEnabled) {
+            return;
+        }
 
-                // Créer la polyline (ligne de frontière)
-                if (minecraftPoints.size() >= 2) {
-                    Polyline polyline = Polyline.polyline(minecraftPoints);
-
-                    // Appliquer le style
-                    polyline.markerOptions(MarkerOptions.builder()
-                            .strokeColor(borderColor)
-                            .strokeWeight(borderWeight)
-                            .strokeOpacity(borderOpacity)
-                            .clickTooltip(border.countryName())
-                            .build());
-
-                    // ✅ Créer un ID unique pour chaque segment (nettoyer TOUS les caractères invalides)
-                    String cleanWorldId = worldId.replaceAll("[^a-zA-Z0-9._-]", "_");
-                    String cleanCountryName = border.countryName().replaceAll("[^a-zA-Z0-9._-]", "_");
-
-                    String markerId = String.format("%s_%s_ring_%d",
-                            cleanWorldId,
-                            cleanCountryName,
-                            ringIndex);
-
-                    layerProvider.addMarker(Key.of(markerId), polyline);
-                    totalMarkers++;
-                }
+        List<File> folders = regionFolders();
+        ExploredRegions currentExtent = appliedExtent;
+        int padding = cullingPadding;
 
-                ringIndex++;
+        module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, () -> {
+            ExploredRegions extent = ExploredRegions.scan(folders, padding);
+            if (Objects.equals(extent, currentExtent) || !module.plugin.isEnabled()) {
+                return;
             }
-        }
 
-        module.info("✓ {} segments de frontières ajoutés pour '{}'", totalMarkers, world.identifier().asString());
-        return totalMarkers;
+            module.plugin.getServer().getScheduler().runTask(module.plugin, () -> {
+                if (layerProvider == null) return;
+
+                module.debug("Zone explorée modifiée: {}", extent);
+                build(false, true);
+            });
+        });
     }
 
     /**
@@ -203,6 +436,7 @@ public class BorderLayerProvider {
     private void loadVisualConfig() {
         String hexColor = module.getConfigManager().getString("webmap.border-color", "#FF0000");
 
+        Color borderColor;
         try {
             borderColor = Color.decode(hexColor);
         } catch (NumberFormatException e) {
@@ -210,8 +444,38 @@ public class BorderLayerProvider {
             borderColor = Color.RED;
         }
 
-        borderWeight = module.getConfigManager().getInt("webmap.border-weight", 2);
-        borderOpacity = module.getConfigManager().getDouble("webmap.border-opacity", 0.8);
+        int borderWeight = module.getConfigManager().getInt("webmap.border-weight", 2);
+        double borderOpacity = module.getConfigManager().getDouble("webmap.border-opacity", 0.8);
+
+        // Remplissage et couleurs par pays ("Nom=#RRGGBB")
+        Map<String, Color> countryColors = new HashMap<>();
+        for (String entry : module.getConfigManager().getStringList("webmap.country-colors")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                module.warn("Couleur de pays invalide '{}' (format: Nom=#RRGGBB)", entry);
+                continue;
+            }
+
+            try {
+                countryColors.put(entry.substring(0, separator).trim(),
+                        Color.decode(entry.substring(separator + 1).trim()));
+            } catch (NumberFormatException e) {
+                module.warn("Couleur de pays invalide '{}' (format: Nom=#RRGGBB)", entry);
+            }
+        }
+
+        style = new BorderStyle(borderColor, borderWeight, borderOpacity,
+                module.getConfigManager().getBoolean("webmap.fill.enabled", true),
+                module.getConfigManager().getDouble("webmap.fill.opacity", 0.15),
+                module.getConfigManager().getBoolean("webmap.fill.auto-colors", true),
+                Map.copyOf(countryColors));
+
+        simplifyTolerance = module.getConfigManager().getDouble("webmap.simplification.tolerance", 2.0);
+        minIslandArea = module.getConfigManager().getDouble("webmap.simplification.min-island-area", 50.0);
+
+        cullingEnabled = module.getConfigManager().getBoolean("webmap.culling.enabled", true);
+        cullingPadding = module.getConfigManager().getInt("webmap.culling.padding", 512);
+        cullingRefreshMinutes = module.getConfigManager().getInt("webmap.culling.refresh-interval", 30);
 
         module.debug("Config visuelle: couleur={}, poids={}, opacité={}",
                 hexColor, borderWeight, borderOpacity);
@@ -221,6 +485,18 @@ public class BorderLayerProvider {
      * Désenregistre la couche
      */
     public void unregister() {
+        // Annuler une éventuelle construction en cours
+        generation.incrementAndGet();
+
+        if (extentTaskId != -1) {
+            module.plugin.getServer().getScheduler().cancelTask(extentTaskId);
+            extentTaskId = -1;
+        }
+
+        bordersCache = null;
+        boundsCache = null;
+        geoData.release(module.getName());
+
         if (layerProvider == null) {
             return;
         }
@@ -230,17 +506,19 @@ public class BorderLayerProvider {
 
             // Vider tous les marqueurs
             layerProvider.clearMarkers();
+            markerStates.clear();
 
             // Désenregistrer de chaque monde
             for (MapWorld world : squaremap.mapWorlds()) {
                 try {
-                    world.layerRegistry().unregister(Key.of("countries_layer"));
+                    world.layerRegistry().unregister(LAYER_KEY);
                 } catch (Exception e) {
                     module.debug("Erreur désenregistrement pour {}: {}",
                             world.identifier().asString(), e.getMessage());
                 }
             }
 
+            layerProvider = null;
             module.info("Couche des frontières désenregistrée");
         } catch (Exception e) {
             module.error("Erreur lors du désenregistrement", e);
@@ -248,33 +526,94 @@ public class BorderLayerProvider {
     }
 
     /**
-     * Recharge la couche
+     * Recharge la couche de façon incrémentale
+     * - style seul modifié: les marqueurs existants sont restylés
+     * - simplification ou culling modifié: géométrie recalculée puis diff
+     * Les données ne sont relues que par /webmap update
      */
     public void reload() {
         module.info("Rechargement de la couche...");
 
-        // Désenregistrer l'ancienne
-        unregister();
+        double oldTolerance = simplifyTolerance;
+        double oldMinArea = minIslandArea;
+        boolean oldCulling = cullingEnabled;
+        int oldPadding = cullingPadding;
 
         // Recharger la config
         loadVisualConfig();
 
-        // Re-enregistrer (recharge aussi les données du cache)
-        register();
+        if (layerProvider == null || bordersCache == null) {
+            register();
+            return;
+        }
+
+        scheduleExtentRefresh();
+
+        if (oldTolerance != simplifyTolerance || oldMinArea != minIslandArea
+                || oldCulling != cullingEnabled || oldPadding != cullingPadding) {
+            build(false, true);
+        } else if (!style.equals(appliedStyle)) {
+            restyle(style);
+        } else {
+            module.info("✓ Couche des frontières déjà à jour");
+        }
     }
 
     /**
      * Force le rechargement des données depuis Internet
+     * Seuls les pays dont les frontières ont changé sont mis à jour sur la carte
      */
     public void forceUpdate() {
         module.info("Mise à jour forcée des données...");
 
-        // Supprimer le cache
-        loader.clearCache();
-        bordersCache = null;
+        // Revalidation conditionnelle: rien n'est reconstruit si les données n'ont pas changé,
+        // l'ancienne couche reste affichée d'ici là
+        build(true, false);
+    }
 
-        // Désenregistrer et re-enregistrer (téléchargera à nouveau)
-        unregister();
-        register();
+    /**
+     * Style des frontières
+     * Contour à la couleur globale (ou celle du pays), remplissage à la couleur du pays
+     */
+    private record BorderStyle(@NotNull Color color, int weight, double opacity,
+                               boolean fill, double fillOpacity, boolean autoColors,
+                               @NotNull Map<String, Color> countryColors) {
+
+        @NotNull
+        MarkerOptions options(@NotNull String countryName) {
+            Color countryColor = countryColors.get(countryName);
+            Color fillColor = countryColor != null ? countryColor : autoColors ? autoColor(countryName) : color;
+
+            return MarkerOptions.builder()
+                    .strokeColor(countryColor != null ? countryColor : color)
+                    .strokeWeight(weight)
+                    .strokeOpacity(opacity)
+                    .fill(fill)
+                    .fillColor(fillColor)
+                    .fillOpacity(fillOpacity)
+                    .clickTooltip(countryName)
+                    .build();
+        }
+
+        /**
+         * Couleur stable dérivée du nom (les pays voisins se distinguent)
+         */
+        @NotNull
+        private static Color autoColor(@NotNull String countryName) {
+            float hue = (countryName.hashCode() & 0xFFFF) / 65536f;
+            return Color.getHSBColor(hue, 0.55f, 0.85f);
+        }
+    }
+
+    /**
+     * Marqueur construit hors du thread principal
+     */
+    private record CountryMarker(@NotNull Marker marker, @NotNull String countryName, long hash) {
+    }
+
+    /**
+     * État d'un marqueur enregistré (pour le diff et le restyle)
+     */
+    private record MarkerState(@NotNull String countryName, long hash) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,290 @@
+package fr.tannoxx.ubuplugin.modules.webmap.squaremap;
+
+import fr.tannoxx.ubuplugin.modules.webmap.WebMapModule;
+import fr.tannoxx.ubuplugin.modules.webmap.data.ChunkHeatMap;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import xyz.jpenilla.squaremap.api.*;
+import xyz.jpenilla.squaremap.api.marker.MarkerOptions;
+import xyz.jpenilla.squaremap.api.marker.Rectangle;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Couche Squaremap de densité de joueurs (où les joueurs passent leur temps)
+ * <p>
+ * - échantillonnage basse fréquence sur le thread principal: seules les
+ *   coordonnées de chunk sont copiées dans un tableau de long (quelques µs)
+ * - agrégation hors du thread principal dans un compteur par chunk à décroissance
+ *   exponentielle (table primitive, voir {@link ChunkHeatMap})
+ * - émission périodique d'une grille grossière (cellules de N×N chunks)
+ */
+public class HeatmapLayerProvider {
+
+    private static final Key LAYER_KEY = Key.of("heatmap_layer");
+
+    private final WebMapModule module;
+
+    // Compteurs par monde (verrou: heatMaps)
+    private final Map<String, ChunkHeatMap> heatMaps = new HashMap<>();
+    private long lastDecay = System.currentTimeMillis();
+
+    // Couche par monde (thread principal)
+    private final Map<String, SimpleLayerProvider> layers = new HashMap<>();
+
+    // Coût de l'échantillonnage (thread principal)
+    private final AtomicLong sampleNanos = new AtomicLong();
+    private final AtomicLong sampleCount = new AtomicLong();
+
+    private int sampleTaskId = -1;
+    private int updateTaskId = -1;
+
+    // Configuration
+    private String layerName;
+    private int sampleInterval;
+    private int updateInterval;
+    private double halfLifeMinutes;
+    private int cellSize;
+    private double minIntensity;
+    private double maxOpacity;
+
+    public HeatmapLayerProvider(@NotNull WebMapModule module) {
+        this.module = module;
+        loadConfig();
+    }
+
+    /**
+     * Démarre l'échantillonnage et l'émission périodique
+     */
+    public void register() {
+        sampleTaskId = module.plugin.getServer().getScheduler()
+                .runTaskTimer(module.plugin, this::sample, sampleInterval, sampleInterval)
+                .getTaskId();
+
+        long updateTicks = updateInterval * 20L;
+        updateTaskId = module.plugin.getServer().getScheduler()
+                .runTaskTimerAsynchronously(module.plugin, this::update, updateTicks, updateTicks)
+                .getTaskId();
+    }
+
+    /**
+     * Échantillonnage (thread principal): copie des positions puis agrégation asynchrone
+     */
+    private void sample() {
+        long start = System.nanoTime();
+
+        ChunkHeatMap.Sample sample = ChunkHeatMap.sample(Bukkit.getOnlinePlayers().size(), consumer -> {
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                Location location = player.getLocation();
+                consumer.accept(location.getWorld().getName(), location.getBlockX(), location.getBlockZ());
+            }
+        });
+
+        sampleNanos.addAndGet(System.nanoTime() - start);
+        sampleCount.incrementAndGet();
+
+        if (sample.isEmpty()) return;
+
+        module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, () -> {
+            synchronized (heatMaps) {
+                sample.addTo(heatMaps);
+            }
+        });
+    }
+
+    /**
+     * Décroissance + construction de la grille grossière (hors thread principal)
+     */
+    private void update() {
+        Map<String, List<HeatCell>> grids = new HashMap<>();
+
+        synchronized (heatMaps) {
+            long now = System.currentTimeMillis();
+            double elapsedMinutes = (now - lastDecay) / 60000.0;
+            lastDecay = now;
+
+            float factor = (float) Math.pow(0.5, elapsedMinutes / Math.max(0.1, halfLifeMinutes));
+
+            for (Map.Entry<String, ChunkHeatMap> entry : heatMaps.entrySet()) {
+                ChunkHeatMap heatMap = entry.getValue();
+                heatMap.decay(factor, 0.01f);
+                grids.put(entry.getKey(), buildGrid(heatMap));
+            }
+        }
+
+        long samples = sampleCount.getAndSet(0);
+        long nanos = sampleNanos.getAndSet(0);
+        if (samples > 0) {
+            module.debug("Heatmap: échantillonnage {} µs en moyenne ({} µs/tick)",
+                    nanos / samples / 1000, nanos / samples / sampleInterval / 1000.0);
+        }
+
+        if (!module.plugin.isEnabled()) return;
+        module.plugin.getServer().getScheduler().runTask(module.plugin, () -> apply(grids));
+    }
+
+    /**
+     * Regroupe les chunks en cellules de cellSize×cellSize et normalise par le maximum
+     */
+    @NotNull
+    private List<HeatCell> buildGrid(@NotNull ChunkHeatMap heatMap) {
+        ChunkHeatMap cells = new ChunkHeatMap(heatMap.size());
+        heatMap.forEach((key, value) -> cells.add(ChunkHeatMap.pack(
+                Math.floorDiv(ChunkHeatMap.unpackX(key), cellSize),
+                Math.floorDiv(ChunkHeatMap.unpackZ(key), cellSize)), value));
+
+        float[] max = {0f};
+        cells.forEach((key, value) -> max[0] = Math.max(max[0], value));
+
+        List<HeatCell> grid = new ArrayList<>();
+        if (max[0] <= 0f) return grid;
+
+        cells.forEach((key, value) -> {
+            // Échelle logarithmique: les zones calmes restent visibles à côté du spawn
+            double intensity = Math.log1p(value) / Math.log1p(max[0]);
+            if (intensity >= minIntensity) {
+                grid.add(new HeatCell(ChunkHeatMap.unpackX(key), ChunkHeatMap.unpackZ(key), intensity));
+            }
+        });
+        return grid;
+    }
+
+    /**
+     * Remplace les marqueurs de chaque monde (thread principal)
+     */
+    private void apply(@NotNull Map<String, List<HeatCell>> grids) {
+        if (sampleTaskId == -1) return;
+
+        int blocks = cellSize * 16;
+
+        for (Map.Entry<String, List<HeatCell>> entry : grids.entrySet()) {
+            SimpleLayerProvider layer = getOrCreateLayer(entry.getKey());
+            if (layer == null) continue;
+
+            layer.clearMarkers();
+            for (HeatCell cell : entry.getValue()) {
+                Rectangle rectangle = Rectangle.rectangle(
+                        Point.of(cell.x() * blocks, cell.z() * blocks),
+                        Point.of((cell.x() + 1) * blocks, (cell.z() + 1) * blocks));
+
+                rectangle.markerOptions(MarkerOptions.builder()
+                        .stroke(false)
+                        .fill(true)
+                        .fillColor(heatColor(cell.intensity()))
+                        .fillOpacity(0.1 + (maxOpacity - 0.1) * cell.intensity())
+                        .hoverTooltip("Activité: " + Math.round(cell.intensity() * 100) + "%")
+                        .build());
+
+                layer.addMarker(Key.of("heat_" + cell.x() + "_" + cell.z()), rectangle);
+            }
+        }
+    }
+
+    /**
+     * Dégradé bleu → jaune → rouge
+     */
+    @NotNull
+    private static Color heatColor(double intensity) {
+        float hue = (float) (0.66 * (1.0 - Math.min(1.0, Math.max(0.0, intensity))));
+        return Color.getHSBColor(hue, 0.9f, 1f);
+    }
+
+    @Nullable
+    private SimpleLayerProvider getOrCreateLayer(@NotNull String worldName) {
+        SimpleLayerProvider layer = layers.get(worldName);
+        if (layer != null) {
+            return layer;
+        }
+
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) return null;
+
+        Optional<MapWorld> mapWorld = SquaremapProvider.get().getWorldIfEnabled(BukkitAdapter.worldIdentifier(world));
+        if (mapWorld.isEmpty()) return null;
+
+        layer = SimpleLayerProvider.builder(layerName)
+                .defaultHidden(true)
+                .showControls(true)
+                .layerPriority(7)
+                .build();
+
+        if (mapWorld.get().layerRegistry().hasEntry(LAYER_KEY)) {
+            mapWorld.get().layerRegistry().unregister(LAYER_KEY);
+        }
+        mapWorld.get().layerRegistry().register(LAYER_KEY, layer);
+        layers.put(worldName, layer);
+        return layer;
+    }
+
+    /**
+     * Recharge la configuration et redémarre les tâches (les compteurs sont conservés)
+     */
+    public void reload() {
+        cancelTasks();
+        loadConfig();
+        register();
+    }
+
+    /**
+     * Arrête les tâches et désenregistre les couches
+     */
+    public void unregister() {
+        cancelTasks();
+
+        for (Map.Entry<String, SimpleLayerProvider> entry : layers.entrySet()) {
+            entry.getValue().clearMarkers();
+
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world == null) continue;
+
+            try {
+                SquaremapProvider.get().getWorldIfEnabled(BukkitAdapter.worldIdentifier(world))
+                        .ifPresent(mapWorld -> mapWorld.layerRegistry().unregister(LAYER_KEY));
+            } catch (Exception e) {
+                module.debug("Erreur désenregistrement heatmap pour {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        layers.clear();
+
+        synchronized (heatMaps) {
+            heatMaps.clear();
+        }
+    }
+
+    private void cancelTasks() {
+        if (sampleTaskId != -1) {
+            module.plugin.getServer().getScheduler().cancelTask(sampleTaskId);
+            sampleTaskId = -1;
+        }
+        if (updateTaskId != -1) {
+            module.plugin.getServer().getScheduler().cancelTask(updateTaskId);
+            updateTaskId = -1;
+        }
+    }
+
+    private void loadConfig() {
+        layerName = module.getConfigManager().getString("webmap.heatmap.layer-name", "Activité");
+        sampleInterval = Math.max(20, module.getConfigManager().getInt("webmap.heatmap.sample-interval", 100));
+        updateInterval = Math.max(10, module.getConfigManager().getInt("webmap.heatmap.update-interval", 60));
+        halfLifeMinutes = module.getConfigManager().getDouble("webmap.heatmap.half-life", 60.0);
+        cellSize = Math.max(1, module.getConfigManager().getInt("webmap.heatmap.cell-size", 4));
+        minIntensity = module.getConfigManager().getDouble("webmap.heatmap.min-intensity", 0.05);
+        maxOpacity = module.getConfigManager().getDouble("webmap.heatmap.max-opacity", 0.6);
+    }
+
+    /**
+     * Cellule de la grille émise
+     */
+    private record HeatCell(int x, int z, double intensity) {
+    }
+}
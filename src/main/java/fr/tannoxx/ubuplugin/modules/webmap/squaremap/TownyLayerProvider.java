@@ -0,0 +1,406 @@
+package fr.tannoxx.ubuplugin.modules.webmap.squaremap;
+
+import com.palmergames.bukkit.towny.TownyAPI;
+import com.palmergames.bukkit.towny.TownySettings;
+import com.palmergames.bukkit.towny.object.Nation;
+import com.palmergames.bukkit.towny.object.Town;
+import com.palmergames.bukkit.towny.object.TownBlock;
+import fr.tannoxx.ubuplugin.modules.webmap.WebMapModule;
+import fr.tannoxx.ubuplugin.modules.webmap.data.ClaimOutliner;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import xyz.jpenilla.squaremap.api.*;
+import xyz.jpenilla.squaremap.api.marker.Marker;
+import xyz.jpenilla.squaremap.api.marker.MarkerOptions;
+import xyz.jpenilla.squaremap.api.marker.Polygon;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Couche Squaremap des territoires Towny
+ * <p>
+ * Les town blocks adjacents d'une ville sont fusionnés en contours (avec trous)
+ * au lieu d'un carré par chunk. Les mises à jour sont incrémentales: une
+ * revendication ne reconstruit que la ville concernée, regroupée avec les autres
+ * changements de la même seconde. Le calcul des contours se fait hors du thread
+ * principal; seule la photo des town blocks et l'application des marqueurs y restent.
+ */
+public class TownyLayerProvider {
+
+    private static final Key LAYER_KEY = Key.of("towny_layer");
+    private static final Pattern INVALID_KEY_CHARS = Pattern.compile("[^a-zA-Z0-9._-]");
+
+    private final WebMapModule module;
+
+    // Une couche par monde: les town blocks sont propres à un monde (thread principal)
+    private final Map<String, SimpleLayerProvider> layers = new HashMap<>();
+
+    // Marqueurs posés par ville, et version de la dernière photo envoyée (thread principal)
+    private final Map<UUID, List<PlacedMarker>> townMarkers = new HashMap<>();
+    private final Map<UUID, Integer> townVersions = new HashMap<>();
+
+    // Villes à recalculer (les événements Towny peuvent être asynchrones)
+    private final Set<UUID> dirtyTowns = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile boolean fullRefresh;
+    private volatile boolean active;
+
+    private TownStyle style;
+    private long updateDelay;
+
+    public TownyLayerProvider(@NotNull WebMapModule module) {
+        this.module = module;
+        loadConfig();
+    }
+
+    /**
+     * Active la couche et calcule toutes les villes
+     */
+    public void register() {
+        active = true;
+        markAllDirty();
+    }
+
+    /**
+     * Marque une ville à recalculer (thread-safe)
+     */
+    public void markDirty(@NotNull UUID townId) {
+        dirtyTowns.add(townId);
+        scheduleFlush();
+    }
+
+    /**
+     * Recalcule toutes les villes (chargement de la base Towny, ville inconnue...)
+     */
+    public void markAllDirty() {
+        fullRefresh = true;
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (!active || !module.plugin.isEnabled() || !flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        module.plugin.getServer().getScheduler().runTaskLater(module.plugin, this::flush, updateDelay);
+    }
+
+    /**
+     * Photographie les villes modifiées (thread principal), puis calcule leurs contours en asynchrone
+     */
+    private void flush() {
+        flushScheduled.set(false);
+        if (!active) return;
+
+        Set<UUID> towns = new HashSet<>();
+        if (fullRefresh) {
+            fullRefresh = false;
+            dirtyTowns.clear();
+            for (Town town : TownyAPI.getInstance().getTowns()) {
+                towns.add(town.getUUID());
+            }
+            // Villes supprimées pendant que la couche était inactive
+            towns.addAll(townMarkers.keySet());
+        } else {
+            for (UUID townId : dirtyTowns) {
+                dirtyTowns.remove(townId);
+                towns.add(townId);
+            }
+        }
+
+        if (towns.isEmpty()) return;
+
+        int blockSize = TownySettings.getTownBlockSize();
+        TownStyle buildStyle = style;
+        List<TownSnapshot> snapshots = new ArrayList<>(towns.size());
+
+        for (UUID townId : towns) {
+            int version = townVersions.merge(townId, 1, Integer::sum);
+            snapshots.add(snapshot(townId, version));
+        }
+
+        module.plugin.getServer().getScheduler().runTaskAsynchronously(module.plugin, () -> {
+            long start = System.currentTimeMillis();
+            List<TownUpdate> updates = new ArrayList<>(snapshots.size());
+            int markerCount = 0;
+
+            for (TownSnapshot snapshot : snapshots) {
+                List<PendingMarker> markers = buildMarkers(snapshot, blockSize, buildStyle);
+                markerCount += markers.size();
+                updates.add(new TownUpdate(snapshot.townId(), snapshot.version(), markers));
+            }
+
+            module.debug("Contours Towny: {} villes, {} polygones en {}ms",
+                    updates.size(), markerCount, System.currentTimeMillis() - start);
+
+            if (!module.plugin.isEnabled()) return;
+            module.plugin.getServer().getScheduler().runTask(module.plugin, () -> apply(updates));
+        });
+    }
+
+    /**
+     * Photo d'une ville: nom, nation, couleur et town blocks par monde (thread principal)
+     * Ville supprimée = photo vide (ses marqueurs seront retirés)
+     */
+    @NotNull
+    private TownSnapshot snapshot(@NotNull UUID townId, int version) {
+        Town town = TownyAPI.getInstance().getTown(townId);
+        if (town == null) {
+            return new TownSnapshot(townId, version, "", null, null, Map.of());
+        }
+
+        Map<String, Set<Long>> cellsByWorld = new HashMap<>();
+        for (TownBlock townBlock : town.getTownBlocks()) {
+            cellsByWorld.computeIfAbsent(townBlock.getWorld().getName(), k -> new HashSet<>())
+                    .add(ClaimOutliner.pack(townBlock.getX(), townBlock.getZ()));
+        }
+
+        Nation nation = town.getNationOrNull();
+        String hexColor = town.getMapColorHexCode();
+        if ((hexColor == null || hexColor.isEmpty()) && nation != null) {
+            hexColor = nation.getMapColorHexCode();
+        }
+
+        return new TownSnapshot(townId, version, town.getName(),
+                nation != null ? nation.getName() : null, parseColor(hexColor), cellsByWorld);
+    }
+
+    /**
+     * Contours d'une ville (hors thread principal)
+     */
+    @NotNull
+    private List<PendingMarker> buildMarkers(@NotNull TownSnapshot snapshot, int blockSize, @NotNull TownStyle buildStyle) {
+        List<PendingMarker> markers = new ArrayList<>();
+        if (snapshot.cellsByWorld().isEmpty()) {
+            return markers;
+        }
+
+        MarkerOptions options = buildStyle.options(snapshot);
+
+        for (Map.Entry<String, Set<Long>> entry : snapshot.cellsByWorld().entrySet()) {
+            String worldId = INVALID_KEY_CHARS.matcher(entry.getKey()).replaceAll("_");
+            List<ClaimOutliner.Outline> outlines = ClaimOutliner.outline(entry.getValue());
+
+            for (int i = 0; i < outlines.size(); i++) {
+                ClaimOutliner.Outline outline = outlines.get(i);
+
+                List<List<Point>> holes = new ArrayList<>(outline.holes().size());
+                for (int[] hole : outline.holes()) {
+                    holes.add(toPoints(hole, blockSize));
+                }
+
+                Polygon polygon = Polygon.polygon(toPoints(outline.outer(), blockSize), holes);
+                polygon.markerOptions(options);
+
+                Key key = Key.of("town_" + snapshot.townId() + "_" + worldId + "_" + i);
+                markers.add(new PendingMarker(entry.getKey(), key, polygon));
+            }
+        }
+
+        return markers;
+    }
+
+    @NotNull
+    private static List<Point> toPoints(int @NotNull [] outline, int blockSize) {
+        List<Point> points = new ArrayList<>(outline.length / 2);
+        for (int i = 0; i < outline.length; i += 2) {
+            points.add(Point.of((double) outline[i] * blockSize, (double) outline[i + 1] * blockSize));
+        }
+        return points;
+    }
+
+    /**
+     * Remplace les marqueurs des villes recalculées (thread principal)
+     */
+    private void apply(@NotNull List<TownUpdate> updates) {
+        if (!active) return;
+
+        for (TownUpdate update : updates) {
+            // Une photo plus récente est déjà en route
+            if (!Integer.valueOf(update.version()).equals(townVersions.get(update.townId()))) {
+                continue;
+            }
+
+            List<PlacedMarker> previous = townMarkers.remove(update.townId());
+            if (previous != null) {
+                for (PlacedMarker placed : previous) {
+                    SimpleLayerProvider layer = layers.get(placed.world());
+                    if (layer != null) {
+                        layer.removeMarker(placed.key());
+                    }
+                }
+            }
+
+            if (update.markers().isEmpty()) {
+                townVersions.remove(update.townId());
+                continue;
+            }
+
+            List<PlacedMarker> placed = new ArrayList<>(update.markers().size());
+            for (PendingMarker marker : update.markers()) {
+                SimpleLayerProvider layer = getOrCreateLayer(marker.world());
+                if (layer == null) continue;
+
+                layer.addMarker(marker.key(), marker.marker());
+                placed.add(new PlacedMarker(marker.world(), marker.key()));
+            }
+            townMarkers.put(update.townId(), placed);
+        }
+    }
+
+    /**
+     * Couche du monde, créée et enregistrée à la première ville qui s'y trouve
+     * @return null si le monde n'est pas affiché par Squaremap
+     */
+    @Nullable
+    private SimpleLayerProvider getOrCreateLayer(@NotNull String worldName) {
+        SimpleLayerProvider layer = layers.get(worldName);
+        if (layer != null) {
+            return layer;
+        }
+
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) return null;
+
+        Optional<MapWorld> mapWorld = SquaremapProvider.get().getWorldIfEnabled(BukkitAdapter.worldIdentifier(world));
+        if (mapWorld.isEmpty()) return null;
+
+        layer = SimpleLayerProvider.builder(style.layerName())
+                .defaultHidden(false)
+                .showControls(true)
+                .layerPriority(6)
+                .build();
+
+        if (mapWorld.get().layerRegistry().hasEntry(LAYER_KEY)) {
+            mapWorld.get().layerRegistry().unregister(LAYER_KEY);
+        }
+        mapWorld.get().layerRegistry().register(LAYER_KEY, layer);
+        layers.put(worldName, layer);
+
+        module.debug("Couche Towny enregistrée pour le monde: {}", worldName);
+        return layer;
+    }
+
+    /**
+     * Recharge le style; toutes les villes sont recalculées
+     */
+    public void reload() {
+        loadConfig();
+        markAllDirty();
+    }
+
+    /**
+     * Désenregistre toutes les couches Towny
+     */
+    public void unregister() {
+        active = false;
+
+        for (Map.Entry<String, SimpleLayerProvider> entry : layers.entrySet()) {
+            entry.getValue().clearMarkers();
+
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world == null) continue;
+
+            try {
+                SquaremapProvider.get().getWorldIfEnabled(BukkitAdapter.worldIdentifier(world))
+                        .ifPresent(mapWorld -> mapWorld.layerRegistry().unregister(LAYER_KEY));
+            } catch (Exception e) {
+                module.debug("Erreur désenregistrement Towny pour {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+
+        layers.clear();
+        townMarkers.clear();
+        townVersions.clear();
+        dirtyTowns.clear();
+    }
+
+    private void loadConfig() {
+        Color defaultColor = parseColor(module.getConfigManager().getString("webmap.towny.color", "#00BFFF"));
+
+        style = new TownStyle(
+                module.getConfigManager().getString("webmap.towny.layer-name", "Villes"),
+                defaultColor != null ? defaultColor : new Color(0x00BFFF),
+                module.getConfigManager().getInt("webmap.towny.weight", 2),
+                module.getConfigManager().getDouble("webmap.towny.opacity", 0.9),
+                module.getConfigManager().getDouble("webmap.towny.fill-opacity", 0.25),
+                module.getConfigManager().getBoolean("webmap.towny.use-town-colors", true));
+
+        updateDelay = Math.max(1, module.getConfigManager().getInt("webmap.towny.update-delay", 20));
+    }
+
+    /**
+     * Couleur "#RRGGBB" ou "RRGGBB" (format Towny)
+     */
+    @Nullable
+    private static Color parseColor(@Nullable String hex) {
+        if (hex == null || hex.isBlank()) return null;
+
+        String value = hex.startsWith("#") ? hex.substring(1) : hex;
+        try {
+            return new Color(Integer.parseInt(value, 16));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @NotNull
+    private static String escapeHtml(@NotNull String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /**
+     * Style des territoires
+     */
+    private record TownStyle(@NotNull String layerName, @NotNull Color color, int weight, double opacity,
+                             double fillOpacity, boolean useTownColors) {
+
+        @NotNull
+        MarkerOptions options(@NotNull TownSnapshot town) {
+            Color townColor = useTownColors && town.color() != null ? town.color() : color;
+
+            String tooltip = "<b>" + escapeHtml(town.name()) + "</b>"
+                    + (town.nation() != null ? "<br/>" + escapeHtml(town.nation()) : "");
+
+            return MarkerOptions.builder()
+                    .strokeColor(townColor)
+                    .strokeWeight(weight)
+                    .strokeOpacity(opacity)
+                    .fill(true)
+                    .fillColor(townColor)
+                    .fillOpacity(fillOpacity)
+                    .clickTooltip(tooltip)
+                    .build();
+        }
+    }
+
+    /**
+     * Photo d'une ville prise sur le thread principal
+     */
+    private record TownSnapshot(@NotNull UUID townId, int version, @NotNull String name,
+                                @Nullable String nation, @Nullable Color color,
+                                @NotNull Map<String, Set<Long>> cellsByWorld) {
+    }
+
+    private record TownUpdate(@NotNull UUID townId, int version, @NotNull List<PendingMarker> markers) {
+    }
+
+    private record PendingMarker(@NotNull String world, @NotNull Key key, @NotNull Marker marker) {
+    }
+
+    private record PlacedMarker(@NotNull String world, @NotNull Key key) {
+    }
+}
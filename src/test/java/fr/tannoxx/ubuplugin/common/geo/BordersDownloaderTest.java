@@ -0,0 +1,233 @@
+package fr.tannoxx.ubuplugin.common.geo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Téléchargement des frontières contre un serveur HTTP local
+ */
+class BordersDownloaderTest {
+
+    private static final String ETAG = "\"v1\"";
+    private static final byte[] CONTENT = buildContent();
+
+    @TempDir
+    Path folder;
+
+    private HttpServer server;
+    private String url;
+    private File destination;
+
+    // Comportement du serveur et requêtes reçues
+    private volatile Handler handler;
+    private final List<HttpExchange> requests = new CopyOnWriteArrayList<>();
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    private static byte[] buildContent() {
+        StringBuilder json = new StringBuilder("{\"type\":\"FeatureCollection\",\"features\":[");
+        for (int i = 0; i < 2_000; i++) {
+            json.append("{\"id\":").append(i).append("},");
+        }
+        json.append("{}]}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/borders.geojson", exchange -> {
+            requests.add(exchange);
+            handler.handle(exchange);
+        });
+        server.start();
+
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/borders.geojson";
+        destination = folder.resolve("borders.geojson").toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("ETag", ETAG);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendFull(HttpExchange exchange) throws IOException {
+        send(exchange, 200, CONTENT);
+    }
+
+    private File sidecar(String suffix) {
+        return new File(destination.getParentFile(), destination.getName() + suffix);
+    }
+
+    private Properties meta() throws IOException {
+        Properties meta = new Properties();
+        try (var reader = Files.newBufferedReader(sidecar(".meta").toPath(), StandardCharsets.UTF_8)) {
+            meta.load(reader);
+        }
+        return meta;
+    }
+
+    /**
+     * Simule un téléchargement interrompu: début du fichier et validateur de sa version
+     */
+    private void interruptedDownload(int length) throws IOException {
+        Files.write(sidecar(".part").toPath(), Arrays.copyOf(CONTENT, length));
+
+        Properties meta = new Properties();
+        meta.setProperty("part.etag", ETAG);
+        try (Writer writer = Files.newBufferedWriter(sidecar(".meta").toPath(), StandardCharsets.UTF_8)) {
+            meta.store(writer, null);
+        }
+    }
+
+    private static String header(HttpExchange exchange, String name) {
+        return exchange.getRequestHeaders().getFirst(name);
+    }
+
+    @Test
+    void fullDownloadStoresFileAndValidators() throws IOException {
+        handler = BordersDownloaderTest::sendFull;
+
+        assertEquals(BordersDownloader.Result.UPDATED, fetchResult(false));
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(destination.toPath()));
+        assertEquals(ETAG, meta().getProperty("etag"));
+        assertNull(meta().getProperty("part.etag"));
+        assertFalse(sidecar(".part").exists());
+    }
+
+    @Test
+    void notModifiedKeepsFile() throws IOException {
+        handler = BordersDownloaderTest::sendFull;
+        fetchResult(false);
+
+        handler = exchange -> {
+            if (ETAG.equals(header(exchange, "If-None-Match"))) {
+                send(exchange, 304, new byte[0]);
+            } else {
+                sendFull(exchange);
+            }
+        };
+
+        assertEquals(BordersDownloader.Result.NOT_MODIFIED, fetchResult(true));
+        assertArrayEquals(CONTENT, Files.readAllBytes(destination.toPath()));
+        assertEquals(ETAG, header(requests.get(1), "If-None-Match"));
+    }
+
+    @Test
+    void interruptedDownloadResumesWithRange() throws IOException {
+        int offset = CONTENT.length / 3;
+        interruptedDownload(offset);
+
+        handler = exchange -> {
+            String range = header(exchange, "Range");
+            if (range == null || !ETAG.equals(header(exchange, "If-Range"))) {
+                sendFull(exchange);
+                return;
+            }
+
+            int from = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+            exchange.getResponseHeaders().set("Content-Range",
+                    "bytes " + from + "-" + (CONTENT.length - 1) + "/" + CONTENT.length);
+            send(exchange, 206, Arrays.copyOfRange(CONTENT, from, CONTENT.length));
+        };
+
+        assertEquals(BordersDownloader.Result.UPDATED, fetchResult(false));
+
+        assertEquals("bytes=" + offset + "-", header(requests.get(0), "Range"));
+        assertArrayEquals(CONTENT, Files.readAllBytes(destination.toPath()));
+        assertFalse(sidecar(".part").exists());
+    }
+
+    @Test
+    void rejectedRangeResetsPartialDownload() throws IOException {
+        interruptedDownload(CONTENT.length / 2);
+
+        handler = exchange -> {
+            if (header(exchange, "Range") != null) {
+                send(exchange, 416, new byte[0]);
+            } else {
+                sendFull(exchange);
+            }
+        };
+
+        assertEquals(BordersDownloader.Result.FAILED, fetchResult(false));
+        assertFalse(sidecar(".part").exists());
+        assertNull(meta().getProperty("part.etag"));
+
+        // Essai suivant: téléchargement complet, sans Range
+        assertEquals(BordersDownloader.Result.UPDATED, fetchResult(false));
+        assertNull(header(requests.get(1), "Range"));
+        assertArrayEquals(CONTENT, Files.readAllBytes(destination.toPath()));
+    }
+
+    @Test
+    void gzipResponseIsDecompressed() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(CONTENT);
+        }
+
+        handler = exchange -> {
+            if ("gzip".equals(header(exchange, "Accept-Encoding"))) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                send(exchange, 200, compressed.toByteArray());
+            } else {
+                sendFull(exchange);
+            }
+        };
+
+        assertEquals(BordersDownloader.Result.UPDATED, fetchResult(false));
+        assertArrayEquals(CONTENT, Files.readAllBytes(destination.toPath()));
+    }
+
+    @Test
+    void serverErrorKeepsExistingFile() throws IOException {
+        handler = BordersDownloaderTest::sendFull;
+        fetchResult(false);
+
+        handler = exchange -> send(exchange, 500, new byte[0]);
+
+        assertEquals(BordersDownloader.Result.FAILED, fetchResult(true));
+        assertArrayEquals(CONTENT, Files.readAllBytes(destination.toPath()));
+    }
+
+    private BordersDownloader.Result fetchResult(boolean conditional) {
+        return new BordersDownloader().fetch(destination, url, null, conditional);
+    }
+}
@@ -0,0 +1,104 @@
+package fr.tannoxx.ubuplugin.common.geo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Partage des frontières entre modules: chargement unique, libération au dernier release
+ */
+class GeoDataServiceTest {
+
+    private CountryBordersLoader loader;
+    private GeoDataService service;
+
+    private static List<BorderData> borders() {
+        IntBuffer points = IntBuffer.wrap(new int[]{0, 0, 10, 0, 10, 10});
+        return List.of(new BorderData("France", points, new int[]{0, 3}, new int[]{0, 1}));
+    }
+
+    @BeforeEach
+    void setUp() {
+        loader = mock(CountryBordersLoader.class);
+        when(loader.loadBorders()).thenAnswer(invocation -> borders());
+
+        // Chargement exécuté sur le thread appelant
+        service = new GeoDataService(loader, Runnable::run);
+    }
+
+    @Test
+    void lastReleaseFreesTheGeometry() {
+        GeoSnapshot first = service.acquire("WebMap").join();
+        GeoSnapshot second = service.acquire("EarthTools").join();
+
+        // Une seule copie partagée
+        assertSame(first, second);
+        assertEquals(1, first.borders().size());
+        verify(loader, times(1)).loadBorders();
+
+        // Un consommateur reste: les données restent chargées
+        service.release("WebMap");
+        assertTrue(service.isLoaded());
+        assertSame(first, service.acquire("EarthTools").join());
+        verify(loader, times(1)).loadBorders();
+
+        // Dernier consommateur parti: libérées, puis rechargées à la demande
+        service.release("EarthTools");
+        assertFalse(service.isLoaded());
+
+        GeoSnapshot reloaded = service.acquire("EarthTools").join();
+        verify(loader, times(2)).loadBorders();
+        assertTrue(reloaded.version() > first.version());
+    }
+
+    @Test
+    void sameConsumerIsCountedOnce() {
+        // Rechargement d'un module: acquire rappelé avec le même nom, un seul release à l'arrêt
+        service.acquire("WebMap").join();
+        service.acquire("WebMap").join();
+
+        service.release("WebMap");
+        assertFalse(service.isLoaded());
+    }
+
+    @Test
+    void unknownReleaseKeepsTheGeometry() {
+        service.acquire("WebMap").join();
+
+        service.release("EarthTools");
+        assertTrue(service.isLoaded());
+
+        service.release("WebMap");
+        service.release("WebMap");
+        assertFalse(service.isLoaded());
+    }
+
+    @Test
+    void emptyLoadIsRetriedOnNextAcquire() {
+        when(loader.loadBorders()).thenReturn(List.of()).thenAnswer(invocation -> borders());
+
+        assertTrue(service.acquire("WebMap").join().isEmpty());
+        assertFalse(service.acquire("EarthTools").join().isEmpty());
+        verify(loader, times(2)).loadBorders();
+    }
+
+    @Test
+    void shutdownFreesEverything() {
+        service.acquire("WebMap").join();
+        service.acquire("EarthTools").join();
+
+        service.shutdown();
+        assertFalse(service.isLoaded());
+    }
+}
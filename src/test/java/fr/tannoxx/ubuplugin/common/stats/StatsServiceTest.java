@@ -0,0 +1,193 @@
+package fr.tannoxx.ubuplugin.common.stats;
+
+import fr.tannoxx.ubuplugin.UbuPlugin;
+import fr.tannoxx.ubuplugin.common.database.DatabaseManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Écriture des deltas de statistiques dans une base SQLite temporaire
+ */
+class StatsServiceTest {
+
+    @TempDir
+    Path folder;
+
+    private String url;
+    private StatsService stats;
+
+    // Nombre de connexions à refuser avant de laisser passer les écritures
+    private final AtomicInteger failures = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        url = "jdbc:sqlite:" + folder.resolve("stats.db");
+
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            // Même schéma que DatabaseManager
+            stmt.execute("""
+                    CREATE TABLE stats_daily (
+                        uuid TEXT NOT NULL, stat TEXT NOT NULL, day INTEGER NOT NULL, value INTEGER NOT NULL,
+                        PRIMARY KEY (uuid, stat, day))
+                    """);
+            stmt.execute("""
+                    CREATE TABLE stats_totals (
+                        uuid TEXT NOT NULL, stat TEXT NOT NULL, value INTEGER NOT NULL,
+                        PRIMARY KEY (uuid, stat))
+                    """);
+        }
+
+        DatabaseManager database = mock(DatabaseManager.class);
+        when(database.getConnection()).thenAnswer(invocation -> {
+            if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new SQLException("base indisponible");
+            }
+            return DriverManager.getConnection(url);
+        });
+
+        UbuPlugin plugin = mock(UbuPlugin.class);
+        when(plugin.getDatabaseManager()).thenReturn(database);
+
+        stats = new StatsService(plugin);
+    }
+
+    private long total(UUID uuid, StatType type) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT value FROM stats_totals WHERE uuid = ? AND stat = ?")) {
+            stmt.setString(1, uuid.toString());
+            stmt.setString(2, type.getKey());
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private long sumTotals() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            ResultSet rs = stmt.executeQuery("SELECT COALESCE(SUM(value), 0) FROM stats_totals");
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    @Test
+    void flushWritesDeltasAndEmptiesCounters() throws SQLException {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+
+        stats.record(alice, StatType.VEINMINER_BLOCKS, 12);
+        stats.increment(alice, StatType.VEINMINER_BLOCKS);
+        stats.record(bob, StatType.TIMBER_BLOCKS, 40);
+        stats.record(bob, StatType.TIMBER_BLOCKS, 0);
+        assertEquals(2, stats.pendingCount());
+
+        stats.flush();
+
+        assertEquals(13, total(alice, StatType.VEINMINER_BLOCKS));
+        assertEquals(40, total(bob, StatType.TIMBER_BLOCKS));
+        assertEquals(0, stats.pendingCount());
+
+        // Les deltas suivants s'ajoutent aux cumuls
+        stats.increment(alice, StatType.VEINMINER_BLOCKS);
+        stats.flush();
+        assertEquals(14, total(alice, StatType.VEINMINER_BLOCKS));
+        assertEquals(0, stats.pendingCount());
+    }
+
+    @Test
+    void failedWriteKeepsDeltasForNextFlush() throws SQLException {
+        UUID uuid = UUID.randomUUID();
+        stats.record(uuid, StatType.TPR_TELEPORTS, 3);
+
+        failures.set(1);
+        stats.flush();
+        assertEquals(0, total(uuid, StatType.TPR_TELEPORTS));
+        assertEquals(1, stats.pendingCount());
+
+        stats.increment(uuid, StatType.TPR_TELEPORTS);
+        stats.flush();
+        assertEquals(4, total(uuid, StatType.TPR_TELEPORTS));
+    }
+
+    @Test
+    void concurrentRecordsDuringFlushAreNotLost() throws Exception {
+        int threads = 8;
+        int perThread = 50_000;
+        UUID[] players = {UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()};
+
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean recording = new AtomicBoolean(true);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    stats.increment(players[(i + offset) % players.length], StatType.EXPLOSIVE_BLOCKS);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+
+        // Écritures en boucle pendant les ajouts
+        Thread flusher = new Thread(() -> {
+            while (recording.get()) {
+                stats.flush();
+            }
+        });
+        flusher.start();
+        start.countDown();
+
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        recording.set(false);
+        flusher.join();
+        stats.flush();
+
+        assertEquals((long) threads * perThread, sumTotals());
+        assertEquals(0, stats.pendingCount());
+    }
+
+    @Test
+    void weekStartsOnMonday() {
+        // Même découpage que le temps de jeu (SessionTracker): semaine calendaire
+        LocalDate monday = LocalDate.of(2026, 10, 12);
+
+        for (int offset = 0; offset < 7; offset++) {
+            LocalDate today = monday.plusDays(offset);
+            assertEquals(monday.toEpochDay(), StatsService.Period.WEEK.firstDay(today), today.toString());
+            assertEquals(today.toEpochDay(), StatsService.Period.TODAY.firstDay(today));
+        }
+
+        LocalDate nextMonday = monday.plusWeeks(1);
+        assertEquals(nextMonday.toEpochDay(), StatsService.Period.WEEK.firstDay(nextMonday));
+    }
+}
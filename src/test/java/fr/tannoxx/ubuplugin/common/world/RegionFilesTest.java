@@ -0,0 +1,41 @@
+package fr.tannoxx.ubuplugin.common.world;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RegionFilesTest {
+
+    @Test
+    void packRoundTrip() {
+        for (int[] region : new int[][]{{0, 0}, {-1, -1}, {46, -23}, {-47, 22}, {Integer.MIN_VALUE, Integer.MAX_VALUE}}) {
+            long packed = RegionFiles.pack(region[0], region[1]);
+            assertEquals(region[0], RegionFiles.regionX(packed));
+            assertEquals(region[1], RegionFiles.regionZ(packed));
+        }
+    }
+
+    @Test
+    void scanSkipsMalformedNames(@TempDir Path folder) throws IOException {
+        // Aucun r.0.0.mca: un nom invalide ne doit pas laisser de région (0, 0)
+        for (String name : new String[]{"r.-5.12.mca", "r.a.b.mca", "r.3.mca", "r.1.1.mca.tmp", "level.dat"}) {
+            Files.createFile(folder.resolve(name));
+        }
+
+        long[] regions = RegionFiles.scan(folder.toFile());
+
+        assertArrayEquals(new long[]{RegionFiles.pack(-5, 12)}, regions, Arrays.toString(regions));
+    }
+
+    @Test
+    void missingFolderIsEmpty(@TempDir Path folder) {
+        assertEquals(0, RegionFiles.scan(folder.resolve("absent").toFile()).length);
+    }
+}
@@ -0,0 +1,88 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final long OPEN_MILLIS = 50;
+
+    @Test
+    void staysClosedBelowThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(3, OPEN_MILLIS);
+
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.isOpen());
+    }
+
+    @Test
+    void successResetsConsecutiveFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(3, OPEN_MILLIS);
+
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void opensAtThreshold() {
+        CircuitBreaker breaker = new CircuitBreaker(3, OPEN_MILLIS);
+
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void halfOpenAllowsSingleTrial() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, OPEN_MILLIS);
+        breaker.recordFailure();
+
+        Thread.sleep(OPEN_MILLIS + 20);
+
+        assertFalse(breaker.isOpen());
+        assertTrue(breaker.tryAcquire());
+        // Requête d'essai en cours: les suivantes attendent son résultat
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void trialSuccessCloses() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(1, OPEN_MILLIS);
+        breaker.recordFailure();
+        Thread.sleep(OPEN_MILLIS + 20);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.recordSuccess();
+
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void trialFailureReopens() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker(5, OPEN_MILLIS);
+        for (int i = 0; i < 5; i++) {
+            breaker.recordFailure();
+        }
+        Thread.sleep(OPEN_MILLIS + 20);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.recordFailure();
+
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.tryAcquire());
+    }
+}
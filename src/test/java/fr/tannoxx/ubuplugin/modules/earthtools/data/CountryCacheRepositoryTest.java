@@ -0,0 +1,121 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.data;
+
+import fr.tannoxx.ubuplugin.common.database.DatabaseManager;
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule.CountryCacheEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Écriture par lots du cache pays dans une base SQLite temporaire
+ */
+class CountryCacheRepositoryTest {
+
+    @TempDir
+    Path folder;
+
+    private String url;
+    private CountryCacheRepository repository;
+
+    // Connexions distribuées (espionnées), comme celles du pool
+    private final List<Connection> connections = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        url = "jdbc:sqlite:" + folder.resolve("cache.db");
+
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            // Même schéma que DatabaseManager
+            stmt.execute("""
+                    CREATE TABLE country_cache (
+                        cache_key TEXT PRIMARY KEY, country_name TEXT,
+                        is_error BOOLEAN DEFAULT FALSE, timestamp INTEGER NOT NULL)
+                    """);
+        }
+
+        DatabaseManager database = mock(DatabaseManager.class);
+        when(database.getConnection()).thenAnswer(invocation -> {
+            Connection conn = spy(DriverManager.getConnection(url));
+            connections.add(conn);
+            return conn;
+        });
+
+        EarthToolsModule module = mock(EarthToolsModule.class);
+        when(module.getDatabaseManager()).thenReturn(database);
+
+        repository = new CountryCacheRepository(module);
+    }
+
+    private int rowCount() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM country_cache");
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    @Test
+    void flushWritesBatchAndRestoresAutoCommit() throws SQLException {
+        repository.save("48.85,2.35", new CountryCacheEntry("France", false, 1_000));
+        repository.save("40.71,-74.01", new CountryCacheEntry("United States of America", false, 1_000));
+
+        repository.flush();
+
+        assertEquals(2, rowCount());
+        assertEquals(1, connections.size());
+        verify(connections.get(0)).commit();
+        verify(connections.get(0), never()).rollback();
+        verify(connections.get(0)).setAutoCommit(true);
+    }
+
+    @Test
+    void failedBatchIsRolledBackAndRequeued() throws SQLException {
+        // Une ligne du lot échoue après l'insertion des autres
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                    CREATE TRIGGER reject BEFORE INSERT ON country_cache
+                    WHEN NEW.cache_key = 'boom' BEGIN SELECT RAISE(ABORT, 'refusé'); END
+                    """);
+        }
+
+        repository.save("a", new CountryCacheEntry("France", false, 1_000));
+        repository.save("boom", new CountryCacheEntry("Spain", false, 1_000));
+        repository.save("c", new CountryCacheEntry("Italy", false, 1_000));
+
+        repository.flush();
+
+        // Rien d'écrit à moitié, connexion rendue au pool en autocommit
+        assertEquals(0, rowCount());
+        verify(connections.get(0)).rollback();
+        verify(connections.get(0)).setAutoCommit(true);
+        assertTrue(connections.get(0).isClosed());
+
+        // Le lot est remis en file et repart à l'écriture suivante
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TRIGGER reject");
+        }
+        repository.flush();
+        assertEquals(3, rowCount());
+    }
+}
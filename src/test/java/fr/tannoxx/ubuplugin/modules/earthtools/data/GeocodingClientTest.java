@@ -0,0 +1,208 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.data;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import fr.tannoxx.ubuplugin.common.config.ConfigManager;
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Client de géocodage contre un serveur HTTP local simulant les fournisseurs
+ */
+class GeocodingClientTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private HttpServer server;
+    private GeocodingClient client;
+
+    // Réponse (code, corps) et nombre d'appels par fournisseur
+    private final Map<String, Response> responses = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private volatile CountDownLatch release;
+
+    private record Response(int status, String body) {
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/nominatim", exchange -> respond("nominatim", exchange));
+        server.createContext("/bigdatacloud", exchange -> respond("bigdatacloud", exchange));
+        server.start();
+
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        ConfigManager config = mock(ConfigManager.class);
+        when(config.getStringList("earthtools.country.apis")).thenReturn(List.of("nominatim", "bigdatacloud"));
+        when(config.getInt(eq("earthtools.country.circuit-breaker.failure-threshold"), anyInt())).thenReturn(1);
+        when(config.getInt(eq("earthtools.country.circuit-breaker.open-duration"), anyInt())).thenReturn(60);
+
+        EarthToolsModule module = mock(EarthToolsModule.class);
+        when(module.getConfigManager()).thenReturn(config);
+
+        client = new GeocodingClient(module, Map.of(
+                GeocodingClient.Provider.NOMINATIM, base + "/nominatim?lat=%.6f&lon=%.6f",
+                GeocodingClient.Provider.BIGDATACLOUD, base + "/bigdatacloud?latitude=%.6f&longitude=%.6f"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        server.stop(0);
+    }
+
+    private void respond(String provider, HttpExchange exchange) throws IOException {
+        hits.computeIfAbsent(provider, k -> new AtomicInteger()).incrementAndGet();
+
+        CountDownLatch latch = release;
+        if (latch != null) {
+            try {
+                latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Response response = responses.getOrDefault(provider, new Response(404, "{}"));
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(response.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private int hits(String provider) {
+        AtomicInteger count = hits.get(provider);
+        return count == null ? 0 : count.get();
+    }
+
+    private String await(GeocodingClient.Lookup lookup) throws Exception {
+        assertNotNull(lookup);
+        return lookup.future().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void readsCountryFromFirstProvider() throws Exception {
+        responses.put("nominatim", new Response(200,
+                "{\"place_id\":1,\"boundingbox\":[\"1\",\"2\"],\"address\":{\"road\":\"Rue\",\"country\":\"France\"}}"));
+
+        assertEquals("France", await(client.lookup("48.85,2.35", 48.85, 2.35, () -> true)));
+        assertEquals(0, hits("bigdatacloud"));
+    }
+
+    @Test
+    void fallsBackToNextProviderOnError() throws Exception {
+        responses.put("nominatim", new Response(500, "{}"));
+        responses.put("bigdatacloud", new Response(200, "{\"countryName\":\"Spain\"}"));
+
+        assertEquals("Spain", await(client.lookup("40.4,-3.7", 40.4, -3.7, () -> true)));
+        assertEquals(1, hits("nominatim"));
+        assertEquals(1, hits("bigdatacloud"));
+    }
+
+    @Test
+    void openBreakerSkipsFailingProvider() throws Exception {
+        responses.put("nominatim", new Response(500, "{}"));
+        responses.put("bigdatacloud", new Response(200, "{\"countryName\":\"Spain\"}"));
+
+        await(client.lookup("40.4,-3.7", 40.4, -3.7, () -> true));
+        assertEquals("Spain", await(client.lookup("41.4,2.1", 41.4, 2.1, () -> true)));
+
+        // Seuil à 1: le premier échec a ouvert le disjoncteur
+        assertEquals(1, hits("nominatim"));
+        assertEquals(2, hits("bigdatacloud"));
+    }
+
+    @Test
+    void allProvidersFailingGivesNull() throws Exception {
+        responses.put("nominatim", new Response(503, "{}"));
+        responses.put("bigdatacloud", new Response(200, "{\"countryName\":null}"));
+
+        assertNull(await(client.lookup("0.0,0.0", 0, 0, () -> true)));
+    }
+
+    @Test
+    void concurrentLookupsShareOneRequest() throws Exception {
+        responses.put("nominatim", new Response(200, "{\"address\":{\"country\":\"Italia\"}}"));
+        release = new CountDownLatch(1);
+
+        AtomicInteger admissions = new AtomicInteger();
+        GeocodingClient.Lookup first = client.lookup("41.9,12.5", 41.9, 12.5, () -> admissions.incrementAndGet() > 0);
+        GeocodingClient.Lookup second = client.lookup("41.9,12.5", 41.9, 12.5, () -> admissions.incrementAndGet() > 0);
+
+        assertNotNull(first);
+        assertNotNull(second);
+        assertTrue(first.initiator());
+        assertFalse(second.initiator());
+        assertSame(first.future(), second.future());
+        // Rejoindre une requête en cours ne consulte pas le quota
+        assertEquals(1, admissions.get());
+
+        release.countDown();
+        assertEquals("Italia", await(second));
+        assertEquals(1, hits("nominatim"));
+    }
+
+    @Test
+    void refusedAdmissionSendsNothing() {
+        assertNull(client.lookup("1.0,1.0", 1, 1, () -> false));
+        assertEquals(0, hits("nominatim"));
+        assertEquals(0, hits("bigdatacloud"));
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                     LECTURE EN STREAMING
+    // ═══════════════════════════════════════════════════════════
+
+    private static String read(String json, String... path) throws IOException {
+        return GeocodingClient.readString(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), path);
+    }
+
+    @Test
+    void readStringFollowsNestedPath() throws IOException {
+        assertEquals("Deutschland", read("{\"address\":{\"city\":\"Berlin\",\"country\":\"Deutschland\"}}",
+                "address", "country"));
+    }
+
+    @Test
+    void readStringSkipsUnrelatedValues() throws IOException {
+        String json = "{\"a\":[1,{\"country\":\"Faux\"}],\"b\":{\"country\":\"Faux\"},\"countryName\":\"Japan\"}";
+        assertEquals("Japan", read(json, "countryName"));
+    }
+
+    @Test
+    void readStringReturnsNullWhenMissingOrNotAString() throws IOException {
+        assertNull(read("{\"address\":{\"city\":\"Berlin\"}}", "address", "country"));
+        assertNull(read("{\"address\":\"texte\"}", "address", "country"));
+        assertNull(read("{\"countryName\":42}", "countryName"));
+        assertNull(read("[\"countryName\"]", "countryName"));
+    }
+}
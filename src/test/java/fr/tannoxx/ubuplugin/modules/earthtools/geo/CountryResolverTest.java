@@ -0,0 +1,176 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.geo;
+
+import fr.tannoxx.ubuplugin.common.geo.BorderData;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CountryResolverTest {
+
+    private static List<BorderData> borders;
+    private static CountryResolver resolver;
+
+    @BeforeAll
+    static void setUp() {
+        borders = List.of(
+                // Pays troué: un lac (3..7) contenant une enclave (4..6)
+                country("Outer",
+                        polygon(square(0, 0, 10, 10), square(3, 3, 7, 7))),
+                country("Enclave",
+                        polygon(square(4, 4, 6, 6))),
+                // Sommets pile sur des limites de bandes (multiples de 0.1°)
+                country("Diamond",
+                        polygon(new double[]{25, 10.0, 30, 10.3, 25, 10.6, 20, 10.3})),
+                // Arêtes qui traversent des centaines de bandes
+                country("Tall",
+                        polygon(square(40, -30, 41, 30))),
+                // Coupé par l'antiméridien, comme la Russie ou les Fidji
+                country("Antimeridian",
+                        polygon(square(170, 60, 180, 70)),
+                        polygon(square(-180, 60, -170, 70)))
+        );
+        resolver = CountryResolver.build(borders);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                         FIXTURES
+    // ═══════════════════════════════════════════════════════════
+
+    private static double[] square(double minLon, double minLat, double maxLon, double maxLat) {
+        return new double[]{minLon, minLat, maxLon, minLat, maxLon, maxLat, minLon, maxLat};
+    }
+
+    private static double[][] polygon(double[]... rings) {
+        return rings;
+    }
+
+    /**
+     * Projette les bagues (lon, lat, lon, lat...) comme le cache des frontières
+     */
+    private static BorderData country(String name, double[][]... polygons) {
+        List<Integer> points = new ArrayList<>();
+        List<Integer> ringOffsets = new ArrayList<>(List.of(0));
+        List<Integer> polygonOffsets = new ArrayList<>(List.of(0));
+
+        for (double[][] polygon : polygons) {
+            for (double[] ring : polygon) {
+                for (int i = 0; i < ring.length; i += 2) {
+                    points.add((int) Math.round(ring[i] * BorderData.LONGITUDE_TO_X));
+                    points.add((int) Math.round(ring[i + 1] * BorderData.LATITUDE_TO_Z));
+                }
+                ringOffsets.add(points.size() / 2);
+            }
+            polygonOffsets.add(ringOffsets.size() - 1);
+        }
+
+        return new BorderData(name,
+                IntBuffer.wrap(points.stream().mapToInt(Integer::intValue).toArray()),
+                ringOffsets.stream().mapToInt(Integer::intValue).toArray(),
+                polygonOffsets.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Référence naïve: pair-impair sur toutes les arêtes de chaque pays
+     */
+    private static String reference(double lat, double lon) {
+        for (BorderData border : borders) {
+            boolean inside = false;
+
+            for (int ring = 0; ring < border.ringCount(); ring++) {
+                int start = border.ringStart(ring);
+                int end = border.ringEnd(ring);
+
+                for (int i = start; i < end; i++) {
+                    int next = i + 1 < end ? i + 1 : start;
+                    double x0 = border.longitude(i), y0 = border.latitude(i);
+                    double x1 = border.longitude(next), y1 = border.latitude(next);
+
+                    if ((y0 > lat) != (y1 > lat)
+                            && lon < (x1 - x0) * (lat - y0) / (y1 - y0) + x0) {
+                        inside = !inside;
+                    }
+                }
+            }
+
+            if (inside) {
+                return border.countryName();
+            }
+        }
+
+        return null;
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                           TESTS
+    // ═══════════════════════════════════════════════════════════
+
+    @Test
+    void holesAndEnclaves() {
+        assertEquals("Outer", resolver.resolve(1.5, 1.5));
+        assertEquals("Outer", resolver.resolve(8.5, 5));
+        // Le lac n'appartient à personne
+        assertNull(resolver.resolve(3.5, 5));
+        assertNull(resolver.resolve(5, 6.5));
+        // L'enclave gagne sur le pays qui l'entoure
+        assertEquals("Enclave", resolver.resolve(5, 5));
+        assertEquals("Enclave", resolver.resolve(4.05, 5.95));
+        assertNull(resolver.resolve(5, 15));
+    }
+
+    @Test
+    void bandEdges() {
+        // Latitudes pile sur des limites de bandes et de cellules
+        assertEquals("Diamond", resolver.resolve(10.3, 25));
+        assertEquals("Diamond", resolver.resolve(10.1, 24));
+        assertEquals("Diamond", resolver.resolve(10.5, 25.5));
+        assertNull(resolver.resolve(10.3, 19.9));
+        assertNull(resolver.resolve(10.7, 25));
+
+        for (int tenth = -299; tenth <= 299; tenth++) {
+            assertEquals("Tall", resolver.resolve(tenth / 10.0, 40.5), "lat " + tenth / 10.0);
+        }
+        assertNull(resolver.resolve(30.1, 40.5));
+        assertNull(resolver.resolve(-30.1, 40.5));
+    }
+
+    @Test
+    void antimeridian() {
+        assertEquals("Antimeridian", resolver.resolve(65, 175));
+        assertEquals("Antimeridian", resolver.resolve(65, -175));
+        assertEquals("Antimeridian", resolver.resolve(65, 179.999));
+        assertEquals("Antimeridian", resolver.resolve(65, -179.999));
+        assertEquals("Antimeridian", resolver.resolve(65, 180));
+        assertEquals("Antimeridian", resolver.resolve(65, -180));
+        assertNull(resolver.resolve(65, 169));
+        assertNull(resolver.resolve(71, 180));
+        // Hors des bornes GPS
+        assertNull(resolver.resolve(65, 180.5));
+        assertNull(resolver.resolve(90.5, 0));
+    }
+
+    @Test
+    void matchesBruteForceOnBandLattice() {
+        // Grille au 1/20° (la moitié des points sur une limite de bande) + points aléatoires
+        for (int lat = -40 * 20; lat <= 75 * 20; lat++) {
+            for (double lon : new double[]{-179.95, -175, 2.5, 5.05, 9.95, 22.5, 25, 40.5, 175, 179.95}) {
+                double latitude = lat / 20.0;
+                assertEquals(reference(latitude, lon), resolver.resolve(latitude, lon), latitude + ", " + lon);
+            }
+        }
+
+        Random random = new Random(27);
+        for (int i = 0; i < 200_000; i++) {
+            double latitude = random.nextDouble() * 180 - 90;
+            double longitude = random.nextDouble() * 360 - 180;
+            assertEquals(reference(latitude, longitude), resolver.resolve(latitude, longitude),
+                    latitude + ", " + longitude);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.geo;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Coût du suivi des pays pour 200 joueurs en mouvement permanent
+ * <p>
+ * Chaque tick, chaque joueur avance d'un bloc et demi (vol en élytres) dans une direction
+ * qui change de temps en temps: changements de chunk et passages de frontière fréquents.
+ * Budget large pour rester stable en CI: moins de 0,5 ms par tick en moyenne (1 % du tick)
+ */
+class CountryTrackerBenchmarkTest {
+
+    private static final int PLAYERS = 200;
+    private static final int WARMUP_TICKS = 2_000;
+    private static final int TICKS = 6_000;
+    private static final double SPEED = 1.5;
+
+    private static CountryChunkIndex index;
+
+    @BeforeAll
+    static void buildIndex() {
+        index = CountryChunkIndex.build(new CountryTrackerTest.BandLookup());
+    }
+
+    @Test
+    void twoHundredPlayersMovingConstantly() {
+        CountryTracker tracker = new CountryTracker();
+        tracker.setCooldownMillis(3000);
+
+        Random random = new Random(42);
+        UUID[] uuids = new UUID[PLAYERS];
+        double[] x = new double[PLAYERS];
+        double[] z = new double[PLAYERS];
+        double[] heading = new double[PLAYERS];
+
+        for (int i = 0; i < PLAYERS; i++) {
+            uuids[i] = UUID.randomUUID();
+            x[i] = (random.nextDouble() * 2 - 1) * 20_000;
+            z[i] = (random.nextDouble() * 2 - 1) * 7_000;
+            heading[i] = random.nextDouble() * Math.PI * 2;
+            tracker.update(uuids[i], "world", (int) Math.floor(x[i]), (int) Math.floor(z[i]), index, false, 0);
+        }
+
+        int notifications = runTicks(tracker, random, uuids, x, z, heading, 0, WARMUP_TICKS);
+
+        long start = System.nanoTime();
+        notifications += runTicks(tracker, random, uuids, x, z, heading, WARMUP_TICKS, TICKS);
+        long elapsed = System.nanoTime() - start;
+
+        double microsPerTick = elapsed / 1000.0 / TICKS;
+        System.out.printf("CountryTracker: %d joueurs, %.2f µs/tick, %d notifications%n",
+                PLAYERS, microsPerTick, notifications);
+
+        assertTrue(notifications > 0, "aucune frontière franchie");
+        assertTrue(microsPerTick < 500, "budget dépassé: " + microsPerTick + " µs/tick");
+    }
+
+    private static int runTicks(CountryTracker tracker, Random random, UUID[] uuids,
+                                double[] x, double[] z, double[] heading, int firstTick, int ticks) {
+        int notifications = 0;
+
+        for (int tick = firstTick; tick < firstTick + ticks; tick++) {
+            long now = tick * 50L;
+
+            for (int i = 0; i < PLAYERS; i++) {
+                if (random.nextInt(200) == 0) {
+                    heading[i] = random.nextDouble() * Math.PI * 2;
+                }
+
+                x[i] += Math.cos(heading[i]) * SPEED;
+                z[i] += Math.sin(heading[i]) * SPEED;
+
+                int country = tracker.move(uuids[i], "world", (int) Math.floor(x[i]), (int) Math.floor(z[i]), index, now);
+                if (country != CountryTracker.NONE) {
+                    notifications++;
+                }
+            }
+        }
+
+        return notifications;
+    }
+}
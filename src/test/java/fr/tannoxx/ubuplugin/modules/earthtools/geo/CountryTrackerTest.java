@@ -0,0 +1,125 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.geo;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.commands.CountryCommand;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountryTrackerTest {
+
+    private static final String WORLD = "world";
+    private static final long COOLDOWN = 3000;
+
+    private static CountryChunkIndex index;
+
+    private CountryTracker tracker;
+    private UUID uuid;
+
+    /**
+     * Carte synthétique: bandes de 10° de longitude entre -60° et 60° de latitude, océan ailleurs
+     */
+    static final class BandLookup implements CountryLookup {
+
+        @Override
+        public int resolveId(double latitude, double longitude) {
+            if (Math.abs(latitude) >= 60 || Math.abs(longitude) >= 180) {
+                return -1;
+            }
+            return (int) Math.floor((longitude + 180) / 10);
+        }
+
+        @Override
+        public String getCountryName(int id) {
+            return id >= 0 && id < 36 ? "Pays " + id : null;
+        }
+    }
+
+    @BeforeAll
+    static void buildIndex() {
+        index = CountryChunkIndex.build(new BandLookup());
+    }
+
+    @BeforeEach
+    void setUp() {
+        tracker = new CountryTracker();
+        tracker.setCooldownMillis(COOLDOWN);
+        uuid = UUID.randomUUID();
+    }
+
+    /**
+     * Coordonnée X au milieu de la bande du pays
+     */
+    static int xOf(int country) {
+        return (int) Math.round((country * 10 - 175) * CountryCommand.LONGITUDE_TO_X);
+    }
+
+    @Test
+    void joinDoesNotNotify() {
+        assertEquals(CountryTracker.NONE, tracker.update(uuid, WORLD, xOf(18), 0, index, false, 0));
+        assertEquals(CountryTracker.NONE, tracker.move(uuid, WORLD, xOf(18) + 1, 0, index, 100));
+    }
+
+    @Test
+    void crossingBorderNotifies() {
+        tracker.update(uuid, WORLD, xOf(18), 0, index, false, 0);
+
+        assertEquals(19, tracker.move(uuid, WORLD, xOf(19), 0, index, 10_000));
+        assertEquals(CountryTracker.NONE, tracker.move(uuid, WORLD, xOf(19) + 32, 0, index, 10_100));
+    }
+
+    @Test
+    void lastCountryReachedDuringCooldownIsAnnouncedWhenItExpires() {
+        tracker.update(uuid, WORLD, xOf(18), 0, index, false, 0);
+
+        // A → B annoncé, B → C pendant le délai: C en attente
+        assertEquals(19, tracker.move(uuid, WORLD, xOf(19), 0, index, 10_000));
+        assertEquals(CountryTracker.NONE, tracker.move(uuid, WORLD, xOf(20), 0, index, 11_000));
+
+        long delay = tracker.schedulePending(uuid, 11_000);
+        assertEquals(2000, delay);
+        // Déjà planifiée
+        assertEquals(-1, tracker.schedulePending(uuid, 11_500));
+
+        assertEquals(20, tracker.flushPending(uuid, 13_000));
+        assertEquals(-1, tracker.schedulePending(uuid, 13_000));
+    }
+
+    @Test
+    void returningToAnnouncedCountryCancelsPending() {
+        tracker.update(uuid, WORLD, xOf(18), 0, index, false, 0);
+
+        assertEquals(19, tracker.move(uuid, WORLD, xOf(19), 0, index, 10_000));
+        assertEquals(CountryTracker.NONE, tracker.move(uuid, WORLD, xOf(20), 0, index, 10_500));
+        assertTrue(tracker.schedulePending(uuid, 10_500) >= 0);
+        assertEquals(CountryTracker.NONE, tracker.move(uuid, WORLD, xOf(19), 0, index, 11_000));
+
+        assertEquals(CountryTracker.NONE, tracker.flushPending(uuid, 13_000));
+    }
+
+    @Test
+    void returningFromOceanNotifiesAgain() {
+        int oceanZ = (int) Math.round(70 * CountryCommand.LATITUDE_TO_Z);
+        tracker.update(uuid, WORLD, xOf(18), 0, index, false, 0);
+
+        assertEquals(CountryTracker.NONE, tracker.move(uuid, WORLD, xOf(18), oceanZ, index, 10_000));
+        assertEquals(18, tracker.move(uuid, WORLD, xOf(18), 0, index, 20_000));
+    }
+
+    @Test
+    void forgottenPlayerHasNothingPending() {
+        tracker.update(uuid, WORLD, xOf(18), 0, index, false, 0);
+        tracker.move(uuid, WORLD, xOf(19), 0, index, 10_000);
+        tracker.move(uuid, WORLD, xOf(20), 0, index, 10_500);
+        tracker.schedulePending(uuid, 10_500);
+
+        tracker.clear();
+
+        assertEquals(CountryTracker.NONE, tracker.flushPending(uuid, 13_000));
+        assertEquals(0, tracker.size());
+    }
+}
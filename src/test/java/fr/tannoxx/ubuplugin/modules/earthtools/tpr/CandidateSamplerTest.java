@@ -0,0 +1,96 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.tpr;
+
+import fr.tannoxx.ubuplugin.common.world.RegionFiles;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CandidateSamplerTest {
+
+    // Limites /tpr de la carte Earth (blocs)
+    private static final int MAX_X = 24_000;
+    private static final int MAX_Z = 12_000;
+    private static final int DRAWS = 64;
+
+    private static void assertInBounds(CandidateSampler.Candidate candidate) {
+        assertTrue(CandidateSampler.inBounds(candidate.chunkX(), MAX_X)
+                && CandidateSampler.inBounds(candidate.chunkZ(), MAX_Z), candidate.toString());
+    }
+
+    @Test
+    void rejectedDrawsFromOutOfBoundsRegionsStayInBounds() {
+        // Seules régions générées: bien au-delà des limites (ancien monde, /tp manuel)
+        long[] generated = {RegionFiles.pack(400, 400), RegionFiles.pack(-400, 0)};
+        Random random = new Random(1);
+
+        for (int i = 0; i < 1000; i++) {
+            CandidateSampler.Candidate candidate = CandidateSampler.draw(random, generated, MAX_X, MAX_Z, DRAWS,
+                    (chunkX, chunkZ) -> false);
+
+            assertEquals(DRAWS, candidate.draws());
+            assertInBounds(candidate);
+        }
+    }
+
+    @Test
+    void outOfBoundsRegionFallsBackToUniformDraw() {
+        long[] generated = {RegionFiles.pack(400, 400)};
+        Random random = new Random(2);
+
+        for (int i = 0; i < 1000; i++) {
+            CandidateSampler.Candidate candidate = CandidateSampler.draw(random, generated, MAX_X, MAX_Z, DRAWS,
+                    (chunkX, chunkZ) -> true);
+
+            assertEquals(1, candidate.draws());
+            assertInBounds(candidate);
+        }
+    }
+
+    @Test
+    void generatedRegionsAreUsedWhenInBounds() {
+        long[] generated = {RegionFiles.pack(3, -2)};
+        Random random = new Random(3);
+
+        for (int i = 0; i < 1000; i++) {
+            CandidateSampler.Candidate candidate = CandidateSampler.draw(random, generated, MAX_X, MAX_Z, DRAWS,
+                    (chunkX, chunkZ) -> true);
+
+            assertEquals(3, candidate.chunkX() >> RegionFiles.CHUNK_SHIFT);
+            assertEquals(-2, candidate.chunkZ() >> RegionFiles.CHUNK_SHIFT);
+        }
+    }
+
+    @Test
+    void uniformDrawCoversTheWholeRangeInBounds() {
+        Random random = new Random(4);
+        int minX = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+
+        for (int i = 0; i < 20_000; i++) {
+            CandidateSampler.Candidate candidate = CandidateSampler.draw(random, null, MAX_X, MAX_Z, DRAWS,
+                    (chunkX, chunkZ) -> true);
+
+            assertInBounds(candidate);
+            minX = Math.min(minX, candidate.chunkX());
+            maxX = Math.max(maxX, candidate.chunkX());
+        }
+
+        // Les tirages atteignent les deux bords
+        assertTrue(minX < (-MAX_X >> 4) + 10, "min " + minX);
+        assertTrue(maxX > (MAX_X >> 4) - 10, "max " + maxX);
+    }
+
+    @Test
+    void filterRejectionsAreCounted() {
+        Random random = new Random(5);
+        int[] calls = {0};
+
+        CandidateSampler.Candidate candidate = CandidateSampler.draw(random, null, MAX_X, MAX_Z, DRAWS,
+                (chunkX, chunkZ) -> ++calls[0] == 5);
+
+        assertEquals(5, candidate.draws());
+    }
+}
@@ -0,0 +1,144 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.tpr;
+
+import fr.tannoxx.ubuplugin.common.database.DatabaseManager;
+import fr.tannoxx.ubuplugin.modules.earthtools.EarthToolsModule;
+import fr.tannoxx.ubuplugin.modules.earthtools.data.TprLocationRepository;
+import fr.tannoxx.ubuplugin.modules.earthtools.tpr.LocationReserve.PooledLocation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LocationReserveTest {
+
+    // Essai suivant exécuté immédiatement (le tick suivant, sur le serveur)
+    private static final Executor DIRECT = Runnable::run;
+
+    private static PooledLocation at(String world, int x, int z, long createdAt) {
+        return new PooledLocation(world, x, 64, z, createdAt);
+    }
+
+    /**
+     * Revérification: valide sauf les coordonnées x listées
+     */
+    private static Function<PooledLocation, CompletableFuture<String>> validExcept(Set<Integer> staleX) {
+        return entry -> CompletableFuture.completedFuture(
+                staleX.contains(entry.x()) ? null : entry.world() + ":" + entry.x());
+    }
+
+    @Test
+    void pollServesOldestFirstPerWorld() {
+        LocationReserve reserve = new LocationReserve();
+        reserve.add(at("world", 1, 1, 10));
+        reserve.add(at("world_nether", 2, 2, 20));
+        reserve.add(at("world", 3, 3, 30));
+
+        List<PooledLocation> taken = new ArrayList<>();
+        assertEquals("world:1", reserve.poll("world", validExcept(Set.of()), taken::add, DIRECT).join());
+        assertEquals("world:3", reserve.poll("world", validExcept(Set.of()), taken::add, DIRECT).join());
+        assertNull(reserve.poll("world", validExcept(Set.of()), taken::add, DIRECT).join());
+
+        assertEquals(List.of(at("world", 1, 1, 10), at("world", 3, 3, 30)), taken);
+        assertEquals(1, reserve.size("world_nether"));
+        assertEquals(1, reserve.available());
+        assertEquals(2, reserve.hits());
+        assertEquals(1, reserve.misses());
+    }
+
+    @Test
+    void staleEntriesAreEvictedUntilAValidOne() {
+        LocationReserve reserve = new LocationReserve();
+        for (int x = 1; x <= 4; x++) {
+            reserve.add(at("world", x, 0, x));
+        }
+
+        List<PooledLocation> taken = new ArrayList<>();
+        String result = reserve.poll("world", validExcept(Set.of(1, 2)), taken::add, DIRECT).join();
+
+        // Les deux périmés sont retirés (et supprimés en base), le troisième est servi
+        assertEquals("world:3", result);
+        assertEquals(3, taken.size());
+        assertEquals(2, reserve.stale());
+        assertEquals(1, reserve.hits());
+        assertEquals(1, reserve.size("world"));
+
+        // Revérification en erreur: traitée comme un emplacement périmé
+        CompletableFuture<String> failed = reserve.poll("world",
+                entry -> CompletableFuture.failedFuture(new IllegalStateException("chunk illisible")),
+                taken::add, DIRECT);
+        assertNull(failed.join());
+        assertEquals(3, reserve.stale());
+        assertEquals(0, reserve.size("world"));
+    }
+
+    @Test
+    void rejectedRetryGivesUp() {
+        LocationReserve reserve = new LocationReserve();
+        reserve.add(at("world", 1, 0, 1));
+        reserve.add(at("world", 2, 0, 2));
+
+        Executor disabled = task -> {
+            throw new RejectedExecutionException("plugin désactivé");
+        };
+
+        assertNull(reserve.poll("world", validExcept(Set.of(1)), entry -> {
+        }, disabled).join());
+        // Le suivant reste en réserve pour le prochain démarrage
+        assertEquals(1, reserve.size("world"));
+    }
+
+    @Test
+    void persistAndRestoreRoundTrip(@TempDir Path folder) throws SQLException {
+        String url = "jdbc:sqlite:" + folder.resolve("tpr.db");
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement()) {
+            // Même schéma que DatabaseManager
+            stmt.execute("""
+                    CREATE TABLE tpr_locations (
+                        world TEXT NOT NULL, x INTEGER NOT NULL, y INTEGER NOT NULL, z INTEGER NOT NULL,
+                        created_at INTEGER NOT NULL, PRIMARY KEY (world, x, z))
+                    """);
+        }
+
+        DatabaseManager database = mock(DatabaseManager.class);
+        when(database.getConnection()).thenAnswer(invocation -> DriverManager.getConnection(url));
+        EarthToolsModule module = mock(EarthToolsModule.class);
+        when(module.getDatabaseManager()).thenReturn(database);
+        TprLocationRepository repository = new TprLocationRepository(module);
+
+        // Premier démarrage: remplissage puis un /tpr
+        LocationReserve reserve = new LocationReserve();
+        for (PooledLocation location : List.of(at("world", 30, -3, 300), at("world", 10, -1, 100),
+                at("world_nether", 20, -2, 200))) {
+            reserve.add(location);
+            repository.insert(location);
+        }
+        assertEquals("world:30", reserve.poll("world", validExcept(Set.of()), repository::delete, DIRECT).join());
+
+        // Redémarrage: même contenu, relu dans l'ordre de création
+        LocationReserve restored = new LocationReserve();
+        restored.restore(repository.loadAll());
+
+        assertEquals(2, restored.available());
+        assertEquals(1, restored.size("world"));
+        assertEquals(1, restored.size("world_nether"));
+        assertEquals(List.of(at("world", 10, -1, 100), at("world_nether", 20, -2, 200)), repository.loadAll());
+        assertEquals("world:10", restored.poll("world", validExcept(Set.of()), repository::delete, DIRECT).join());
+    }
+}
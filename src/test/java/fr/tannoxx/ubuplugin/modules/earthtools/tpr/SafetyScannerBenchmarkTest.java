@@ -0,0 +1,361 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.tpr;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.tpr.SafetyScannerTest.ArrayBlocks;
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Vérifications /tpr: anciennes (comparaisons par nom, balayage 11×7×11 des spawners)
+ * contre {@link SafetyScanner} (table de drapeaux, positions des tile entities)
+ * <p>
+ * - mêmes résultats sur des chunks synthétiques (Overworld et Nether)
+ * - coût par colonne évaluée, hors du thread principal
+ */
+class SafetyScannerBenchmarkTest {
+
+    private static final int MIN_Y = 0;
+    private static final int MAX_Y = 128;
+    private static final int MARGIN = 5;
+    private static final int CHUNKS = 64;
+    private static final int ROUNDS = 20;
+
+    private record Chunk(ArrayBlocks blocks, int[] tiles, boolean nether) {
+    }
+
+    /**
+     * Ancienne implémentation (SafeLocationFinder avant SafetyScanner), portée sur BlockSource
+     */
+    private static final class OldChecks {
+
+        @Nullable
+        static Integer findOverworldY(@NotNull SafetyScanner.BlockSource snapshot, int x, int z, int minY, int maxY) {
+            int highestY = snapshot.getHighestBlockYAt(x, z);
+
+            if (highestY < minY + 1 || highestY >= maxY - 2) {
+                return null;
+            }
+
+            int groundY = highestY;
+            while (groundY > minY && isAir(snapshot.getBlockType(x, groundY, z))) {
+                groundY--;
+            }
+
+            int spawnY = groundY + 1;
+
+            Material ground = snapshot.getBlockType(x, groundY, z);
+            Material blockAtFeet = snapshot.getBlockType(x, spawnY, z);
+            Material blockAtHead = snapshot.getBlockType(x, spawnY + 1, z);
+
+            if (isUnsafeGroundBlock(ground)) {
+                return null;
+            }
+
+            if (!isAir(blockAtFeet) || !isAir(blockAtHead)) {
+                return null;
+            }
+
+            if (hasLiquidNearby(snapshot, x, spawnY, z)) {
+                return null;
+            }
+
+            if (containsNearby(snapshot, x, spawnY, z, minY, maxY, Material.SPAWNER, Material.END_PORTAL_FRAME)) {
+                return null;
+            }
+
+            return spawnY;
+        }
+
+        @Nullable
+        static Integer findNetherY(@NotNull SafetyScanner.BlockSource snapshot, int x, int z, int minY, int maxY) {
+            for (int y = Math.max(32, minY + 1); y < Math.min(120, maxY - 2); y++) {
+                Material ground = snapshot.getBlockType(x, y - 1, z);
+                Material blockAtFeet = snapshot.getBlockType(x, y, z);
+                Material blockAtHead = snapshot.getBlockType(x, y + 1, z);
+                Material blockAbove = snapshot.getBlockType(x, y + 2, z);
+
+                if (!SafetyScannerTest.IS_SOLID.test(ground) || isUnsafeNetherBlock(ground)) {
+                    continue;
+                }
+
+                if (!isAir(blockAtFeet) || !isAir(blockAtHead)) {
+                    continue;
+                }
+
+                if (blockAbove == Material.LAVA) {
+                    continue;
+                }
+
+                if (hasLavaNearby(snapshot, x, y, z, minY, maxY)) {
+                    continue;
+                }
+
+                if (containsNearby(snapshot, x, y, z, minY, maxY, Material.SPAWNER, Material.SPAWNER)) {
+                    continue;
+                }
+
+                return y;
+            }
+
+            return null;
+        }
+
+        private static boolean isAir(Material material) {
+            return material == Material.AIR || material == Material.CAVE_AIR || material == Material.VOID_AIR;
+        }
+
+        private static boolean isUnsafeGroundBlock(Material material) {
+            return material == Material.WATER ||
+                    material == Material.LAVA ||
+                    material == Material.AIR ||
+                    material == Material.BEDROCK ||
+                    material.name().contains("KELP") ||
+                    material.name().contains("LEAVES") ||
+                    material.name().contains("ICE") ||
+                    material.name().contains("SNOW") ||
+                    material == Material.CACTUS ||
+                    material == Material.MAGMA_BLOCK ||
+                    material == Material.SWEET_BERRY_BUSH ||
+                    material == Material.FIRE ||
+                    material == Material.SOUL_FIRE ||
+                    material == Material.POWDER_SNOW ||
+                    material == Material.SLIME_BLOCK ||
+                    material == Material.HONEY_BLOCK;
+        }
+
+        private static boolean isUnsafeNetherBlock(Material material) {
+            return material == Material.LAVA ||
+                    material == Material.BEDROCK ||
+                    material == Material.MAGMA_BLOCK ||
+                    material == Material.FIRE ||
+                    material == Material.SOUL_FIRE ||
+                    material == Material.SOUL_SAND ||
+                    material == Material.NETHER_WART_BLOCK;
+        }
+
+        private static boolean hasLavaNearby(SafetyScanner.BlockSource snapshot, int x, int y, int z, int minY, int maxY) {
+            for (int dx = -2; dx <= 2; dx++) {
+                for (int dy = Math.max(-1, minY - y); dy <= 2 && y + dy < maxY; dy++) {
+                    for (int dz = -2; dz <= 2; dz++) {
+                        if (snapshot.getBlockType(x + dx, y + dy, z + dz) == Material.LAVA) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean hasLiquidNearby(SafetyScanner.BlockSource snapshot, int x, int y, int z) {
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    Material block = snapshot.getBlockType(x + dx, y, z + dz);
+                    if (block == Material.LAVA || block == Material.WATER) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean containsNearby(SafetyScanner.BlockSource snapshot, int x, int y, int z, int minY, int maxY,
+                                              Material first, Material second) {
+            for (int dx = -MARGIN; dx <= MARGIN; dx++) {
+                for (int dy = Math.max(-3, minY - y); dy <= 3 && y + dy < maxY; dy++) {
+                    for (int dz = -MARGIN; dz <= MARGIN; dz++) {
+                        Material block = snapshot.getBlockType(x + dx, y + dy, z + dz);
+                        if (block == first || block == second) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                    CHUNKS SYNTHÉTIQUES
+    // ═══════════════════════════════════════════════════════════
+
+    private static final Material[] SURFACES = {
+            Material.GRASS_BLOCK, Material.GRASS_BLOCK, Material.GRASS_BLOCK, Material.SAND,
+            Material.WATER, Material.OAK_LEAVES, Material.ICE, Material.SNOW_BLOCK, Material.GRAVEL
+    };
+
+    private static Chunk overworld(Random random) {
+        ArrayBlocks blocks = new ArrayBlocks(MIN_Y, MAX_Y);
+        List<Integer> tiles = new ArrayList<>();
+
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                int height = 60 + random.nextInt(5);
+                for (int y = MIN_Y; y < height; y++) {
+                    blocks.set(x, y, z, Material.STONE);
+                }
+                blocks.set(x, height, z, SURFACES[random.nextInt(SURFACES.length)]);
+                if (random.nextInt(40) == 0) {
+                    blocks.set(x, height + 1, z, Material.WATER);
+                }
+            }
+        }
+
+        // Donjon enterré ou en surface
+        if (random.nextInt(3) == 0) {
+            int x = random.nextInt(16), y = 58 + random.nextInt(8), z = random.nextInt(16);
+            blocks.set(x, y, z, Material.SPAWNER);
+            tiles.addAll(List.of(x, y, z));
+        }
+
+        // Cadre de portail de l'End isolé (spawner de la salle cassé)
+        if (random.nextInt(4) == 0) {
+            blocks.set(random.nextInt(16), 56 + random.nextInt(10), random.nextInt(16), Material.END_PORTAL_FRAME);
+        }
+
+        return new Chunk(blocks, tiles.stream().mapToInt(Integer::intValue).toArray(), false);
+    }
+
+    private static Chunk nether(Random random) {
+        ArrayBlocks blocks = new ArrayBlocks(MIN_Y, MAX_Y);
+        List<Integer> tiles = new ArrayList<>();
+
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                int floor = 30 + random.nextInt(20);
+                int ceiling = 90 + random.nextInt(20);
+                for (int y = MIN_Y; y < MAX_Y; y++) {
+                    if (y <= floor || y >= ceiling) {
+                        blocks.set(x, y, z, Material.NETHERRACK);
+                    }
+                }
+                if (random.nextInt(12) == 0) {
+                    blocks.set(x, floor, z, random.nextBoolean() ? Material.LAVA : Material.SOUL_SAND);
+                }
+                if (random.nextInt(30) == 0) {
+                    blocks.set(x, floor + 20 + random.nextInt(20), z, Material.NETHERRACK);
+                }
+            }
+        }
+
+        // Forteresse
+        if (random.nextInt(4) == 0) {
+            int x = random.nextInt(16), y = 40 + random.nextInt(20), z = random.nextInt(16);
+            blocks.set(x, y, z, Material.SPAWNER);
+            tiles.addAll(List.of(x, y, z));
+        }
+
+        return new Chunk(blocks, tiles.stream().mapToInt(Integer::intValue).toArray(), true);
+    }
+
+    private static Chunk[] chunks(long seed) {
+        Random random = new Random(seed);
+        Chunk[] chunks = new Chunk[CHUNKS];
+        for (int i = 0; i < CHUNKS; i++) {
+            chunks[i] = i % 2 == 0 ? overworld(random) : nether(random);
+        }
+        return chunks;
+    }
+
+    private static Integer oldY(Chunk chunk, int x, int z) {
+        return chunk.nether()
+                ? OldChecks.findNetherY(chunk.blocks(), x, z, MIN_Y, MAX_Y)
+                : OldChecks.findOverworldY(chunk.blocks(), x, z, MIN_Y, MAX_Y);
+    }
+
+    private static Integer newY(SafetyScanner scanner, Chunk chunk, int x, int z) {
+        return chunk.nether()
+                ? scanner.findNetherY(chunk.blocks(), x, z, chunk.tiles())
+                : scanner.findOverworldY(chunk.blocks(), x, z, chunk.tiles());
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                          TESTS
+    // ═══════════════════════════════════════════════════════════
+
+    @Test
+    void sameResultsAsOldChecks() {
+        SafetyScanner scanner = new SafetyScanner(MIN_Y, MAX_Y, SafetyScannerTest.IS_SOLID);
+        int safe = 0;
+        int rejected = 0;
+
+        for (Chunk chunk : chunks(3)) {
+            for (int x = MARGIN; x < 16 - MARGIN; x++) {
+                for (int z = MARGIN; z < 16 - MARGIN; z++) {
+                    Integer expected = oldY(chunk, x, z);
+                    assertEquals(expected, newY(scanner, chunk, x, z),
+                            "colonne " + x + "," + z + (chunk.nether() ? " (Nether)" : "")
+                                    + " tiles=" + Arrays.toString(chunk.tiles()));
+                    if (expected != null) safe++; else rejected++;
+                }
+            }
+        }
+
+        // Le jeu de données couvre les deux issues
+        assertTrue(safe > 0 && rejected > 0, safe + " sûres, " + rejected + " rejetées");
+    }
+
+    @Test
+    void fasterThanOldChecks() {
+        SafetyScanner scanner = new SafetyScanner(MIN_Y, MAX_Y, SafetyScannerTest.IS_SOLID);
+        Chunk[] chunks = chunks(5);
+        int columns = CHUNKS * (16 - 2 * MARGIN) * (16 - 2 * MARGIN);
+
+        long checksum = 0;
+        for (int round = 0; round < ROUNDS / 2; round++) {
+            checksum += runOld(chunks) + runNew(scanner, chunks);
+        }
+
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            checksum += runOld(chunks);
+        }
+        double oldMicros = (System.nanoTime() - start) / 1000.0 / ROUNDS / columns;
+
+        start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            checksum += runNew(scanner, chunks);
+        }
+        double newMicros = (System.nanoTime() - start) / 1000.0 / ROUNDS / columns;
+
+        System.out.printf("TPR: %.2f µs par colonne avant, %.2f µs après (%d colonnes)%n",
+                oldMicros, newMicros, columns);
+
+        assertTrue(checksum != 0);
+        assertTrue(newMicros < oldMicros, "plus lent qu'avant: " + newMicros + " µs contre " + oldMicros + " µs");
+        assertTrue(newMicros < 20, "budget dépassé: " + newMicros + " µs par colonne");
+    }
+
+    private static long runOld(Chunk[] chunks) {
+        long sum = 0;
+        for (Chunk chunk : chunks) {
+            for (int x = MARGIN; x < 16 - MARGIN; x++) {
+                for (int z = MARGIN; z < 16 - MARGIN; z++) {
+                    sum += Objects.requireNonNullElse(oldY(chunk, x, z), -1);
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static long runNew(SafetyScanner scanner, Chunk[] chunks) {
+        long sum = 0;
+        for (Chunk chunk : chunks) {
+            for (int x = MARGIN; x < 16 - MARGIN; x++) {
+                for (int z = MARGIN; z < 16 - MARGIN; z++) {
+                    sum += Objects.requireNonNullElse(newY(scanner, chunk, x, z), -1);
+                }
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,252 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.tpr;
+
+import org.bukkit.Material;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SafetyScannerTest {
+
+    private static final int MIN_Y = 0;
+    private static final int MAX_Y = 128;
+    private static final int[] NO_TILES = new int[0];
+
+    // Colonne testée: centre du chunk, comme SafeLocationFinder
+    private static final int X = 8;
+    private static final int Z = 8;
+
+    /**
+     * Solidité des matériaux utilisés dans les tests (Material#isSolid demande un serveur)
+     */
+    static final Set<Material> SOLID = EnumSet.of(
+            Material.STONE, Material.DIRT, Material.GRASS_BLOCK, Material.SAND, Material.GRAVEL,
+            Material.NETHERRACK, Material.BEDROCK, Material.OAK_LEAVES, Material.ICE, Material.SNOW_BLOCK,
+            Material.CACTUS, Material.MAGMA_BLOCK, Material.SLIME_BLOCK, Material.HONEY_BLOCK,
+            Material.SOUL_SAND, Material.NETHER_WART_BLOCK, Material.SPAWNER, Material.END_PORTAL_FRAME);
+
+    static final Predicate<Material> IS_SOLID = SOLID::contains;
+
+    /**
+     * Chunk en mémoire: un Material par bloc, air par défaut
+     */
+    static final class ArrayBlocks implements SafetyScanner.BlockSource {
+
+        private final int minY;
+        private final int height;
+        private final Material[] blocks;
+
+        ArrayBlocks(int minY, int maxY) {
+            this.minY = minY;
+            this.height = maxY - minY;
+            this.blocks = new Material[16 * 16 * height];
+            Arrays.fill(blocks, Material.AIR);
+        }
+
+        private int index(int x, int y, int z) {
+            return ((y - minY) * 16 + z) * 16 + x;
+        }
+
+        ArrayBlocks set(int x, int y, int z, @NotNull Material material) {
+            blocks[index(x, y, z)] = material;
+            return this;
+        }
+
+        /**
+         * Remplit toutes les colonnes entre deux hauteurs (incluses)
+         */
+        ArrayBlocks layer(int fromY, int toY, @NotNull Material material) {
+            for (int y = fromY; y <= toY; y++) {
+                for (int x = 0; x < 16; x++) {
+                    for (int z = 0; z < 16; z++) {
+                        set(x, y, z, material);
+                    }
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public @NotNull Material getBlockType(int x, int y, int z) {
+            return y < minY || y >= minY + height ? Material.AIR : blocks[index(x, y, z)];
+        }
+
+        @Override
+        public int getHighestBlockYAt(int x, int z) {
+            for (int y = minY + height - 1; y > minY; y--) {
+                if (blocks[index(x, y, z)] != Material.AIR) {
+                    return y;
+                }
+            }
+            return minY;
+        }
+    }
+
+    private static SafetyScanner scanner() {
+        return new SafetyScanner(MIN_Y, MAX_Y, IS_SOLID);
+    }
+
+    /**
+     * Plaine: pierre jusqu'à 59, herbe en 60
+     */
+    private static ArrayBlocks plain() {
+        return new ArrayBlocks(MIN_Y, MAX_Y)
+                .layer(MIN_Y, 59, Material.STONE)
+                .layer(60, 60, Material.GRASS_BLOCK);
+    }
+
+    /**
+     * Nether: netherrack jusqu'à 40, plafond plein à partir de 100
+     */
+    private static ArrayBlocks nether() {
+        return new ArrayBlocks(MIN_Y, MAX_Y)
+                .layer(MIN_Y, 40, Material.NETHERRACK)
+                .layer(100, MAX_Y - 1, Material.NETHERRACK);
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                       OVERWORLD
+    // ═══════════════════════════════════════════════════════════
+
+    @Test
+    void flatGroundIsSafe() {
+        assertEquals(61, scanner().findOverworldY(plain(), X, Z, NO_TILES));
+    }
+
+    @Test
+    void waterSurfaceIsRejected() {
+        ArrayBlocks blocks = plain().layer(60, 62, Material.WATER);
+
+        assertNull(scanner().findOverworldY(blocks, X, Z, NO_TILES));
+    }
+
+    @Test
+    void waterNextToFeetIsRejected() {
+        ArrayBlocks blocks = plain().set(X + 1, 61, Z + 1, Material.WATER);
+
+        assertNull(scanner().findOverworldY(blocks, X, Z, NO_TILES));
+    }
+
+    @Test
+    void lavaNextToFeetIsRejected() {
+        ArrayBlocks blocks = plain().set(X - 1, 61, Z, Material.LAVA);
+
+        assertNull(scanner().findOverworldY(blocks, X, Z, NO_TILES));
+    }
+
+    @Test
+    void liquidTwoBlocksAwayIsAccepted() {
+        ArrayBlocks blocks = plain().set(X + 2, 61, Z, Material.WATER);
+
+        assertEquals(61, scanner().findOverworldY(blocks, X, Z, NO_TILES));
+    }
+
+    @Test
+    void treeTopIsRejected() {
+        ArrayBlocks blocks = plain()
+                .set(X, 61, Z, Material.STONE)
+                .set(X, 62, Z, Material.OAK_LEAVES);
+
+        assertNull(scanner().findOverworldY(blocks, X, Z, NO_TILES));
+    }
+
+    @Test
+    void unsafeGroundIsRejected() {
+        for (Material ground : new Material[]{Material.ICE, Material.MAGMA_BLOCK, Material.CACTUS, Material.BEDROCK}) {
+            ArrayBlocks blocks = plain().set(X, 60, Z, ground);
+
+            assertNull(scanner().findOverworldY(blocks, X, Z, NO_TILES), ground.name());
+        }
+    }
+
+    @Test
+    void worldTopIsRejected() {
+        ArrayBlocks blocks = plain().set(X, MAX_Y - 2, Z, Material.STONE);
+
+        assertNull(scanner().findOverworldY(blocks, X, Z, NO_TILES));
+    }
+
+    @Test
+    void spawnerWithinFiveBlocksIsRejected() {
+        int[] near = {X + 5, 61, Z - 5};
+        int[] far = {X + 6, 61, Z};
+        int[] above = {X, 65, Z};
+
+        assertNull(scanner().findOverworldY(plain(), X, Z, near));
+        assertEquals(61, scanner().findOverworldY(plain(), X, Z, far));
+        assertEquals(61, scanner().findOverworldY(plain(), X, Z, above));
+    }
+
+    @Test
+    void endPortalFramesWithoutSpawnerAreRejected() {
+        // Salle de portail dont le spawner a été cassé: aucune tile entity
+        ArrayBlocks room = plain();
+        for (int dx = -1; dx <= 1; dx++) {
+            room.set(X + 3 + dx, 61, Z - 2, Material.END_PORTAL_FRAME)
+                    .set(X + 3 + dx, 61, Z + 2, Material.END_PORTAL_FRAME);
+        }
+        assertNull(scanner().findOverworldY(room, X, Z, NO_TILES));
+
+        // Même zone que les spawners: 5 blocs à l'horizontale, 3 en hauteur
+        assertNull(scanner().findOverworldY(plain().set(X - 5, 58, Z + 5, Material.END_PORTAL_FRAME), X, Z, NO_TILES));
+        assertEquals(61, scanner().findOverworldY(plain().set(X + 6, 61, Z, Material.END_PORTAL_FRAME), X, Z, NO_TILES));
+        assertEquals(61, scanner().findOverworldY(plain().set(X, 57, Z + 5, Material.END_PORTAL_FRAME), X, Z, NO_TILES));
+        assertEquals(61, scanner().findOverworldY(plain().set(X + 1, 65, Z, Material.END_PORTAL_FRAME), X, Z, NO_TILES));
+    }
+
+    @Test
+    void dangerousTiles() {
+        assertTrue(SafetyScanner.isDangerousTile(Material.SPAWNER));
+        assertTrue(SafetyScanner.isDangerousTile(Material.TRIAL_SPAWNER));
+        assertTrue(SafetyScanner.isDangerousTile(Material.END_PORTAL));
+        assertFalse(SafetyScanner.isDangerousTile(Material.STONE));
+    }
+
+    // ═══════════════════════════════════════════════════════════
+    //                         NETHER
+    // ═══════════════════════════════════════════════════════════
+
+    @Test
+    void netherFloorIsSafe() {
+        assertEquals(41, scanner().findNetherY(nether(), X, Z, NO_TILES));
+    }
+
+    @Test
+    void netherLavaNearbyIsRejected() {
+        // Lac de lave sur le sol: aucune autre hauteur sûre dans la colonne
+        ArrayBlocks blocks = nether().set(X + 2, 40, Z - 2, Material.LAVA);
+
+        assertNull(scanner().findNetherY(blocks, X, Z, NO_TILES));
+    }
+
+    @Test
+    void netherLavaAboveHeadIsRejected() {
+        ArrayBlocks blocks = nether().set(X, 43, Z, Material.LAVA);
+
+        assertNull(scanner().findNetherY(blocks, X, Z, NO_TILES));
+    }
+
+    @Test
+    void netherSkipsUnsafeGroundAndFindsLedge() {
+        // Sol de magma, corniche de netherrack plus haut
+        ArrayBlocks blocks = nether().set(X, 40, Z, Material.MAGMA_BLOCK)
+                .set(X, 60, Z, Material.NETHERRACK);
+
+        assertEquals(61, scanner().findNetherY(blocks, X, Z, NO_TILES));
+    }
+
+    @Test
+    void netherSpawnerIsRejected() {
+        int[] fortress = {X - 3, 42, Z + 4};
+
+        assertNull(scanner().findNetherY(nether(), X, Z, fortress));
+    }
+}
@@ -0,0 +1,187 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.tpr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TprAttemptsTest {
+
+    // Limites /tpr de la carte Earth (blocs)
+    private static final int MAX_X = 24_000;
+    private static final int MAX_Z = 12_000;
+
+    private static Supplier<CandidateSampler.Candidate> sampler(Random random) {
+        return () -> CandidateSampler.draw(random, null, MAX_X, MAX_Z, 64, (chunkX, chunkZ) -> true);
+    }
+
+    /**
+     * Évaluation qui échoue pour les n premières colonnes, puis renvoie "chunkX,chunkZ"
+     */
+    private static TprAttempts.Evaluator<String> failing(int failures, List<int[]> evaluated) {
+        return (chunkX, chunkZ, localX, localZ, callback) -> {
+            evaluated.add(new int[]{chunkX, chunkZ, localX, localZ});
+            callback.accept(evaluated.size() > failures ? chunkX + "," + chunkZ : null);
+        };
+    }
+
+    @Test
+    void retriesUntilTheFirstSafeColumn() {
+        List<int[]> evaluated = new ArrayList<>();
+        AtomicInteger retries = new AtomicInteger();
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        TprAttempts.run(10, () -> true, sampler(new Random(1)), failing(2, evaluated),
+                task -> {
+                    retries.incrementAndGet();
+                    task.run();
+                }, new Random(2), result);
+
+        int[] last = evaluated.get(2);
+        assertEquals(last[0] + "," + last[1], result.join());
+        assertEquals(3, evaluated.size());
+        assertEquals(2, retries.get());
+
+        // Candidats dans les limites, colonnes au centre du chunk
+        for (int[] column : evaluated) {
+            assertTrue(CandidateSampler.inBounds(column[0], MAX_X) && CandidateSampler.inBounds(column[1], MAX_Z));
+            assertTrue(column[2] >= TprAttempts.MARGIN && column[2] < 16 - TprAttempts.MARGIN);
+            assertTrue(column[3] >= TprAttempts.MARGIN && column[3] < 16 - TprAttempts.MARGIN);
+        }
+    }
+
+    @Test
+    void attemptsAreLimited() {
+        List<int[]> evaluated = new ArrayList<>();
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        TprAttempts.run(4, () -> true, sampler(new Random(3)), failing(Integer.MAX_VALUE, evaluated),
+                Runnable::run, new Random(4), result);
+
+        assertNull(result.join());
+        assertEquals(4, evaluated.size());
+    }
+
+    @Test
+    void discardedCandidatesUseAnAttemptWithoutLoading() {
+        // Deux chunks revendiqués, puis un chunk libre
+        AtomicInteger drawn = new AtomicInteger();
+        Supplier<CandidateSampler.Candidate> draw = () -> drawn.incrementAndGet() <= 2
+                ? null : new CandidateSampler.Candidate(7, -3, 1);
+
+        List<int[]> evaluated = new ArrayList<>();
+        AtomicInteger retries = new AtomicInteger();
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        TprAttempts.run(3, () -> true, draw, failing(0, evaluated),
+                task -> {
+                    retries.incrementAndGet();
+                    task.run();
+                }, new Random(5), result);
+
+        assertEquals("7,-3", result.join());
+        assertEquals(1, evaluated.size());
+        assertEquals(0, retries.get());
+
+        // Que des claims: aucune tentative ne charge de chunk
+        evaluated.clear();
+        CompletableFuture<String> claimed = new CompletableFuture<>();
+        TprAttempts.run(3, () -> true, () -> null, failing(0, evaluated), Runnable::run, new Random(6), claimed);
+        assertNull(claimed.join());
+        assertTrue(evaluated.isEmpty());
+    }
+
+    @Test
+    void stopsWhenNoLongerActive() {
+        AtomicBoolean active = new AtomicBoolean(true);
+        List<int[]> evaluated = new ArrayList<>();
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        // Monde déchargé pendant la première évaluation
+        TprAttempts.Evaluator<String> evaluator = (chunkX, chunkZ, localX, localZ, callback) -> {
+            evaluated.add(new int[]{chunkX, chunkZ});
+            active.set(false);
+            callback.accept(null);
+        };
+
+        TprAttempts.run(10, active::get, sampler(new Random(7)), evaluator, Runnable::run, new Random(8), result);
+
+        assertNull(result.join());
+        assertEquals(1, evaluated.size());
+    }
+
+    @Test
+    void rejectedRetryGivesUp() {
+        List<int[]> evaluated = new ArrayList<>();
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        TprAttempts.run(10, () -> true, sampler(new Random(9)), failing(Integer.MAX_VALUE, evaluated),
+                task -> {
+                    throw new RejectedExecutionException("plugin désactivé");
+                }, new Random(10), result);
+
+        assertNull(result.join());
+        assertEquals(1, evaluated.size());
+    }
+
+    @Test
+    void asyncEvaluationRetriesOnTheMainThread() throws Exception {
+        // Thread principal simulé + évaluations sur un autre pool, comme SafeLocationFinder
+        ExecutorService main = Executors.newSingleThreadExecutor(task -> new Thread(task, "main"));
+        ExecutorService async = Executors.newFixedThreadPool(2);
+        List<String> drawThreads = new ArrayList<>();
+        Random random = new Random(11);
+
+        try {
+            Supplier<CandidateSampler.Candidate> draw = () -> {
+                drawThreads.add(Thread.currentThread().getName());
+                return sampler(random).get();
+            };
+            AtomicInteger evaluations = new AtomicInteger();
+            TprAttempts.Evaluator<String> evaluator = (chunkX, chunkZ, localX, localZ, callback) ->
+                    async.execute(() -> callback.accept(evaluations.incrementAndGet() == 5 ? "ok" : null));
+
+            CompletableFuture<String> result = new CompletableFuture<>();
+            main.execute(() -> TprAttempts.run(8, () -> true, draw, evaluator, main, random, result));
+
+            assertEquals("ok", result.get(5, TimeUnit.SECONDS));
+            assertEquals(5, evaluations.get());
+        } finally {
+            main.shutdown();
+            async.shutdown();
+            assertTrue(main.awaitTermination(5, TimeUnit.SECONDS));
+        }
+
+        // Tirages (API Towny) toujours faits depuis le thread principal
+        assertEquals(List.of("main", "main", "main", "main", "main"), drawThreads);
+    }
+
+    @Test
+    void localOffsetCoversTheCentre() {
+        Random random = new Random(12);
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+
+        for (int i = 0; i < 10_000; i++) {
+            int offset = TprAttempts.localOffset(random);
+            min = Math.min(min, offset);
+            max = Math.max(max, offset);
+        }
+
+        assertEquals(TprAttempts.MARGIN, min);
+        assertEquals(15 - TprAttempts.MARGIN, max);
+    }
+}
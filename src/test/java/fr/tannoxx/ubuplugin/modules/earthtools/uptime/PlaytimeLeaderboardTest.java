@@ -0,0 +1,128 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.uptime;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.PlaytimeLeaderboard.PlaytimeEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlaytimeLeaderboardTest {
+
+    // Même ordre que le classement: temps décroissant puis UUID
+    private static final Comparator<PlaytimeEntry> ORDER = Comparator
+            .comparingLong(PlaytimeEntry::playtime).reversed()
+            .thenComparing(PlaytimeEntry::uuid);
+
+    private static PlaytimeEntry entry(UUID uuid, long playtime) {
+        return new PlaytimeEntry(uuid, "joueur-" + uuid.toString().substring(0, 8), playtime);
+    }
+
+    @Test
+    void rankPageAndSize() {
+        PlaytimeLeaderboard leaderboard = new PlaytimeLeaderboard();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+
+        leaderboard.update(entry(a, 1_000));
+        leaderboard.update(entry(b, 5_000));
+        leaderboard.update(entry(c, 3_000));
+
+        assertEquals(3, leaderboard.size());
+        assertEquals(1, leaderboard.rank(b));
+        assertEquals(2, leaderboard.rank(c));
+        assertEquals(3, leaderboard.rank(a));
+        assertEquals(-1, leaderboard.rank(UUID.randomUUID()));
+
+        assertEquals(List.of(entry(b, 5_000), entry(c, 3_000)), leaderboard.page(0, 2));
+        assertEquals(List.of(entry(a, 1_000)), leaderboard.page(2, 10));
+        assertTrue(leaderboard.page(3, 10).isEmpty());
+        assertTrue(leaderboard.page(-1, 10).isEmpty());
+        assertTrue(leaderboard.page(0, 0).isEmpty());
+    }
+
+    @Test
+    void updateMovesThePlayer() {
+        PlaytimeLeaderboard leaderboard = new PlaytimeLeaderboard();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+
+        leaderboard.update(entry(a, 1_000));
+        leaderboard.update(entry(b, 2_000));
+        assertEquals(2, leaderboard.rank(a));
+
+        // Réinsertion à la nouvelle position, sans doublon
+        leaderboard.update(entry(a, 9_000));
+        assertEquals(2, leaderboard.size());
+        assertEquals(1, leaderboard.rank(a));
+        assertEquals(entry(a, 9_000), leaderboard.get(a));
+        assertEquals(List.of(entry(a, 9_000), entry(b, 2_000)), leaderboard.page(0, 10));
+    }
+
+    @Test
+    void zeroPlaytimeIsNotRanked() {
+        PlaytimeLeaderboard leaderboard = new PlaytimeLeaderboard();
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+
+        leaderboard.update(entry(a, 0));
+        assertEquals(0, leaderboard.size());
+        assertNull(leaderboard.get(a));
+        assertEquals(-1, leaderboard.rank(a));
+
+        // Un joueur remis à zéro quitte le classement
+        leaderboard.update(entry(b, 4_000));
+        leaderboard.update(entry(b, 0));
+        assertEquals(0, leaderboard.size());
+        assertEquals(-1, leaderboard.rank(b));
+        assertTrue(leaderboard.page(0, 10).isEmpty());
+    }
+
+    @Test
+    void matchesSortedReference() {
+        PlaytimeLeaderboard leaderboard = new PlaytimeLeaderboard();
+        Map<UUID, PlaytimeEntry> reference = new HashMap<>();
+        Random random = new Random(46);
+
+        UUID[] players = new UUID[2_000];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+
+        for (int step = 1; step <= 200_000; step++) {
+            UUID uuid = players[random.nextInt(players.length)];
+            // Peu de valeurs distinctes: beaucoup d'égalités départagées par l'UUID
+            long playtime = random.nextInt(20) == 0 ? 0 : random.nextInt(500) * 1_000L;
+            PlaytimeEntry updated = entry(uuid, playtime);
+
+            leaderboard.update(updated);
+            if (playtime > 0) {
+                reference.put(uuid, updated);
+            } else {
+                reference.remove(uuid);
+            }
+
+            if (step % 20_000 == 0) {
+                List<PlaytimeEntry> sorted = new ArrayList<>(reference.values());
+                sorted.sort(ORDER);
+
+                assertEquals(sorted.size(), leaderboard.size());
+                assertEquals(sorted, leaderboard.page(0, sorted.size()));
+                assertEquals(sorted.subList(100, 110), leaderboard.page(100, 10));
+
+                for (int i = 0; i < sorted.size(); i += 37) {
+                    assertEquals(i + 1, leaderboard.rank(sorted.get(i).uuid()));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package fr.tannoxx.ubuplugin.modules.earthtools.uptime;
+
+import fr.tannoxx.ubuplugin.modules.earthtools.uptime.SkullProfileCache.CachedTexture;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SkullTextureStoreTest {
+
+    private static final long TTL = 72 * 3600_000L;
+    private static final long RETRY = 5 * 60_000L;
+
+    private static final SkullTextureStore.Resolver FAILING = (uuid, name) -> null;
+
+    private static SkullTextureStore.Resolver resolving(long now) {
+        return (uuid, name) -> new CachedTexture(uuid, "texture-" + name, "signature", now);
+    }
+
+    @Test
+    void unknownPlayerIsQueuedOnce() {
+        SkullTextureStore store = new SkullTextureStore(TTL, RETRY);
+        UUID uuid = UUID.randomUUID();
+
+        assertNull(store.get(uuid, "alice", 0));
+        assertNull(store.get(uuid, "alice", 1));
+        assertEquals(1, store.pendingCount());
+
+        List<CachedTexture> resolved = store.drain(10, resolving(2), 2);
+
+        assertEquals(1, resolved.size());
+        assertEquals("texture-alice", store.get(uuid, "alice", 3).value());
+        assertEquals(0, store.pendingCount());
+    }
+
+    @Test
+    void resolvedTextureLastsTheFullTtl() {
+        SkullTextureStore store = new SkullTextureStore(TTL, RETRY);
+        UUID uuid = UUID.randomUUID();
+        store.load(new CachedTexture(uuid, "texture", "signature", 1_000));
+
+        assertNotNull(store.get(uuid, "alice", 1_000 + TTL));
+        assertEquals(0, store.pendingCount());
+
+        // Expirée: toujours servie, mais remise en file
+        assertEquals("texture", store.get(uuid, "alice", 1_001 + TTL).value());
+        assertEquals(1, store.pendingCount());
+    }
+
+    @Test
+    void failureIsRetriedAfterShortDelay() {
+        SkullTextureStore store = new SkullTextureStore(TTL, RETRY);
+        UUID uuid = UUID.randomUUID();
+
+        store.get(uuid, "alice", 0);
+        assertTrue(store.drain(10, FAILING, 0).isEmpty());
+
+        // Échec mémorisé: pas de nouvelle requête pendant le délai
+        CachedTexture negative = store.get(uuid, "alice", RETRY);
+        assertNotNull(negative);
+        assertNull(negative.value());
+        assertEquals(0, store.pendingCount());
+
+        // Puis nouvel essai, bien avant la durée de vie d'une texture
+        store.get(uuid, "alice", RETRY + 1);
+        assertEquals(1, store.pendingCount());
+
+        store.drain(10, resolving(RETRY + 2), RETRY + 2);
+        assertEquals("texture-alice", store.get(uuid, "alice", RETRY + 3).value());
+    }
+
+    @Test
+    void drainIsRateLimitedAndKeepsOrder() {
+        SkullTextureStore store = new SkullTextureStore(TTL, RETRY);
+        List<UUID> players = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UUID uuid = UUID.randomUUID();
+            players.add(uuid);
+            store.get(uuid, "joueur" + i, 0);
+        }
+
+        List<UUID> order = new ArrayList<>();
+        SkullTextureStore.Resolver recording = (uuid, name) -> {
+            order.add(uuid);
+            return new CachedTexture(uuid, name, null, 0);
+        };
+
+        assertEquals(2, store.drain(2, recording, 0).size());
+        assertEquals(3, store.pendingCount());
+        assertEquals(2, store.drain(2, recording, 0).size());
+        assertEquals(1, store.drain(2, recording, 0).size());
+        assertTrue(store.drain(2, recording, 0).isEmpty());
+
+        assertEquals(players, order);
+        assertEquals(0, store.pendingCount());
+    }
+
+    @Test
+    void resolverErrorDoesNotBlockThePlayer() {
+        SkullTextureStore store = new SkullTextureStore(TTL, RETRY);
+        UUID uuid = UUID.randomUUID();
+        store.get(uuid, "alice", 0);
+
+        assertThrows(IllegalStateException.class, () -> store.drain(1, (id, name) -> {
+            throw new IllegalStateException("API indisponible");
+        }, 0));
+
+        // Retiré de la file dédoublonnée: peut être remis en file
+        assertEquals(0, store.pendingCount());
+        store.get(uuid, "alice", 1);
+        assertEquals(1, store.pendingCount());
+    }
+
+    @Test
+    void joinCaptureReplacesNegativeEntry() {
+        SkullTextureStore store = new SkullTextureStore(TTL, RETRY);
+        UUID uuid = UUID.randomUUID();
+        store.get(uuid, "alice", 0);
+        store.drain(1, FAILING, 0);
+
+        CachedTexture previous = store.put(new CachedTexture(uuid, "texture", "signature", 10));
+
+        assertNotNull(previous);
+        assertNull(previous.value());
+        assertEquals("texture", store.get(uuid, "alice", 10 + RETRY * 2).value());
+        assertEquals(0, store.pendingCount());
+
+        // Une capture plus récente n'est pas écrasée par la base
+        store.load(new CachedTexture(uuid, "ancienne", null, 0));
+        assertEquals("texture", store.get(uuid, "alice", 11).value());
+    }
+}
@@ -0,0 +1,114 @@
+package fr.tannoxx.ubuplugin.modules.webmap.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Équivalence de {@link ChunkHeatMap} avec une HashMap de référence
+ */
+class ChunkHeatMapTest {
+
+    @Test
+    void packRoundTripsNegativeCoordinates() {
+        for (int[] chunk : new int[][]{{0, 0}, {-1, -1}, {1_500, -750}, {-1_500, 750},
+                {Integer.MIN_VALUE + 1, Integer.MAX_VALUE}}) {
+            long key = ChunkHeatMap.pack(chunk[0], chunk[1]);
+            assertEquals(chunk[0], ChunkHeatMap.unpackX(key));
+            assertEquals(chunk[1], ChunkHeatMap.unpackZ(key));
+        }
+    }
+
+    @Test
+    void matchesHashMapUnderAddsAndDecays() {
+        Random random = new Random(7);
+        ChunkHeatMap heatMap = new ChunkHeatMap(16);
+        Map<Long, Float> reference = new HashMap<>();
+
+        for (int round = 0; round < 200; round++) {
+            // Joueurs regroupés (spawn, villes) et isolés: grappes de collisions et clés dispersées
+            for (int i = 0; i < 500; i++) {
+                int chunkX = random.nextBoolean() ? random.nextInt(-20, 20) : random.nextInt(-1_500, 1_500);
+                int chunkZ = random.nextBoolean() ? random.nextInt(-20, 20) : random.nextInt(-750, 750);
+                long key = ChunkHeatMap.pack(chunkX, chunkZ);
+                float amount = 1f + random.nextInt(3);
+
+                heatMap.add(key, amount);
+                reference.merge(key, amount, Float::sum);
+            }
+
+            if (round % 10 == 9) {
+                float factor = 0.2f + random.nextFloat() * 0.7f;
+                heatMap.decay(factor, 0.5f);
+                reference.replaceAll((key, value) -> value * factor);
+                reference.values().removeIf(value -> value < 0.5f);
+            }
+
+            assertSameContent(reference, heatMap);
+        }
+    }
+
+    @Test
+    void decayToNothingEmptiesTheTable() {
+        ChunkHeatMap heatMap = new ChunkHeatMap(16);
+        for (int i = 0; i < 1_000; i++) {
+            heatMap.add(ChunkHeatMap.pack(i, -i), 1f);
+        }
+
+        heatMap.decay(0.001f, 0.01f);
+
+        assertEquals(0, heatMap.size());
+        assertEquals(0f, heatMap.get(ChunkHeatMap.pack(1, -1)));
+
+        // Toujours utilisable après avoir été vidée
+        heatMap.add(ChunkHeatMap.pack(1, -1), 2f);
+        assertEquals(2f, heatMap.get(ChunkHeatMap.pack(1, -1)));
+    }
+
+    @Test
+    void sampleGroupsChunksByWorld() {
+        ChunkHeatMap.Sample sample = ChunkHeatMap.sample(4, consumer -> {
+            consumer.accept("world", 0, 0);
+            consumer.accept("world_nether", -1, -17);
+            consumer.accept("world", 15, 31);
+            consumer.accept("world", 16, -1);
+        });
+
+        assertEquals(3, sample.counts().get("world"));
+        assertEquals(1, sample.counts().get("world_nether"));
+        assertEquals(ChunkHeatMap.pack(0, 1), sample.chunks().get("world")[1]);
+        assertEquals(ChunkHeatMap.pack(-1, -2), sample.chunks().get("world_nether")[0]);
+
+        Map<String, ChunkHeatMap> heatMaps = new HashMap<>();
+        sample.addTo(heatMaps);
+        sample.addTo(heatMaps);
+
+        assertEquals(2f, heatMaps.get("world").get(ChunkHeatMap.pack(0, 1)));
+        assertEquals(2f, heatMaps.get("world").get(ChunkHeatMap.pack(1, -1)));
+        assertEquals(3, heatMaps.get("world").size());
+        assertEquals(1, heatMaps.get("world_nether").size());
+
+        assertTrue(ChunkHeatMap.sample(0, consumer -> {
+        }).isEmpty());
+    }
+
+    private static void assertSameContent(Map<Long, Float> reference, ChunkHeatMap heatMap) {
+        assertEquals(reference.size(), heatMap.size());
+
+        for (Map.Entry<Long, Float> entry : reference.entrySet()) {
+            assertEquals(entry.getValue(), heatMap.get(entry.getKey()), "clé " + entry.getKey());
+        }
+
+        int[] visited = {0};
+        heatMap.forEach((key, value) -> {
+            assertEquals(reference.get(key), value);
+            visited[0]++;
+        });
+        assertEquals(reference.size(), visited[0]);
+    }
+}
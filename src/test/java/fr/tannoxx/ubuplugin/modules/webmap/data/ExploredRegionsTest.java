@@ -0,0 +1,108 @@
+package fr.tannoxx.ubuplugin.modules.webmap.data;
+
+import fr.tannoxx.ubuplugin.common.world.RegionFiles;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExploredRegionsTest {
+
+    /**
+     * Rectangle couvrant exactement une région
+     */
+    private static BorderBounds region(int regionX, int regionZ) {
+        return new BorderBounds(regionX << 9, regionZ << 9, (regionX << 9) + 511, (regionZ << 9) + 511);
+    }
+
+    @Test
+    void distantRegionsDoNotCoverWhatLiesBetweenThem() {
+        // Un joueur à chaque bout de la carte (/tpr sur ±24k×12k)
+        ExploredRegions explored = ExploredRegions.of(new long[]{
+                RegionFiles.pack(-47, -23), RegionFiles.pack(46, 22)}, 0);
+        assertNotNull(explored);
+
+        assertTrue(explored.intersects(region(-47, -23)));
+        assertTrue(explored.intersects(region(46, 22)));
+        assertFalse(explored.intersects(region(0, 0)));
+        assertFalse(explored.intersects(new BorderBounds(-20_000, -10_000, 20_000, 10_000)));
+    }
+
+    @Test
+    void largeBoundsOverlappingOneRegionIntersect() {
+        ExploredRegions explored = ExploredRegions.of(new long[]{RegionFiles.pack(3, -2)}, 0);
+        assertNotNull(explored);
+
+        // Plus de régions couvertes que de régions explorées: parcours de la liste
+        assertTrue(explored.intersects(new BorderBounds(-24_000, -12_000, 24_000, 12_000)));
+        assertFalse(explored.intersects(new BorderBounds(-24_000, -12_000, 1_000, 12_000)));
+    }
+
+    @Test
+    void paddingExtendsEachRegion() {
+        long[] regions = {RegionFiles.pack(0, 0)};
+        BorderBounds nearby = new BorderBounds(600, 0, 700, 100);
+
+        assertFalse(ExploredRegions.of(regions, 0).intersects(nearby));
+        assertTrue(ExploredRegions.of(regions, 100).intersects(nearby));
+    }
+
+    @Test
+    void negativeCoordinatesMapToTheirRegion() {
+        ExploredRegions explored = ExploredRegions.of(new long[]{RegionFiles.pack(-1, -1)}, 0);
+        assertNotNull(explored);
+
+        assertTrue(explored.intersects(new BorderBounds(-1, -1, -1, -1)));
+        assertTrue(explored.intersects(new BorderBounds(-512, -512, -512, -512)));
+        assertFalse(explored.intersects(new BorderBounds(0, 0, 10, 10)));
+        assertFalse(explored.intersects(new BorderBounds(-513, -10, -513, -10)));
+    }
+
+    @Test
+    void noRegionMeansNoCulling() {
+        assertNull(ExploredRegions.of(new long[0], 512));
+    }
+
+    @Test
+    void equalityIgnoresOrderAndDuplicates() {
+        ExploredRegions first = ExploredRegions.of(new long[]{RegionFiles.pack(1, 2), RegionFiles.pack(-3, 4)}, 512);
+        ExploredRegions second = ExploredRegions.of(new long[]{
+                RegionFiles.pack(-3, 4), RegionFiles.pack(1, 2), RegionFiles.pack(1, 2)}, 512);
+        ExploredRegions padded = ExploredRegions.of(new long[]{RegionFiles.pack(1, 2), RegionFiles.pack(-3, 4)}, 0);
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertNotEquals(first, padded);
+    }
+
+    @Test
+    void scanMergesWorldsAndIgnoresForeignFiles(@TempDir Path folder) throws IOException {
+        File overworld = Files.createDirectories(folder.resolve("world/region")).toFile();
+        File other = Files.createDirectories(folder.resolve("world_earth/region")).toFile();
+
+        for (String name : new String[]{"r.0.0.mca", "r.-5.12.mca", "r.a.b.mca", "r.1.1.mca.tmp", "level.dat"}) {
+            Files.createFile(overworld.toPath().resolve(name));
+        }
+        Files.createFile(other.toPath().resolve("r.0.0.mca"));
+        Files.createFile(other.toPath().resolve("r.7.-3.mca"));
+
+        ExploredRegions explored = ExploredRegions.scan(List.of(overworld, other, folder.resolve("absent").toFile()), 0);
+        assertNotNull(explored);
+
+        assertEquals(3, explored.size());
+        assertTrue(explored.intersects(region(-5, 12)));
+        assertTrue(explored.intersects(region(7, -3)));
+        assertFalse(explored.intersects(region(1, 1)));
+    }
+}
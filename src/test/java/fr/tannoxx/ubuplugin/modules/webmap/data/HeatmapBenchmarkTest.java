@@ -0,0 +1,90 @@
+package fr.tannoxx.ubuplugin.modules.webmap.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Coût de la couche heatmap pour 200 joueurs
+ * <p>
+ * - échantillonnage: {@link ChunkHeatMap#sample}, appelé par HeatmapLayerProvider, sur des
+ *   positions pré-tirées à la place de Player#getLocation
+ * - agrégation ({@link ChunkHeatMap#add}) et décroissance ({@link ChunkHeatMap#decay}),
+ *   exécutées hors du thread principal
+ * <p>
+ * Budget du thread principal: moins de 0,1 ms pour le tick qui échantillonne
+ */
+class HeatmapBenchmarkTest {
+
+    private static final int PLAYERS = 200;
+    private static final int SAMPLES = 20_000;
+    private static final String[] WORLDS = {"world", "world_nether", "world_earth"};
+
+    private record Position(String world, int blockX, int blockZ) {
+    }
+
+    private static ChunkHeatMap.Sample sample(Position[] players) {
+        return ChunkHeatMap.sample(players.length, consumer -> {
+            for (Position player : players) {
+                consumer.accept(player.world(), player.blockX(), player.blockZ());
+            }
+        });
+    }
+
+    @Test
+    void samplingStaysWithinTickBudget() {
+        Random random = new Random(11);
+        Position[] players = new Position[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = new Position(WORLDS[random.nextInt(WORLDS.length)],
+                    random.nextInt(-24_000, 24_000), random.nextInt(-12_000, 12_000));
+        }
+
+        long checksum = 0;
+        for (int i = 0; i < SAMPLES / 4; i++) {
+            checksum += sample(players).chunks().size();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < SAMPLES; i++) {
+            checksum += sample(players).chunks().size();
+        }
+        double microsPerSample = (System.nanoTime() - start) / 1000.0 / SAMPLES;
+
+        System.out.printf("Heatmap: échantillonnage de %d joueurs en %.2f µs (%.3f µs/tick à 100 ticks)%n",
+                PLAYERS, microsPerSample, microsPerSample / 100);
+
+        assertTrue(checksum > 0);
+        assertTrue(microsPerSample < 100, "budget dépassé: " + microsPerSample + " µs par échantillon");
+    }
+
+    @Test
+    void aggregationAndDecayOffThread() {
+        Random random = new Random(13);
+        ChunkHeatMap heatMap = new ChunkHeatMap(256);
+
+        // Deux heures d'échantillons (toutes les 5 s) de 200 joueurs répartis sur la carte
+        long start = System.nanoTime();
+        int samples = 2 * 60 * 12;
+        for (int sample = 0; sample < samples; sample++) {
+            for (int i = 0; i < PLAYERS; i++) {
+                heatMap.add(ChunkHeatMap.pack(random.nextInt(-1_500, 1_500), random.nextInt(-750, 750)), 1f);
+            }
+        }
+        double addMillis = (System.nanoTime() - start) / 1e6;
+        int entries = heatMap.size();
+
+        start = System.nanoTime();
+        heatMap.decay(0.5f, 0.01f);
+        double decayMillis = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("Heatmap: %d ajouts en %.1f ms, décroissance de %d entrées en %.1f ms%n",
+                samples * PLAYERS, addMillis, entries, decayMillis);
+
+        assertEquals(entries, heatMap.size());
+        assertTrue(decayMillis < 2_000, "décroissance trop lente: " + decayMillis + " ms");
+    }
+}